@@ -0,0 +1,72 @@
+#!/usr/bin/env bash
+#
+# Runs the same calls through the REST API and the gRPC service and prints a throughput table.
+#
+# Requirements: a running MongoDB (docker compose up) unless PROFILE=in-memory, curl, hey
+# (https://github.com/rakyll/hey) and ghz (https://ghz.sh).
+#
+# Usage: scripts/compare-grpc-rest.sh
+#   PROFILE      Spring profiles to run with        (default: none)
+#   CONCURRENCY  concurrent clients per run         (default 200)
+#   DURATION     length of each run                 (default 30s)
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+PROFILE=${PROFILE:-}
+CONCURRENCY=${CONCURRENCY:-200}
+DURATION=${DURATION:-30s}
+BASE_URL="http://localhost:8085"
+GRPC_TARGET="localhost:9090"
+PROTO="src/main/proto/carbon_calculator.proto"
+SERVICE="carboncalc.v1.CarbonCalculator"
+
+./gradlew -q bootJar
+JAR=$(ls build/libs/*-SNAPSHOT.jar | grep -v plain | head -n 1)
+
+args=(--carbon-calc.admission.enabled=false)
+if [ -n "$PROFILE" ]; then
+  args+=(--spring.profiles.active="$PROFILE")
+fi
+
+java -jar "$JAR" "${args[@]}" > build/grpc-rest.log 2>&1 &
+pid=$!
+trap 'kill $pid 2> /dev/null || true' EXIT
+
+for _ in $(seq 1 60); do
+  if curl -sf "$BASE_URL/status/check" > /dev/null; then
+    break
+  fi
+  sleep 1
+done
+
+email="grpc-rest-$(date +%s%N)@email.com"
+id=$(curl -sf -X POST "$BASE_URL/open/start-calc" \
+  -H 'Content-Type: application/json' \
+  -d "{\"name\":\"Load Test\",\"email\":\"$email\",\"uf\":\"SP\",\"phoneNumber\":\"11999999999\"}" \
+  | sed -E 's/.*"id":"([^"]+)".*/\1/')
+
+rest_info="{\"id\":\"$id\",\"energyConsumption\":300,\"solidWasteTotal\":50,\"recyclePercentage\":0.3,\
+\"transportation\":[{\"type\":\"CAR\",\"monthlyDistance\":150}]}"
+grpc_info="{\"id\":\"$id\",\"info\":{\"energyConsumption\":300,\"solidWasteTotal\":50,\"recyclePercentage\":0.3,\
+\"transportation\":[{\"type\":\"CAR\",\"monthlyDistance\":150}]}}"
+
+rest_rps() {
+  hey -z "$DURATION" -c "$CONCURRENCY" "$@" | awk '/Requests\/sec/ { print $2 }'
+}
+
+grpc_rps() {
+  local method=$1 data=$2
+  ghz --insecure --proto "$PROTO" --call "$SERVICE/$method" -d "$data" \
+    -z "$DURATION" -c "$CONCURRENCY" "$GRPC_TARGET" | awk '/Requests\/sec/ { print $2 }'
+}
+
+rest_put=$(rest_rps -m PUT -T 'application/json' -d "$rest_info" "$BASE_URL/open/info")
+grpc_put=$(grpc_rps UpdateInfo "$grpc_info")
+rest_get=$(rest_rps "$BASE_URL/open/result/$id")
+grpc_get=$(grpc_rps GetResult "{\"id\":\"$id\"}")
+
+printf '\n%-12s %14s %14s\n' "call" "REST req/s" "gRPC req/s"
+printf '%-12s %14s %14s\n' "update info" "$rest_put" "$grpc_put"
+printf '%-12s %14s %14s\n' "get result" "$rest_get" "$grpc_get"
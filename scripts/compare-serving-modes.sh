@@ -0,0 +1,82 @@
+#!/usr/bin/env bash
+#
+# Runs the same load against each serving mode and prints a throughput table.
+#
+# Requirements: a running MongoDB (docker compose up), curl and hey
+# (https://github.com/rakyll/hey).
+#
+# Usage: scripts/compare-serving-modes.sh [profile ...]
+#   CONCURRENCY  concurrent clients per run        (default 200)
+#   DURATION     length of each run                (default 30s)
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+PROFILES=("$@")
+if [ ${#PROFILES[@]} -eq 0 ]; then
+  PROFILES=("default" "virtual-threads" "reactive")
+fi
+
+CONCURRENCY=${CONCURRENCY:-200}
+DURATION=${DURATION:-30s}
+BASE_URL="http://localhost:8085"
+
+./gradlew -q bootJar
+JAR=$(ls build/libs/*-SNAPSHOT.jar | grep -v plain | head -n 1)
+
+wait_for_startup() {
+  for _ in $(seq 1 60); do
+    if curl -sf "$BASE_URL/status/check" > /dev/null; then
+      return 0
+    fi
+    sleep 1
+  done
+  echo "application did not start" >&2
+  return 1
+}
+
+requests_per_second() {
+  hey -z "$DURATION" -c "$CONCURRENCY" "$@" | awk '/Requests\/sec/ { print $2 }'
+}
+
+results=()
+
+for profile in "${PROFILES[@]}"; do
+  # a single load generator would otherwise be rate limited as one client
+  if [ "$profile" = "default" ]; then
+    java -jar "$JAR" --carbon-calc.admission.enabled=false > "build/serving-mode-$profile.log" 2>&1 &
+  else
+    java -jar "$JAR" --spring.profiles.active="$profile" --carbon-calc.admission.enabled=false \
+      > "build/serving-mode-$profile.log" 2>&1 &
+  fi
+  pid=$!
+  trap 'kill $pid 2> /dev/null || true' EXIT
+
+  wait_for_startup
+
+  email="load-$profile-$(date +%s%N)@email.com"
+  id=$(curl -sf -X POST "$BASE_URL/open/start-calc" \
+    -H 'Content-Type: application/json' \
+    -d "{\"name\":\"Load Test\",\"email\":\"$email\",\"uf\":\"SP\",\"phoneNumber\":\"11999999999\"}" \
+    | sed -E 's/.*"id":"([^"]+)".*/\1/')
+
+  info="{\"id\":\"$id\",\"energyConsumption\":300,\"solidWasteTotal\":50,\"recyclePercentage\":0.3,\
+\"transportation\":[{\"type\":\"CAR\",\"monthlyDistance\":150}]}"
+
+  put_rps=$(requests_per_second -m PUT -T 'application/json' -d "$info" "$BASE_URL/open/info")
+  get_rps=$(requests_per_second "$BASE_URL/open/result/$id")
+  threads=$(ps -o nlwp= -p "$pid" | tr -d ' ')
+
+  results+=("$profile|$put_rps|$get_rps|$threads")
+
+  kill "$pid"
+  wait "$pid" 2> /dev/null || true
+  trap - EXIT
+done
+
+printf '\n%-16s %16s %16s %10s\n' "mode" "PUT info req/s" "GET result req/s" "threads"
+for row in "${results[@]}"; do
+  IFS='|' read -r profile put_rps get_rps threads <<< "$row"
+  printf '%-16s %16s %16s %10s\n' "$profile" "$put_rps" "$get_rps" "$threads"
+done
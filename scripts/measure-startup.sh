@@ -0,0 +1,96 @@
+#!/usr/bin/env bash
+#
+# Starts the application several times in each startup mode and prints a table with the startup time Spring reports
+# and the time from launch to the first answered request.
+#
+# Run through `./gradlew startupReport`, which builds the jar, the extracted AOT jar and its CDS archive first and
+# sets the paths below. The native image is measured too when `./gradlew nativeCompile` has built it.
+#
+# Requirements: a running MongoDB (docker compose up) and curl.
+#
+#   JAVA            java executable                       (default java)
+#   BOOT_JAR        jar built by bootJar
+#   FAST_START_JAR  jar extracted next to application.jsa
+#   NATIVE_IMAGE    native executable                     (optional)
+#   RUNS            starts per mode                       (default 5)
+#   APP_ARGS        extra application arguments, e.g. the profiles the AOT build was made for
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAVA=${JAVA:-java}
+RUNS=${RUNS:-5}
+read -r -a app_args <<< "${APP_ARGS:-}"
+BASE_URL="http://localhost:8085"
+ARCHIVE="$(dirname "$FAST_START_JAR")/application.jsa"
+
+now_millis() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# prints "<started in seconds> <first request ms>" for one start of the given command
+measure() {
+  local log=build/startup.log
+  local launched
+  launched=$(now_millis)
+
+  "$@" "${app_args[@]}" > "$log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2> /dev/null || true' EXIT
+
+  local answered=""
+  for _ in $(seq 1 3000); do
+    if curl -sf "$BASE_URL/status/check" > /dev/null 2>&1; then
+      answered=$(now_millis)
+      break
+    fi
+    if ! kill -0 "$pid" 2> /dev/null; then
+      break
+    fi
+    sleep 0.01
+  done
+
+  kill "$pid" 2> /dev/null || true
+  wait "$pid" 2> /dev/null || true
+  trap - EXIT
+
+  if [ -z "$answered" ]; then
+    echo "application did not start, see $log" >&2
+    return 1
+  fi
+
+  local started
+  started=$(sed -nE 's/.*Started .* in ([0-9.]+) seconds.*/\1/p' "$log" | head -n 1)
+  echo "${started:-?} $(( answered - launched ))"
+}
+
+results=()
+
+run_mode() {
+  local mode=$1
+  shift
+
+  local started_total=0 first_total=0
+  for _ in $(seq 1 "$RUNS"); do
+    local measured
+    measured=$(measure "$@")
+    read -r started first <<< "$measured"
+    started_total=$(echo "$started_total + $started" | bc)
+    first_total=$(( first_total + first ))
+  done
+
+  results+=("$mode|$(echo "scale=3; $started_total / $RUNS" | bc)|$(( first_total / RUNS ))")
+}
+
+run_mode "jar" "$JAVA" -jar "$BOOT_JAR"
+run_mode "aot + cds" "$JAVA" -XX:SharedArchiveFile="$ARCHIVE" -Dspring.aot.enabled=true -jar "$FAST_START_JAR"
+if [ -n "${NATIVE_IMAGE:-}" ] && [ -x "$NATIVE_IMAGE" ]; then
+  run_mode "native" "$NATIVE_IMAGE"
+fi
+
+printf '\n%-12s %14s %18s\n' "mode" "started in (s)" "first request (ms)"
+for row in "${results[@]}"; do
+  IFS='|' read -r mode started first <<< "$row"
+  printf '%-12s %14s %18s\n' "$mode" "$started" "$first"
+done
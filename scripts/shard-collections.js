@@ -0,0 +1,45 @@
+// Prepares a sharded cluster for the `sharded` profile, which does not create indexes on startup.
+//
+// Run once against a mongos, before starting the application:
+//   mongosh "mongodb://<mongos>:27017/carbon-calc" scripts/shard-collections.js
+//
+// Existing calculations keep their data; their emails are registered in emailRegistration on the next startup.
+
+const dbName = db.getName();
+
+sh.enableSharding(dbName);
+
+// carbonCalculation: hashed _id spreads ObjectId inserts over all shards. The hashed index only exists here, so
+// unsharded deployments do not maintain it. The unique normalizedEmail index cannot exist on a collection sharded
+// on another key, so EmailRegistry keeps emails unique instead.
+db.carbonCalculation.createIndex({ _id: "hashed" });
+db.carbonCalculation.createIndex({ _id: 1, version: 1 }, { name: "id_version" });
+db.carbonCalculation.createIndex({ sv: 1, _id: 1 }, { name: "sv_id" });
+if (db.carbonCalculation.getIndexes().some((index) => index.name === "normalizedEmail")) {
+  db.carbonCalculation.dropIndex("normalizedEmail");
+}
+sh.shardCollection(`${dbName}.carbonCalculation`, { _id: "hashed" });
+
+// emailRegistration: one document per normalized email, so the _id is unique on every shard.
+db.emailRegistration.createIndex({ _id: "hashed" });
+sh.shardCollection(`${dbName}.emailRegistration`, { _id: "hashed" });
+
+// calculationEvent: the unique version index must be prefixed by the shard key to stay enforceable.
+db.calculationEvent.createIndex({ calculationId: 1, version: 1 }, { name: "calculationId_version", unique: true });
+sh.shardCollection(`${dbName}.calculationEvent`, { calculationId: 1, version: 1 }, true);
+
+// idempotencyKey: looked up by key only.
+db.idempotencyKey.createIndex({ _id: "hashed" });
+db.idempotencyKey.createIndex({ expiresAt: 1 }, { name: "expiresAt", expireAfterSeconds: 0 });
+sh.shardCollection(`${dbName}.idempotencyKey`, { _id: "hashed" });
+
+// monthlyEmission: a time series, created here with the same options as MonthlyEmissionPoint. Sharding on the
+// calculation keeps the history of one person, and so each trend read, on one shard.
+if (!db.getCollectionNames().includes("monthlyEmission")) {
+  db.createCollection("monthlyEmission", {
+    timeseries: { timeField: "recordedAt", metaField: "meta", granularity: "hours" },
+  });
+}
+sh.shardCollection(`${dbName}.monthlyEmission`, { "meta.calculationId": 1 });
+
+// emission factors, ufEmissionRollup and monthlyUfRollup are small and stay unsharded on the primary shard.
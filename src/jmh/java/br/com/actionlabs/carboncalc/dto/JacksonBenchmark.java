@@ -0,0 +1,56 @@
+package br.com.actionlabs.carboncalc.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JacksonBenchmark {
+
+    private static final String UPDATE_INFO_JSON = """
+            {
+              "id": "6710f2a51c9d440000a1b2c3",
+              "energyConsumption": 300,
+              "transportation": [
+                { "type": "CAR", "monthlyDistance": 150 },
+                { "type": "PUBLIC_TRANSPORT", "monthlyDistance": 200 },
+                { "type": "BICYCLE", "monthlyDistance": 40 }
+              ],
+              "solidWasteTotal": 50,
+              "recyclePercentage": 0.3
+            }
+            """;
+
+    private ObjectReader reader;
+    private ObjectWriter writer;
+    private byte[] json;
+    private UpdateCalcInfoRequestDTO request;
+
+    @Setup
+    public void setUp() throws IOException {
+        // same defaults as the ObjectMapper Spring Boot hands to the MVC message converters
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        reader = objectMapper.readerFor(UpdateCalcInfoRequestDTO.class);
+        writer = objectMapper.writerFor(UpdateCalcInfoRequestDTO.class);
+        json = UPDATE_INFO_JSON.getBytes();
+        request = reader.readValue(json);
+    }
+
+    @Benchmark
+    public UpdateCalcInfoRequestDTO deserializeUpdateCalcInfoRequest() throws IOException {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public byte[] serializeUpdateCalcInfoRequest() throws IOException {
+        return writer.writeValueAsBytes(request);
+    }
+}
@@ -0,0 +1,105 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.dto.TransportationDTO;
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes one calculation in the reflective version 1 layout and in the {@link CalculationSchema}
+ * version 2 one, down to BSON bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CalculationSchemaBenchmark {
+
+    private final DocumentCodec codec = new DocumentCodec();
+
+    private MappingMongoConverter reflectiveConverter;
+    private CarbonCalculation calculation;
+    private byte[] version1;
+    private byte[] version2;
+
+    @Setup
+    public void setUp() {
+        reflectiveConverter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        reflectiveConverter.afterPropertiesSet();
+
+        calculation = new CarbonCalculation();
+        calculation.setId("6710f2a51c9d440000a1b2c3");
+        calculation.setName("João Silva");
+        calculation.setEmail("joao@email.com");
+        calculation.setNormalizedEmail("joao@email.com");
+        calculation.setPhoneNumber("11999999999");
+        calculation.setUf("SP");
+        calculation.setEnergyConsumption(300);
+        calculation.setTransportation(List.of(
+                transportation(TransportationType.CAR, 150),
+                transportation(TransportationType.PUBLIC_TRANSPORT, 200),
+                transportation(TransportationType.BICYCLE, 40)));
+        calculation.setSolidWasteProduction(50);
+        calculation.setRecyclePercentage(0.3);
+        calculation.setEnergyEmission(141.0);
+        calculation.setTransportationEmission(43.8);
+        calculation.setSolidWasteEmission(39.5);
+        calculation.setTotalEmission(224.3);
+        calculation.setVersion(3);
+
+        version1 = writeVersion1();
+        version2 = writeVersion2();
+    }
+
+    @Benchmark
+    public byte[] writeVersion1() {
+        Document document = new Document();
+        reflectiveConverter.write(calculation, document);
+        return encode(document);
+    }
+
+    @Benchmark
+    public byte[] writeVersion2() {
+        return encode(CalculationSchema.write(calculation));
+    }
+
+    @Benchmark
+    public CarbonCalculation readVersion1() {
+        return reflectiveConverter.read(CarbonCalculation.class, decode(version1));
+    }
+
+    @Benchmark
+    public CarbonCalculation readVersion2() {
+        return CalculationSchema.read(decode(version2));
+    }
+
+    private byte[] encode(Document document) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        codec.encode(new BsonBinaryWriter(buffer), document, EncoderContext.builder().build());
+        return buffer.toByteArray();
+    }
+
+    private Document decode(byte[] bson) {
+        return codec.decode(new BsonBinaryReader(ByteBuffer.wrap(bson)), DecoderContext.builder().build());
+    }
+
+    private static TransportationDTO transportation(TransportationType type, int monthlyDistance) {
+        TransportationDTO transportation = new TransportationDTO();
+        transportation.setType(type);
+        transportation.setMonthlyDistance(monthlyDistance);
+        return transportation;
+    }
+}
@@ -0,0 +1,100 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.dto.CarbonCalculationResultDTO;
+import br.com.actionlabs.carboncalc.dto.TransportationDTO;
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.model.EnergyEmissionFactor;
+import br.com.actionlabs.carboncalc.model.SolidWasteEmissionFactor;
+import br.com.actionlabs.carboncalc.model.TransportationEmissionFactor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CalculationBenchmark {
+
+    private CarbonCalculationService carbonCalculationService;
+    private CarbonCalculation carbonCalculation;
+
+    @Setup
+    public void setUp() {
+        EmissionFactorSnapshot emissionFactors = emissionFactors();
+        EmissionFactorCatalog emissionFactorCatalog = new EmissionFactorCatalog(null, null, null) {
+            @Override
+            public EmissionFactorSnapshot current() {
+                return emissionFactors;
+            }
+        };
+
+        carbonCalculationService = new CarbonCalculationService(
+                null, emissionFactorCatalog, null, null, null,
+                new CalculationPhaseMetrics(new SimpleMeterRegistry()), null, null, null, null, null, null);
+
+        carbonCalculation = new CarbonCalculation();
+        carbonCalculation.setUf("SP");
+        carbonCalculation.setEnergyConsumption(300);
+        carbonCalculation.setSolidWasteProduction(50);
+        carbonCalculation.setRecyclePercentage(0.3);
+        carbonCalculation.setTransportation(List.of(
+                transportation(TransportationType.CAR, 150),
+                transportation(TransportationType.PUBLIC_TRANSPORT, 200),
+                transportation(TransportationType.BICYCLE, 40)));
+        carbonCalculationService.calculateEmissionFactor(carbonCalculation);
+    }
+
+    @Benchmark
+    public CarbonCalculation calculateEmissionFactor() {
+        carbonCalculationService.calculateEmissionFactor(carbonCalculation);
+        return carbonCalculation;
+    }
+
+    @Benchmark
+    public double getTotalSolidWasteEmission() {
+        return CarbonCalculationService.getTotalSolidWasteEmission(
+                carbonCalculation, carbonCalculation.getRecyclePercentage(), 0.42, 0.94);
+    }
+
+    @Benchmark
+    public CarbonCalculationResultDTO resultRounding() {
+        return CarbonCalculationService.toResultDTO(carbonCalculation);
+    }
+
+    private static EmissionFactorSnapshot emissionFactors() {
+        EnergyEmissionFactor energyFactor = new EnergyEmissionFactor();
+        energyFactor.setUf("SP");
+        energyFactor.setFactor(0.47);
+
+        SolidWasteEmissionFactor solidWasteFactor = new SolidWasteEmissionFactor();
+        solidWasteFactor.setUf("SP");
+        solidWasteFactor.setRecyclableFactor(0.42);
+        solidWasteFactor.setNonRecyclableFactor(0.94);
+
+        return EmissionFactorSnapshot.of(
+                List.of(energyFactor),
+                List.of(solidWasteFactor),
+                List.of(
+                        transportationFactor(TransportationType.CAR, 0.19),
+                        transportationFactor(TransportationType.MOTORCYCLE, 0.09),
+                        transportationFactor(TransportationType.PUBLIC_TRANSPORT, 0.04),
+                        transportationFactor(TransportationType.BICYCLE, 0.0)));
+    }
+
+    private static TransportationEmissionFactor transportationFactor(TransportationType type, double factor) {
+        TransportationEmissionFactor transportationFactor = new TransportationEmissionFactor();
+        transportationFactor.setType(type);
+        transportationFactor.setFactor(factor);
+        return transportationFactor;
+    }
+
+    private static TransportationDTO transportation(TransportationType type, int distance) {
+        TransportationDTO dto = new TransportationDTO();
+        dto.setType(type);
+        dto.setMonthlyDistance(distance);
+        return dto;
+    }
+}
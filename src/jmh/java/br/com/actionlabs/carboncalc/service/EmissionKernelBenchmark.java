@@ -0,0 +1,44 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmissionKernelBenchmark {
+
+    @Param({"1000", "100000"})
+    private int scenarios;
+
+    private EmissionBatch batch;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        batch = new EmissionBatch(scenarios);
+        for (int row = 0; row < scenarios; row++) {
+            batch.setEnergy(row, random.nextInt(1000), 0.47);
+            batch.setSolidWaste(row, random.nextInt(100), random.nextDouble(), 0.42, 0.94);
+            batch.addDistance(row, TransportationType.CAR, random.nextInt(500));
+            batch.addDistance(row, TransportationType.PUBLIC_TRANSPORT, random.nextInt(500));
+        }
+        batch.setTransportationFactor(TransportationType.CAR, 0.19);
+        batch.setTransportationFactor(TransportationType.PUBLIC_TRANSPORT, 0.04);
+    }
+
+    @Benchmark
+    public EmissionBatch sequential() {
+        EmissionKernel.compute(batch, Integer.MAX_VALUE);
+        return batch;
+    }
+
+    @Benchmark
+    public EmissionBatch forkJoin() {
+        EmissionKernel.compute(batch, 4096);
+        return batch;
+    }
+}
@@ -0,0 +1,59 @@
+package br.com.actionlabs.carboncalc.utils;
+
+import br.com.actionlabs.carboncalc.dto.StartCalcRequestDTO;
+import br.com.actionlabs.carboncalc.dto.TransportationDTO;
+import br.com.actionlabs.carboncalc.dto.UpdateCalcInfoRequestDTO;
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidatorBenchmark {
+
+    @Param({"valid", "invalid"})
+    public String input;
+
+    private final CalculationRequestValidator calculationRequestValidator = new CalculationRequestValidator();
+
+    private StartCalcRequestDTO startCalcRequest;
+    private UpdateCalcInfoRequestDTO updateCalcInfoRequest;
+
+    @Setup
+    public void setUp() {
+        boolean valid = "valid".equals(input);
+
+        startCalcRequest = new StartCalcRequestDTO();
+        startCalcRequest.setEmail(valid ? "joao.silva@email.com.br" : "joao.silva@email");
+        startCalcRequest.setPhoneNumber(valid ? "11999999999" : "1199999999a");
+        startCalcRequest.setUf(valid ? "SP" : "sp");
+        startCalcRequest.setName(valid ? "João Silva" : "Jo");
+
+        TransportationDTO car = new TransportationDTO();
+        car.setType(TransportationType.CAR);
+        car.setMonthlyDistance(150);
+
+        updateCalcInfoRequest = new UpdateCalcInfoRequestDTO();
+        updateCalcInfoRequest.setId("12345");
+        updateCalcInfoRequest.setRecyclePercentage(valid ? 0.3 : 1.5);
+        updateCalcInfoRequest.setTransportation(List.of(car));
+    }
+
+    @Benchmark
+    public ValidationResult startCalcRequest() {
+        return calculationRequestValidator.validate(startCalcRequest);
+    }
+
+    @Benchmark
+    public ValidationResult updateCalcInfoRequest() {
+        return calculationRequestValidator.validate(updateCalcInfoRequest);
+    }
+
+    @Benchmark
+    public String email() {
+        return CalculationRequestValidator.isEmail(startCalcRequest.getEmail()) ? null : "invalid";
+    }
+}
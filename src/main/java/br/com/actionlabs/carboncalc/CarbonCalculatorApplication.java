@@ -1,9 +1,14 @@
 package br.com.actionlabs.carboncalc;
 
+import br.com.actionlabs.carboncalc.config.CarbonCalcRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(CarbonCalcRuntimeHints.class)
 public class CarbonCalculatorApplication {
 
 	public static void main(String[] args) {
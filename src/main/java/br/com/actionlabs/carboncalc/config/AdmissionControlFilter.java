@@ -0,0 +1,165 @@
+package br.com.actionlabs.carboncalc.config;
+
+import br.com.actionlabs.carboncalc.dto.ErrorResponseDTO;
+import br.com.actionlabs.carboncalc.utils.AdaptiveConcurrencyLimit;
+import br.com.actionlabs.carboncalc.utils.GcraRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sheds load on {@code /open/**} before it queues up: every client is rate limited, and every endpoint runs at
+ * most as many requests at once as its {@link AdaptiveConcurrencyLimit} allows, which shrinks when requests get
+ * slower than the latency target. Rejected requests get an immediate 429 with {@code Retry-After}.
+ */
+@Component
+@Profile("!reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "carbon-calc.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+  private static final String OPEN_PREFIX = "/open/";
+
+  // streams the whole collection, so its latency says nothing about congestion
+  private static final String UNLIMITED_ENDPOINT = "export";
+
+  private static final long CONCURRENCY_RETRY_AFTER_SECONDS = 1;
+
+  private final GcraRateLimiter rateLimiter;
+  private final ObjectMapper objectMapper;
+  private final MeterRegistry meterRegistry;
+
+  private final int initialLimit;
+  private final int minLimit;
+  private final int maxLimit;
+  private final Duration latencyTarget;
+  private final double backoffRatio;
+
+  private final ConcurrentMap<String, AdaptiveConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+  public AdmissionControlFilter(
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry,
+      @Value("${carbon-calc.admission.concurrency.initial-limit:100}") int initialLimit,
+      @Value("${carbon-calc.admission.concurrency.min-limit:10}") int minLimit,
+      @Value("${carbon-calc.admission.concurrency.max-limit:1000}") int maxLimit,
+      @Value("${carbon-calc.admission.concurrency.latency-target:250ms}") Duration latencyTarget,
+      @Value("${carbon-calc.admission.concurrency.backoff-ratio:0.9}") double backoffRatio,
+      @Value("${carbon-calc.admission.rate-limit.permits-per-second:50}") double permitsPerSecond,
+      @Value("${carbon-calc.admission.rate-limit.burst:100}") int burst,
+      @Value("${carbon-calc.admission.rate-limit.maximum-clients:100000}") long maximumClients) {
+    this.objectMapper = objectMapper;
+    this.meterRegistry = meterRegistry;
+    this.initialLimit = initialLimit;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.latencyTarget = latencyTarget;
+    this.backoffRatio = backoffRatio;
+    this.rateLimiter = new GcraRateLimiter(permitsPerSecond, burst, maximumClients);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !request.getRequestURI().startsWith(OPEN_PREFIX);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    String endpoint = endpointOf(request.getRequestURI());
+
+    long waitNanos = rateLimiter.tryAcquire(request.getRemoteAddr(), System.nanoTime());
+    if (waitNanos > 0) {
+      reject(response, endpoint, "rate-limit", Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1),
+          "Too many requests from this client");
+      return;
+    }
+
+    if (UNLIMITED_ENDPOINT.equals(endpoint)) {
+      chain.doFilter(request, response);
+      return;
+    }
+
+    AdaptiveConcurrencyLimit limit = limits.computeIfAbsent(endpoint, this::newLimit);
+    if (!limit.tryAcquire()) {
+      reject(response, endpoint, "concurrency", CONCURRENCY_RETRY_AFTER_SECONDS,
+          "The server is busy, please retry later");
+      return;
+    }
+
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      chain.doFilter(request, response);
+      failed = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+    } finally {
+      limit.release(System.nanoTime() - start, failed);
+    }
+  }
+
+  /**
+   * Groups paths by endpoint, e.g. {@code /open/result/123} is {@code result} and {@code /open/bulk/info} is
+   * {@code bulk/info}.
+   */
+  static String endpointOf(String uri) {
+    String path = uri.substring(OPEN_PREFIX.length());
+
+    int end = path.indexOf('/');
+    if (end > 0 && path.startsWith("bulk/")) {
+      end = path.indexOf('/', end + 1);
+    }
+    return end < 0 ? path : path.substring(0, end);
+  }
+
+  private AdaptiveConcurrencyLimit newLimit(String endpoint) {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit,
+        latencyTarget.toNanos(), backoffRatio);
+
+    Gauge.builder("carbon.admission.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+        .description("Current concurrency limit of an open endpoint")
+        .tag("endpoint", endpoint)
+        .register(meterRegistry);
+    Gauge.builder("carbon.admission.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+        .description("Requests running on an open endpoint")
+        .tag("endpoint", endpoint)
+        .register(meterRegistry);
+
+    return limit;
+  }
+
+  private void reject(HttpServletResponse response, String endpoint, String reason, long retryAfterSeconds,
+                      String message) throws IOException {
+    Counter.builder("carbon.admission.rejected")
+        .description("Requests shed by admission control")
+        .tag("endpoint", endpoint)
+        .tag("reason", reason)
+        .register(meterRegistry)
+        .increment();
+
+    response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    objectMapper.writeValue(response.getOutputStream(), new ErrorResponseDTO(false, message));
+  }
+}
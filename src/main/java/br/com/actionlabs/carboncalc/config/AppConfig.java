@@ -2,12 +2,15 @@ package br.com.actionlabs.carboncalc.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
+@Profile("!reactive")
 public class AppConfig implements WebMvcConfigurer {
 
   @Bean
@@ -18,13 +21,18 @@ public class AppConfig implements WebMvcConfigurer {
                         "/login/**",
                         "/open/**",
                         "/status/**",
+                        "/actuator/health",
                         "/swagger-ui/**",
                         "swagger-ui.html",
                         "/v3/api-docs/**",
                         "/error")
                     .permitAll()
+                    // scraped with the spring.security.user credentials
+                    .requestMatchers("/actuator/prometheus")
+                    .hasRole("METRICS")
                     .anyRequest()
                     .authenticated())
+        .httpBasic(Customizer.withDefaults())
         .csrf(AbstractHttpConfigurer::disable);
 
     return http.build();
@@ -0,0 +1,43 @@
+package br.com.actionlabs.carboncalc.config;
+
+import br.com.actionlabs.carboncalc.dto.StartCalcRequestDTO;
+import br.com.actionlabs.carboncalc.enums.Uf;
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+
+/**
+ * Reflection hints for the AOT and native builds. Mongo documents, DTOs and enums are also bound outside of what
+ * Spring infers from the repositories and controllers: aggregation results, the write-behind journal and the
+ * idempotent responses stored as JSON. Runs at build time, so scanning the packages costs nothing at startup.
+ */
+public class CarbonCalcRuntimeHints implements RuntimeHintsRegistrar {
+
+  private static final List<String> BOUND_PACKAGES = List.of(
+      ClassUtils.getPackageName(CarbonCalculation.class),
+      ClassUtils.getPackageName(StartCalcRequestDTO.class),
+      ClassUtils.getPackageName(Uf.class));
+
+  private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+  @Override
+  public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+    ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+    scanner.addIncludeFilter((metadataReader, metadataReaderFactory) -> true);
+    scanner.setResourceLoader(new DefaultResourceLoader(classLoader));
+
+    for (String boundPackage : BOUND_PACKAGES) {
+      for (BeanDefinition candidate : scanner.findCandidateComponents(boundPackage)) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(),
+            ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader));
+      }
+    }
+  }
+}
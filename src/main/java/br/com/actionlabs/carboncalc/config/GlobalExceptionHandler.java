@@ -1,7 +1,9 @@
 package br.com.actionlabs.carboncalc.config;
 
 import br.com.actionlabs.carboncalc.dto.ErrorResponseDTO;
+import br.com.actionlabs.carboncalc.dto.ValidationErrorResponseDTO;
 import br.com.actionlabs.carboncalc.exceptions.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -22,6 +24,32 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorResponseDTO> handleConflict(
+            ConflictException ex) {
+
+        ErrorResponseDTO error = new ErrorResponseDTO(
+                false,
+                ex.getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponseDTO> handleServiceUnavailable(
+            ServiceUnavailableException ex) {
+
+        ErrorResponseDTO error = new ErrorResponseDTO(
+                false,
+                ex.getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfter().toSeconds()))
+                .body(error);
+    }
+
     @ExceptionHandler(BadRequestException.class)
     public ResponseEntity<ErrorResponseDTO> handleBadRequest(
             BadRequestException ex) {
@@ -34,4 +62,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    @ExceptionHandler(RequestValidationException.class)
+    public ResponseEntity<ValidationErrorResponseDTO> handleRequestValidation(
+            RequestValidationException ex) {
+
+        ValidationErrorResponseDTO error = new ValidationErrorResponseDTO(
+                false,
+                ex.getMessage(),
+                ex.getResult().getErrors()
+        );
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
 }
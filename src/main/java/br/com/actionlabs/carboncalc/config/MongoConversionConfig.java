@@ -0,0 +1,22 @@
+package br.com.actionlabs.carboncalc.config;
+
+import br.com.actionlabs.carboncalc.repository.CalculationSchema;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.util.List;
+
+/**
+ * Reads calculations through {@link CalculationSchema}, for the blocking and reactive templates alike.
+ */
+@Configuration
+@Profile("!in-memory")
+public class MongoConversionConfig {
+
+  @Bean
+  public MongoCustomConversions mongoCustomConversions() {
+    return new MongoCustomConversions(List.of(CalculationSchema.DocumentToCalculation.INSTANCE));
+  }
+}
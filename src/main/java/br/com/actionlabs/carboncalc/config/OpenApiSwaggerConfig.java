@@ -3,10 +3,14 @@ package br.com.actionlabs.carboncalc.config;
 import io.swagger.v3.oas.models.Paths;
 import org.springdoc.core.customizers.OpenApiCustomizer;
 import org.springdoc.core.models.GroupedOpenApi;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.core.env.Environment;
 
 import java.util.Comparator;
@@ -14,7 +18,11 @@ import java.util.TreeMap;
 
 
 @Configuration
+@Lazy
 public class OpenApiSwaggerConfig {
+
+  private static final String SPRINGDOC_PACKAGE = "org.springdoc.";
+
   @Value("${server.version}")
   private String version;
   @Autowired
@@ -29,6 +37,31 @@ public class OpenApiSwaggerConfig {
         .build();
   }
 
+  /**
+   * Creates the springdoc beans, and with them the scan of every controller, on the first request for the docs or
+   * the swagger UI instead of on startup. Their endpoints are still mapped eagerly.
+   */
+  @Bean
+  public static BeanFactoryPostProcessor lazyApiDocs() {
+    return beanFactory -> {
+      for (String name : beanFactory.getBeanDefinitionNames()) {
+        BeanDefinition definition = beanFactory.getBeanDefinition(name);
+        if (isSpringdoc(definition)) {
+          definition.setLazyInit(true);
+        }
+      }
+    };
+  }
+
+  private static boolean isSpringdoc(BeanDefinition definition) {
+    String className = definition.getBeanClassName();
+    if (className == null && definition instanceof AnnotatedBeanDefinition annotated
+        && annotated.getFactoryMethodMetadata() != null) {
+      className = annotated.getFactoryMethodMetadata().getDeclaringClassName();
+    }
+    return className != null && className.startsWith(SPRINGDOC_PACKAGE);
+  }
+
   private OpenApiCustomizer sortPathsAlphabetically() {
     return openApi -> {
       TreeMap<String, io.swagger.v3.oas.models.PathItem> sortedPaths = new TreeMap<>(Comparator.naturalOrder());
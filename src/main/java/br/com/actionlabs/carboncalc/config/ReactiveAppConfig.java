@@ -0,0 +1,35 @@
+package br.com.actionlabs.carboncalc.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+@Configuration
+@Profile("reactive")
+public class ReactiveAppConfig {
+
+  @Bean
+  public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    http.authorizeExchange(
+            exchanges ->
+                exchanges.pathMatchers(
+                        "/login/**",
+                        "/open/**",
+                        "/status/**",
+                        "/actuator/health",
+                        "/error")
+                    .permitAll()
+                    // scraped with the spring.security.user credentials
+                    .pathMatchers("/actuator/prometheus")
+                    .hasRole("METRICS")
+                    .anyExchange()
+                    .authenticated())
+        .httpBasic(Customizer.withDefaults())
+        .csrf(ServerHttpSecurity.CsrfSpec::disable);
+
+    return http.build();
+  }
+}
@@ -0,0 +1,98 @@
+package br.com.actionlabs.carboncalc.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams JFR {@code jdk.VirtualThreadPinned} events while virtual threads are enabled, so that blocking
+ * calls made while holding a monitor (Mongo driver, security filters, our own code) show up in the logs.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements MeterBinder {
+
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final int MAX_REPORTED_FRAMES = 12;
+
+  private final Duration threshold;
+  private final AtomicLong pinnedEvents = new AtomicLong();
+
+  private RecordingStream recordingStream;
+
+  public VirtualThreadPinningMonitor(
+      @Value("${carbon-calc.virtual-threads.pinning-threshold:20ms}") Duration threshold) {
+    this.threshold = threshold;
+  }
+
+  @PostConstruct
+  public void start() {
+    recordingStream = new RecordingStream();
+    recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+    recordingStream.onEvent(PINNED_EVENT, this::report);
+    recordingStream.startAsync();
+
+    log.info("Reporting virtual threads pinned for longer than {} ms", threshold.toMillis());
+  }
+
+  @PreDestroy
+  public void stop() {
+    recordingStream.close();
+  }
+
+  public long getPinnedEvents() {
+    return pinnedEvents.get();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("jvm.threads.virtual.pinned", pinnedEvents, AtomicLong::get)
+        .description("Virtual threads pinned to their carrier for longer than the reporting threshold")
+        .register(registry);
+  }
+
+  private void report(RecordedEvent event) {
+    long count = pinnedEvents.incrementAndGet();
+
+    log.warn("Virtual thread pinned its carrier for {} ms (event #{}):{}",
+        event.getDuration().toMillis(), count, format(event.getStackTrace()));
+  }
+
+  private static String format(RecordedStackTrace stackTrace) {
+    if (stackTrace == null) {
+      return " no stack trace";
+    }
+
+    StringBuilder frames = new StringBuilder();
+    int reported = 0;
+    for (RecordedFrame frame : stackTrace.getFrames()) {
+      if (reported++ == MAX_REPORTED_FRAMES) {
+        frames.append(System.lineSeparator()).append("\t...");
+        break;
+      }
+      frames.append(System.lineSeparator())
+          .append("\tat ")
+          .append(frame.getMethod().getType().getName())
+          .append('.')
+          .append(frame.getMethod().getName())
+          .append(':')
+          .append(frame.getLineNumber());
+    }
+    return frames.toString();
+  }
+}
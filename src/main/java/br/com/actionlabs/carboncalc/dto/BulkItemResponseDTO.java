@@ -0,0 +1,27 @@
+package br.com.actionlabs.carboncalc.dto;
+
+import lombok.Data;
+
+@Data
+public class BulkItemResponseDTO<T> {
+  private int index;
+  private boolean success;
+  private T data;
+  private String message;
+
+  public static <T> BulkItemResponseDTO<T> success(int index, T data) {
+    BulkItemResponseDTO<T> item = new BulkItemResponseDTO<>();
+    item.setIndex(index);
+    item.setSuccess(true);
+    item.setData(data);
+    return item;
+  }
+
+  public static <T> BulkItemResponseDTO<T> failure(int index, String message) {
+    BulkItemResponseDTO<T> item = new BulkItemResponseDTO<>();
+    item.setIndex(index);
+    item.setSuccess(false);
+    item.setMessage(message);
+    return item;
+  }
+}
@@ -0,0 +1,11 @@
+package br.com.actionlabs.carboncalc.dto;
+
+public record CacheStatsDTO(
+        String name,
+        long size,
+        long hitCount,
+        long missCount,
+        double hitRate,
+        long evictionCount
+) {
+}
@@ -0,0 +1,12 @@
+package br.com.actionlabs.carboncalc.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class CalculationHistoryEntryDTO {
+  private long version;
+  private Instant recordedAt;
+  private CarbonCalculationResultDTO result;
+}
@@ -1,5 +1,6 @@
 package br.com.actionlabs.carboncalc.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 @Data
@@ -8,4 +9,10 @@ public class CarbonCalculationResultDTO {
   private double transportation;
   private double solidWaste;
   private double total;
+
+  // share of calculations with a lower total, in the same UF and nationally; only on GET /open/result
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Double percentile;
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Double nationalPercentile;
 }
@@ -0,0 +1,7 @@
+package br.com.actionlabs.carboncalc.dto;
+
+public record FieldErrorDTO(
+        String field,
+        String message
+) {
+}
@@ -0,0 +1,16 @@
+package br.com.actionlabs.carboncalc.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.time.YearMonth;
+
+@Data
+public class MonthlyEmissionDTO {
+  private YearMonth month;
+  private CarbonCalculationResultDTO result;
+
+  // result minus that of the same month a year before; absent when there was no footprint then
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private CarbonCalculationResultDTO yearOverYearDelta;
+}
@@ -0,0 +1,14 @@
+package br.com.actionlabs.carboncalc.dto;
+
+import lombok.Data;
+
+import java.time.YearMonth;
+
+@Data
+public class MonthlyUfRollupDTO {
+  private YearMonth month;
+  private String uf;
+  private long count;
+  private CarbonCalculationResultDTO total;
+  private CarbonCalculationResultDTO average;
+}
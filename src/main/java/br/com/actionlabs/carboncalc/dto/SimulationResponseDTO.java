@@ -0,0 +1,10 @@
+package br.com.actionlabs.carboncalc.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class SimulationResponseDTO {
+  private List<CarbonCalculationResultDTO> results;
+}
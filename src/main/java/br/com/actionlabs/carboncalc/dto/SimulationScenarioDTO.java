@@ -0,0 +1,14 @@
+package br.com.actionlabs.carboncalc.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class SimulationScenarioDTO {
+  private String uf;
+  private double energyConsumption;
+  private List<TransportationDTO> transportation;
+  private double solidWasteTotal;
+  private double recyclePercentage;
+}
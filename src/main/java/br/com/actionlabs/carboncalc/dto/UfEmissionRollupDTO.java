@@ -0,0 +1,11 @@
+package br.com.actionlabs.carboncalc.dto;
+
+import lombok.Data;
+
+@Data
+public class UfEmissionRollupDTO {
+  private String uf;
+  private long count;
+  private CarbonCalculationResultDTO total;
+  private CarbonCalculationResultDTO average;
+}
@@ -5,4 +5,6 @@ import lombok.Data;
 @Data
 public class UpdateCalcInfoResponseDTO {
   private boolean success;
+  private Long version;
+  private CarbonCalculationResultDTO result;
 }
@@ -0,0 +1,10 @@
+package br.com.actionlabs.carboncalc.dto;
+
+import java.util.List;
+
+public record ValidationErrorResponseDTO(
+        boolean success,
+        String message,
+        List<FieldErrorDTO> errors
+) {
+}
@@ -0,0 +1,33 @@
+package br.com.actionlabs.carboncalc.enums;
+
+import br.com.actionlabs.carboncalc.exceptions.InvalidExportFormatException;
+
+public enum ExportFormat {
+  NDJSON("application/x-ndjson", "ndjson"),
+  CSV("text/csv", "csv");
+
+  private final String contentType;
+  private final String fileExtension;
+
+  ExportFormat(String contentType, String fileExtension) {
+    this.contentType = contentType;
+    this.fileExtension = fileExtension;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  public String getFileExtension() {
+    return fileExtension;
+  }
+
+  public static ExportFormat fromValue(String value) {
+    for (ExportFormat format : values()) {
+      if (format.name().equalsIgnoreCase(value)) {
+        return format;
+      }
+    }
+    throw new InvalidExportFormatException(value);
+  }
+}
@@ -0,0 +1,51 @@
+package br.com.actionlabs.carboncalc.enums;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public enum Uf {
+  AC,
+  AL,
+  AM,
+  AP,
+  BA,
+  CE,
+  DF,
+  ES,
+  GO,
+  MA,
+  MT,
+  MS,
+  MG,
+  PA,
+  PB,
+  PE,
+  PI,
+  PR,
+  RJ,
+  RN,
+  RO,
+  RR,
+  RS,
+  SC,
+  SE,
+  SP,
+  TO;
+
+  private static final Map<String, Uf> BY_CODE = new HashMap<>();
+
+  static {
+    for (Uf uf : values()) {
+      BY_CODE.put(uf.name(), uf);
+    }
+  }
+
+  public static Uf fromCode(String code) {
+    return code == null ? null : BY_CODE.get(code);
+  }
+
+  public static int indexOf(String code) {
+    Uf uf = fromCode(code);
+    return uf == null ? -1 : uf.ordinal();
+  }
+}
@@ -4,4 +4,8 @@ public abstract class BadRequestException extends RuntimeException{
     protected BadRequestException(String message) {
         super(message);
     }
+
+    protected BadRequestException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
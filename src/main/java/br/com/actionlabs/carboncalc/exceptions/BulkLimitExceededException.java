@@ -0,0 +1,7 @@
+package br.com.actionlabs.carboncalc.exceptions;
+
+public class BulkLimitExceededException extends BadRequestException {
+    public BulkLimitExceededException(int limit) {
+        super("A bulk request accepts at most " + limit + " items");
+    }
+}
@@ -0,0 +1,9 @@
+package br.com.actionlabs.carboncalc.exceptions;
+
+import java.time.Duration;
+
+public class CalculationNotPersistedException extends ServiceUnavailableException {
+    public CalculationNotPersistedException(String id, Duration retryAfter, Throwable cause) {
+        super("Carbon Calculation " + id + " is not stored yet", retryAfter, cause);
+    }
+}
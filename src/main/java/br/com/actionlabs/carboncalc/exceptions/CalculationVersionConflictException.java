@@ -0,0 +1,7 @@
+package br.com.actionlabs.carboncalc.exceptions;
+
+public class CalculationVersionConflictException extends ConflictException {
+    public CalculationVersionConflictException(String id, long expectedVersion) {
+        super("Carbon Calculation " + id + " is no longer at version " + expectedVersion);
+    }
+}
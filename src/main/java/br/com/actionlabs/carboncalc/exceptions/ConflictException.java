@@ -0,0 +1,7 @@
+package br.com.actionlabs.carboncalc.exceptions;
+
+public abstract class ConflictException extends RuntimeException{
+    protected ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package br.com.actionlabs.carboncalc.exceptions;
+
+public class DuplicateBulkIdException extends BadRequestException {
+    public DuplicateBulkIdException(String id) {
+        super("Carbon Calculation id appears more than once in the bulk request: " + id);
+    }
+}
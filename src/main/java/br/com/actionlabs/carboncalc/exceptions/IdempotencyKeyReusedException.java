@@ -0,0 +1,7 @@
+package br.com.actionlabs.carboncalc.exceptions;
+
+public class IdempotencyKeyReusedException extends BadRequestException {
+    public IdempotencyKeyReusedException(String key) {
+        super("Idempotency-Key " + key + " was already used for a different request");
+    }
+}
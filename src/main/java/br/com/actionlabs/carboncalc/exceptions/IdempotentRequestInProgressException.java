@@ -0,0 +1,7 @@
+package br.com.actionlabs.carboncalc.exceptions;
+
+public class IdempotentRequestInProgressException extends ConflictException {
+    public IdempotentRequestInProgressException(String key) {
+        super("A request with Idempotency-Key " + key + " is still in progress");
+    }
+}
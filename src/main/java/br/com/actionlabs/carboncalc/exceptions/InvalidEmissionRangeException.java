@@ -0,0 +1,7 @@
+package br.com.actionlabs.carboncalc.exceptions;
+
+public class InvalidEmissionRangeException extends BadRequestException {
+    public InvalidEmissionRangeException() {
+        super("minTotalEmission must not be greater than maxTotalEmission");
+    }
+}
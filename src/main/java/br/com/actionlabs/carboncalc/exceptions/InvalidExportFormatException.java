@@ -0,0 +1,7 @@
+package br.com.actionlabs.carboncalc.exceptions;
+
+public class InvalidExportFormatException extends BadRequestException {
+    public InvalidExportFormatException(String format) {
+        super("Unsupported export format: " + format + ". Use ndjson or csv.");
+    }
+}
@@ -0,0 +1,7 @@
+package br.com.actionlabs.carboncalc.exceptions;
+
+public class InvalidIdempotencyKeyException extends BadRequestException {
+    public InvalidIdempotencyKeyException(int maxLength) {
+        super("Idempotency-Key must have between 1 and " + maxLength + " characters");
+    }
+}
@@ -0,0 +1,7 @@
+package br.com.actionlabs.carboncalc.exceptions;
+
+public class InvalidMonthRangeException extends BadRequestException {
+    public InvalidMonthRangeException(int maxMonths) {
+        super("from must not be after to, and the range must not span more than " + maxMonths + " months");
+    }
+}
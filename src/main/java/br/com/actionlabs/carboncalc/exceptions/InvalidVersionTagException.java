@@ -0,0 +1,7 @@
+package br.com.actionlabs.carboncalc.exceptions;
+
+public class InvalidVersionTagException extends BadRequestException {
+    public InvalidVersionTagException(String tag) {
+        super("Invalid calculation version tag: " + tag);
+    }
+}
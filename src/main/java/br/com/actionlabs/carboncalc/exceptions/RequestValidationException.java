@@ -0,0 +1,21 @@
+package br.com.actionlabs.carboncalc.exceptions;
+
+import br.com.actionlabs.carboncalc.utils.ValidationResult;
+
+/**
+ * Carries every violation of a rejected request. Thrown once per request and without a stack trace,
+ * since the violations already say everything the client and the logs need.
+ */
+public class RequestValidationException extends BadRequestException {
+
+    private final transient ValidationResult result;
+
+    public RequestValidationException(ValidationResult result) {
+        super(result.getMessage(), false);
+        this.result = result;
+    }
+
+    public ValidationResult getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,16 @@
+package br.com.actionlabs.carboncalc.exceptions;
+
+import java.time.Duration;
+
+public abstract class ServiceUnavailableException extends RuntimeException{
+    private final Duration retryAfter;
+
+    protected ServiceUnavailableException(String message, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
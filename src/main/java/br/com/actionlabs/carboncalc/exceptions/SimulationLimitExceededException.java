@@ -0,0 +1,7 @@
+package br.com.actionlabs.carboncalc.exceptions;
+
+public class SimulationLimitExceededException extends BadRequestException {
+    public SimulationLimitExceededException(int limit) {
+        super("A simulation accepts at most " + limit + " scenarios");
+    }
+}
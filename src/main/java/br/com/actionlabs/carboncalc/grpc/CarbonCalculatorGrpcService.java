@@ -0,0 +1,194 @@
+package br.com.actionlabs.carboncalc.grpc;
+
+import br.com.actionlabs.carboncalc.dto.UpdateCalcInfoResponseDTO;
+import br.com.actionlabs.carboncalc.grpc.proto.CalculateError;
+import br.com.actionlabs.carboncalc.grpc.proto.CalculateRequest;
+import br.com.actionlabs.carboncalc.grpc.proto.CalculateResponse;
+import br.com.actionlabs.carboncalc.grpc.proto.CalculationResult;
+import br.com.actionlabs.carboncalc.grpc.proto.CarbonCalculatorGrpc;
+import br.com.actionlabs.carboncalc.grpc.proto.GetResultRequest;
+import br.com.actionlabs.carboncalc.grpc.proto.StartCalculationRequest;
+import br.com.actionlabs.carboncalc.grpc.proto.StartCalculationResponse;
+import br.com.actionlabs.carboncalc.grpc.proto.UpdateInfoRequest;
+import br.com.actionlabs.carboncalc.grpc.proto.UpdateInfoResponse;
+import br.com.actionlabs.carboncalc.service.CarbonCalculationService;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "carbon-calc.grpc.enabled", havingValue = "true", matchIfMissing = true)
+public class CarbonCalculatorGrpcService extends CarbonCalculatorGrpc.CarbonCalculatorImplBase {
+
+  private final CarbonCalculationService carbonCalculationService;
+  private final int streamWindow;
+
+  // stream items block on Mongo, so each one gets its own virtual thread; streamWindow bounds them per stream
+  private final ExecutorService streamExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+  public CarbonCalculatorGrpcService(CarbonCalculationService carbonCalculationService,
+                                     @Value("${carbon-calc.grpc.stream-window:64}") int streamWindow) {
+    this.carbonCalculationService = carbonCalculationService;
+    this.streamWindow = streamWindow;
+  }
+
+  @PreDestroy
+  public void stop() {
+    streamExecutor.shutdown();
+  }
+
+  @Override
+  public void startCalculation(StartCalculationRequest request,
+                               StreamObserver<StartCalculationResponse> responseObserver) {
+    respond(responseObserver, () -> StartCalculationResponse.newBuilder()
+        .setId(carbonCalculationService.startCalculation(GrpcMessages.toStartCalcRequest(request)))
+        .build());
+  }
+
+  @Override
+  public void updateInfo(UpdateInfoRequest request, StreamObserver<UpdateInfoResponse> responseObserver) {
+    respond(responseObserver, () -> GrpcMessages.toUpdateResponse(carbonCalculationService.updateInfo(
+        GrpcMessages.toUpdateRequest(request.getId(), request.getInfo()),
+        request.hasExpectedVersion() ? request.getExpectedVersion() : null)));
+  }
+
+  @Override
+  public void getResult(GetResultRequest request, StreamObserver<CalculationResult> responseObserver) {
+    respond(responseObserver,
+        () -> GrpcMessages.toResult(carbonCalculationService.getCarbonCalculationResult(request.getId())));
+  }
+
+  @Override
+  public StreamObserver<CalculateRequest> calculate(StreamObserver<CalculateResponse> responseObserver) {
+    return new CalculateStream((ServerCallStreamObserver<CalculateResponse>) responseObserver);
+  }
+
+  CalculateResponse calculate(CalculateRequest request) {
+    CalculateResponse.Builder response = CalculateResponse.newBuilder().setReference(request.getReference());
+
+    try {
+      String id = carbonCalculationService.startCalculation(GrpcMessages.toStartCalcRequest(request.getStart()));
+      response.setId(id);
+
+      UpdateCalcInfoResponseDTO updated = carbonCalculationService.updateInfo(
+          GrpcMessages.toUpdateRequest(id, request.getInfo()));
+      response.setUpdate(GrpcMessages.toUpdateResponse(updated));
+    } catch (RuntimeException ex) {
+      Status status = GrpcStatuses.of(ex);
+      response.setError(CalculateError.newBuilder()
+          .setCode(status.getCode().name())
+          .setMessage(status.getDescription() == null ? "" : status.getDescription()));
+    }
+
+    return response.build();
+  }
+
+  private static <T> void respond(StreamObserver<T> responseObserver, Supplier<T> call) {
+    T response;
+    try {
+      response = call.get();
+    } catch (RuntimeException ex) {
+      responseObserver.onError(GrpcStatuses.of(ex).asRuntimeException());
+      return;
+    }
+
+    responseObserver.onNext(response);
+    responseObserver.onCompleted();
+  }
+
+  /**
+   * Keeps at most {@code streamWindow} requests of the stream in flight. A new request message is only pulled
+   * from the client when a response has been handed to a transport that is ready for more, so a client that
+   * stops reading results also stops being read from.
+   */
+  private final class CalculateStream implements StreamObserver<CalculateRequest> {
+
+    private final ServerCallStreamObserver<CalculateResponse> responses;
+    private final Object lock = new Object();
+
+    private int inFlight;
+    private int deferredRequests;
+    private boolean halfClosed;
+    private boolean done;
+
+    CalculateStream(ServerCallStreamObserver<CalculateResponse> responses) {
+      this.responses = responses;
+
+      responses.disableAutoRequest();
+      responses.setOnReadyHandler(this::requestDeferred);
+      responses.setOnCancelHandler(this::cancel);
+      responses.request(streamWindow);
+    }
+
+    @Override
+    public void onNext(CalculateRequest request) {
+      synchronized (lock) {
+        inFlight++;
+      }
+      streamExecutor.execute(() -> complete(calculate(request)));
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      cancel();
+    }
+
+    @Override
+    public void onCompleted() {
+      synchronized (lock) {
+        halfClosed = true;
+        if (inFlight == 0 && !done) {
+          done = true;
+          responses.onCompleted();
+        }
+      }
+    }
+
+    private void complete(CalculateResponse response) {
+      synchronized (lock) {
+        inFlight--;
+        if (done) {
+          return;
+        }
+
+        responses.onNext(response);
+
+        if (halfClosed) {
+          if (inFlight == 0) {
+            done = true;
+            responses.onCompleted();
+          }
+        } else if (responses.isReady()) {
+          responses.request(1);
+        } else {
+          deferredRequests++;
+        }
+      }
+    }
+
+    private void requestDeferred() {
+      synchronized (lock) {
+        if (!done && deferredRequests > 0) {
+          responses.request(deferredRequests);
+          deferredRequests = 0;
+        }
+      }
+    }
+
+    private void cancel() {
+      synchronized (lock) {
+        done = true;
+      }
+    }
+  }
+}
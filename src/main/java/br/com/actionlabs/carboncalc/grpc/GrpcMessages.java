@@ -0,0 +1,84 @@
+package br.com.actionlabs.carboncalc.grpc;
+
+import br.com.actionlabs.carboncalc.dto.CarbonCalculationResultDTO;
+import br.com.actionlabs.carboncalc.dto.StartCalcRequestDTO;
+import br.com.actionlabs.carboncalc.dto.TransportationDTO;
+import br.com.actionlabs.carboncalc.dto.UpdateCalcInfoRequestDTO;
+import br.com.actionlabs.carboncalc.dto.UpdateCalcInfoResponseDTO;
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+import br.com.actionlabs.carboncalc.grpc.proto.CalculationInfo;
+import br.com.actionlabs.carboncalc.grpc.proto.CalculationResult;
+import br.com.actionlabs.carboncalc.grpc.proto.StartCalculationRequest;
+import br.com.actionlabs.carboncalc.grpc.proto.Transportation;
+import br.com.actionlabs.carboncalc.grpc.proto.UpdateInfoResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts between the protobuf messages and the DTOs {@code CarbonCalculationService} works with, so both
+ * APIs go through the same validation.
+ */
+final class GrpcMessages {
+
+  private GrpcMessages() {
+  }
+
+  static StartCalcRequestDTO toStartCalcRequest(StartCalculationRequest message) {
+    StartCalcRequestDTO request = new StartCalcRequestDTO();
+    request.setName(message.getName());
+    request.setEmail(message.getEmail());
+    request.setUf(message.getUf());
+    request.setPhoneNumber(message.getPhoneNumber());
+    return request;
+  }
+
+  static UpdateCalcInfoRequestDTO toUpdateRequest(String id, CalculationInfo info) {
+    UpdateCalcInfoRequestDTO request = new UpdateCalcInfoRequestDTO();
+    request.setId(id);
+    request.setEnergyConsumption(info.getEnergyConsumption());
+    request.setSolidWasteTotal(info.getSolidWasteTotal());
+    request.setRecyclePercentage(info.getRecyclePercentage());
+
+    List<TransportationDTO> transportation = new ArrayList<>(info.getTransportationCount());
+    for (Transportation message : info.getTransportationList()) {
+      TransportationDTO dto = new TransportationDTO();
+      dto.setType(toTransportationType(message.getType()));
+      dto.setMonthlyDistance(message.getMonthlyDistance());
+      transportation.add(dto);
+    }
+    request.setTransportation(transportation);
+
+    return request;
+  }
+
+  static CalculationResult toResult(CarbonCalculationResultDTO result) {
+    return CalculationResult.newBuilder()
+        .setEnergy(result.getEnergy())
+        .setTransportation(result.getTransportation())
+        .setSolidWaste(result.getSolidWaste())
+        .setTotal(result.getTotal())
+        .build();
+  }
+
+  static UpdateInfoResponse toUpdateResponse(UpdateCalcInfoResponseDTO response) {
+    return UpdateInfoResponse.newBuilder()
+        .setVersion(response.getVersion())
+        .setResult(toResult(response.getResult()))
+        .build();
+  }
+
+  /**
+   * @return {@code null} for an unspecified or unknown type, which the validator rejects like a missing one
+   */
+  private static TransportationType toTransportationType(
+      br.com.actionlabs.carboncalc.grpc.proto.TransportationType type) {
+    return switch (type) {
+      case CAR -> TransportationType.CAR;
+      case MOTORCYCLE -> TransportationType.MOTORCYCLE;
+      case PUBLIC_TRANSPORT -> TransportationType.PUBLIC_TRANSPORT;
+      case BICYCLE -> TransportationType.BICYCLE;
+      case TRANSPORTATION_TYPE_UNSPECIFIED, UNRECOGNIZED -> null;
+    };
+  }
+}
@@ -0,0 +1,88 @@
+package br.com.actionlabs.carboncalc.grpc;
+
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves {@link CarbonCalculatorGrpcService} over HTTP/2 next to the REST API, on its own port.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "carbon-calc.grpc.enabled", havingValue = "true", matchIfMissing = true)
+public class GrpcServer implements SmartLifecycle {
+
+  private final CarbonCalculatorGrpcService carbonCalculatorGrpcService;
+  private final int port;
+  private final Duration shutdownGracePeriod;
+
+  // unary calls block on Mongo like the servlet requests do
+  private final ExecutorService callExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+  private volatile Server server;
+
+  public GrpcServer(CarbonCalculatorGrpcService carbonCalculatorGrpcService,
+                    @Value("${carbon-calc.grpc.port:9090}") int port,
+                    @Value("${carbon-calc.grpc.shutdown-grace-period:10s}") Duration shutdownGracePeriod) {
+    this.carbonCalculatorGrpcService = carbonCalculatorGrpcService;
+    this.port = port;
+    this.shutdownGracePeriod = shutdownGracePeriod;
+  }
+
+  @Override
+  public void start() {
+    try {
+      server = NettyServerBuilder.forPort(port)
+          .addService(carbonCalculatorGrpcService)
+          .executor(callExecutor)
+          .build()
+          .start();
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Could not start the gRPC server on port " + port, ex);
+    }
+
+    log.info("gRPC server started on port {}", server.getPort());
+  }
+
+  @Override
+  public void stop() {
+    Server current = server;
+    server = null;
+
+    current.shutdown();
+    try {
+      if (!current.awaitTermination(shutdownGracePeriod.toMillis(), TimeUnit.MILLISECONDS)) {
+        current.shutdownNow();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      current.shutdownNow();
+    }
+    callExecutor.shutdown();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return server != null;
+  }
+
+  /**
+   * @return the bound port, which differs from the configured one when that is {@code 0}
+   */
+  public int getPort() {
+    return server.getPort();
+  }
+}
@@ -0,0 +1,36 @@
+package br.com.actionlabs.carboncalc.grpc;
+
+import br.com.actionlabs.carboncalc.exceptions.BadRequestException;
+import br.com.actionlabs.carboncalc.exceptions.ConflictException;
+import br.com.actionlabs.carboncalc.exceptions.NotFoundException;
+import br.com.actionlabs.carboncalc.exceptions.ServiceUnavailableException;
+import io.grpc.Status;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * gRPC counterpart of {@code GlobalExceptionHandler}.
+ */
+@Slf4j
+final class GrpcStatuses {
+
+  private GrpcStatuses() {
+  }
+
+  static Status of(RuntimeException ex) {
+    if (ex instanceof BadRequestException) {
+      return Status.INVALID_ARGUMENT.withDescription(ex.getMessage());
+    }
+    if (ex instanceof NotFoundException) {
+      return Status.NOT_FOUND.withDescription(ex.getMessage());
+    }
+    if (ex instanceof ConflictException) {
+      return Status.ABORTED.withDescription(ex.getMessage());
+    }
+    if (ex instanceof ServiceUnavailableException) {
+      return Status.UNAVAILABLE.withDescription(ex.getMessage());
+    }
+
+    log.error("gRPC call failed", ex);
+    return Status.INTERNAL.withDescription("Internal error");
+  }
+}
@@ -0,0 +1,72 @@
+package br.com.actionlabs.carboncalc.model;
+
+import br.com.actionlabs.carboncalc.dto.TransportationDTO;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One info update of a calculation, never modified once inserted. Each event carries the full info and
+ * emissions of its version, so the state at any version is that version's event applied to the last snapshot.
+ */
+@Data
+@Document("calculationEvent")
+@CompoundIndex(name = CalculationEvent.CALCULATION_VERSION_INDEX, def = "{'calculationId': 1, 'version': 1}",
+        unique = true)
+public class CalculationEvent {
+
+    /**
+     * One event per version: a concurrent writer that read the same version fails its insert on this index.
+     * Prefixed by {@code calculationId}, so it stays enforceable when the collection is sharded on that field.
+     */
+    public static final String CALCULATION_VERSION_INDEX = "calculationId_version";
+
+    @Id
+    private String id;
+
+    private String calculationId;
+    private long version;
+    private Instant recordedAt;
+
+    private double energyConsumption;
+    private List<TransportationDTO> transportation;
+    private double solidWasteProduction;
+    private double recyclePercentage;
+
+    private Double energyEmission;
+    private Double transportationEmission;
+    private Double solidWasteEmission;
+    private Double totalEmission;
+
+    public static CalculationEvent of(CarbonCalculation calculation, Instant recordedAt) {
+        CalculationEvent event = new CalculationEvent();
+        event.setCalculationId(calculation.getId());
+        event.setVersion(calculation.getVersion());
+        event.setRecordedAt(recordedAt);
+        event.setEnergyConsumption(calculation.getEnergyConsumption());
+        event.setTransportation(calculation.getTransportation());
+        event.setSolidWasteProduction(calculation.getSolidWasteProduction());
+        event.setRecyclePercentage(calculation.getRecyclePercentage());
+        event.setEnergyEmission(calculation.getEnergyEmission());
+        event.setTransportationEmission(calculation.getTransportationEmission());
+        event.setSolidWasteEmission(calculation.getSolidWasteEmission());
+        event.setTotalEmission(calculation.getTotalEmission());
+        return event;
+    }
+
+    public void applyTo(CarbonCalculation calculation) {
+        calculation.setEnergyConsumption(energyConsumption);
+        calculation.setTransportation(transportation);
+        calculation.setSolidWasteProduction(solidWasteProduction);
+        calculation.setRecyclePercentage(recyclePercentage);
+        calculation.setEnergyEmission(energyEmission);
+        calculation.setTransportationEmission(transportationEmission);
+        calculation.setSolidWasteEmission(solidWasteEmission);
+        calculation.setTotalEmission(totalEmission);
+        calculation.setVersion(version);
+    }
+}
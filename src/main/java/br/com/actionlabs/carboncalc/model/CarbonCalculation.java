@@ -1,28 +1,55 @@
 package br.com.actionlabs.carboncalc.model;
 
 import br.com.actionlabs.carboncalc.dto.TransportationDTO;
-import br.com.actionlabs.carboncalc.enums.TransportationType;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.List;
 
+/**
+ * Stored in the compact layout of {@link br.com.actionlabs.carboncalc.repository.CalculationSchema}, which also reads documents written before it.
+ */
 @Data
 @Document("carbonCalculation")
+@CompoundIndexes({
+        @CompoundIndex(name = CarbonCalculation.ID_VERSION_INDEX, def = "{'_id': 1, 'version': 1}"),
+        @CompoundIndex(name = CarbonCalculation.SCHEMA_VERSION_INDEX, def = "{'sv': 1, '_id': 1}")
+})
+// write-behind journals written before the dead transportationDistance and transportationType fields were dropped
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class CarbonCalculation {
 
+    /**
+     * Lets conditional GETs read the version from the index alone, without fetching the document.
+     */
+    public static final String ID_VERSION_INDEX = "id_version";
+
+    /**
+     * Lets the schema migrator find documents in an older layout without scanning the collection.
+     */
+    public static final String SCHEMA_VERSION_INDEX = "sv_id";
+
+    // the sharded profile shards on a hashed _id, created by scripts/shard-collections.js
     @Id
     private String id;
 
     private String name;
     private String email;
+
+    // cannot be kept on a sharded collection; EmailRegistry takes over there
+    @Indexed(unique = true, sparse = true)
+    private String normalizedEmail;
+
     private String phoneNumber;
     private String uf;
 
     private double energyConsumption;
     private List<TransportationDTO> transportation;
-    private double transportationDistance;
     private double solidWasteProduction;
     private double recyclePercentage;
 
@@ -31,5 +58,5 @@ public class CarbonCalculation {
     private Double solidWasteEmission;
     private Double totalEmission;
 
-    private TransportationType transportationType;
+    private long version;
 }
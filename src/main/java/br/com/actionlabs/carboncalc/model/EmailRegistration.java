@@ -0,0 +1,30 @@
+package br.com.actionlabs.carboncalc.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Claim of a normalized email by a calculation. Keyed by the email, so its {@code _id} keeps emails unique
+ * once {@code carbonCalculation} is sharded on its own id and can no longer hold a unique email index.
+ */
+@Data
+@Document("emailRegistration")
+public class EmailRegistration {
+
+    @Id
+    private String id;
+
+    private String calculationId;
+    private Date registeredAt;
+
+    public static EmailRegistration of(CarbonCalculation calculation, Date registeredAt) {
+        EmailRegistration registration = new EmailRegistration();
+        registration.setId(calculation.getNormalizedEmail());
+        registration.setCalculationId(calculation.getId());
+        registration.setRegisteredAt(registeredAt);
+        return registration;
+    }
+}
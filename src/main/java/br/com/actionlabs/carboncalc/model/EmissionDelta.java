@@ -0,0 +1,48 @@
+package br.com.actionlabs.carboncalc.model;
+
+/**
+ * Change that one or more calculation updates make to the {@link UfEmissionRollup} of a UF.
+ */
+public record EmissionDelta(
+        String uf,
+        long count,
+        double energyEmission,
+        double transportationEmission,
+        double solidWasteEmission,
+        double totalEmission
+) {
+
+    /**
+     * @param previous the emissions before the update; {@code null} or without emissions when the calculation
+     *                 had no info yet, in which case it starts counting towards the rollup
+     */
+    public static EmissionDelta between(String uf, CarbonCalculation previous, CarbonCalculation current) {
+        boolean counted = previous != null && previous.getTotalEmission() != null;
+
+        return new EmissionDelta(
+                uf,
+                counted ? 0 : 1,
+                current.getEnergyEmission() - (counted ? previous.getEnergyEmission() : 0),
+                current.getTransportationEmission() - (counted ? previous.getTransportationEmission() : 0),
+                current.getSolidWasteEmission() - (counted ? previous.getSolidWasteEmission() : 0),
+                current.getTotalEmission() - (counted ? previous.getTotalEmission() : 0));
+    }
+
+    public EmissionDelta plus(EmissionDelta other) {
+        return new EmissionDelta(
+                uf,
+                count + other.count,
+                energyEmission + other.energyEmission,
+                transportationEmission + other.transportationEmission,
+                solidWasteEmission + other.solidWasteEmission,
+                totalEmission + other.totalEmission);
+    }
+
+    public boolean isZero() {
+        return count == 0
+                && energyEmission == 0
+                && transportationEmission == 0
+                && solidWasteEmission == 0
+                && totalEmission == 0;
+    }
+}
@@ -0,0 +1,30 @@
+package br.com.actionlabs.carboncalc.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Merged bucket counts of the total emissions of one UF, or of the whole country under {@link #NATIONAL}. Each
+ * instance adds what it counted since its last checkpoint with {@code $inc}; a rebuild replaces them and stamps
+ * {@link #rebuiltAt}.
+ */
+@Data
+@Document("emissionSketch")
+public class EmissionSketchCheckpoint {
+
+    public static final String NATIONAL = "BR";
+
+    @Id
+    private String id;
+    private long count;
+    // null on checkpoints first created by a merge
+    private Instant rebuiltAt;
+
+    // bucket index to count; Mongo field names must be strings
+    private Map<String, Long> buckets = new HashMap<>();
+}
@@ -0,0 +1,31 @@
+package br.com.actionlabs.carboncalc.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Claim on an idempotency key and, once the request finished, its JSON response. Mongo removes the record
+ * after {@code expiresAt}.
+ */
+@Data
+@Document("idempotencyKey")
+public class IdempotencyRecord {
+  @Id
+  private String id;
+  private String fingerprint;
+  private String response;
+  @Indexed(expireAfterSeconds = 0)
+  private Date expiresAt;
+
+  public boolean isCompleted() {
+    return response != null;
+  }
+
+  public boolean isExpired(long nowMillis) {
+    return expiresAt != null && expiresAt.getTime() <= nowMillis;
+  }
+}
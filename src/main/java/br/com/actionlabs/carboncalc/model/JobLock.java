@@ -0,0 +1,21 @@
+package br.com.actionlabs.carboncalc.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Lease on a background job that only one instance may run at a time, keyed by the job name.
+ */
+@Data
+@Document("jobLock")
+public class JobLock {
+
+    @Id
+    private String id;
+
+    private String owner;
+    private Instant lockedUntil;
+}
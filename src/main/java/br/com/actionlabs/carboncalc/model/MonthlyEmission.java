@@ -0,0 +1,18 @@
+package br.com.actionlabs.carboncalc.model;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Footprint of one calculation in one month: its last {@link MonthlyEmissionPoint} of that month.
+ */
+@Data
+public class MonthlyEmission {
+    // first instant of the month, UTC
+    private Instant month;
+    private double energyEmission;
+    private double transportationEmission;
+    private double solidWasteEmission;
+    private double totalEmission;
+}
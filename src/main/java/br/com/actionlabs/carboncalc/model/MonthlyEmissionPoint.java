@@ -0,0 +1,52 @@
+package br.com.actionlabs.carboncalc.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+import java.time.Instant;
+
+/**
+ * Emissions of a calculation as of one info update, in the {@code monthlyEmission} time-series collection. Mongo
+ * groups the points of each {@link Meta} into compressed buckets, so the history of one person is stored and read
+ * together. The last point of a month is that month's footprint.
+ */
+@Data
+@Document("monthlyEmission")
+@TimeSeries(timeField = "recordedAt", metaField = "meta", granularity = Granularity.HOURS)
+public class MonthlyEmissionPoint {
+
+    @Id
+    private String id;
+
+    private Instant recordedAt;
+    private Meta meta;
+
+    private double energyEmission;
+    private double transportationEmission;
+    private double solidWasteEmission;
+    private double totalEmission;
+
+    @Data
+    public static class Meta {
+        private String calculationId;
+        private String uf;
+    }
+
+    public static MonthlyEmissionPoint of(CarbonCalculation calculation, Instant recordedAt) {
+        Meta meta = new Meta();
+        meta.setCalculationId(calculation.getId());
+        meta.setUf(calculation.getUf());
+
+        MonthlyEmissionPoint point = new MonthlyEmissionPoint();
+        point.setRecordedAt(recordedAt);
+        point.setMeta(meta);
+        point.setEnergyEmission(calculation.getEnergyEmission());
+        point.setTransportationEmission(calculation.getTransportationEmission());
+        point.setSolidWasteEmission(calculation.getSolidWasteEmission());
+        point.setTotalEmission(calculation.getTotalEmission());
+        return point;
+    }
+}
@@ -0,0 +1,37 @@
+package br.com.actionlabs.carboncalc.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+/**
+ * Totals of the monthly footprints of one UF in one month, pre-aggregated from {@link MonthlyEmissionPoint}s so
+ * range reads touch one small document per UF and month.
+ */
+@Data
+@Document("monthlyUfRollup")
+@CompoundIndex(name = "month_uf", def = "{'month': 1, 'uf': 1}")
+public class MonthlyUfRollup {
+
+    @Id
+    private String id;
+
+    private String uf;
+    // first instant of the month, UTC
+    private Instant month;
+
+    private long count;
+    private double energyEmission;
+    private double transportationEmission;
+    private double solidWasteEmission;
+    private double totalEmission;
+
+    public static String idOf(String uf, Instant month) {
+        return uf + ":" + YearMonth.from(month.atOffset(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,23 @@
+package br.com.actionlabs.carboncalc.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Progress of a background schema migration, saved after every batch so it resumes after a restart.
+ */
+@Data
+@Document("schemaMigration")
+public class SchemaMigrationCheckpoint {
+
+    @Id
+    private String id;
+
+    // last id rewritten in the current sweep; null starts a sweep from the first document
+    private String lastId;
+    private long migrated;
+    private Instant completedAt;
+}
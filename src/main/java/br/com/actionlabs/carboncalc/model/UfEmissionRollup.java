@@ -0,0 +1,20 @@
+package br.com.actionlabs.carboncalc.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Running totals of the calculations of one UF that already have emissions.
+ */
+@Data
+@Document("ufEmissionRollup")
+public class UfEmissionRollup {
+  @Id
+  private String uf;
+  private long count;
+  private double energyEmission;
+  private double transportationEmission;
+  private double solidWasteEmission;
+  private double totalEmission;
+}
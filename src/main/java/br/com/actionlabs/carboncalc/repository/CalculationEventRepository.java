@@ -0,0 +1,17 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.CalculationEvent;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CalculationEventRepository extends MongoRepository<CalculationEvent, String>,
+        CalculationEventRepositoryCustom {
+
+    List<CalculationEvent> findByCalculationIdOrderByVersionAsc(String calculationId);
+
+    Optional<CalculationEvent> findFirstByCalculationIdOrderByVersionDesc(String calculationId);
+}
@@ -0,0 +1,23 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.CalculationEvent;
+import com.mongodb.bulk.BulkWriteError;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface CalculationEventRepositoryCustom {
+
+    /**
+     * Inserts every event in a single unordered bulk write.
+     *
+     * @return the error of each failed insert, keyed by its index in {@code events}
+     */
+    Map<Integer, BulkWriteError> bulkInsert(List<CalculationEvent> events);
+
+    /**
+     * @return the highest-version event of each calculation that has any
+     */
+    List<CalculationEvent> findLatestByCalculationIdIn(Collection<String> calculationIds);
+}
@@ -0,0 +1,60 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.CalculationEvent;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CalculationEventRepositoryImpl implements CalculationEventRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public CalculationEventRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Map<Integer, BulkWriteError> bulkInsert(List<CalculationEvent> events) {
+        if (events.isEmpty()) {
+            return Map.of();
+        }
+
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CalculationEvent.class)
+                    .insert(events)
+                    .execute();
+            return Map.of();
+        } catch (BulkOperationException ex) {
+            Map<Integer, BulkWriteError> failures = new HashMap<>();
+            for (BulkWriteError error : ex.getErrors()) {
+                failures.put(error.getIndex(), error);
+            }
+            return failures;
+        }
+    }
+
+    @Override
+    public List<CalculationEvent> findLatestByCalculationIdIn(Collection<String> calculationIds) {
+        if (calculationIds.isEmpty()) {
+            return List.of();
+        }
+
+        // walks the calculationId/version index backwards, keeping the first event of each calculation
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("calculationId").in(calculationIds)),
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "calculationId", "version")),
+                Aggregation.group("calculationId").first(Aggregation.ROOT).as("event"),
+                Aggregation.replaceRoot("event"));
+
+        return mongoTemplate.aggregate(aggregation, CalculationEvent.class, CalculationEvent.class).getMappedResults();
+    }
+}
@@ -0,0 +1,165 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.model.EmissionDelta;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.List;
+
+import static br.com.actionlabs.carboncalc.repository.CalculationSchema.*;
+
+/**
+ * Queries and updates shared by the blocking and reactive calculation repositories.
+ */
+public final class CalculationQueries {
+
+    // version 1 keys replaced by the info fields, dropped as soon as a calculation is updated in version 2
+    private static final List<String> V1_INFO_KEYS = List.of(
+            V1_ENERGY_CONSUMPTION, V1_TRANSPORTATION, V1_SOLID_WASTE_PRODUCTION, V1_RECYCLE_PERCENTAGE,
+            V1_ENERGY_EMISSION, V1_TRANSPORTATION_EMISSION, V1_SOLID_WASTE_EMISSION, V1_TOTAL_EMISSION,
+            "transportationDistance", "transportationType");
+
+    // and the reverse, since the reader prefers these over the version 1 keys a version 1 update writes
+    private static final List<String> V2_INFO_KEYS = List.of(
+            ENERGY_CONSUMPTION, TRANSPORTATION, SOLID_WASTE_PRODUCTION, RECYCLE_PERCENTAGE,
+            ENERGY_EMISSION, TRANSPORTATION_EMISSION, SOLID_WASTE_EMISSION, TOTAL_EMISSION);
+
+    private CalculationQueries() {
+    }
+
+    public static Update infoUpdate(CarbonCalculation calculation, int schemaVersion) {
+        return infoFields(calculation, schemaVersion).inc("version", 1);
+    }
+
+    /**
+     * Matches {@code id} while its stored version is behind {@code version}.
+     */
+    public static Query snapshotQuery(String id, long version) {
+        // calculations stored before versioning have no version field
+        return Query.query(Criteria.where("_id").is(id)
+                .orOperator(Criteria.where("version").lt(version), Criteria.where("version").exists(false)));
+    }
+
+    public static Update snapshotUpdate(CarbonCalculation calculation, int schemaVersion) {
+        return infoFields(calculation, schemaVersion).set("version", calculation.getVersion());
+    }
+
+    private static Update infoFields(CarbonCalculation calculation, int schemaVersion) {
+        if (schemaVersion == V1) {
+            // marks the document for the migrator again, should it already have been rewritten
+            Update update = new Update()
+                    .set(SCHEMA_VERSION, V1)
+                    .set(V1_ENERGY_CONSUMPTION, calculation.getEnergyConsumption())
+                    .set(V1_TRANSPORTATION, transportationItems(calculation.getTransportation()))
+                    .set(V1_SOLID_WASTE_PRODUCTION, calculation.getSolidWasteProduction())
+                    .set(V1_RECYCLE_PERCENTAGE, calculation.getRecyclePercentage())
+                    .set(V1_ENERGY_EMISSION, calculation.getEnergyEmission())
+                    .set(V1_TRANSPORTATION_EMISSION, calculation.getTransportationEmission())
+                    .set(V1_SOLID_WASTE_EMISSION, calculation.getSolidWasteEmission())
+                    .set(V1_TOTAL_EMISSION, calculation.getTotalEmission());
+            V2_INFO_KEYS.forEach(update::unset);
+            return update;
+        }
+
+        Update update = new Update()
+                .set(ENERGY_CONSUMPTION, calculation.getEnergyConsumption())
+                .set(TRANSPORTATION, distances(calculation.getTransportation()))
+                .set(SOLID_WASTE_PRODUCTION, calculation.getSolidWasteProduction())
+                .set(RECYCLE_PERCENTAGE, calculation.getRecyclePercentage())
+                .set(ENERGY_EMISSION, calculation.getEnergyEmission())
+                .set(TRANSPORTATION_EMISSION, calculation.getTransportationEmission())
+                .set(SOLID_WASTE_EMISSION, calculation.getSolidWasteEmission())
+                .set(TOTAL_EMISSION, calculation.getTotalEmission());
+        V1_INFO_KEYS.forEach(update::unset);
+        return update;
+    }
+
+    /**
+     * Matches {@code id}, and its version when one is expected, projecting the emissions, UF and version an info
+     * update reports.
+     */
+    public static Query updateInfoQuery(String id, Long expectedVersion) {
+        Query query = Query.query(Criteria.where("_id").is(id));
+        if (expectedVersion != null) {
+            query.addCriteria(versionIs(expectedVersion));
+        }
+        return includeEmissions(query);
+    }
+
+    public static Criteria versionIs(long version) {
+        // calculations stored before versioning have no version field, which reads as 0
+        return version == 0
+                ? Criteria.where("version").in(0L, null)
+                : Criteria.where("version").is(version);
+    }
+
+    /**
+     * Matches calculations stored in an older {@link CalculationSchema} version with an id after {@code afterId},
+     * or from the first one when it is {@code null}, in id order. Hinted to the {@code sv}/{@code _id} index, which
+     * bounds the read to the older versions instead of walking every id.
+     */
+    public static Query olderSchemaQuery(String afterId, int limit) {
+        Query query = Query.query(Criteria.where(SCHEMA_VERSION).ne(CURRENT_VERSION))
+                .withHint(CarbonCalculation.SCHEMA_VERSION_INDEX);
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("_id").gt(afterId));
+        }
+        return query.with(Sort.by("_id")).limit(limit);
+    }
+
+    public static Query emissionsQuery(String id) {
+        return includeEmissions(Query.query(Criteria.where("_id").is(id)));
+    }
+
+    public static Query emissionsQuery(Collection<String> ids) {
+        return includeEmissions(Query.query(Criteria.where("_id").in(ids)));
+    }
+
+    public static Query ufQuery(String id) {
+        Query query = Query.query(Criteria.where("_id").is(id));
+        query.fields().include("uf");
+        return query;
+    }
+
+    /**
+     * Projects only the version, hinted to the {@code _id}/{@code version} index so the lookup is covered
+     * instead of taking the {@code _id} fast path, which always fetches the document.
+     */
+    public static Query versionQuery(String id) {
+        Query query = Query.query(Criteria.where("_id").is(id)).withHint(CarbonCalculation.ID_VERSION_INDEX);
+        query.fields().include("version");
+        return query;
+    }
+
+    public static Query rollupQuery(String uf) {
+        return Query.query(Criteria.where("_id").is(uf));
+    }
+
+    public static Update rollupUpdate(EmissionDelta delta) {
+        return new Update()
+                .inc("count", delta.count())
+                .inc("energyEmission", delta.energyEmission())
+                .inc("transportationEmission", delta.transportationEmission())
+                .inc("solidWasteEmission", delta.solidWasteEmission())
+                .inc("totalEmission", delta.totalEmission());
+    }
+
+    private static Query includeEmissions(Query query) {
+        query.fields().include(
+                ENERGY_EMISSION,
+                TRANSPORTATION_EMISSION,
+                SOLID_WASTE_EMISSION,
+                TOTAL_EMISSION,
+                V1_ENERGY_EMISSION,
+                V1_TRANSPORTATION_EMISSION,
+                V1_SOLID_WASTE_EMISSION,
+                V1_TOTAL_EMISSION,
+                "uf",
+                "version");
+        return query;
+    }
+}
@@ -0,0 +1,276 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.dto.TransportationDTO;
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BSON layout of {@code carbonCalculation}. Version 2 uses short keys, leaves unset emissions out and keeps one
+ * distance per {@link TransportationType} in a fixed array indexed by ordinal. Version 1 was the reflective mapping
+ * of {@link CarbonCalculation}, with full field names, a list of transportation objects and two fields never set.
+ * <p>
+ * Writes produce the version in {@code carbon-calc.schema.write-version}, 1 by default. Code that reads version 2
+ * has to be running on every instance before any of them writes it, since older code reads its keys as missing, so a
+ * rollout first ships this reader with version 1 writes, then switches writes, and the migrator, to version 2. Reads
+ * take every field from its version 2 key, falling back to the version 1 key. Info updates in either version unset
+ * the info keys of the other, so a document never holds both and a write in one version is never hidden behind a
+ * stale value in the other. {@code _id}, {@code uf}, {@code normalizedEmail} and {@code version} keep their names:
+ * indexes, the shard key and the covered version lookup depend on them.
+ * <p>
+ * Only {@link DocumentToCalculation} is registered with Spring Data. A writing converter would make
+ * {@link CarbonCalculation} a simple type without a mapped entity, so the repositories write with {@link #write}.
+ */
+public final class CalculationSchema {
+
+    public static final int CURRENT_VERSION = 2;
+    public static final int V1 = 1;
+
+    public static final String SCHEMA_VERSION = "sv";
+    public static final String NAME = "nm";
+    public static final String EMAIL = "em";
+    public static final String PHONE_NUMBER = "ph";
+    public static final String ENERGY_CONSUMPTION = "ec";
+    public static final String TRANSPORTATION = "tr";
+    public static final String SOLID_WASTE_PRODUCTION = "sw";
+    public static final String RECYCLE_PERCENTAGE = "rp";
+    public static final String ENERGY_EMISSION = "ee";
+    public static final String TRANSPORTATION_EMISSION = "te";
+    public static final String SOLID_WASTE_EMISSION = "se";
+    public static final String TOTAL_EMISSION = "tot";
+
+    static final String V1_NAME = "name";
+    static final String V1_EMAIL = "email";
+    static final String V1_PHONE_NUMBER = "phoneNumber";
+    static final String V1_ENERGY_CONSUMPTION = "energyConsumption";
+    static final String V1_TRANSPORTATION = "transportation";
+    static final String V1_SOLID_WASTE_PRODUCTION = "solidWasteProduction";
+    static final String V1_RECYCLE_PERCENTAGE = "recyclePercentage";
+    static final String V1_ENERGY_EMISSION = "energyEmission";
+    static final String V1_TRANSPORTATION_EMISSION = "transportationEmission";
+    static final String V1_SOLID_WASTE_EMISSION = "solidWasteEmission";
+    static final String V1_TOTAL_EMISSION = "totalEmission";
+
+    /**
+     * Version 1 keys that version 2 no longer writes, including the type hint and the two dead fields.
+     */
+    static final List<String> V1_ONLY_KEYS = List.of(
+            V1_NAME, V1_EMAIL, V1_PHONE_NUMBER, V1_ENERGY_CONSUMPTION, V1_TRANSPORTATION,
+            V1_SOLID_WASTE_PRODUCTION, V1_RECYCLE_PERCENTAGE, V1_ENERGY_EMISSION, V1_TRANSPORTATION_EMISSION,
+            V1_SOLID_WASTE_EMISSION, V1_TOTAL_EMISSION, "transportationDistance", "transportationType", "_class");
+
+    // distances are stored by ordinal, so new types must be added last
+    private static final TransportationType[] TRANSPORTATION_TYPES = TransportationType.values();
+
+    private CalculationSchema() {
+    }
+
+    /**
+     * @throws IllegalArgumentException unless {@code version} is one this class can write
+     */
+    public static int checkWriteVersion(int version) {
+        if (version != V1 && version != CURRENT_VERSION) {
+            throw new IllegalArgumentException("Unsupported calculation schema version " + version);
+        }
+        return version;
+    }
+
+    public static Document write(CarbonCalculation calculation) {
+        return write(calculation, CURRENT_VERSION);
+    }
+
+    public static Document write(CarbonCalculation calculation, int version) {
+        Document document = new Document();
+        if (calculation.getId() != null) {
+            document.put("_id", ObjectId.isValid(calculation.getId())
+                    ? new ObjectId(calculation.getId())
+                    : calculation.getId());
+        }
+        if (version == V1) {
+            writeV1(calculation, document);
+            return document;
+        }
+
+        document.put(SCHEMA_VERSION, CURRENT_VERSION);
+        putIfNotNull(document, NAME, calculation.getName());
+        putIfNotNull(document, EMAIL, calculation.getEmail());
+        putIfNotNull(document, "normalizedEmail", calculation.getNormalizedEmail());
+        putIfNotNull(document, PHONE_NUMBER, calculation.getPhoneNumber());
+        putIfNotNull(document, "uf", calculation.getUf());
+        document.put(ENERGY_CONSUMPTION, calculation.getEnergyConsumption());
+        putIfNotNull(document, TRANSPORTATION, distances(calculation.getTransportation()));
+        document.put(SOLID_WASTE_PRODUCTION, calculation.getSolidWasteProduction());
+        document.put(RECYCLE_PERCENTAGE, calculation.getRecyclePercentage());
+        putIfNotNull(document, ENERGY_EMISSION, calculation.getEnergyEmission());
+        putIfNotNull(document, TRANSPORTATION_EMISSION, calculation.getTransportationEmission());
+        putIfNotNull(document, SOLID_WASTE_EMISSION, calculation.getSolidWasteEmission());
+        putIfNotNull(document, TOTAL_EMISSION, calculation.getTotalEmission());
+        document.put("version", calculation.getVersion());
+        return document;
+    }
+
+    // the reflective mapping older code still reads, with the schema version it did not write
+    private static void writeV1(CarbonCalculation calculation, Document document) {
+        document.put(SCHEMA_VERSION, V1);
+        putIfNotNull(document, V1_NAME, calculation.getName());
+        putIfNotNull(document, V1_EMAIL, calculation.getEmail());
+        putIfNotNull(document, "normalizedEmail", calculation.getNormalizedEmail());
+        putIfNotNull(document, V1_PHONE_NUMBER, calculation.getPhoneNumber());
+        putIfNotNull(document, "uf", calculation.getUf());
+        document.put(V1_ENERGY_CONSUMPTION, calculation.getEnergyConsumption());
+        putIfNotNull(document, V1_TRANSPORTATION, transportationItems(calculation.getTransportation()));
+        document.put(V1_SOLID_WASTE_PRODUCTION, calculation.getSolidWasteProduction());
+        document.put(V1_RECYCLE_PERCENTAGE, calculation.getRecyclePercentage());
+        putIfNotNull(document, V1_ENERGY_EMISSION, calculation.getEnergyEmission());
+        putIfNotNull(document, V1_TRANSPORTATION_EMISSION, calculation.getTransportationEmission());
+        putIfNotNull(document, V1_SOLID_WASTE_EMISSION, calculation.getSolidWasteEmission());
+        putIfNotNull(document, V1_TOTAL_EMISSION, calculation.getTotalEmission());
+        document.put("version", calculation.getVersion());
+        document.put("_class", CarbonCalculation.class.getName());
+    }
+
+    /**
+     * Reads a document of either version, or one mixing both; projections may leave out any field.
+     */
+    public static CarbonCalculation read(Document document) {
+        CarbonCalculation calculation = new CarbonCalculation();
+
+        Object id = document.get("_id");
+        calculation.setId(id instanceof ObjectId objectId ? objectId.toHexString() : (String) id);
+        calculation.setName(either(document, NAME, V1_NAME, String.class));
+        calculation.setEmail(either(document, EMAIL, V1_EMAIL, String.class));
+        calculation.setNormalizedEmail(document.getString("normalizedEmail"));
+        calculation.setPhoneNumber(either(document, PHONE_NUMBER, V1_PHONE_NUMBER, String.class));
+        calculation.setUf(document.getString("uf"));
+        calculation.setEnergyConsumption(doubleOrZero(either(document, ENERGY_CONSUMPTION, V1_ENERGY_CONSUMPTION,
+                Number.class)));
+        calculation.setTransportation(readTransportation(document));
+        calculation.setSolidWasteProduction(doubleOrZero(either(document, SOLID_WASTE_PRODUCTION,
+                V1_SOLID_WASTE_PRODUCTION, Number.class)));
+        calculation.setRecyclePercentage(doubleOrZero(either(document, RECYCLE_PERCENTAGE, V1_RECYCLE_PERCENTAGE,
+                Number.class)));
+        calculation.setEnergyEmission(doubleOrNull(either(document, ENERGY_EMISSION, V1_ENERGY_EMISSION,
+                Number.class)));
+        calculation.setTransportationEmission(doubleOrNull(either(document, TRANSPORTATION_EMISSION,
+                V1_TRANSPORTATION_EMISSION, Number.class)));
+        calculation.setSolidWasteEmission(doubleOrNull(either(document, SOLID_WASTE_EMISSION,
+                V1_SOLID_WASTE_EMISSION, Number.class)));
+        calculation.setTotalEmission(doubleOrNull(either(document, TOTAL_EMISSION, V1_TOTAL_EMISSION,
+                Number.class)));
+
+        // calculations stored before versioning have no version field
+        Number version = document.get("version", Number.class);
+        calculation.setVersion(version == null ? 0 : version.longValue());
+        return calculation;
+    }
+
+    /**
+     * Distances per {@link TransportationType} ordinal, summing repeated types, which gives the same emission.
+     */
+    public static List<Integer> distances(List<TransportationDTO> transportation) {
+        if (transportation == null) {
+            return null;
+        }
+
+        int[] distances = new int[TRANSPORTATION_TYPES.length];
+        for (TransportationDTO item : transportation) {
+            if (item.getType() != null) {
+                distances[item.getType().ordinal()] += item.getMonthlyDistance();
+            }
+        }
+
+        List<Integer> array = new ArrayList<>(distances.length);
+        for (int distance : distances) {
+            array.add(distance);
+        }
+        return array;
+    }
+
+    /**
+     * Transportation as the version 1 list of {@code type}/{@code monthlyDistance} documents.
+     */
+    public static List<Document> transportationItems(List<TransportationDTO> transportation) {
+        if (transportation == null) {
+            return null;
+        }
+
+        List<Document> items = new ArrayList<>(transportation.size());
+        for (TransportationDTO item : transportation) {
+            Document stored = new Document();
+            putIfNotNull(stored, "type", item.getType() == null ? null : item.getType().name());
+            stored.put("monthlyDistance", item.getMonthlyDistance());
+            items.add(stored);
+        }
+        return items;
+    }
+
+    private static List<TransportationDTO> readTransportation(Document document) {
+        Object distances = document.get(TRANSPORTATION);
+        if (distances instanceof List<?> list) {
+            List<TransportationDTO> transportation = new ArrayList<>(list.size());
+            for (int i = 0; i < list.size() && i < TRANSPORTATION_TYPES.length; i++) {
+                int distance = ((Number) list.get(i)).intValue();
+                if (distance != 0) {
+                    transportation.add(transportation(TRANSPORTATION_TYPES[i], distance));
+                }
+            }
+            return transportation;
+        }
+
+        Object items = document.get(V1_TRANSPORTATION);
+        if (items instanceof List<?> list) {
+            List<TransportationDTO> transportation = new ArrayList<>(list.size());
+            for (Object item : list) {
+                Document stored = (Document) item;
+                String type = stored.getString("type");
+                Number distance = stored.get("monthlyDistance", Number.class);
+                transportation.add(transportation(type == null ? null : TransportationType.valueOf(type),
+                        distance == null ? 0 : distance.intValue()));
+            }
+            return transportation;
+        }
+        return null;
+    }
+
+    private static TransportationDTO transportation(TransportationType type, int monthlyDistance) {
+        TransportationDTO transportation = new TransportationDTO();
+        transportation.setType(type);
+        transportation.setMonthlyDistance(monthlyDistance);
+        return transportation;
+    }
+
+    private static <T> T either(Document document, String key, String v1Key, Class<T> type) {
+        T value = document.get(key, type);
+        return value != null ? value : document.get(v1Key, type);
+    }
+
+    private static double doubleOrZero(Number value) {
+        return value == null ? 0 : value.doubleValue();
+    }
+
+    private static Double doubleOrNull(Number value) {
+        return value == null ? null : value.doubleValue();
+    }
+
+    private static void putIfNotNull(Document document, String key, Object value) {
+        if (value != null) {
+            document.put(key, value);
+        }
+    }
+
+    @ReadingConverter
+    public enum DocumentToCalculation implements Converter<Document, CarbonCalculation> {
+        INSTANCE;
+
+        @Override
+        public CarbonCalculation convert(Document source) {
+            return read(source);
+        }
+    }
+}
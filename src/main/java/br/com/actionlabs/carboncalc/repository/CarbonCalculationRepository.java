@@ -5,7 +5,6 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface CarbonCalculationRepository extends MongoRepository<CarbonCalculation, String> {
-
-    boolean existsByEmail(String email);
+public interface CarbonCalculationRepository extends MongoRepository<CarbonCalculation, String>,
+        CarbonCalculationRepositoryCustom {
 }
@@ -0,0 +1,108 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import com.mongodb.bulk.BulkWriteError;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface CarbonCalculationRepositoryCustom {
+
+    /**
+     * Inserts {@code calculation} in the current {@link CalculationSchema}, acknowledged with the registration
+     * write concern, assigning it a new id when it has none.
+     */
+    <S extends CarbonCalculation> S insert(S calculation);
+
+    /**
+     * Inserts or replaces {@code calculation} in the current {@link CalculationSchema}.
+     */
+    <S extends CarbonCalculation> S save(S calculation);
+
+    /**
+     * Inserts every calculation in a single unordered bulk write.
+     *
+     * @return the error of each failed insert, keyed by its index in {@code calculations}
+     */
+    Map<Integer, BulkWriteError> bulkInsert(List<CarbonCalculation> calculations);
+
+    Optional<String> findUfById(String id);
+
+    /**
+     * Loads only the emission fields and version of a calculation, with the result read preference, so it may
+     * come from a secondary within the configured staleness.
+     */
+    Optional<CarbonCalculation> findEmissionsById(String id);
+
+    /**
+     * Like {@link #findEmissionsById}, but always from the primary.
+     */
+    Optional<CarbonCalculation> findLatestEmissionsById(String id);
+
+    /**
+     * Reads only the version of a calculation, through a covered index lookup, with the result read preference.
+     */
+    Optional<Long> findVersionById(String id);
+
+    /**
+     * Loads the emissions of several calculations, with the result read preference.
+     */
+    List<CarbonCalculation> findEmissionsByIdIn(Collection<String> ids);
+
+    /**
+     * Writes the info fields and emissions of {@code calculation} and increments its version in a single
+     * findAndModify. With an {@code expectedVersion} the write only applies while the stored version still
+     * matches it.
+     *
+     * @return the emissions and version as they were before the write, so callers can derive the change,
+     * or {@code null} when no calculation matched
+     */
+    CarbonCalculation updateInfo(CarbonCalculation calculation, Long expectedVersion);
+
+    /**
+     * Writes the info fields and emissions of every calculation in a single unordered bulk write, each only while
+     * the stored version still equals the version of the calculation given. A calculation that was updated in
+     * between fails with a duplicate key error; every other one gets its new version set, as
+     * {@link br.com.actionlabs.carboncalc.service.CalculationEventLog#appendAll} does.
+     *
+     * @return the error of each failed update, keyed by its index in {@code calculations}
+     */
+    Map<Integer, BulkWriteError> bulkUpdateInfo(List<CarbonCalculation> calculations);
+
+    /**
+     * Writes the info fields, emissions and version of {@code calculation} unless the stored version already
+     * reached it, so snapshots written out of order never move a calculation back.
+     */
+    void saveSnapshot(CarbonCalculation calculation);
+
+    /**
+     * Streams the non-personal fields and version of the matching calculations through a cursor that fetches
+     * {@code batchSize} documents per round trip. The stream must be closed to release the cursor.
+     */
+    Stream<CarbonCalculation> streamForExport(String uf, Double minTotalEmission, Double maxTotalEmission,
+                                              int batchSize);
+
+    /**
+     * Fills {@code normalizedEmail} on calculations stored before the field existed.
+     *
+     * @return the number of calculations updated
+     */
+    long backfillNormalizedEmail();
+
+    /**
+     * Reads up to {@code limit} calculations stored in an older {@link CalculationSchema} version, in id order,
+     * after {@code afterId} or from the first one when it is {@code null}.
+     */
+    List<CarbonCalculation> findInOlderSchema(String afterId, int limit);
+
+    /**
+     * Rewrites each calculation in the current {@link CalculationSchema}, unless its version changed since it
+     * was read.
+     *
+     * @return the number of calculations rewritten
+     */
+    long rewriteInCurrentSchema(List<CarbonCalculation> calculations);
+}
@@ -0,0 +1,287 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class CarbonCalculationRepositoryImpl implements CarbonCalculationRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+    private final ReadWriteConcerns readWriteConcerns;
+    private final int schemaWriteVersion;
+
+    public CarbonCalculationRepositoryImpl(MongoTemplate mongoTemplate, ReadWriteConcerns readWriteConcerns,
+                                           @Value("${carbon-calc.schema.write-version:1}") int schemaWriteVersion) {
+        this.mongoTemplate = mongoTemplate;
+        this.readWriteConcerns = readWriteConcerns;
+        this.schemaWriteVersion = CalculationSchema.checkWriteVersion(schemaWriteVersion);
+    }
+
+    @Override
+    public <S extends CarbonCalculation> S insert(S calculation) {
+        Document document = toDocument(calculation);
+        mongoTemplate.execute(CarbonCalculation.class, collection -> collection
+                .withWriteConcern(readWriteConcerns.getRegistrationWriteConcern())
+                .insertOne(document));
+        return calculation;
+    }
+
+    @Override
+    public <S extends CarbonCalculation> S save(S calculation) {
+        Document document = toDocument(calculation);
+        mongoTemplate.execute(CarbonCalculation.class, collection -> collection
+                .withWriteConcern(readWriteConcerns.getRegistrationWriteConcern())
+                .replaceOne(Filters.eq("_id", document.get("_id")), document, new ReplaceOptions().upsert(true)));
+        return calculation;
+    }
+
+    @Override
+    public Map<Integer, BulkWriteError> bulkInsert(List<CarbonCalculation> calculations) {
+        if (calculations.isEmpty()) {
+            return Map.of();
+        }
+
+        List<Document> documents = new ArrayList<>(calculations.size());
+        for (CarbonCalculation calculation : calculations) {
+            documents.add(toDocument(calculation));
+        }
+
+        try {
+            collection().withWriteConcern(readWriteConcerns.getRegistrationWriteConcern())
+                    .insertMany(documents, new InsertManyOptions().ordered(false));
+            return Map.of();
+        } catch (MongoBulkWriteException ex) {
+            return failures(ex);
+        }
+    }
+
+    @Override
+    public Optional<String> findUfById(String id) {
+        return Optional.ofNullable(mongoTemplate.findOne(CalculationQueries.ufQuery(id), CarbonCalculation.class))
+                .map(CarbonCalculation::getUf);
+    }
+
+    @Override
+    public Optional<CarbonCalculation> findEmissionsById(String id) {
+        Query query = readWriteConcerns.forResultRead(CalculationQueries.emissionsQuery(id));
+        return Optional.ofNullable(mongoTemplate.findOne(query, CarbonCalculation.class));
+    }
+
+    @Override
+    public Optional<CarbonCalculation> findLatestEmissionsById(String id) {
+        return Optional.ofNullable(mongoTemplate.findOne(CalculationQueries.emissionsQuery(id), CarbonCalculation.class));
+    }
+
+    @Override
+    public Optional<Long> findVersionById(String id) {
+        Query query = readWriteConcerns.forResultRead(CalculationQueries.versionQuery(id));
+        return Optional.ofNullable(mongoTemplate.findOne(query, CarbonCalculation.class))
+                .map(CarbonCalculation::getVersion);
+    }
+
+    @Override
+    public List<CarbonCalculation> findEmissionsByIdIn(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        return mongoTemplate.find(readWriteConcerns.forResultRead(CalculationQueries.emissionsQuery(ids)),
+                CarbonCalculation.class);
+    }
+
+    @Override
+    public CarbonCalculation updateInfo(CarbonCalculation calculation, Long expectedVersion) {
+        return mongoTemplate.findAndModify(
+                CalculationQueries.updateInfoQuery(calculation.getId(), expectedVersion),
+                CalculationQueries.infoUpdate(calculation, schemaWriteVersion),
+                FindAndModifyOptions.options().returnNew(false),
+                CarbonCalculation.class);
+    }
+
+    @Override
+    public Map<Integer, BulkWriteError> bulkUpdateInfo(List<CarbonCalculation> calculations) {
+        if (calculations.isEmpty()) {
+            return Map.of();
+        }
+
+        BulkOperations bulkOperations = mongoTemplate
+                .bulkOps(BulkOperations.BulkMode.UNORDERED, CarbonCalculation.class);
+
+        // a bulk write only counts matches, so a stale version is made to fail instead: the upsert it turns into
+        // collides with the existing _id, and the error names the index of the update
+        for (CarbonCalculation calculation : calculations) {
+            bulkOperations.upsert(
+                    Query.query(Criteria.where("_id").is(calculation.getId()))
+                            .addCriteria(CalculationQueries.versionIs(calculation.getVersion())),
+                    CalculationQueries.infoUpdate(calculation, schemaWriteVersion));
+        }
+
+        Map<Integer, BulkWriteError> failures = execute(bulkOperations);
+        for (int i = 0; i < calculations.size(); i++) {
+            if (!failures.containsKey(i)) {
+                calculations.get(i).setVersion(calculations.get(i).getVersion() + 1);
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public void saveSnapshot(CarbonCalculation calculation) {
+        mongoTemplate.updateFirst(
+                CalculationQueries.snapshotQuery(calculation.getId(), calculation.getVersion()),
+                CalculationQueries.snapshotUpdate(calculation, schemaWriteVersion),
+                CarbonCalculation.class);
+    }
+
+    @Override
+    public Stream<CarbonCalculation> streamForExport(String uf, Double minTotalEmission, Double maxTotalEmission,
+                                                     int batchSize) {
+        Query query = new Query();
+
+        if (uf != null) {
+            query.addCriteria(Criteria.where("uf").is(uf));
+        }
+
+        if (minTotalEmission != null || maxTotalEmission != null) {
+            query.addCriteria(new Criteria().orOperator(
+                    totalEmissionBetween(CalculationSchema.TOTAL_EMISSION, minTotalEmission, maxTotalEmission),
+                    totalEmissionBetween(CalculationSchema.V1_TOTAL_EMISSION, minTotalEmission, maxTotalEmission)));
+        }
+
+        query.fields().include(
+                "uf",
+                "version",
+                CalculationSchema.ENERGY_CONSUMPTION,
+                CalculationSchema.SOLID_WASTE_PRODUCTION,
+                CalculationSchema.RECYCLE_PERCENTAGE,
+                CalculationSchema.ENERGY_EMISSION,
+                CalculationSchema.TRANSPORTATION_EMISSION,
+                CalculationSchema.SOLID_WASTE_EMISSION,
+                CalculationSchema.TOTAL_EMISSION,
+                CalculationSchema.V1_ENERGY_CONSUMPTION,
+                CalculationSchema.V1_SOLID_WASTE_PRODUCTION,
+                CalculationSchema.V1_RECYCLE_PERCENTAGE,
+                CalculationSchema.V1_ENERGY_EMISSION,
+                CalculationSchema.V1_TRANSPORTATION_EMISSION,
+                CalculationSchema.V1_SOLID_WASTE_EMISSION,
+                CalculationSchema.V1_TOTAL_EMISSION);
+        query.cursorBatchSize(batchSize);
+
+        return mongoTemplate.stream(query, CarbonCalculation.class);
+    }
+
+    @Override
+    public long backfillNormalizedEmail() {
+        Query missing = Query.query(Criteria.where("normalizedEmail").exists(false).orOperator(
+                Criteria.where(CalculationSchema.EMAIL).ne(null),
+                Criteria.where(CalculationSchema.V1_EMAIL).ne(null)));
+
+        AggregationUpdate normalize = AggregationUpdate.update()
+                .set("normalizedEmail")
+                .toValue(StringOperators.valueOf(StringOperators.Trim.valueOf(
+                        ConditionalOperators.ifNull(CalculationSchema.EMAIL).thenValueOf(CalculationSchema.V1_EMAIL)))
+                        .toLower());
+
+        // by collection name, so the short keys are not checked against the properties of CarbonCalculation
+        return mongoTemplate.updateMulti(missing, normalize, collectionName()).getModifiedCount();
+    }
+
+    @Override
+    public List<CarbonCalculation> findInOlderSchema(String afterId, int limit) {
+        return mongoTemplate.find(CalculationQueries.olderSchemaQuery(afterId, limit), CarbonCalculation.class);
+    }
+
+    @Override
+    public long rewriteInCurrentSchema(List<CarbonCalculation> calculations) {
+        if (calculations.isEmpty()) {
+            return 0;
+        }
+
+        List<ReplaceOneModel<Document>> replacements = new ArrayList<>(calculations.size());
+        for (CarbonCalculation calculation : calculations) {
+            Document document = CalculationSchema.write(calculation);
+            Bson unchanged = Filters.and(Filters.eq("_id", document.get("_id")), calculation.getVersion() == 0
+                    ? Filters.in("version", 0L, null)
+                    : Filters.eq("version", calculation.getVersion()));
+            replacements.add(new ReplaceOneModel<>(unchanged, document));
+        }
+
+        return mongoTemplate.execute(CarbonCalculation.class, collection -> collection
+                .bulkWrite(replacements, new BulkWriteOptions().ordered(false))
+                .getModifiedCount());
+    }
+
+    private Document toDocument(CarbonCalculation calculation) {
+        if (calculation.getId() == null) {
+            calculation.setId(new ObjectId().toHexString());
+        }
+        return CalculationSchema.write(calculation, schemaWriteVersion);
+    }
+
+    private static Criteria totalEmissionBetween(String key, Double min, Double max) {
+        Criteria totalEmission = Criteria.where(key);
+        if (min != null) {
+            totalEmission.gte(min);
+        }
+        if (max != null) {
+            totalEmission.lte(max);
+        }
+        return totalEmission;
+    }
+
+    private String collectionName() {
+        return mongoTemplate.getCollectionName(CarbonCalculation.class);
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(collectionName());
+    }
+
+    private static Map<Integer, BulkWriteError> execute(BulkOperations bulkOperations) {
+        try {
+            bulkOperations.execute();
+            return Map.of();
+        } catch (BulkOperationException ex) {
+            return failures(ex.getErrors());
+        }
+    }
+
+    private static Map<Integer, BulkWriteError> failures(MongoBulkWriteException ex) {
+        return failures(ex.getWriteErrors());
+    }
+
+    private static Map<Integer, BulkWriteError> failures(List<BulkWriteError> errors) {
+        Map<Integer, BulkWriteError> failures = new HashMap<>();
+        for (BulkWriteError error : errors) {
+            failures.put(error.getIndex(), error);
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,10 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.EmailRegistration;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EmailRegistrationRepository extends MongoRepository<EmailRegistration, String>,
+        EmailRegistrationRepositoryCustom {
+}
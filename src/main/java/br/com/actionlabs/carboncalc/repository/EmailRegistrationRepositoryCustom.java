@@ -0,0 +1,38 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.EmailRegistration;
+import com.mongodb.bulk.BulkWriteError;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registration writes, all made with the registration write concern.
+ */
+public interface EmailRegistrationRepositoryCustom {
+
+    /**
+     * Inserts every registration in a single unordered bulk write.
+     *
+     * @return the error of each failed insert, keyed by its index in {@code registrations}
+     */
+    Map<Integer, BulkWriteError> bulkInsert(List<EmailRegistration> registrations);
+
+    /**
+     * Hands the email of {@code registration} over to its calculation while it is still held by
+     * {@code previousCalculationId}.
+     *
+     * @return whether the registration was replaced
+     */
+    boolean reassign(EmailRegistration registration, String previousCalculationId);
+
+    /**
+     * Removes the registration of {@code email} if it still belongs to {@code calculationId}.
+     */
+    void release(String email, String calculationId);
+
+    /**
+     * Registers the email of every stored calculation that has none yet.
+     */
+    void backfillFromCalculations();
+}
@@ -0,0 +1,99 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.model.EmailRegistration;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class EmailRegistrationRepositoryImpl implements EmailRegistrationRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+    private final ReadWriteConcerns readWriteConcerns;
+
+    public EmailRegistrationRepositoryImpl(MongoTemplate mongoTemplate, ReadWriteConcerns readWriteConcerns) {
+        this.mongoTemplate = mongoTemplate;
+        this.readWriteConcerns = readWriteConcerns;
+    }
+
+    @Override
+    public Map<Integer, BulkWriteError> bulkInsert(List<EmailRegistration> registrations) {
+        if (registrations.isEmpty()) {
+            return Map.of();
+        }
+
+        List<Document> documents = new ArrayList<>(registrations.size());
+        for (EmailRegistration registration : registrations) {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(registration, document);
+            documents.add(document);
+        }
+
+        try {
+            collection().insertMany(documents, new InsertManyOptions().ordered(false));
+            return Map.of();
+        } catch (MongoBulkWriteException ex) {
+            Map<Integer, BulkWriteError> failures = new HashMap<>();
+            for (BulkWriteError error : ex.getWriteErrors()) {
+                failures.put(error.getIndex(), error);
+            }
+            return failures;
+        }
+    }
+
+    @Override
+    public boolean reassign(EmailRegistration registration, String previousCalculationId) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(registration, document);
+
+        return collection()
+                .replaceOne(ownedBy(registration.getId(), previousCalculationId), document)
+                .getModifiedCount() > 0;
+    }
+
+    @Override
+    public void release(String email, String calculationId) {
+        collection().deleteOne(ownedBy(email, calculationId));
+    }
+
+    @Override
+    public void backfillFromCalculations() {
+        MergeOperation merge = Aggregation.merge()
+                .intoCollection(mongoTemplate.getCollectionName(EmailRegistration.class))
+                .on("_id")
+                .whenMatched(MergeOperation.WhenDocumentsMatch.keepExistingDocument())
+                .whenDocumentsDontMatch(MergeOperation.WhenDocumentsDontMatch.insertNewDocument())
+                .build();
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("normalizedEmail").ne(null)),
+                context -> new Document("$project", new Document("_id", "$normalizedEmail")
+                        .append("calculationId", "$_id")
+                        .append("registeredAt", "$$NOW")),
+                merge);
+
+        mongoTemplate.aggregate(aggregation, CarbonCalculation.class, Document.class);
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(EmailRegistration.class))
+                .withWriteConcern(readWriteConcerns.getRegistrationWriteConcern());
+    }
+
+    private static Bson ownedBy(String email, String calculationId) {
+        return Filters.and(Filters.eq("_id", email), Filters.eq("calculationId", calculationId));
+    }
+}
@@ -0,0 +1,10 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.EmissionSketchCheckpoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EmissionSketchRepository extends MongoRepository<EmissionSketchCheckpoint, String>,
+        EmissionSketchRepositoryCustom {
+}
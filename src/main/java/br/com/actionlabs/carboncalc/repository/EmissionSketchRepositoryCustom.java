@@ -0,0 +1,12 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import java.util.Map;
+
+public interface EmissionSketchRepositoryCustom {
+
+    /**
+     * Adds {@code bucketCounts} to the checkpoint {@code id} with {@code $inc} in a single upsert, so instances
+     * merge into it concurrently without losing counts.
+     */
+    void addCounts(String id, Map<Integer, Long> bucketCounts);
+}
@@ -0,0 +1,35 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.EmissionSketchCheckpoint;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Map;
+
+public class EmissionSketchRepositoryImpl implements EmissionSketchRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public EmissionSketchRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void addCounts(String id, Map<Integer, Long> bucketCounts) {
+        if (bucketCounts.isEmpty()) {
+            return;
+        }
+
+        Update update = new Update();
+        long count = 0;
+        for (Map.Entry<Integer, Long> bucket : bucketCounts.entrySet()) {
+            update.inc("buckets." + bucket.getKey(), bucket.getValue());
+            count += bucket.getValue();
+        }
+        update.inc("count", count);
+
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(id)), update, EmissionSketchCheckpoint.class);
+    }
+}
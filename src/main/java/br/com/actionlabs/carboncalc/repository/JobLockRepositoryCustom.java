@@ -0,0 +1,14 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import java.time.Instant;
+
+public interface JobLockRepositoryCustom {
+
+    /**
+     * Takes or extends the lease on {@code job} until {@code until} in a single upsert, provided it expired or
+     * {@code owner} already holds it.
+     *
+     * @return whether {@code owner} holds the lease now
+     */
+    boolean tryAcquire(String job, String owner, Instant now, Instant until);
+}
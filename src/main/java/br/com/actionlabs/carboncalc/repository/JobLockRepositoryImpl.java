@@ -0,0 +1,37 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.JobLock;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+
+public class JobLockRepositoryImpl implements JobLockRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public JobLockRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean tryAcquire(String job, String owner, Instant now, Instant until) {
+        Query query = Query.query(Criteria.where("_id").is(job).orOperator(
+                Criteria.where("lockedUntil").lt(now),
+                Criteria.where("owner").is(owner)));
+        Update update = new Update()
+                .set("owner", owner)
+                .set("lockedUntil", until);
+
+        // a lease held by another instance fails the filter, and the upsert then collides on _id
+        try {
+            mongoTemplate.upsert(query, update, JobLock.class);
+            return true;
+        } catch (DuplicateKeyException ex) {
+            return false;
+        }
+    }
+}
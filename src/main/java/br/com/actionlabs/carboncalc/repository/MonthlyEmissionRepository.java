@@ -0,0 +1,10 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.MonthlyEmissionPoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MonthlyEmissionRepository extends MongoRepository<MonthlyEmissionPoint, String>,
+        MonthlyEmissionRepositoryCustom {
+}
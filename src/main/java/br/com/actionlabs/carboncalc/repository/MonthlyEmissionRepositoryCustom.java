@@ -0,0 +1,36 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.MonthlyEmission;
+import br.com.actionlabs.carboncalc.model.MonthlyUfRollup;
+
+import br.com.actionlabs.carboncalc.model.MonthlyEmissionPoint;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface MonthlyEmissionRepositoryCustom {
+
+    /**
+     * Creates {@code monthlyEmission} as a time-series collection. Inserting into a missing collection would
+     * create a regular one instead. Another instance creating it at the same time is not an error.
+     */
+    void createCollectionIfMissing();
+
+    /**
+     * @return the last point of each calculation in each month since {@code from}, inclusive, without ids
+     */
+    List<MonthlyEmissionPoint> findLastPoints(Collection<String> calculationIds, Instant from);
+
+    /**
+     * @return the last point of each month of the calculation between {@code from}, inclusive, and {@code to},
+     * exclusive, oldest month first
+     */
+    List<MonthlyEmission> findMonthlyEmissions(String calculationId, Instant from, Instant to);
+
+    /**
+     * Sums the monthly footprints, the last point of each calculation in each month, per UF and month between
+     * {@code from}, inclusive, and {@code to}, exclusive. The rollups come back without ids.
+     */
+    List<MonthlyUfRollup> aggregateUfRollups(Instant from, Instant to);
+}
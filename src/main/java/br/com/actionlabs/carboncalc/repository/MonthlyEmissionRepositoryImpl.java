@@ -0,0 +1,143 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.MonthlyEmission;
+import br.com.actionlabs.carboncalc.model.MonthlyEmissionPoint;
+import br.com.actionlabs.carboncalc.model.MonthlyUfRollup;
+import org.bson.Document;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public class MonthlyEmissionRepositoryImpl implements MonthlyEmissionRepositoryCustom {
+
+    private static final List<String> EMISSIONS = List.of(
+            "energyEmission",
+            "transportationEmission",
+            "solidWasteEmission",
+            "totalEmission");
+
+    private final MongoTemplate mongoTemplate;
+
+    public MonthlyEmissionRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void createCollectionIfMissing() {
+        if (mongoTemplate.collectionExists(MonthlyEmissionPoint.class)) {
+            return;
+        }
+
+        try {
+            mongoTemplate.createCollection(MonthlyEmissionPoint.class);
+        } catch (DataAccessException ex) {
+            // NamespaceExists when an instance starting at the same time created it first
+            if (!mongoTemplate.collectionExists(MonthlyEmissionPoint.class)) {
+                throw ex;
+            }
+        }
+    }
+
+    @Override
+    public List<MonthlyEmissionPoint> findLastPoints(Collection<String> calculationIds, Instant from) {
+        Document lastOfMonth = new Document("_id", new Document("calculationId", "$meta.calculationId")
+                .append("month", month()))
+                .append("recordedAt", new Document("$last", "$recordedAt"))
+                .append("uf", new Document("$last", "$meta.uf"));
+        for (String emission : EMISSIONS) {
+            lastOfMonth.append(emission, new Document("$last", "$" + emission));
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                stage("$match", new Document("meta.calculationId", new Document("$in", calculationIds))
+                        .append("recordedAt", new Document("$gte", Date.from(from)))),
+                stage("$sort", new Document("recordedAt", 1)),
+                stage("$group", lastOfMonth),
+                stage("$project", project(new Document("recordedAt", 1)
+                        .append("meta", new Document("calculationId", "$_id.calculationId").append("uf", "$uf")))));
+
+        return mongoTemplate
+                .aggregate(aggregation, collection(), MonthlyEmissionPoint.class)
+                .getMappedResults();
+    }
+
+    @Override
+    public List<MonthlyEmission> findMonthlyEmissions(String calculationId, Instant from, Instant to) {
+        Document lastOfMonth = new Document("_id", month());
+        for (String emission : EMISSIONS) {
+            lastOfMonth.append(emission, new Document("$last", "$" + emission));
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                stage("$match", new Document("meta.calculationId", calculationId)
+                        .append("recordedAt", range(from, to))),
+                stage("$sort", new Document("recordedAt", 1)),
+                stage("$group", lastOfMonth),
+                stage("$sort", new Document("_id", 1)),
+                stage("$project", project(new Document("month", "$_id"))));
+
+        return mongoTemplate
+                .aggregate(aggregation, collection(), MonthlyEmission.class)
+                .getMappedResults();
+    }
+
+    @Override
+    public List<MonthlyUfRollup> aggregateUfRollups(Instant from, Instant to) {
+        Document lastOfMonth = new Document("_id", new Document("calculationId", "$meta.calculationId")
+                .append("month", month()))
+                .append("uf", new Document("$last", "$meta.uf"));
+        Document perUf = new Document("_id", new Document("uf", "$uf").append("month", "$_id.month"))
+                .append("count", new Document("$sum", 1));
+        for (String emission : EMISSIONS) {
+            lastOfMonth.append(emission, new Document("$last", "$" + emission));
+            perUf.append(emission, new Document("$sum", "$" + emission));
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                stage("$match", new Document("recordedAt", range(from, to))),
+                stage("$sort", new Document("recordedAt", 1)),
+                stage("$group", lastOfMonth),
+                stage("$group", perUf),
+                stage("$project", project(new Document("uf", "$_id.uf")
+                        .append("month", "$_id.month")
+                        .append("count", 1))))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        return mongoTemplate
+                .aggregate(aggregation, collection(), MonthlyUfRollup.class)
+                .getMappedResults();
+    }
+
+    private String collection() {
+        return mongoTemplate.getCollectionName(MonthlyEmissionPoint.class);
+    }
+
+    private static Document month() {
+        return new Document("$dateTrunc", new Document("date", "$recordedAt")
+                .append("unit", "month")
+                .append("timezone", "UTC"));
+    }
+
+    private static Document range(Instant from, Instant to) {
+        return new Document("$gte", Date.from(from)).append("$lt", Date.from(to));
+    }
+
+    private static Document project(Document fields) {
+        fields.append("_id", 0);
+        for (String emission : EMISSIONS) {
+            fields.append(emission, 1);
+        }
+        return fields;
+    }
+
+    private static AggregationOperation stage(String operator, Document body) {
+        return context -> new Document(operator, body);
+    }
+}
@@ -0,0 +1,20 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.MonthlyUfRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface MonthlyUfRollupRepository extends MongoRepository<MonthlyUfRollup, String>,
+        MonthlyUfRollupRepositoryCustom {
+
+    @Query(value = "{ 'month': { '$gte': ?0, '$lt': ?1 } }", sort = "{ 'month': 1, 'uf': 1 }")
+    List<MonthlyUfRollup> findByMonthRange(Instant from, Instant to);
+
+    @Query(value = "{ 'uf': ?0, 'month': { '$gte': ?1, '$lt': ?2 } }", sort = "{ 'month': 1 }")
+    List<MonthlyUfRollup> findByUfAndMonthRange(String uf, Instant from, Instant to);
+}
@@ -0,0 +1,15 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.EmissionDelta;
+
+import java.time.Instant;
+import java.util.Collection;
+
+public interface MonthlyUfRollupRepositoryCustom {
+
+    /**
+     * Adds every delta to the rollup of its UF in {@code month} with {@code $inc}, creating missing rollups, in one
+     * bulk write.
+     */
+    void applyDeltas(Instant month, Collection<EmissionDelta> deltas);
+}
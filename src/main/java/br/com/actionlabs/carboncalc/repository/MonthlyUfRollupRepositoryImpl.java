@@ -0,0 +1,39 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.EmissionDelta;
+import br.com.actionlabs.carboncalc.model.MonthlyUfRollup;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.Collection;
+
+public class MonthlyUfRollupRepositoryImpl implements MonthlyUfRollupRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public MonthlyUfRollupRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void applyDeltas(Instant month, Collection<EmissionDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulkOperations = mongoTemplate
+                .bulkOps(BulkOperations.BulkMode.UNORDERED, MonthlyUfRollup.class);
+
+        for (EmissionDelta delta : deltas) {
+            bulkOperations.upsert(Query.query(Criteria.where("_id").is(MonthlyUfRollup.idOf(delta.uf(), month))),
+                    CalculationQueries.rollupUpdate(delta)
+                            .setOnInsert("uf", delta.uf())
+                            .setOnInsert("month", month));
+        }
+
+        bulkOperations.execute();
+    }
+}
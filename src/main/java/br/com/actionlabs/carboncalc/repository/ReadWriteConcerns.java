@@ -0,0 +1,54 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadConcernLevel;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read preference and concerns of the operations that do not use the client defaults
+ * ({@code carbon-calc.mongo}). Result reads can go to secondaries, within {@code result-max-staleness};
+ * registrations are acknowledged by the configured write concern.
+ */
+@Component
+public class ReadWriteConcerns {
+
+    private final ReadPreference resultReadPreference;
+    private final ReadConcern resultReadConcern;
+    private final WriteConcern registrationWriteConcern;
+
+    public ReadWriteConcerns(@Value("${carbon-calc.mongo.result-read-preference:primary}") String resultReadPreference,
+                             @Value("${carbon-calc.mongo.result-max-staleness:90s}") Duration resultMaxStaleness,
+                             @Value("${carbon-calc.mongo.result-read-concern:local}") String resultReadConcern,
+                             @Value("${carbon-calc.mongo.registration-write-concern:majority}") String registrationWriteConcern) {
+        // the primary is never stale, and the driver refuses a staleness bound for it
+        this.resultReadPreference = "primary".equalsIgnoreCase(resultReadPreference)
+                ? ReadPreference.primary()
+                : ReadPreference.valueOf(resultReadPreference, List.of(), resultMaxStaleness.toMillis(),
+                        TimeUnit.MILLISECONDS);
+        this.resultReadConcern = new ReadConcern(ReadConcernLevel.fromString(resultReadConcern));
+        this.registrationWriteConcern = WriteConcern.valueOf(registrationWriteConcern);
+        if (this.registrationWriteConcern == null) {
+            throw new IllegalArgumentException("Unknown write concern " + registrationWriteConcern);
+        }
+    }
+
+    public Query forResultRead(Query query) {
+        return query.withReadPreference(resultReadPreference).withReadConcern(resultReadConcern);
+    }
+
+    public ReadPreference getResultReadPreference() {
+        return resultReadPreference;
+    }
+
+    public WriteConcern getRegistrationWriteConcern() {
+        return registrationWriteConcern;
+    }
+}
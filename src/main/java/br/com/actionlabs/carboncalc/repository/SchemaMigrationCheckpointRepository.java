@@ -0,0 +1,9 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.SchemaMigrationCheckpoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SchemaMigrationCheckpointRepository extends MongoRepository<SchemaMigrationCheckpoint, String> {
+}
@@ -0,0 +1,20 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.EmissionDelta;
+import br.com.actionlabs.carboncalc.model.UfEmissionRollup;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface UfEmissionRollupRepositoryCustom {
+
+    /**
+     * Adds every delta to the rollup of its UF with {@code $inc}, creating missing rollups, in one bulk write.
+     */
+    void applyDeltas(Collection<EmissionDelta> deltas);
+
+    /**
+     * Computes the rollups from scratch by aggregating every calculation that has emissions.
+     */
+    List<UfEmissionRollup> aggregateFromCalculations();
+}
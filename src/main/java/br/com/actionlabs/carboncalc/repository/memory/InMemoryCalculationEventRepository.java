@@ -0,0 +1,153 @@
+package br.com.actionlabs.carboncalc.repository.memory;
+
+import br.com.actionlabs.carboncalc.dto.TransportationDTO;
+import br.com.actionlabs.carboncalc.model.CalculationEvent;
+import br.com.actionlabs.carboncalc.repository.CalculationEventRepository;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.BsonDocument;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory {@link CalculationEventRepository}, with the unique {@code calculationId}/{@code version} index.
+ */
+@Repository
+@Profile("in-memory")
+public class InMemoryCalculationEventRepository extends InMemoryRepository<CalculationEvent, String>
+        implements CalculationEventRepository {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final ConcurrentMap<String, NavigableMap<Long, String>> idsByCalculation = new ConcurrentHashMap<>();
+
+    @Override
+    protected String idOf(CalculationEvent document) {
+        return document.getId();
+    }
+
+    @Override
+    protected void assignId(CalculationEvent document) {
+        document.setId(new ObjectId().toHexString());
+    }
+
+    @Override
+    protected void indexed(CalculationEvent previous, CalculationEvent current) {
+        if (previous != null) {
+            unindexed(previous);
+        }
+
+        String owner = idsByCalculation
+                .computeIfAbsent(current.getCalculationId(), id -> new ConcurrentSkipListMap<>())
+                .putIfAbsent(current.getVersion(), current.getId());
+        if (owner != null && !owner.equals(current.getId())) {
+            throw duplicateKey("calculationId_version", current.getCalculationId() + ":" + current.getVersion());
+        }
+    }
+
+    @Override
+    protected void unindexed(CalculationEvent removed) {
+        idsByCalculation.computeIfPresent(removed.getCalculationId(), (id, versions) -> {
+            versions.remove(removed.getVersion(), removed.getId());
+            return versions.isEmpty() ? null : versions;
+        });
+    }
+
+    @Override
+    public Map<Integer, BulkWriteError> bulkInsert(List<CalculationEvent> events) {
+        Map<Integer, BulkWriteError> failures = new HashMap<>();
+
+        for (int i = 0; i < events.size(); i++) {
+            try {
+                insert(events.get(i));
+            } catch (DuplicateKeyException ex) {
+                failures.put(i, new BulkWriteError(DUPLICATE_KEY, ex.getMessage(), new BsonDocument(), i));
+            }
+        }
+
+        return failures;
+    }
+
+    @Override
+    public List<CalculationEvent> findLatestByCalculationIdIn(Collection<String> calculationIds) {
+        List<CalculationEvent> latest = new ArrayList<>(calculationIds.size());
+        for (String calculationId : calculationIds) {
+            findFirstByCalculationIdOrderByVersionDesc(calculationId).ifPresent(latest::add);
+        }
+        return latest;
+    }
+
+    @Override
+    public List<CalculationEvent> findByCalculationIdOrderByVersionAsc(String calculationId) {
+        NavigableMap<Long, String> versions = idsByCalculation.get(calculationId);
+        if (versions == null) {
+            return List.of();
+        }
+
+        return versions.values().stream()
+                .map(documents::get)
+                .filter(Objects::nonNull)
+                .map(this::copy)
+                .toList();
+    }
+
+    @Override
+    public Optional<CalculationEvent> findFirstByCalculationIdOrderByVersionDesc(String calculationId) {
+        NavigableMap<Long, String> versions = idsByCalculation.get(calculationId);
+        if (versions == null) {
+            return Optional.empty();
+        }
+
+        return versions.descendingMap().values().stream()
+                .map(documents::get)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .map(this::copy);
+    }
+
+    @Override
+    protected CalculationEvent copy(CalculationEvent document) {
+        CalculationEvent copy = new CalculationEvent();
+        copy.setId(document.getId());
+        copy.setCalculationId(document.getCalculationId());
+        copy.setVersion(document.getVersion());
+        copy.setRecordedAt(document.getRecordedAt());
+        copy.setEnergyConsumption(document.getEnergyConsumption());
+        copy.setTransportation(copyTransportation(document.getTransportation()));
+        copy.setSolidWasteProduction(document.getSolidWasteProduction());
+        copy.setRecyclePercentage(document.getRecyclePercentage());
+        copy.setEnergyEmission(document.getEnergyEmission());
+        copy.setTransportationEmission(document.getTransportationEmission());
+        copy.setSolidWasteEmission(document.getSolidWasteEmission());
+        copy.setTotalEmission(document.getTotalEmission());
+        return copy;
+    }
+
+    private static List<TransportationDTO> copyTransportation(List<TransportationDTO> transportation) {
+        if (transportation == null) {
+            return null;
+        }
+
+        List<TransportationDTO> copy = new ArrayList<>(transportation.size());
+        for (TransportationDTO item : transportation) {
+            TransportationDTO itemCopy = new TransportationDTO();
+            itemCopy.setType(item.getType());
+            itemCopy.setMonthlyDistance(item.getMonthlyDistance());
+            copy.add(itemCopy);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,306 @@
+package br.com.actionlabs.carboncalc.repository.memory;
+
+import br.com.actionlabs.carboncalc.dto.TransportationDTO;
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.repository.CarbonCalculationRepository;
+import br.com.actionlabs.carboncalc.utils.CalculationRequestValidator;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.BsonDocument;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory {@link CarbonCalculationRepository}, with the unique {@code normalizedEmail} index and an index by
+ * UF for the filtered export.
+ */
+@Repository
+@Profile("in-memory")
+public class InMemoryCarbonCalculationRepository extends InMemoryRepository<CarbonCalculation, String>
+        implements CarbonCalculationRepository {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final ConcurrentMap<String, String> idByNormalizedEmail = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<String>> idsByUf = new ConcurrentHashMap<>();
+
+    @Override
+    protected String idOf(CarbonCalculation document) {
+        return document.getId();
+    }
+
+    @Override
+    protected void assignId(CarbonCalculation document) {
+        document.setId(new ObjectId().toHexString());
+    }
+
+    @Override
+    protected void indexed(CarbonCalculation previous, CarbonCalculation current) {
+        String email = current.getNormalizedEmail();
+        String previousEmail = previous == null ? null : previous.getNormalizedEmail();
+
+        if (email != null && !email.equals(previousEmail)) {
+            String owner = idByNormalizedEmail.putIfAbsent(email, current.getId());
+            if (owner != null && !owner.equals(current.getId())) {
+                throw duplicateKey("normalizedEmail", email);
+            }
+        }
+        if (previousEmail != null && !previousEmail.equals(email)) {
+            idByNormalizedEmail.remove(previousEmail, current.getId());
+        }
+
+        if (previous != null && !Objects.equals(previous.getUf(), current.getUf())) {
+            removeFromUfIndex(previous);
+        }
+        if (current.getUf() != null) {
+            idsByUf.computeIfAbsent(current.getUf(), uf -> ConcurrentHashMap.newKeySet()).add(current.getId());
+        }
+    }
+
+    @Override
+    protected void unindexed(CarbonCalculation removed) {
+        if (removed.getNormalizedEmail() != null) {
+            idByNormalizedEmail.remove(removed.getNormalizedEmail(), removed.getId());
+        }
+        removeFromUfIndex(removed);
+    }
+
+    @Override
+    public Map<Integer, BulkWriteError> bulkInsert(List<CarbonCalculation> calculations) {
+        Map<Integer, BulkWriteError> failures = new HashMap<>();
+
+        for (int i = 0; i < calculations.size(); i++) {
+            try {
+                insert(calculations.get(i));
+            } catch (DuplicateKeyException ex) {
+                failures.put(i, new BulkWriteError(DUPLICATE_KEY, ex.getMessage(), new BsonDocument(), i));
+            }
+        }
+
+        return failures;
+    }
+
+    @Override
+    public Optional<String> findUfById(String id) {
+        return Optional.ofNullable(documents.get(id)).map(CarbonCalculation::getUf);
+    }
+
+    @Override
+    public Optional<CarbonCalculation> findEmissionsById(String id) {
+        return Optional.ofNullable(documents.get(id)).map(InMemoryCarbonCalculationRepository::emissionsOf);
+    }
+
+    @Override
+    public Optional<CarbonCalculation> findLatestEmissionsById(String id) {
+        return findEmissionsById(id);
+    }
+
+    @Override
+    public Optional<Long> findVersionById(String id) {
+        return Optional.ofNullable(documents.get(id)).map(CarbonCalculation::getVersion);
+    }
+
+    @Override
+    public List<CarbonCalculation> findEmissionsByIdIn(Collection<String> ids) {
+        List<CarbonCalculation> found = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            findEmissionsById(id).ifPresent(found::add);
+        }
+        return found;
+    }
+
+    @Override
+    public CarbonCalculation updateInfo(CarbonCalculation calculation, Long expectedVersion) {
+        CarbonCalculation[] previous = new CarbonCalculation[1];
+
+        documents.computeIfPresent(calculation.getId(), (id, stored) -> {
+            if (expectedVersion != null && stored.getVersion() != expectedVersion) {
+                return stored;
+            }
+            previous[0] = emissionsOf(stored);
+            return withInfo(stored, calculation);
+        });
+
+        return previous[0];
+    }
+
+    @Override
+    public Map<Integer, BulkWriteError> bulkUpdateInfo(List<CarbonCalculation> calculations) {
+        Map<Integer, BulkWriteError> failures = new HashMap<>();
+
+        for (int i = 0; i < calculations.size(); i++) {
+            CarbonCalculation calculation = calculations.get(i);
+            boolean[] updated = new boolean[1];
+            documents.computeIfPresent(calculation.getId(), (id, stored) -> {
+                if (stored.getVersion() != calculation.getVersion()) {
+                    return stored;
+                }
+                updated[0] = true;
+                return withInfo(stored, calculation);
+            });
+
+            if (updated[0]) {
+                calculation.setVersion(calculation.getVersion() + 1);
+            } else {
+                failures.put(i, new BulkWriteError(DUPLICATE_KEY, "E11000 duplicate key error, _id: "
+                        + calculation.getId(), new BsonDocument(), i));
+            }
+        }
+
+        return failures;
+    }
+
+    @Override
+    public void saveSnapshot(CarbonCalculation calculation) {
+        documents.computeIfPresent(calculation.getId(), (id, stored) -> {
+            if (stored.getVersion() >= calculation.getVersion()) {
+                return stored;
+            }
+            CarbonCalculation snapshot = withInfo(stored, calculation);
+            snapshot.setVersion(calculation.getVersion());
+            return snapshot;
+        });
+    }
+
+    @Override
+    public Stream<CarbonCalculation> streamForExport(String uf, Double minTotalEmission, Double maxTotalEmission,
+                                                     int batchSize) {
+        Stream<CarbonCalculation> calculations = uf == null
+                ? documents.values().stream()
+                : idsByUf.getOrDefault(uf, Set.of()).stream().map(documents::get).filter(Objects::nonNull);
+
+        if (minTotalEmission != null || maxTotalEmission != null) {
+            // like Mongo, a range on totalEmission never matches calculations without it
+            calculations = calculations.filter(calculation -> calculation.getTotalEmission() != null
+                    && (minTotalEmission == null || calculation.getTotalEmission() >= minTotalEmission)
+                    && (maxTotalEmission == null || calculation.getTotalEmission() <= maxTotalEmission));
+        }
+
+        return calculations.map(this::copy);
+    }
+
+    @Override
+    public long backfillNormalizedEmail() {
+        long updated = 0;
+
+        for (String id : documents.keySet()) {
+            boolean[] normalized = new boolean[1];
+
+            documents.computeIfPresent(id, (key, stored) -> {
+                if (stored.getNormalizedEmail() != null || stored.getEmail() == null) {
+                    return stored;
+                }
+                CarbonCalculation withEmail = copy(stored);
+                withEmail.setNormalizedEmail(CalculationRequestValidator.normalizeEmail(stored.getEmail()));
+                indexed(stored, withEmail);
+                normalized[0] = true;
+                return withEmail;
+            });
+
+            if (normalized[0]) {
+                updated++;
+            }
+        }
+
+        return updated;
+    }
+
+    // documents live in memory only, so there is never an older schema to migrate
+    @Override
+    public List<CarbonCalculation> findInOlderSchema(String afterId, int limit) {
+        return List.of();
+    }
+
+    @Override
+    public long rewriteInCurrentSchema(List<CarbonCalculation> calculations) {
+        return 0;
+    }
+
+    @Override
+    protected CarbonCalculation copy(CarbonCalculation document) {
+        CarbonCalculation copy = new CarbonCalculation();
+        copy.setId(document.getId());
+        copy.setName(document.getName());
+        copy.setEmail(document.getEmail());
+        copy.setNormalizedEmail(document.getNormalizedEmail());
+        copy.setPhoneNumber(document.getPhoneNumber());
+        copy.setUf(document.getUf());
+        copy.setEnergyConsumption(document.getEnergyConsumption());
+        copy.setTransportation(copyTransportation(document.getTransportation()));
+        copy.setSolidWasteProduction(document.getSolidWasteProduction());
+        copy.setRecyclePercentage(document.getRecyclePercentage());
+        copy.setEnergyEmission(document.getEnergyEmission());
+        copy.setTransportationEmission(document.getTransportationEmission());
+        copy.setSolidWasteEmission(document.getSolidWasteEmission());
+        copy.setTotalEmission(document.getTotalEmission());
+        copy.setVersion(document.getVersion());
+        return copy;
+    }
+
+    /**
+     * Same fields and version increment as {@code CalculationQueries.infoUpdate}, on a copy of {@code stored}.
+     */
+    private CarbonCalculation withInfo(CarbonCalculation stored, CarbonCalculation calculation) {
+        CarbonCalculation updated = copy(stored);
+        updated.setEnergyConsumption(calculation.getEnergyConsumption());
+        updated.setTransportation(copyTransportation(calculation.getTransportation()));
+        updated.setSolidWasteProduction(calculation.getSolidWasteProduction());
+        updated.setRecyclePercentage(calculation.getRecyclePercentage());
+        updated.setEnergyEmission(calculation.getEnergyEmission());
+        updated.setTransportationEmission(calculation.getTransportationEmission());
+        updated.setSolidWasteEmission(calculation.getSolidWasteEmission());
+        updated.setTotalEmission(calculation.getTotalEmission());
+        updated.setVersion(stored.getVersion() + 1);
+        return updated;
+    }
+
+    private void removeFromUfIndex(CarbonCalculation calculation) {
+        if (calculation.getUf() == null) {
+            return;
+        }
+        idsByUf.computeIfPresent(calculation.getUf(), (uf, ids) -> {
+            ids.remove(calculation.getId());
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static CarbonCalculation emissionsOf(CarbonCalculation stored) {
+        CarbonCalculation emissions = new CarbonCalculation();
+        emissions.setId(stored.getId());
+        emissions.setUf(stored.getUf());
+        emissions.setEnergyEmission(stored.getEnergyEmission());
+        emissions.setTransportationEmission(stored.getTransportationEmission());
+        emissions.setSolidWasteEmission(stored.getSolidWasteEmission());
+        emissions.setTotalEmission(stored.getTotalEmission());
+        emissions.setVersion(stored.getVersion());
+        return emissions;
+    }
+
+    private static List<TransportationDTO> copyTransportation(List<TransportationDTO> transportation) {
+        if (transportation == null) {
+            return null;
+        }
+
+        List<TransportationDTO> copy = new ArrayList<>(transportation.size());
+        for (TransportationDTO item : transportation) {
+            TransportationDTO itemCopy = new TransportationDTO();
+            itemCopy.setType(item.getType());
+            itemCopy.setMonthlyDistance(item.getMonthlyDistance());
+            copy.add(itemCopy);
+        }
+        return copy;
+    }
+}
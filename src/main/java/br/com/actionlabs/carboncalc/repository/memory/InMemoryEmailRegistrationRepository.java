@@ -0,0 +1,90 @@
+package br.com.actionlabs.carboncalc.repository.memory;
+
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.model.EmailRegistration;
+import br.com.actionlabs.carboncalc.repository.CarbonCalculationRepository;
+import br.com.actionlabs.carboncalc.repository.EmailRegistrationRepository;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.BsonDocument;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@Profile("in-memory")
+public class InMemoryEmailRegistrationRepository extends InMemoryRepository<EmailRegistration, String>
+        implements EmailRegistrationRepository {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final CarbonCalculationRepository carbonCalculationRepository;
+
+    public InMemoryEmailRegistrationRepository(CarbonCalculationRepository carbonCalculationRepository) {
+        this.carbonCalculationRepository = carbonCalculationRepository;
+    }
+
+    @Override
+    public Map<Integer, BulkWriteError> bulkInsert(List<EmailRegistration> registrations) {
+        Map<Integer, BulkWriteError> failures = new HashMap<>();
+
+        for (int i = 0; i < registrations.size(); i++) {
+            try {
+                insert(registrations.get(i));
+            } catch (DuplicateKeyException ex) {
+                failures.put(i, new BulkWriteError(DUPLICATE_KEY, ex.getMessage(), new BsonDocument(), i));
+            }
+        }
+
+        return failures;
+    }
+
+    @Override
+    public boolean reassign(EmailRegistration registration, String previousCalculationId) {
+        boolean[] replaced = new boolean[1];
+
+        documents.computeIfPresent(registration.getId(), (email, stored) -> {
+            if (!stored.getCalculationId().equals(previousCalculationId)) {
+                return stored;
+            }
+            replaced[0] = true;
+            return copy(registration);
+        });
+
+        return replaced[0];
+    }
+
+    @Override
+    public void release(String email, String calculationId) {
+        documents.computeIfPresent(email, (key, stored) ->
+                stored.getCalculationId().equals(calculationId) ? null : stored);
+    }
+
+    @Override
+    public void backfillFromCalculations() {
+        Date now = new Date();
+        for (CarbonCalculation calculation : carbonCalculationRepository.findAll()) {
+            if (calculation.getNormalizedEmail() != null) {
+                documents.putIfAbsent(calculation.getNormalizedEmail(), EmailRegistration.of(calculation, now));
+            }
+        }
+    }
+
+    @Override
+    protected String idOf(EmailRegistration document) {
+        return document.getId();
+    }
+
+    @Override
+    protected EmailRegistration copy(EmailRegistration document) {
+        EmailRegistration copy = new EmailRegistration();
+        copy.setId(document.getId());
+        copy.setCalculationId(document.getCalculationId());
+        copy.setRegisteredAt(document.getRegisteredAt() == null ? null : new Date(document.getRegisteredAt().getTime()));
+        return copy;
+    }
+}
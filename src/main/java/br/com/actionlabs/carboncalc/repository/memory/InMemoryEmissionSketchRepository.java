@@ -0,0 +1,47 @@
+package br.com.actionlabs.carboncalc.repository.memory;
+
+import br.com.actionlabs.carboncalc.model.EmissionSketchCheckpoint;
+import br.com.actionlabs.carboncalc.repository.EmissionSketchRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Repository
+@Profile("in-memory")
+public class InMemoryEmissionSketchRepository extends InMemoryRepository<EmissionSketchCheckpoint, String>
+        implements EmissionSketchRepository {
+
+    @Override
+    public void addCounts(String id, Map<Integer, Long> bucketCounts) {
+        if (bucketCounts.isEmpty()) {
+            return;
+        }
+
+        documents.compute(id, (key, stored) -> {
+            EmissionSketchCheckpoint checkpoint = stored == null ? new EmissionSketchCheckpoint() : copy(stored);
+            checkpoint.setId(key);
+            for (Map.Entry<Integer, Long> bucket : bucketCounts.entrySet()) {
+                checkpoint.getBuckets().merge(String.valueOf(bucket.getKey()), bucket.getValue(), Long::sum);
+                checkpoint.setCount(checkpoint.getCount() + bucket.getValue());
+            }
+            return checkpoint;
+        });
+    }
+
+    @Override
+    protected String idOf(EmissionSketchCheckpoint document) {
+        return document.getId();
+    }
+
+    @Override
+    protected EmissionSketchCheckpoint copy(EmissionSketchCheckpoint document) {
+        EmissionSketchCheckpoint copy = new EmissionSketchCheckpoint();
+        copy.setId(document.getId());
+        copy.setCount(document.getCount());
+        copy.setRebuiltAt(document.getRebuiltAt());
+        copy.setBuckets(new HashMap<>(document.getBuckets()));
+        return copy;
+    }
+}
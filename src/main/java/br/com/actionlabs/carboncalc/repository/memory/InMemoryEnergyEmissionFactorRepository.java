@@ -0,0 +1,36 @@
+package br.com.actionlabs.carboncalc.repository.memory;
+
+import br.com.actionlabs.carboncalc.model.EnergyEmissionFactor;
+import br.com.actionlabs.carboncalc.repository.EnergyEmissionFactorRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+
+@Repository
+@Profile("in-memory")
+public class InMemoryEnergyEmissionFactorRepository extends InMemoryRepository<EnergyEmissionFactor, String>
+        implements EnergyEmissionFactorRepository {
+
+    public InMemoryEnergyEmissionFactorRepository(InitMongoScript initMongoScript) {
+        for (Map<String, Object> document : initMongoScript.documents("energyEmissionFactor")) {
+            EnergyEmissionFactor factor = new EnergyEmissionFactor();
+            factor.setUf((String) document.get("_id"));
+            factor.setFactor(((Number) document.get("factor")).doubleValue());
+            save(factor);
+        }
+    }
+
+    @Override
+    protected String idOf(EnergyEmissionFactor document) {
+        return document.getUf();
+    }
+
+    @Override
+    protected EnergyEmissionFactor copy(EnergyEmissionFactor document) {
+        EnergyEmissionFactor copy = new EnergyEmissionFactor();
+        copy.setUf(document.getUf());
+        copy.setFactor(document.getFactor());
+        return copy;
+    }
+}
@@ -0,0 +1,51 @@
+package br.com.actionlabs.carboncalc.repository.memory;
+
+import br.com.actionlabs.carboncalc.model.IdempotencyRecord;
+import br.com.actionlabs.carboncalc.repository.IdempotencyRecordRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory {@link IdempotencyRecordRepository}. Instead of a TTL monitor, an insert replaces an expired record
+ * with the same key, and every {@value #SWEEP_INTERVAL} inserts drop all expired records.
+ */
+@Repository
+@Profile("in-memory")
+public class InMemoryIdempotencyRecordRepository extends InMemoryRepository<IdempotencyRecord, String>
+        implements IdempotencyRecordRepository {
+
+    private static final int SWEEP_INTERVAL = 1024;
+
+    private final AtomicLong inserts = new AtomicLong();
+
+    @Override
+    public <S extends IdempotencyRecord> S insert(S entity) {
+        long now = System.currentTimeMillis();
+
+        if (inserts.incrementAndGet() % SWEEP_INTERVAL == 0) {
+            documents.values().removeIf(record -> record.isExpired(now));
+        } else {
+            documents.computeIfPresent(entity.getId(), (id, stored) -> stored.isExpired(now) ? null : stored);
+        }
+
+        return super.insert(entity);
+    }
+
+    @Override
+    protected String idOf(IdempotencyRecord document) {
+        return document.getId();
+    }
+
+    @Override
+    protected IdempotencyRecord copy(IdempotencyRecord document) {
+        IdempotencyRecord copy = new IdempotencyRecord();
+        copy.setId(document.getId());
+        copy.setFingerprint(document.getFingerprint());
+        copy.setResponse(document.getResponse());
+        copy.setExpiresAt(document.getExpiresAt() == null ? null : new Date(document.getExpiresAt().getTime()));
+        return copy;
+    }
+}
@@ -0,0 +1,43 @@
+package br.com.actionlabs.carboncalc.repository.memory;
+
+import br.com.actionlabs.carboncalc.model.JobLock;
+import br.com.actionlabs.carboncalc.repository.JobLockRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+@Profile("in-memory")
+public class InMemoryJobLockRepository extends InMemoryRepository<JobLock, String> implements JobLockRepository {
+
+    @Override
+    public boolean tryAcquire(String job, String owner, Instant now, Instant until) {
+        JobLock lock = documents.compute(job, (key, stored) -> {
+            if (stored != null && !stored.getLockedUntil().isBefore(now) && !owner.equals(stored.getOwner())) {
+                return stored;
+            }
+
+            JobLock acquired = new JobLock();
+            acquired.setId(key);
+            acquired.setOwner(owner);
+            acquired.setLockedUntil(until);
+            return acquired;
+        });
+        return owner.equals(lock.getOwner());
+    }
+
+    @Override
+    protected String idOf(JobLock document) {
+        return document.getId();
+    }
+
+    @Override
+    protected JobLock copy(JobLock document) {
+        JobLock copy = new JobLock();
+        copy.setId(document.getId());
+        copy.setOwner(document.getOwner());
+        copy.setLockedUntil(document.getLockedUntil());
+        return copy;
+    }
+}
@@ -0,0 +1,125 @@
+package br.com.actionlabs.carboncalc.repository.memory;
+
+import br.com.actionlabs.carboncalc.model.MonthlyEmission;
+import br.com.actionlabs.carboncalc.model.MonthlyEmissionPoint;
+import br.com.actionlabs.carboncalc.model.MonthlyUfRollup;
+import br.com.actionlabs.carboncalc.repository.MonthlyEmissionRepository;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+@Repository
+@Profile("in-memory")
+public class InMemoryMonthlyEmissionRepository extends InMemoryRepository<MonthlyEmissionPoint, String>
+        implements MonthlyEmissionRepository {
+
+    @Override
+    public void createCollectionIfMissing() {
+    }
+
+    @Override
+    public List<MonthlyEmissionPoint> findLastPoints(Collection<String> calculationIds, Instant from) {
+        List<MonthlyEmissionPoint> points = new ArrayList<>();
+        for (MonthlyEmissionPoint point : lastOfEachMonth(from, Instant.MAX,
+                point -> calculationIds.contains(point.getMeta().getCalculationId())).values()) {
+            point.setId(null);
+            points.add(point);
+        }
+        return points;
+    }
+
+    @Override
+    public List<MonthlyEmission> findMonthlyEmissions(String calculationId, Instant from, Instant to) {
+        List<MonthlyEmission> emissions = new ArrayList<>();
+        for (MonthlyEmissionPoint point : lastOfEachMonth(from, to,
+                point -> calculationId.equals(point.getMeta().getCalculationId())).values()) {
+            MonthlyEmission emission = new MonthlyEmission();
+            emission.setMonth(monthOf(point));
+            emission.setEnergyEmission(point.getEnergyEmission());
+            emission.setTransportationEmission(point.getTransportationEmission());
+            emission.setSolidWasteEmission(point.getSolidWasteEmission());
+            emission.setTotalEmission(point.getTotalEmission());
+            emissions.add(emission);
+        }
+        return emissions;
+    }
+
+    @Override
+    public List<MonthlyUfRollup> aggregateUfRollups(Instant from, Instant to) {
+        Map<String, MonthlyUfRollup> rollups = new LinkedHashMap<>();
+        for (MonthlyEmissionPoint point : lastOfEachMonth(from, to, point -> true).values()) {
+            Instant month = monthOf(point);
+            MonthlyUfRollup rollup = rollups.computeIfAbsent(MonthlyUfRollup.idOf(point.getMeta().getUf(), month),
+                    key -> {
+                        MonthlyUfRollup created = new MonthlyUfRollup();
+                        created.setUf(point.getMeta().getUf());
+                        created.setMonth(month);
+                        return created;
+                    });
+            rollup.setCount(rollup.getCount() + 1);
+            rollup.setEnergyEmission(rollup.getEnergyEmission() + point.getEnergyEmission());
+            rollup.setTransportationEmission(rollup.getTransportationEmission() + point.getTransportationEmission());
+            rollup.setSolidWasteEmission(rollup.getSolidWasteEmission() + point.getSolidWasteEmission());
+            rollup.setTotalEmission(rollup.getTotalEmission() + point.getTotalEmission());
+        }
+        return new ArrayList<>(rollups.values());
+    }
+
+    // keyed by month and calculation, in month order
+    private Map<String, MonthlyEmissionPoint> lastOfEachMonth(Instant from, Instant to,
+                                                              Predicate<MonthlyEmissionPoint> filter) {
+        Map<String, MonthlyEmissionPoint> last = new TreeMap<>();
+        documents.values().stream()
+                .filter(point -> !point.getRecordedAt().isBefore(from) && point.getRecordedAt().isBefore(to))
+                .filter(filter)
+                .sorted(Comparator.comparing(MonthlyEmissionPoint::getRecordedAt)
+                        .thenComparing(MonthlyEmissionPoint::getId))
+                .forEach(point -> last.put(
+                        monthOf(point) + ":" + point.getMeta().getCalculationId(), copy(point)));
+        return last;
+    }
+
+    private static Instant monthOf(MonthlyEmissionPoint point) {
+        return YearMonth.from(point.getRecordedAt().atOffset(ZoneOffset.UTC))
+                .atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+    }
+
+    @Override
+    protected String idOf(MonthlyEmissionPoint document) {
+        return document.getId();
+    }
+
+    @Override
+    protected void assignId(MonthlyEmissionPoint document) {
+        document.setId(new ObjectId().toHexString());
+    }
+
+    @Override
+    protected MonthlyEmissionPoint copy(MonthlyEmissionPoint document) {
+        MonthlyEmissionPoint.Meta meta = new MonthlyEmissionPoint.Meta();
+        meta.setCalculationId(document.getMeta().getCalculationId());
+        meta.setUf(document.getMeta().getUf());
+
+        MonthlyEmissionPoint copy = new MonthlyEmissionPoint();
+        copy.setId(document.getId());
+        copy.setRecordedAt(document.getRecordedAt());
+        copy.setMeta(meta);
+        copy.setEnergyEmission(document.getEnergyEmission());
+        copy.setTransportationEmission(document.getTransportationEmission());
+        copy.setSolidWasteEmission(document.getSolidWasteEmission());
+        copy.setTotalEmission(document.getTotalEmission());
+        return copy;
+    }
+}
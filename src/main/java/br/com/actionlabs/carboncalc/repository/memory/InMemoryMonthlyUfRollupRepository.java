@@ -0,0 +1,71 @@
+package br.com.actionlabs.carboncalc.repository.memory;
+
+import br.com.actionlabs.carboncalc.model.EmissionDelta;
+import br.com.actionlabs.carboncalc.model.MonthlyUfRollup;
+import br.com.actionlabs.carboncalc.repository.MonthlyUfRollupRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+@Repository
+@Profile("in-memory")
+public class InMemoryMonthlyUfRollupRepository extends InMemoryRepository<MonthlyUfRollup, String>
+        implements MonthlyUfRollupRepository {
+
+    @Override
+    public void applyDeltas(Instant month, Collection<EmissionDelta> deltas) {
+        for (EmissionDelta delta : deltas) {
+            documents.compute(MonthlyUfRollup.idOf(delta.uf(), month), (id, stored) -> {
+                MonthlyUfRollup rollup = stored == null ? new MonthlyUfRollup() : copy(stored);
+                rollup.setId(id);
+                rollup.setUf(delta.uf());
+                rollup.setMonth(month);
+                rollup.setCount(rollup.getCount() + delta.count());
+                rollup.setEnergyEmission(rollup.getEnergyEmission() + delta.energyEmission());
+                rollup.setTransportationEmission(rollup.getTransportationEmission() + delta.transportationEmission());
+                rollup.setSolidWasteEmission(rollup.getSolidWasteEmission() + delta.solidWasteEmission());
+                rollup.setTotalEmission(rollup.getTotalEmission() + delta.totalEmission());
+                return rollup;
+            });
+        }
+    }
+
+    @Override
+    public List<MonthlyUfRollup> findByMonthRange(Instant from, Instant to) {
+        return documents.values().stream()
+                .filter(rollup -> !rollup.getMonth().isBefore(from) && rollup.getMonth().isBefore(to))
+                .sorted(Comparator.comparing(MonthlyUfRollup::getMonth).thenComparing(MonthlyUfRollup::getUf))
+                .map(this::copy)
+                .toList();
+    }
+
+    @Override
+    public List<MonthlyUfRollup> findByUfAndMonthRange(String uf, Instant from, Instant to) {
+        return findByMonthRange(from, to).stream()
+                .filter(rollup -> uf.equals(rollup.getUf()))
+                .toList();
+    }
+
+    @Override
+    protected String idOf(MonthlyUfRollup document) {
+        return document.getId();
+    }
+
+    @Override
+    protected MonthlyUfRollup copy(MonthlyUfRollup document) {
+        MonthlyUfRollup copy = new MonthlyUfRollup();
+        copy.setId(document.getId());
+        copy.setUf(document.getUf());
+        copy.setMonth(document.getMonth());
+        copy.setCount(document.getCount());
+        copy.setEnergyEmission(document.getEnergyEmission());
+        copy.setTransportationEmission(document.getTransportationEmission());
+        copy.setSolidWasteEmission(document.getSolidWasteEmission());
+        copy.setTotalEmission(document.getTotalEmission());
+        return copy;
+    }
+}
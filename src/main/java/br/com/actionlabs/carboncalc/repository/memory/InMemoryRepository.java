@@ -0,0 +1,212 @@
+package br.com.actionlabs.carboncalc.repository.memory;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * {@link MongoRepository} over a {@link ConcurrentHashMap}, for the {@code in-memory} profile. Documents are
+ * copied on the way in and out, so callers see the same isolation they get from Mongo. Writes to one id are
+ * atomic; subclasses keep their secondary indexes consistent from {@link #indexed} and {@link #unindexed},
+ * which run inside that atomic section. Query by example, sorting and paging are not supported.
+ */
+public abstract class InMemoryRepository<T, ID> implements MongoRepository<T, ID> {
+
+    protected final ConcurrentMap<ID, T> documents = new ConcurrentHashMap<>();
+
+    protected abstract ID idOf(T document);
+
+    protected abstract T copy(T document);
+
+    /**
+     * Gives a document saved without an id a new one. Stores keyed by a natural key refuse such documents.
+     */
+    protected void assignId(T document) {
+        throw new IllegalArgumentException(getClass().getSimpleName() + " requires documents with an id");
+    }
+
+    /**
+     * Updates the secondary indexes for {@code current} replacing {@code previous}, which is {@code null} for
+     * new documents. Throwing {@link DuplicateKeyException} rejects the write.
+     */
+    protected void indexed(T previous, T current) {
+    }
+
+    protected void unindexed(T removed) {
+    }
+
+    protected static DuplicateKeyException duplicateKey(String field, Object value) {
+        return new DuplicateKeyException("E11000 duplicate key error dup key: { " + field + ": \"" + value + "\" }");
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        ID id = ensureId(entity);
+        documents.compute(id, (key, previous) -> {
+            if (previous != null) {
+                throw duplicateKey("_id", key);
+            }
+            indexed(null, entity);
+            return copy(entity);
+        });
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> entities) {
+        List<S> inserted = new ArrayList<>();
+        for (S entity : entities) {
+            inserted.add(insert(entity));
+        }
+        return inserted;
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        ID id = ensureId(entity);
+        documents.compute(id, (key, previous) -> {
+            indexed(previous, entity);
+            return copy(entity);
+        });
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        for (S entity : entities) {
+            saved.add(save(entity));
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<T> findById(ID id) {
+        return Optional.ofNullable(documents.get(id)).map(this::copy);
+    }
+
+    @Override
+    public boolean existsById(ID id) {
+        return documents.containsKey(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return documents.values().stream().map(this::copy).toList();
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<ID> ids) {
+        List<T> found = new ArrayList<>();
+        for (ID id : ids) {
+            findById(id).ifPresent(found::add);
+        }
+        return found;
+    }
+
+    @Override
+    public long count() {
+        return documents.size();
+    }
+
+    @Override
+    public void deleteById(ID id) {
+        documents.computeIfPresent(id, (key, removed) -> {
+            unindexed(removed);
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(T entity) {
+        deleteById(idOf(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends ID> ids) {
+        for (ID id : ids) {
+            deleteById(id);
+        }
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        for (T entity : entities) {
+            delete(entity);
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        for (ID id : documents.keySet()) {
+            deleteById(id);
+        }
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        throw unsupported("sorting");
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        throw unsupported("paging");
+    }
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        throw unsupported("query by example");
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        throw unsupported("query by example");
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        throw unsupported("query by example");
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw unsupported("query by example");
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        throw unsupported("query by example");
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        throw unsupported("query by example");
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw unsupported("query by example");
+    }
+
+    private ID ensureId(T entity) {
+        if (idOf(entity) == null) {
+            assignId(entity);
+        }
+        return idOf(entity);
+    }
+
+    private UnsupportedOperationException unsupported(String feature) {
+        return new UnsupportedOperationException(getClass().getSimpleName() + " does not support " + feature);
+    }
+}
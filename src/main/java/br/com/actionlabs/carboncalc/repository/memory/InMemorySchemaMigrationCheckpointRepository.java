@@ -0,0 +1,27 @@
+package br.com.actionlabs.carboncalc.repository.memory;
+
+import br.com.actionlabs.carboncalc.model.SchemaMigrationCheckpoint;
+import br.com.actionlabs.carboncalc.repository.SchemaMigrationCheckpointRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@Profile("in-memory")
+public class InMemorySchemaMigrationCheckpointRepository extends InMemoryRepository<SchemaMigrationCheckpoint, String>
+        implements SchemaMigrationCheckpointRepository {
+
+    @Override
+    protected String idOf(SchemaMigrationCheckpoint document) {
+        return document.getId();
+    }
+
+    @Override
+    protected SchemaMigrationCheckpoint copy(SchemaMigrationCheckpoint document) {
+        SchemaMigrationCheckpoint copy = new SchemaMigrationCheckpoint();
+        copy.setId(document.getId());
+        copy.setLastId(document.getLastId());
+        copy.setMigrated(document.getMigrated());
+        copy.setCompletedAt(document.getCompletedAt());
+        return copy;
+    }
+}
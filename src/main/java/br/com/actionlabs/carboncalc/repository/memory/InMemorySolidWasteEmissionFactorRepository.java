@@ -0,0 +1,38 @@
+package br.com.actionlabs.carboncalc.repository.memory;
+
+import br.com.actionlabs.carboncalc.model.SolidWasteEmissionFactor;
+import br.com.actionlabs.carboncalc.repository.SolidWasteEmissionFactorRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+
+@Repository
+@Profile("in-memory")
+public class InMemorySolidWasteEmissionFactorRepository extends InMemoryRepository<SolidWasteEmissionFactor, String>
+        implements SolidWasteEmissionFactorRepository {
+
+    public InMemorySolidWasteEmissionFactorRepository(InitMongoScript initMongoScript) {
+        for (Map<String, Object> document : initMongoScript.documents("solidWasteEmissionFactor")) {
+            SolidWasteEmissionFactor factor = new SolidWasteEmissionFactor();
+            factor.setUf((String) document.get("_id"));
+            factor.setRecyclableFactor(((Number) document.get("recyclableFactor")).doubleValue());
+            factor.setNonRecyclableFactor(((Number) document.get("nonRecyclableFactor")).doubleValue());
+            save(factor);
+        }
+    }
+
+    @Override
+    protected String idOf(SolidWasteEmissionFactor document) {
+        return document.getUf();
+    }
+
+    @Override
+    protected SolidWasteEmissionFactor copy(SolidWasteEmissionFactor document) {
+        SolidWasteEmissionFactor copy = new SolidWasteEmissionFactor();
+        copy.setUf(document.getUf());
+        copy.setRecyclableFactor(document.getRecyclableFactor());
+        copy.setNonRecyclableFactor(document.getNonRecyclableFactor());
+        return copy;
+    }
+}
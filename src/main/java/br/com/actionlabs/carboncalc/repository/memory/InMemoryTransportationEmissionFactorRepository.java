@@ -0,0 +1,38 @@
+package br.com.actionlabs.carboncalc.repository.memory;
+
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+import br.com.actionlabs.carboncalc.model.TransportationEmissionFactor;
+import br.com.actionlabs.carboncalc.repository.TransportationEmissionFactorRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+
+@Repository
+@Profile("in-memory")
+public class InMemoryTransportationEmissionFactorRepository
+        extends InMemoryRepository<TransportationEmissionFactor, TransportationType>
+        implements TransportationEmissionFactorRepository {
+
+    public InMemoryTransportationEmissionFactorRepository(InitMongoScript initMongoScript) {
+        for (Map<String, Object> document : initMongoScript.documents("transportationEmissionFactor")) {
+            TransportationEmissionFactor factor = new TransportationEmissionFactor();
+            factor.setType(TransportationType.valueOf((String) document.get("_id")));
+            factor.setFactor(((Number) document.get("factor")).doubleValue());
+            save(factor);
+        }
+    }
+
+    @Override
+    protected TransportationType idOf(TransportationEmissionFactor document) {
+        return document.getType();
+    }
+
+    @Override
+    protected TransportationEmissionFactor copy(TransportationEmissionFactor document) {
+        TransportationEmissionFactor copy = new TransportationEmissionFactor();
+        copy.setType(document.getType());
+        copy.setFactor(document.getFactor());
+        return copy;
+    }
+}
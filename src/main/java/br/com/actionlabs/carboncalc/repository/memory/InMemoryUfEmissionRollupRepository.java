@@ -0,0 +1,87 @@
+package br.com.actionlabs.carboncalc.repository.memory;
+
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.model.EmissionDelta;
+import br.com.actionlabs.carboncalc.model.UfEmissionRollup;
+import br.com.actionlabs.carboncalc.repository.CarbonCalculationRepository;
+import br.com.actionlabs.carboncalc.repository.UfEmissionRollupRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@Profile("in-memory")
+public class InMemoryUfEmissionRollupRepository extends InMemoryRepository<UfEmissionRollup, String>
+        implements UfEmissionRollupRepository {
+
+    private final CarbonCalculationRepository carbonCalculationRepository;
+
+    public InMemoryUfEmissionRollupRepository(CarbonCalculationRepository carbonCalculationRepository) {
+        this.carbonCalculationRepository = carbonCalculationRepository;
+    }
+
+    @Override
+    public void applyDeltas(Collection<EmissionDelta> deltas) {
+        for (EmissionDelta delta : deltas) {
+            documents.compute(delta.uf(), (uf, stored) -> {
+                UfEmissionRollup rollup = stored == null ? new UfEmissionRollup() : copy(stored);
+                rollup.setUf(uf);
+                add(rollup, delta.count(), delta.energyEmission(), delta.transportationEmission(),
+                        delta.solidWasteEmission(), delta.totalEmission());
+                return rollup;
+            });
+        }
+    }
+
+    @Override
+    public List<UfEmissionRollup> aggregateFromCalculations() {
+        Map<String, UfEmissionRollup> rollupByUf = new HashMap<>();
+
+        for (CarbonCalculation calculation : carbonCalculationRepository.findAll()) {
+            if (calculation.getTotalEmission() == null) {
+                continue;
+            }
+
+            UfEmissionRollup rollup = rollupByUf.computeIfAbsent(calculation.getUf(), uf -> {
+                UfEmissionRollup created = new UfEmissionRollup();
+                created.setUf(uf);
+                return created;
+            });
+            add(rollup, 1, calculation.getEnergyEmission(), calculation.getTransportationEmission(),
+                    calculation.getSolidWasteEmission(), calculation.getTotalEmission());
+        }
+
+        return new ArrayList<>(rollupByUf.values());
+    }
+
+    @Override
+    protected String idOf(UfEmissionRollup document) {
+        return document.getUf();
+    }
+
+    @Override
+    protected UfEmissionRollup copy(UfEmissionRollup document) {
+        UfEmissionRollup copy = new UfEmissionRollup();
+        copy.setUf(document.getUf());
+        copy.setCount(document.getCount());
+        copy.setEnergyEmission(document.getEnergyEmission());
+        copy.setTransportationEmission(document.getTransportationEmission());
+        copy.setSolidWasteEmission(document.getSolidWasteEmission());
+        copy.setTotalEmission(document.getTotalEmission());
+        return copy;
+    }
+
+    private static void add(UfEmissionRollup rollup, long count, double energyEmission,
+                            double transportationEmission, double solidWasteEmission, double totalEmission) {
+        rollup.setCount(rollup.getCount() + count);
+        rollup.setEnergyEmission(rollup.getEnergyEmission() + energyEmission);
+        rollup.setTransportationEmission(rollup.getTransportationEmission() + transportationEmission);
+        rollup.setSolidWasteEmission(rollup.getSolidWasteEmission() + solidWasteEmission);
+        rollup.setTotalEmission(rollup.getTotalEmission() + totalEmission);
+    }
+}
@@ -0,0 +1,75 @@
+package br.com.actionlabs.carboncalc.repository.memory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Documents inserted by {@code init-mongo.js}, the script that seeds the docker compose database, so the
+ * in-memory stores start with the same emission factors. Only its {@code insertMany} calls with JSON
+ * literal arrays are read.
+ */
+@Component
+@Profile("in-memory")
+public class InitMongoScript {
+
+    private static final Pattern INSERT_MANY =
+            Pattern.compile("getCollection\\(\\s*\"([^\"]+)\"\\s*\\)\\s*\\.insertMany\\(");
+
+    private static final TypeReference<List<Map<String, Object>>> DOCUMENTS = new TypeReference<>() {
+    };
+
+    private final Map<String, List<Map<String, Object>>> documentsByCollection = new HashMap<>();
+
+    public InitMongoScript(@Value("${carbon-calc.in-memory.seed-script:file:init-mongo.js}") Resource script,
+                           ObjectMapper objectMapper) throws IOException {
+        String source = script.getContentAsString(StandardCharsets.UTF_8);
+        Matcher matcher = INSERT_MANY.matcher(source);
+
+        while (matcher.find()) {
+            int start = source.indexOf('[', matcher.end());
+            int end = endOfArray(source, start);
+            documentsByCollection.put(matcher.group(1),
+                    objectMapper.readValue(source.substring(start, end + 1), DOCUMENTS));
+        }
+    }
+
+    public List<Map<String, Object>> documents(String collection) {
+        return documentsByCollection.getOrDefault(collection, List.of());
+    }
+
+    private static int endOfArray(String source, int start) {
+        int depth = 0;
+        boolean inString = false;
+
+        for (int i = start; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (inString) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']' && --depth == 0) {
+                return i;
+            }
+        }
+
+        throw new IllegalStateException("Unterminated insertMany array at offset " + start);
+    }
+}
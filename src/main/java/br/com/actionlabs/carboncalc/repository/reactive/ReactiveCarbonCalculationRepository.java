@@ -0,0 +1,10 @@
+package br.com.actionlabs.carboncalc.repository.reactive;
+
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReactiveCarbonCalculationRepository extends ReactiveMongoRepository<CarbonCalculation, String>,
+        ReactiveCarbonCalculationRepositoryCustom {
+}
@@ -0,0 +1,36 @@
+package br.com.actionlabs.carboncalc.repository.reactive;
+
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveCarbonCalculationRepositoryCustom {
+
+    /**
+     * Reactive counterpart of
+     * {@link br.com.actionlabs.carboncalc.repository.CarbonCalculationRepositoryCustom#insert}: writes the current
+     * {@link br.com.actionlabs.carboncalc.repository.CalculationSchema}, with the registration write concern.
+     */
+    <S extends CarbonCalculation> Mono<S> insert(S calculation);
+
+    /**
+     * Inserts or replaces {@code calculation} in the current
+     * {@link br.com.actionlabs.carboncalc.repository.CalculationSchema}.
+     */
+    <S extends CarbonCalculation> Mono<S> save(S calculation);
+
+    Mono<String> findUfById(String id);
+
+    Mono<CarbonCalculation> findEmissionsById(String id);
+
+    /**
+     * Reads only the version of a calculation, through a covered index lookup.
+     */
+    Mono<Long> findVersionById(String id);
+
+    /**
+     * Reactive counterpart of
+     * {@link br.com.actionlabs.carboncalc.repository.CarbonCalculationRepositoryCustom#updateInfo}; completes
+     * empty when no calculation matched.
+     */
+    Mono<CarbonCalculation> updateInfo(CarbonCalculation calculation, Long expectedVersion);
+}
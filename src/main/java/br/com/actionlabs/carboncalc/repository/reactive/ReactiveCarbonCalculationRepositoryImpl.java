@@ -0,0 +1,88 @@
+package br.com.actionlabs.carboncalc.repository.reactive;
+
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.repository.CalculationQueries;
+import br.com.actionlabs.carboncalc.repository.CalculationSchema;
+import br.com.actionlabs.carboncalc.repository.ReadWriteConcerns;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Mono;
+
+public class ReactiveCarbonCalculationRepositoryImpl implements ReactiveCarbonCalculationRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ReadWriteConcerns readWriteConcerns;
+    private final int schemaWriteVersion;
+
+    public ReactiveCarbonCalculationRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate,
+                                                   ReadWriteConcerns readWriteConcerns,
+                                                   @Value("${carbon-calc.schema.write-version:1}") int schemaWriteVersion) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.readWriteConcerns = readWriteConcerns;
+        this.schemaWriteVersion = CalculationSchema.checkWriteVersion(schemaWriteVersion);
+    }
+
+    @Override
+    public <S extends CarbonCalculation> Mono<S> insert(S calculation) {
+        return Mono.defer(() -> {
+            Document document = toDocument(calculation);
+            return reactiveMongoTemplate.execute(CarbonCalculation.class, collection -> collection
+                            .withWriteConcern(readWriteConcerns.getRegistrationWriteConcern())
+                            .insertOne(document))
+                    .then(Mono.just(calculation));
+        });
+    }
+
+    @Override
+    public <S extends CarbonCalculation> Mono<S> save(S calculation) {
+        return Mono.defer(() -> {
+            Document document = toDocument(calculation);
+            return reactiveMongoTemplate.execute(CarbonCalculation.class, collection -> collection
+                            .withWriteConcern(readWriteConcerns.getRegistrationWriteConcern())
+                            .replaceOne(Filters.eq("_id", document.get("_id")), document,
+                                    new ReplaceOptions().upsert(true)))
+                    .then(Mono.just(calculation));
+        });
+    }
+
+    @Override
+    public Mono<String> findUfById(String id) {
+        return reactiveMongoTemplate.findOne(CalculationQueries.ufQuery(id), CarbonCalculation.class)
+                .mapNotNull(CarbonCalculation::getUf);
+    }
+
+    @Override
+    public Mono<CarbonCalculation> findEmissionsById(String id) {
+        Query query = readWriteConcerns.forResultRead(CalculationQueries.emissionsQuery(id));
+        return reactiveMongoTemplate.findOne(query, CarbonCalculation.class);
+    }
+
+    @Override
+    public Mono<Long> findVersionById(String id) {
+        Query query = readWriteConcerns.forResultRead(CalculationQueries.versionQuery(id));
+        return reactiveMongoTemplate.findOne(query, CarbonCalculation.class)
+                .map(CarbonCalculation::getVersion);
+    }
+
+    @Override
+    public Mono<CarbonCalculation> updateInfo(CarbonCalculation calculation, Long expectedVersion) {
+        return reactiveMongoTemplate.findAndModify(
+                CalculationQueries.updateInfoQuery(calculation.getId(), expectedVersion),
+                CalculationQueries.infoUpdate(calculation, schemaWriteVersion),
+                FindAndModifyOptions.options().returnNew(false),
+                CarbonCalculation.class);
+    }
+
+    private Document toDocument(CarbonCalculation calculation) {
+        if (calculation.getId() == null) {
+            calculation.setId(new ObjectId().toHexString());
+        }
+        return CalculationSchema.write(calculation, schemaWriteVersion);
+    }
+}
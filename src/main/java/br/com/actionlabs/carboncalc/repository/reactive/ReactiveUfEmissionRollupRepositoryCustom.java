@@ -0,0 +1,9 @@
+package br.com.actionlabs.carboncalc.repository.reactive;
+
+import br.com.actionlabs.carboncalc.model.EmissionDelta;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUfEmissionRollupRepositoryCustom {
+
+    Mono<Void> applyDelta(EmissionDelta delta);
+}
@@ -0,0 +1,24 @@
+package br.com.actionlabs.carboncalc.repository.reactive;
+
+import br.com.actionlabs.carboncalc.model.EmissionDelta;
+import br.com.actionlabs.carboncalc.model.UfEmissionRollup;
+import br.com.actionlabs.carboncalc.repository.CalculationQueries;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+public class ReactiveUfEmissionRollupRepositoryImpl implements ReactiveUfEmissionRollupRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public ReactiveUfEmissionRollupRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @Override
+    public Mono<Void> applyDelta(EmissionDelta delta) {
+        return reactiveMongoTemplate
+                .upsert(CalculationQueries.rollupQuery(delta.uf()), CalculationQueries.rollupUpdate(delta),
+                        UfEmissionRollup.class)
+                .then();
+    }
+}
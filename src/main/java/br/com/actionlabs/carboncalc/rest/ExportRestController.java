@@ -0,0 +1,48 @@
+package br.com.actionlabs.carboncalc.rest;
+
+import br.com.actionlabs.carboncalc.enums.ExportFormat;
+import br.com.actionlabs.carboncalc.service.CalculationExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+@RestController
+@RequestMapping("/open/export")
+@RequiredArgsConstructor
+@Slf4j
+@Profile("!reactive")
+public class ExportRestController {
+
+  private final CalculationExportService calculationExportService;
+
+  // an export streams the whole collection through one response, far beyond the default async timeout
+  @Value("${carbon-calc.export.timeout:30m}")
+  private Duration timeout;
+
+  @GetMapping
+  public WebAsyncTask<Void> export(
+      @RequestParam(defaultValue = "ndjson") String format,
+      @RequestParam(required = false) String uf,
+      @RequestParam(required = false) Double minTotalEmission,
+      @RequestParam(required = false) Double maxTotalEmission,
+      HttpServletResponse response) {
+    ExportFormat exportFormat = ExportFormat.fromValue(format);
+    calculationExportService.validateFilter(uf, minTotalEmission, maxTotalEmission);
+
+    response.setContentType(exportFormat.getContentType());
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+        "attachment; filename=\"carbon-calculations." + exportFormat.getFileExtension() + "\"");
+
+    return new WebAsyncTask<>(timeout.toMillis(), () -> {
+      calculationExportService.export(exportFormat, uf, minTotalEmission, maxTotalEmission,
+          response.getOutputStream());
+      return null;
+    });
+  }
+}
@@ -1,46 +1,142 @@
 package br.com.actionlabs.carboncalc.rest;
 
 import br.com.actionlabs.carboncalc.dto.*;
+import br.com.actionlabs.carboncalc.service.CalculationResultCache;
 import br.com.actionlabs.carboncalc.service.CarbonCalculationService;
+import br.com.actionlabs.carboncalc.service.IdempotencyService;
+import br.com.actionlabs.carboncalc.service.MonthlyEmissionService;
+import br.com.actionlabs.carboncalc.service.SimulationService;
+import br.com.actionlabs.carboncalc.utils.VersionTags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
 @RestController
 @RequestMapping("/open")
 @RequiredArgsConstructor
 @Slf4j
+@Profile("!reactive")
 public class OpenRestController {
 
+  /**
+   * Version of the caller's last write, echoed back on reads so that a lagging secondary or a stale cache
+   * entry cannot hand them a result older than what they just saved.
+   */
+  public static final String CAUSAL_TOKEN_HEADER = "X-Causal-Token";
+
+  // results change on every info update, so clients must revalidate, which costs a 304 when nothing changed
+  private static final CacheControl RESULT_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
   private final CarbonCalculationService carbonCalculationService;
+  private final IdempotencyService idempotencyService;
+  private final SimulationService simulationService;
+  private final MonthlyEmissionService monthlyEmissionService;
 
   @PostMapping("start-calc")
   public ResponseEntity<StartCalcResponseDTO> startCalculation(
-      @RequestBody StartCalcRequestDTO request) {
-    String id = carbonCalculationService.startCalculation(request);
+      @RequestBody StartCalcRequestDTO request,
+      @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    StartCalcResponseDTO dto = idempotencyService.execute("start-calc", idempotencyKey, request,
+        StartCalcResponseDTO.class, () -> {
+          String id = carbonCalculationService.startCalculation(request);
 
-    StartCalcResponseDTO dto = new StartCalcResponseDTO();
-    dto.setId(id);
+          StartCalcResponseDTO created = new StartCalcResponseDTO();
+          created.setId(id);
+          return created;
+        });
 
     return new ResponseEntity<>(dto, HttpStatus.OK);
   }
 
   @PutMapping("info")
   public ResponseEntity<UpdateCalcInfoResponseDTO> updateInfo(
-      @RequestBody UpdateCalcInfoRequestDTO request) {
-    boolean result = carbonCalculationService.updateInfo(request);
+      @RequestBody UpdateCalcInfoRequestDTO request,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    UpdateCalcInfoResponseDTO dto = idempotencyService.execute("info", idempotencyKey,
+        Arrays.asList(request, ifMatch), UpdateCalcInfoResponseDTO.class,
+        () -> carbonCalculationService.updateInfo(request, VersionTags.parse(ifMatch)));
 
-    UpdateCalcInfoResponseDTO dto = new UpdateCalcInfoResponseDTO();
-    dto.setSuccess(result);
-
-    return new ResponseEntity<>(dto, HttpStatus.OK);
+    return ResponseEntity.ok()
+        .eTag(VersionTags.format(dto.getVersion()))
+        .header(CAUSAL_TOKEN_HEADER, VersionTags.format(dto.getVersion()))
+        .body(dto);
   }
 
   @GetMapping("result/{id}")
-  public ResponseEntity<CarbonCalculationResultDTO> getResult(@PathVariable String id) {
-    return new ResponseEntity<>(carbonCalculationService.getCarbonCalculationResult(id),
+  public ResponseEntity<CarbonCalculationResultDTO> getResult(
+      @PathVariable String id,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = CAUSAL_TOKEN_HEADER, required = false) String causalToken) {
+    Long minVersion = VersionTags.parse(causalToken);
+    // the ranks move with everyone else's updates, so the tag names the sketches they came from as well
+    String generation = carbonCalculationService.getRankGeneration();
+    if (ifNoneMatch != null) {
+      long version = carbonCalculationService.getResultVersion(id);
+      // a version behind the token came from a lagging read, so let the full read settle it
+      if ((minVersion == null || version >= minVersion)
+          && VersionTags.matchesAny(ifNoneMatch, version, generation)) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .eTag(VersionTags.format(version, generation))
+            .cacheControl(RESULT_CACHE_CONTROL)
+            .build();
+      }
+    }
+
+    CalculationResultCache.Entry entry = carbonCalculationService.getVersionedResult(id, minVersion);
+    return ResponseEntity.ok()
+        .eTag(VersionTags.format(entry.version(), generation))
+        .cacheControl(RESULT_CACHE_CONTROL)
+        .body(entry.result());
+  }
+
+  @GetMapping("history/{id}")
+  public ResponseEntity<List<CalculationHistoryEntryDTO>> getHistory(@PathVariable String id) {
+    return new ResponseEntity<>(carbonCalculationService.getHistory(id), HttpStatus.OK);
+  }
+
+  // months are yyyy-MM, UTC; by default the last twelve up to the current one
+  @GetMapping("trend/{id}")
+  public ResponseEntity<List<MonthlyEmissionDTO>> getTrend(
+      @PathVariable String id,
+      @RequestParam(required = false) YearMonth from,
+      @RequestParam(required = false) YearMonth to) {
+    YearMonth until = to != null ? to : YearMonth.now(ZoneOffset.UTC);
+    YearMonth since = from != null ? from : until.minusMonths(11);
+    return new ResponseEntity<>(monthlyEmissionService.getTrend(id, since, until), HttpStatus.OK);
+  }
+
+  @PostMapping("simulate")
+  public ResponseEntity<SimulationResponseDTO> simulate(@RequestBody SimulationRequestDTO request) {
+    return new ResponseEntity<>(simulationService.simulate(request), HttpStatus.OK);
+  }
+
+  @PostMapping("bulk/start-calc")
+  public ResponseEntity<List<BulkItemResponseDTO<StartCalcResponseDTO>>> startCalculations(
+      @RequestBody List<StartCalcRequestDTO> requests) {
+    return new ResponseEntity<>(carbonCalculationService.startCalculations(requests), HttpStatus.OK);
+  }
+
+  @PutMapping("bulk/info")
+  public ResponseEntity<List<BulkItemResponseDTO<UpdateCalcInfoResponseDTO>>> updateInfos(
+      @RequestBody List<UpdateCalcInfoRequestDTO> requests) {
+    return new ResponseEntity<>(carbonCalculationService.updateInfos(requests), HttpStatus.OK);
+  }
+
+  @PostMapping("bulk/result")
+  public ResponseEntity<List<BulkItemResponseDTO<CarbonCalculationResultDTO>>> getResults(
+      @RequestBody List<String> ids) {
+    return new ResponseEntity<>(carbonCalculationService.getCarbonCalculationResults(ids),
             HttpStatus.OK);
   }
 }
@@ -0,0 +1,51 @@
+package br.com.actionlabs.carboncalc.rest;
+
+import br.com.actionlabs.carboncalc.dto.*;
+import br.com.actionlabs.carboncalc.service.ReactiveCarbonCalculationService;
+import br.com.actionlabs.carboncalc.utils.VersionTags;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/open")
+@RequiredArgsConstructor
+@Slf4j
+@Profile("reactive")
+public class ReactiveOpenRestController {
+
+  private final ReactiveCarbonCalculationService reactiveCarbonCalculationService;
+
+  @PostMapping("start-calc")
+  public Mono<ResponseEntity<StartCalcResponseDTO>> startCalculation(
+      @RequestBody StartCalcRequestDTO request) {
+    return reactiveCarbonCalculationService.startCalculation(request)
+        .map(id -> {
+          StartCalcResponseDTO dto = new StartCalcResponseDTO();
+          dto.setId(id);
+
+          return new ResponseEntity<>(dto, HttpStatus.OK);
+        });
+  }
+
+  @PutMapping("info")
+  public Mono<ResponseEntity<UpdateCalcInfoResponseDTO>> updateInfo(
+      @RequestBody UpdateCalcInfoRequestDTO request,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    return Mono.defer(() -> reactiveCarbonCalculationService.updateInfo(request, VersionTags.parse(ifMatch)))
+        .map(dto -> ResponseEntity.ok()
+            .eTag(VersionTags.format(dto.getVersion()))
+            .body(dto));
+  }
+
+  @GetMapping("result/{id}")
+  public Mono<ResponseEntity<CarbonCalculationResultDTO>> getResult(@PathVariable String id) {
+    return reactiveCarbonCalculationService.getCarbonCalculationResult(id)
+        .map(result -> new ResponseEntity<>(result, HttpStatus.OK));
+  }
+}
@@ -0,0 +1,41 @@
+package br.com.actionlabs.carboncalc.rest;
+
+import br.com.actionlabs.carboncalc.dto.MonthlyUfRollupDTO;
+import br.com.actionlabs.carboncalc.dto.UfEmissionRollupDTO;
+import br.com.actionlabs.carboncalc.service.MonthlyEmissionService;
+import br.com.actionlabs.carboncalc.service.UfEmissionRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+@RestController
+@RequestMapping("/open/rollups")
+@RequiredArgsConstructor
+@Slf4j
+@Profile("!reactive")
+public class RollupRestController {
+
+  private final UfEmissionRollupService ufEmissionRollupService;
+  private final MonthlyEmissionService monthlyEmissionService;
+
+  @GetMapping
+  public List<UfEmissionRollupDTO> getRollups() {
+    return ufEmissionRollupService.getRollups();
+  }
+
+  // same month range as /open/trend; without a uf, every UF of each month in uf order
+  @GetMapping("monthly")
+  public List<MonthlyUfRollupDTO> getMonthlyRollups(
+      @RequestParam(required = false) YearMonth from,
+      @RequestParam(required = false) YearMonth to,
+      @RequestParam(required = false) String uf) {
+    YearMonth until = to != null ? to : YearMonth.now(ZoneOffset.UTC);
+    YearMonth since = from != null ? from : until.minusMonths(11);
+    return monthlyEmissionService.getUfRollups(since, until, uf);
+  }
+}
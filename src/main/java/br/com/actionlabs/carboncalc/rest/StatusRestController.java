@@ -1,8 +1,12 @@
 package br.com.actionlabs.carboncalc.rest;
 
 
+import br.com.actionlabs.carboncalc.dto.CacheStatsDTO;
 import br.com.actionlabs.carboncalc.dto.ServerStatusDTO;
+import br.com.actionlabs.carboncalc.service.CalculationResultCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import java.util.Date;
+import java.util.List;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,6 +19,8 @@ import org.springframework.web.bind.annotation.*;
 @Slf4j
 public class StatusRestController {
 
+  private final CalculationResultCache calculationResultCache;
+
   @Value("${server.version}")
   private String version;
 
@@ -26,5 +32,12 @@ public class StatusRestController {
     return new ServerStatusDTO(version, currentTimeMillis, new Date(currentTimeMillis).toString());
   }
 
+  @GetMapping("/caches")
+  public List<CacheStatsDTO> cacheStats() {
+    CacheStats stats = calculationResultCache.stats();
+    return List.of(new CacheStatsDTO("calculationResult", calculationResultCache.size(), stats.hitCount(),
+        stats.missCount(), stats.hitRate(), stats.evictionCount()));
+  }
+
 }
 
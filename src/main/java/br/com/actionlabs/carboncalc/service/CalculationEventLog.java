@@ -0,0 +1,242 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.exceptions.CalculationVersionConflictException;
+import br.com.actionlabs.carboncalc.model.CalculationEvent;
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.repository.CalculationEventRepository;
+import br.com.actionlabs.carboncalc.repository.CarbonCalculationRepository;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Opt-in event log for info updates ({@code carbon-calc.event-log.enabled}). Each update inserts a
+ * {@link CalculationEvent} for the next version instead of rewriting the calculation, and two writers racing
+ * for the same version are told apart by the unique index on the insert. The calculation document becomes a
+ * snapshot, rewritten every {@code snapshot-interval} versions; the current state is the snapshot with the
+ * events after it replayed. Since every event holds the full info, replaying comes down to applying the last.
+ */
+@Slf4j
+@Component
+public class CalculationEventLog {
+
+    private final CalculationEventRepository calculationEventRepository;
+    private final CarbonCalculationRepository carbonCalculationRepository;
+
+    private final boolean enabled;
+    private final int snapshotInterval;
+
+    public CalculationEventLog(CalculationEventRepository calculationEventRepository,
+                               CarbonCalculationRepository carbonCalculationRepository,
+                               @Value("${carbon-calc.event-log.enabled:false}") boolean enabled,
+                               @Value("${carbon-calc.event-log.snapshot-interval:20}") int snapshotInterval) {
+        this.calculationEventRepository = calculationEventRepository;
+        this.carbonCalculationRepository = carbonCalculationRepository;
+        this.enabled = enabled;
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records the info and emissions of {@code calculation} as its next version, which is set on it. With an
+     * {@code expectedVersion} the event is only recorded while the calculation is still at that version.
+     *
+     * @return the emissions and version as they were before, like {@link CarbonCalculationRepository#updateInfo},
+     * or {@code null} when the calculation does not exist or is no longer at {@code expectedVersion}
+     */
+    public CarbonCalculation append(CarbonCalculation calculation, Long expectedVersion) {
+        while (true) {
+            Optional<CarbonCalculation> current = replayed(
+                    carbonCalculationRepository.findLatestEmissionsById(calculation.getId()));
+            if (current.isEmpty()
+                    || expectedVersion != null && current.get().getVersion() != expectedVersion) {
+                return null;
+            }
+
+            calculation.setVersion(current.get().getVersion() + 1);
+            try {
+                calculationEventRepository.insert(CalculationEvent.of(calculation, Instant.now()));
+            } catch (DuplicateKeyException ex) {
+                if (expectedVersion != null) {
+                    return null;
+                }
+                // another update took this version first, so build on top of it
+                continue;
+            }
+
+            snapshotIfDue(calculation);
+            return current.get();
+        }
+    }
+
+    /**
+     * Records the next version of every calculation, whose version must be the one it was read at, in a single
+     * bulk insert. Versions of the recorded calculations are incremented.
+     *
+     * @return the error of each failed insert, keyed by its index in {@code calculations}
+     */
+    public Map<Integer, BulkWriteError> appendAll(List<CarbonCalculation> calculations) {
+        Instant recordedAt = Instant.now();
+        List<CalculationEvent> events = new ArrayList<>(calculations.size());
+        for (CarbonCalculation calculation : calculations) {
+            calculation.setVersion(calculation.getVersion() + 1);
+            events.add(CalculationEvent.of(calculation, recordedAt));
+        }
+
+        Map<Integer, BulkWriteError> failures = new HashMap<>();
+        for (Map.Entry<Integer, BulkWriteError> failure : calculationEventRepository.bulkInsert(events).entrySet()) {
+            BulkWriteError error = failure.getValue();
+            CarbonCalculation calculation = calculations.get(failure.getKey());
+            calculation.setVersion(calculation.getVersion() - 1);
+
+            if (ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                String message = new CalculationVersionConflictException(calculation.getId(), calculation.getVersion())
+                        .getMessage();
+                error = new BulkWriteError(error.getCode(), message, error.getDetails(), error.getIndex());
+            }
+            failures.put(failure.getKey(), error);
+        }
+
+        for (int i = 0; i < calculations.size(); i++) {
+            if (!failures.containsKey(i)) {
+                snapshotIfDue(calculations.get(i));
+            }
+        }
+
+        return failures;
+    }
+
+    /**
+     * @return the emissions and version of the calculation, or empty when it does not exist. The snapshot is read
+     * with the result read preference, so this serves reads only; appends read theirs from the primary.
+     */
+    public Optional<CarbonCalculation> current(String id) {
+        return replayed(carbonCalculationRepository.findEmissionsById(id));
+    }
+
+    public Optional<Long> currentVersion(String id) {
+        Optional<Long> snapshotVersion = carbonCalculationRepository.findVersionById(id);
+        if (snapshotVersion.isEmpty()) {
+            return snapshotVersion;
+        }
+
+        long version = snapshotVersion.get();
+        return Optional.of(calculationEventRepository.findFirstByCalculationIdOrderByVersionDesc(id)
+                .map(CalculationEvent::getVersion)
+                .filter(eventVersion -> eventVersion > version)
+                .orElse(version));
+    }
+
+    /**
+     * Brings loaded snapshots up to date, in place, with one query for all of them.
+     */
+    public void replay(Collection<CarbonCalculation> snapshots) {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+
+        Map<String, CarbonCalculation> snapshotById = new HashMap<>();
+        for (CarbonCalculation snapshot : snapshots) {
+            snapshotById.put(snapshot.getId(), snapshot);
+        }
+
+        for (CalculationEvent event : calculationEventRepository.findLatestByCalculationIdIn(snapshotById.keySet())) {
+            CarbonCalculation snapshot = snapshotById.get(event.getCalculationId());
+            if (event.getVersion() > snapshot.getVersion()) {
+                event.applyTo(snapshot);
+            }
+        }
+    }
+
+    /**
+     * Streams the non-personal fields of the matching calculations at their current version, like
+     * {@link CarbonCalculationRepository#streamForExport}, which it reads from directly while the log is off.
+     * Otherwise each batch of snapshots is replayed before it is passed on, and since an update may have moved a
+     * calculation into or out of the emission range, the range is applied after the replay. The stream must be
+     * closed to release the cursor.
+     */
+    public Stream<CarbonCalculation> streamCurrent(String uf, Double minTotalEmission, Double maxTotalEmission,
+                                                   int batchSize) {
+        if (!enabled) {
+            return carbonCalculationRepository.streamForExport(uf, minTotalEmission, maxTotalEmission, batchSize);
+        }
+
+        int replayBatchSize = Math.max(1, batchSize);
+        Stream<CarbonCalculation> snapshots = carbonCalculationRepository.streamForExport(uf, null, null, batchSize);
+        Iterator<CarbonCalculation> cursor = snapshots.iterator();
+        Iterator<List<CarbonCalculation>> batches = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            @Override
+            public List<CarbonCalculation> next() {
+                List<CarbonCalculation> batch = new ArrayList<>(replayBatchSize);
+                while (batch.size() < replayBatchSize && cursor.hasNext()) {
+                    batch.add(cursor.next());
+                }
+                replay(batch);
+                return batch;
+            }
+        };
+
+        Stream<CarbonCalculation> current = StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(batches, Spliterator.ORDERED), false)
+                .flatMap(List::stream);
+        if (minTotalEmission != null || maxTotalEmission != null) {
+            current = current.filter(calculation -> calculation.getTotalEmission() != null
+                    && (minTotalEmission == null || calculation.getTotalEmission() >= minTotalEmission)
+                    && (maxTotalEmission == null || calculation.getTotalEmission() <= maxTotalEmission));
+        }
+        return current.onClose(snapshots::close);
+    }
+
+    /**
+     * @return every recorded version of the calculation, oldest first
+     */
+    public List<CalculationEvent> history(String id) {
+        return calculationEventRepository.findByCalculationIdOrderByVersionAsc(id);
+    }
+
+    private Optional<CarbonCalculation> replayed(Optional<CarbonCalculation> snapshot) {
+        snapshot.ifPresent(calculation -> calculationEventRepository
+                .findFirstByCalculationIdOrderByVersionDesc(calculation.getId())
+                .filter(event -> event.getVersion() > calculation.getVersion())
+                .ifPresent(event -> event.applyTo(calculation)));
+        return snapshot;
+    }
+
+    private void snapshotIfDue(CarbonCalculation calculation) {
+        if (calculation.getVersion() % snapshotInterval != 0) {
+            return;
+        }
+
+        // the event is already recorded, so a failed snapshot only means a longer replay
+        try {
+            carbonCalculationRepository.saveSnapshot(calculation);
+        } catch (RuntimeException ex) {
+            log.warn("Could not snapshot calculation {} at version {}", calculation.getId(),
+                    calculation.getVersion(), ex);
+        }
+    }
+}
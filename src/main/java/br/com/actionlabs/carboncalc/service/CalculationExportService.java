@@ -0,0 +1,149 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.enums.ExportFormat;
+import br.com.actionlabs.carboncalc.exceptions.InvalidEmissionRangeException;
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.utils.CalculationRequestValidator;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class CalculationExportService {
+
+    private static final String CSV_HEADER = "id,uf,energyConsumption,solidWasteProduction,recyclePercentage,"
+            + "energyEmission,transportationEmission,solidWasteEmission,totalEmission";
+
+    private final CalculationEventLog calculationEventLog;
+    private final CalculationRequestValidator calculationRequestValidator;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public CalculationExportService(CalculationEventLog calculationEventLog,
+                                    CalculationRequestValidator calculationRequestValidator,
+                                    ObjectMapper objectMapper,
+                                    @Value("${carbon-calc.export.batch-size:1000}") int batchSize) {
+        this.calculationEventLog = calculationEventLog;
+        this.calculationRequestValidator = calculationRequestValidator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    public void validateFilter(String uf, Double minTotalEmission, Double maxTotalEmission) {
+        if (uf != null) {
+            calculationRequestValidator.validateUf(uf).throwIfInvalid();
+        }
+
+        if (minTotalEmission != null && maxTotalEmission != null && minTotalEmission > maxTotalEmission) {
+            throw new InvalidEmissionRangeException();
+        }
+    }
+
+    public void export(ExportFormat format, String uf, Double minTotalEmission, Double maxTotalEmission,
+                       OutputStream outputStream) throws IOException {
+        try (Stream<CarbonCalculation> calculations = calculationEventLog
+                .streamCurrent(uf, minTotalEmission, maxTotalEmission, batchSize)) {
+
+            if (format == ExportFormat.CSV) {
+                writeCsv(calculations.iterator(), outputStream);
+            } else {
+                writeNdjson(calculations.iterator(), outputStream);
+            }
+        }
+    }
+
+    private void writeNdjson(Iterator<CarbonCalculation> calculations, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            while (calculations.hasNext()) {
+                CarbonCalculation calculation = calculations.next();
+
+                generator.writeStartObject();
+                generator.writeStringField("id", calculation.getId());
+                generator.writeStringField("uf", calculation.getUf());
+                generator.writeNumberField("energyConsumption", calculation.getEnergyConsumption());
+                generator.writeNumberField("solidWasteProduction", calculation.getSolidWasteProduction());
+                generator.writeNumberField("recyclePercentage", calculation.getRecyclePercentage());
+                writeNullableNumber(generator, "energyEmission", calculation.getEnergyEmission());
+                writeNullableNumber(generator, "transportationEmission", calculation.getTransportationEmission());
+                writeNullableNumber(generator, "solidWasteEmission", calculation.getSolidWasteEmission());
+                writeNullableNumber(generator, "totalEmission", calculation.getTotalEmission());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private static void writeNullableNumber(JsonGenerator generator, String field, Double value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeNumberField(field, value);
+        }
+    }
+
+    private static void writeCsv(Iterator<CarbonCalculation> calculations, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        while (calculations.hasNext()) {
+            CarbonCalculation calculation = calculations.next();
+
+            writeCsvField(writer, calculation.getId());
+            writer.write(',');
+            writeCsvField(writer, calculation.getUf());
+            writer.write(',');
+            writer.write(Double.toString(calculation.getEnergyConsumption()));
+            writer.write(',');
+            writer.write(Double.toString(calculation.getSolidWasteProduction()));
+            writer.write(',');
+            writer.write(Double.toString(calculation.getRecyclePercentage()));
+            writer.write(',');
+            writeNullableNumber(writer, calculation.getEnergyEmission());
+            writer.write(',');
+            writeNullableNumber(writer, calculation.getTransportationEmission());
+            writer.write(',');
+            writeNullableNumber(writer, calculation.getSolidWasteEmission());
+            writer.write(',');
+            writeNullableNumber(writer, calculation.getTotalEmission());
+            writer.write('\n');
+        }
+
+        writer.flush();
+    }
+
+    // RFC 4180: fields holding a separator, quote or line break are quoted, with quotes doubled
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static void writeNullableNumber(Writer writer, Double value) throws IOException {
+        if (value != null) {
+            writer.write(Double.toString(value));
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of calculations acknowledged but not yet inserted, one JSON document per line, split into
+ * segments. {@link #append} returns only once the record is on disk; concurrent appends share a single
+ * {@code fsync} (group commit). A segment is deleted once it is full and every record in it was released.
+ */
+@Slf4j
+final class CalculationJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "calculations-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final long segmentSize;
+    private final ObjectMapper objectMapper;
+
+    private final Object appendLock = new Object();
+    private final Map<Long, Segment> segments = new ConcurrentHashMap<>();
+
+    // guarded by appendLock
+    private Segment active;
+
+    private CalculationJournal(Path directory, long segmentSize, ObjectMapper objectMapper, long firstSequence)
+            throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.objectMapper = objectMapper;
+        this.active = open(firstSequence);
+    }
+
+    /**
+     * Opens a fresh journal in {@code directory}. Segments left by a previous run must have been replayed and
+     * deleted with {@link #replay} first.
+     */
+    static CalculationJournal open(Path directory, long segmentSize, ObjectMapper objectMapper) throws IOException {
+        Files.createDirectories(directory);
+        long next = segmentPaths(directory).stream().mapToLong(CalculationJournal::sequenceOf).max().orElse(0) + 1;
+        return new CalculationJournal(directory, segmentSize, objectMapper, next);
+    }
+
+    /**
+     * Reads every record left in {@code directory}. A line torn by a crash mid-write is skipped, since its
+     * append never returned and so was never acknowledged.
+     */
+    static List<CarbonCalculation> replay(Path directory, ObjectMapper objectMapper) throws IOException {
+        List<CarbonCalculation> calculations = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return calculations;
+        }
+
+        for (Path path : segmentPaths(directory)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        calculations.add(objectMapper.readValue(line, CarbonCalculation.class));
+                    } catch (JsonProcessingException ex) {
+                        log.warn("Skipping unreadable record in {}", path.getFileName());
+                    }
+                }
+            }
+        }
+        return calculations;
+    }
+
+    static void deleteSegments(Path directory) throws IOException {
+        for (Path path : segmentPaths(directory)) {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Writes {@code calculation} and waits until it is durable.
+     *
+     * @return the segment holding the record, to {@link #release} once the record is stored elsewhere
+     */
+    long append(CarbonCalculation calculation) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(calculation);
+        ByteBuffer record = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+
+        Segment segment;
+        long end;
+        synchronized (appendLock) {
+            if (active.size >= segmentSize) {
+                roll();
+            }
+            segment = active;
+            segment.outstanding.incrementAndGet();
+            try {
+                while (record.hasRemaining()) {
+                    segment.channel.write(record);
+                }
+            } catch (IOException ex) {
+                release(segment.sequence);
+                throw ex;
+            }
+            segment.size += record.limit();
+            end = segment.size;
+        }
+
+        try {
+            segment.sync(end);
+        } catch (IOException ex) {
+            release(segment.sequence);
+            throw ex;
+        }
+        return segment.sequence;
+    }
+
+    void release(long sequence) {
+        Segment segment = segments.get(sequence);
+        if (segment != null && segment.outstanding.decrementAndGet() == 0 && segment.sealed) {
+            delete(segment);
+        }
+    }
+
+    /**
+     * Closes every segment, deleting those whose records were all released so a clean shutdown leaves nothing
+     * to replay.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            for (Segment segment : segments.values()) {
+                segment.channel.close();
+                if (segment.outstanding.get() == 0) {
+                    Files.deleteIfExists(segment.path);
+                }
+            }
+            segments.clear();
+        }
+    }
+
+    private void roll() throws IOException {
+        Segment previous = active;
+        active = open(previous.sequence + 1);
+
+        previous.sealed = true;
+        if (previous.outstanding.get() == 0) {
+            delete(previous);
+        }
+    }
+
+    private Segment open(long sequence) throws IOException {
+        Path path = directory.resolve(SEGMENT_PREFIX + sequence + SEGMENT_SUFFIX);
+        Segment segment = new Segment(sequence, path,
+                FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+        segments.put(sequence, segment);
+        return segment;
+    }
+
+    private void delete(Segment segment) {
+        if (segments.remove(segment.sequence) == null) {
+            return;
+        }
+        try {
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+        } catch (IOException ex) {
+            log.warn("Could not delete journal segment {}", segment.path, ex);
+        }
+    }
+
+    private static List<Path> segmentPaths(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted(Comparator.comparingLong(CalculationJournal::sequenceOf))
+                    .toList();
+        }
+    }
+
+    private static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final class Segment {
+
+        final long sequence;
+        final Path path;
+        final FileChannel channel;
+        final AtomicInteger outstanding = new AtomicInteger();
+
+        // written under appendLock
+        volatile long size;
+        volatile boolean sealed;
+
+        private volatile long syncedSize;
+
+        Segment(long sequence, Path path, FileChannel channel) {
+            this.sequence = sequence;
+            this.path = path;
+            this.channel = channel;
+        }
+
+        /**
+         * Forces the segment to disk unless another thread already did so past {@code end}.
+         */
+        void sync(long end) throws IOException {
+            if (syncedSize >= end) {
+                return;
+            }
+            synchronized (this) {
+                if (syncedSize >= end) {
+                    return;
+                }
+                long target = size;
+                channel.force(false);
+                syncedSize = target;
+            }
+        }
+    }
+}
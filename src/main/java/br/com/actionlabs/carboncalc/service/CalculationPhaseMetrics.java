@@ -0,0 +1,72 @@
+package br.com.actionlabs.carboncalc.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * {@code carbon.calculation.phase} timers, tagged by operation and phase, so a slow start-calc or info update
+ * can be attributed to validation, lookups, one of the emission steps or the write. Timers are registered up
+ * front so recording a phase does not look meters up by tags.
+ */
+@Component
+public class CalculationPhaseMetrics {
+
+    public enum Operation {
+        START("start"),
+        UPDATE("update");
+
+        private final String tag;
+
+        Operation(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    public enum Phase {
+        VALIDATION("validation"),
+        UF_LOOKUP("uf-lookup"),
+        FACTOR_LOOKUP("factor-lookup"),
+        ENERGY_EMISSION("energy-emission"),
+        TRANSPORTATION_EMISSION("transportation-emission"),
+        SOLID_WASTE_EMISSION("solid-waste-emission"),
+        PERSISTENCE("persistence"),
+        ROLLUP("rollup");
+
+        private final String tag;
+
+        Phase(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    static final String TIMER_NAME = "carbon.calculation.phase";
+
+    private final Map<Operation, Map<Phase, Timer>> timers = new EnumMap<>(Operation.class);
+
+    public CalculationPhaseMetrics(MeterRegistry meterRegistry) {
+        for (Operation operation : Operation.values()) {
+            Map<Phase, Timer> phaseTimers = new EnumMap<>(Phase.class);
+            for (Phase phase : Phase.values()) {
+                phaseTimers.put(phase, Timer.builder(TIMER_NAME)
+                        .description("Time spent in each phase of a carbon calculation request")
+                        .tag("operation", operation.tag)
+                        .tag("phase", phase.tag)
+                        .register(meterRegistry));
+            }
+            timers.put(operation, phaseTimers);
+        }
+    }
+
+    public <T> T time(Operation operation, Phase phase, Supplier<T> step) {
+        return timers.get(operation).get(phase).record(step);
+    }
+
+    public void time(Operation operation, Phase phase, Runnable step) {
+        timers.get(operation).get(phase).record(step);
+    }
+}
@@ -0,0 +1,63 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.dto.CarbonCalculationResultDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Results of GET /open/result by calculation id. Entries carry the calculation version, so a slow read
+ * racing an update can never replace a newer result with an older one, and the UF the result is ranked in.
+ * Updates made on other instances do not reach this cache, so callers check the stored version before serving
+ * an entry.
+ */
+@Component
+public class CalculationResultCache implements MeterBinder {
+
+    public record Entry(long version, String uf, CarbonCalculationResultDTO result) {
+    }
+
+    private final Cache<String, Entry> resultById;
+
+    public CalculationResultCache(@Value("${carbon-calc.cache.result-maximum-size:100000}") long maximumSize,
+                                  @Value("${carbon-calc.cache.result-ttl:10m}") Duration ttl) {
+        this.resultById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Entry getIfPresent(String id) {
+        return resultById.getIfPresent(id);
+    }
+
+    public void put(String id, long version, String uf, CarbonCalculationResultDTO result) {
+        resultById.asMap().merge(id, new Entry(version, uf, result),
+                (current, candidate) -> candidate.version() >= current.version() ? candidate : current);
+    }
+
+    public void invalidate(String id) {
+        resultById.invalidate(id);
+    }
+
+    public CacheStats stats() {
+        return resultById.stats();
+    }
+
+    public long size() {
+        return resultById.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, resultById, "calculationResult");
+    }
+}
@@ -0,0 +1,131 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.model.SchemaMigrationCheckpoint;
+import br.com.actionlabs.carboncalc.repository.CalculationSchema;
+import br.com.actionlabs.carboncalc.repository.CarbonCalculationRepository;
+import br.com.actionlabs.carboncalc.repository.SchemaMigrationCheckpointRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Rewrites calculations stored in an older {@link CalculationSchema} version ({@code carbon-calc.schema-migration}),
+ * one batch of {@code batch-size} every {@code batch-interval}, which caps the write load it adds. The last id of each
+ * batch is checkpointed, so a restart resumes where the previous run stopped. Calculations updated between the read
+ * and the rewrite are skipped by the version check and picked up by the next sweep; the migration completes once a
+ * sweep from the first id finds nothing left. One instance runs it at a time, holding the {@code schema-migration}
+ * {@link JobLockService} lease, which it renews with every batch; another takes over once that instance stops for
+ * longer than {@code lease}. Older layouts are found through the {@code sv}/{@code _id} index, not by a collection
+ * scan.
+ * <p>
+ * It only runs once writes are in the current version ({@code carbon-calc.schema.write-version}), which must wait
+ * until every instance reads it. A completed migration is checked again every {@code recheck-interval}, since
+ * instances whose write version has not been switched yet keep writing the old layout. Finding a document left in
+ * it starts a new sweep.
+ */
+@Slf4j
+@Service
+public class CalculationSchemaMigrator {
+
+    static final String CHECKPOINT_ID = "carbonCalculation-v" + CalculationSchema.CURRENT_VERSION;
+    static final String MIGRATION_JOB = "schema-migration";
+
+    private final CarbonCalculationRepository carbonCalculationRepository;
+    private final SchemaMigrationCheckpointRepository schemaMigrationCheckpointRepository;
+    private final JobLockService jobLockService;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration recheckInterval;
+    private final Duration lease;
+
+    private volatile boolean completed;
+    private volatile Instant nextRecheck = Instant.MIN;
+
+    public CalculationSchemaMigrator(CarbonCalculationRepository carbonCalculationRepository,
+                                     SchemaMigrationCheckpointRepository schemaMigrationCheckpointRepository,
+                                     JobLockService jobLockService,
+                                     @Value("${carbon-calc.schema-migration.enabled:true}") boolean enabled,
+                                     @Value("${carbon-calc.schema-migration.batch-size:500}") int batchSize,
+                                     @Value("${carbon-calc.schema-migration.recheck-interval:1h}")
+                                     Duration recheckInterval,
+                                     @Value("${carbon-calc.schema-migration.lease:1m}") Duration lease,
+                                     @Value("${carbon-calc.schema.write-version:1}") int schemaWriteVersion) {
+        this.carbonCalculationRepository = carbonCalculationRepository;
+        this.schemaMigrationCheckpointRepository = schemaMigrationCheckpointRepository;
+        this.jobLockService = jobLockService;
+        // rewriting to a version other instances cannot read yet would hide calculations from them
+        this.enabled = enabled && schemaWriteVersion == CalculationSchema.CURRENT_VERSION;
+        this.batchSize = batchSize;
+        this.recheckInterval = recheckInterval;
+        this.lease = lease;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    @Scheduled(fixedDelayString = "${carbon-calc.schema-migration.batch-interval:1s}",
+            initialDelayString = "${carbon-calc.schema-migration.initial-delay:1m}")
+    public void migrateBatch() {
+        if (!enabled || (completed && Instant.now().isBefore(nextRecheck))) {
+            return;
+        }
+
+        try {
+            if (!jobLockService.tryAcquire(MIGRATION_JOB, lease)) {
+                return;
+            }
+
+            SchemaMigrationCheckpoint checkpoint = schemaMigrationCheckpointRepository.findById(CHECKPOINT_ID)
+                    .orElseGet(CalculationSchemaMigrator::newCheckpoint);
+            if (checkpoint.getCompletedAt() != null) {
+                completed = true;
+                nextRecheck = Instant.now().plus(recheckInterval);
+                if (carbonCalculationRepository.findInOlderSchema(null, 1).isEmpty()) {
+                    return;
+                }
+
+                log.info("Found calculations written in an older schema since the migration completed, sweeping again");
+                checkpoint.setCompletedAt(null);
+                checkpoint.setLastId(null);
+                completed = false;
+                schemaMigrationCheckpointRepository.save(checkpoint);
+                return;
+            }
+
+            List<CarbonCalculation> batch = carbonCalculationRepository.findInOlderSchema(checkpoint.getLastId(),
+                    batchSize);
+            if (!batch.isEmpty()) {
+                checkpoint.setMigrated(checkpoint.getMigrated()
+                        + carbonCalculationRepository.rewriteInCurrentSchema(batch));
+                checkpoint.setLastId(batch.get(batch.size() - 1).getId());
+            } else if (checkpoint.getLastId() != null) {
+                // sweep again for calculations skipped because they were updated mid-batch
+                checkpoint.setLastId(null);
+            } else {
+                checkpoint.setCompletedAt(Instant.now());
+                completed = true;
+                nextRecheck = Instant.now().plus(recheckInterval);
+                log.info("Migrated {} calculations to schema version {}", checkpoint.getMigrated(),
+                        CalculationSchema.CURRENT_VERSION);
+            }
+
+            schemaMigrationCheckpointRepository.save(checkpoint);
+        } catch (RuntimeException ex) {
+            log.warn("Schema migration batch failed, retrying on the next one", ex);
+        }
+    }
+
+    private static SchemaMigrationCheckpoint newCheckpoint() {
+        SchemaMigrationCheckpoint checkpoint = new SchemaMigrationCheckpoint();
+        checkpoint.setId(CHECKPOINT_ID);
+        return checkpoint;
+    }
+}
@@ -0,0 +1,39 @@
+package br.com.actionlabs.carboncalc.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * UF of each calculation by id. The UF is set by start-calc and never changes afterwards, so entries
+ * only leave the cache through size eviction.
+ */
+@Component
+public class CalculationUfCache implements MeterBinder {
+
+    private final Cache<String, String> ufById;
+
+    public CalculationUfCache(@Value("${carbon-calc.cache.uf-maximum-size:100000}") long maximumSize) {
+        this.ufById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    public String getIfPresent(String id) {
+        return ufById.getIfPresent(id);
+    }
+
+    public void put(String id, String uf) {
+        ufById.put(id, uf);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, ufById, "calculationUf");
+    }
+}
@@ -0,0 +1,360 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.exceptions.CalculationNotPersistedException;
+import br.com.actionlabs.carboncalc.exceptions.EmailAlreadyExists;
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.repository.CarbonCalculationRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in write-behind for new calculations ({@code carbon-calc.write-behind.enabled}). {@link #submit}
+ * journals a calculation with a client-generated id and returns; a background writer inserts the queue in
+ * batches. Until then, the calculation is readable through {@link #find}, and writes to it must wait for
+ * {@link #awaitPersisted}. On startup, whatever the journal still holds is inserted again.
+ * <p>
+ * Submitting never waits on Mongo: emails are reserved locally, among the pending calculations, and the
+ * reservation is confirmed when the batch is flushed. A calculation whose email turns out to be taken then is
+ * not inserted but remembered as rejected for {@code rejected-retention}, so the next write to its id fails with
+ * {@link EmailAlreadyExists} instead of finding nothing.
+ */
+@Slf4j
+@Component
+public class CalculationWriteBehind implements MeterBinder {
+
+    private final CarbonCalculationRepository carbonCalculationRepository;
+    private final EmailRegistry emailRegistry;
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+    private final Path journalDirectory;
+    private final DataSize segmentSize;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration retryDelay;
+    private final Duration awaitTimeout;
+
+    private final Map<String, Pending> pendingById = new ConcurrentHashMap<>();
+    private final Map<String, String> pendingIdByEmail = new ConcurrentHashMap<>();
+    private final BlockingQueue<Pending> queue;
+    private final Cache<String, Boolean> rejectedIds;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private CalculationJournal journal;
+    private Thread writer;
+    private volatile boolean running;
+
+    public CalculationWriteBehind(CarbonCalculationRepository carbonCalculationRepository,
+                                  EmailRegistry emailRegistry,
+                                  ObjectMapper objectMapper,
+                                  @Value("${carbon-calc.write-behind.enabled:false}") boolean enabled,
+                                  @Value("${carbon-calc.write-behind.journal-directory:write-behind}") String journalDirectory,
+                                  @Value("${carbon-calc.write-behind.segment-size:64MB}") DataSize segmentSize,
+                                  @Value("${carbon-calc.write-behind.batch-size:500}") int batchSize,
+                                  @Value("${carbon-calc.write-behind.max-pending:100000}") int maxPending,
+                                  @Value("${carbon-calc.write-behind.poll-interval:100ms}") Duration pollInterval,
+                                  @Value("${carbon-calc.write-behind.retry-delay:1s}") Duration retryDelay,
+                                  @Value("${carbon-calc.write-behind.await-timeout:5s}") Duration awaitTimeout,
+                                  @Value("${carbon-calc.write-behind.rejected-retention:1h}") Duration rejectedRetention) {
+        this.carbonCalculationRepository = carbonCalculationRepository;
+        this.emailRegistry = emailRegistry;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.journalDirectory = Path.of(journalDirectory);
+        this.segmentSize = segmentSize;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.retryDelay = retryDelay;
+        this.awaitTimeout = awaitTimeout;
+        this.queue = new LinkedBlockingQueue<>(maxPending);
+        this.rejectedIds = Caffeine.newBuilder()
+                .maximumSize(maxPending)
+                .expireAfterWrite(rejectedRetention)
+                .build();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        List<CarbonCalculation> unflushed = CalculationJournal.replay(journalDirectory, objectMapper);
+        if (!unflushed.isEmpty()) {
+            log.info("Replaying {} journaled calculations", unflushed.size());
+            for (int from = 0; from < unflushed.size(); from += batchSize) {
+                insert(unflushed.subList(from, Math.min(from + batchSize, unflushed.size())), true);
+            }
+        }
+        CalculationJournal.deleteSegments(journalDirectory);
+
+        journal = CalculationJournal.open(journalDirectory, segmentSize.toBytes(), objectMapper);
+        running = true;
+        writer = new Thread(this::write, "calculation-write-behind");
+        writer.start();
+    }
+
+    /**
+     * Inserts whatever is still queued, then closes the journal.
+     */
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+
+        running = false;
+        writer.join();
+        journal.close();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Journals {@code calculation}, whose id must already be set, and queues it for insertion. Blocks while
+     * {@code max-pending} calculations are queued.
+     *
+     * @throws EmailAlreadyExists when a pending calculation holds the email
+     */
+    public void submit(CarbonCalculation calculation) {
+        String id = calculation.getId();
+        if (pendingIdByEmail.putIfAbsent(calculation.getNormalizedEmail(), id) != null) {
+            throw new EmailAlreadyExists();
+        }
+
+        Pending pending;
+        try {
+            pending = new Pending(calculation, journal.append(calculation));
+        } catch (IOException ex) {
+            pendingIdByEmail.remove(calculation.getNormalizedEmail(), id);
+            throw new UncheckedIOException("Could not journal calculation " + id, ex);
+        }
+
+        pendingById.put(id, pending);
+        try {
+            queue.put(pending);
+        } catch (InterruptedException ex) {
+            // journaled, so it is inserted on the next startup at the latest
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the calculation while it waits to be inserted
+     */
+    public Optional<CarbonCalculation> find(String id) {
+        Pending pending = pendingById.get(id);
+        return pending == null ? Optional.empty() : Optional.of(pending.calculation);
+    }
+
+    /**
+     * Waits until the calculation is inserted, or rejected, if it is still pending.
+     *
+     * @throws CalculationNotPersistedException when it is still pending after {@code await-timeout}
+     * @throws EmailAlreadyExists when it was rejected at insert time because its email was taken
+     */
+    public void awaitPersisted(String id) {
+        Pending pending = pendingById.get(id);
+        if (pending != null) {
+            await(id, pending);
+        }
+
+        if (rejectedIds.getIfPresent(id) != null) {
+            throw new EmailAlreadyExists();
+        }
+    }
+
+    /**
+     * Waits for each calculation still pending. Rejected ones are left for the caller to report as not found, so
+     * one of them does not fail the others.
+     */
+    public void awaitPersisted(Collection<String> ids) {
+        for (String id : ids) {
+            Pending pending = pendingById.get(id);
+            if (pending != null) {
+                await(id, pending);
+            }
+        }
+    }
+
+    public int pendingCount() {
+        return pendingById.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("carbon.write-behind.pending", pendingById, Map::size)
+                .description("Calculations acknowledged but not inserted yet")
+                .register(registry);
+        FunctionCounter.builder("carbon.write-behind.dropped", dropped, AtomicLong::get)
+                .description("Acknowledged calculations rejected at insert time, e.g. for a taken email")
+                .register(registry);
+    }
+
+    private void write() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            Pending first;
+            try {
+                first = queue.poll(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                continue;
+            }
+            if (first == null) {
+                continue;
+            }
+
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            if (!flush(batch)) {
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * @return {@code false} when the batch could not be inserted before shutdown
+     */
+    private boolean flush(List<Pending> batch) {
+        List<CarbonCalculation> calculations = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            calculations.add(pending.calculation);
+        }
+
+        // keep retrying: the batch is journaled, and later writes to it are waiting on the insert
+        while (true) {
+            try {
+                insert(calculations, false);
+                break;
+            } catch (RuntimeException ex) {
+                if (!running) {
+                    log.warn("Giving up on {} calculations at shutdown; the journal keeps them",
+                            batch.size() + queue.size(), ex);
+                    return false;
+                }
+                log.warn("Write-behind insert failed, retrying in {} ms", retryDelay.toMillis(), ex);
+                sleep(retryDelay);
+            }
+        }
+
+        for (Pending pending : batch) {
+            CarbonCalculation calculation = pending.calculation;
+            pendingById.remove(calculation.getId());
+            pendingIdByEmail.remove(calculation.getNormalizedEmail(), calculation.getId());
+            journal.release(pending.segment);
+            pending.persisted.complete(null);
+        }
+        return true;
+    }
+
+    private void insert(List<CarbonCalculation> batch, boolean replay) {
+        // a replayed calculation finds its own registration, so only other owners refuse it
+        Set<Integer> taken = emailRegistry.registerAll(batch);
+        List<CarbonCalculation> calculations = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (taken.contains(i)) {
+                reject(batch.get(i), "email already registered");
+            } else {
+                calculations.add(batch.get(i));
+            }
+        }
+
+        Map<Integer, BulkWriteError> failures = carbonCalculationRepository.bulkInsert(calculations);
+
+        for (Map.Entry<Integer, BulkWriteError> failure : failures.entrySet()) {
+            CarbonCalculation calculation = calculations.get(failure.getKey());
+            boolean duplicate = ErrorCategory.fromErrorCode(failure.getValue().getCode()) == ErrorCategory.DUPLICATE_KEY;
+
+            // on replay, a duplicate is usually a calculation inserted before the crash
+            if (replay && duplicate) {
+                continue;
+            }
+
+            emailRegistry.release(calculation);
+            if (duplicate) {
+                reject(calculation, failure.getValue().getMessage());
+            } else {
+                dropped.incrementAndGet();
+                log.warn("Dropping calculation {}: {}", calculation.getId(), failure.getValue().getMessage());
+            }
+        }
+    }
+
+    private void reject(CarbonCalculation calculation, String reason) {
+        dropped.incrementAndGet();
+        rejectedIds.put(calculation.getId(), Boolean.TRUE);
+        log.warn("Rejecting calculation {}: {}", calculation.getId(), reason);
+    }
+
+    private Duration retryAfter() {
+        return Duration.ofSeconds(Math.max(1, (retryDelay.toMillis() + 999) / 1000));
+    }
+
+    private void await(String id, Pending pending) {
+        try {
+            pending.persisted.get(awaitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for calculation " + id, ex);
+        } catch (ExecutionException | TimeoutException ex) {
+            // the writer retries every retry-delay, so that is the earliest the insert can have gone through
+            throw new CalculationNotPersistedException(id, retryAfter(), ex);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Pending {
+
+        final CarbonCalculation calculation;
+        final long segment;
+        final CompletableFuture<Void> persisted = new CompletableFuture<>();
+
+        Pending(CarbonCalculation calculation, long segment) {
+            this.calculation = calculation;
+            this.segment = segment;
+        }
+    }
+}
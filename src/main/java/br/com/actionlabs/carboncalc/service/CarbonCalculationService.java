@@ -1,103 +1,513 @@
 package br.com.actionlabs.carboncalc.service;
 
-import br.com.actionlabs.carboncalc.dto.CarbonCalculationResultDTO;
-import br.com.actionlabs.carboncalc.dto.StartCalcRequestDTO;
-import br.com.actionlabs.carboncalc.dto.TransportationDTO;
-import br.com.actionlabs.carboncalc.dto.UpdateCalcInfoRequestDTO;
-import br.com.actionlabs.carboncalc.exceptions.CarbonCalculationNotFoundException;
-import br.com.actionlabs.carboncalc.exceptions.EnergyEmissionFactorNotFoundException;
-import br.com.actionlabs.carboncalc.exceptions.SolidWasteEmissionFactorNotFoundException;
-import br.com.actionlabs.carboncalc.exceptions.TransportationEmissionFactorNotFoundException;
+import br.com.actionlabs.carboncalc.dto.*;
+import br.com.actionlabs.carboncalc.exceptions.*;
+import br.com.actionlabs.carboncalc.model.CalculationEvent;
 import br.com.actionlabs.carboncalc.model.CarbonCalculation;
-import br.com.actionlabs.carboncalc.model.EnergyEmissionFactor;
-import br.com.actionlabs.carboncalc.model.SolidWasteEmissionFactor;
-import br.com.actionlabs.carboncalc.model.TransportationEmissionFactor;
+import br.com.actionlabs.carboncalc.model.EmissionDelta;
 import br.com.actionlabs.carboncalc.repository.CarbonCalculationRepository;
-import br.com.actionlabs.carboncalc.repository.EnergyEmissionFactorRepository;
-import br.com.actionlabs.carboncalc.repository.SolidWasteEmissionFactorRepository;
-import br.com.actionlabs.carboncalc.repository.TransportationEmissionFactorRepository;
 import br.com.actionlabs.carboncalc.utils.*;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.util.*;
+
+import static br.com.actionlabs.carboncalc.service.CalculationPhaseMetrics.Operation.START;
+import static br.com.actionlabs.carboncalc.service.CalculationPhaseMetrics.Operation.UPDATE;
+import static br.com.actionlabs.carboncalc.service.CalculationPhaseMetrics.Phase.*;
 
 @Service
 public class CarbonCalculationService {
 
-    private final CarbonCalculationRepository carbonCalculationRepository;
-    private final EnergyEmissionFactorRepository energyEmissionFactorRepository;
-    private final SolidWasteEmissionFactorRepository solidWasteEmissionFactorRepository;
-    private final TransportationEmissionFactorRepository transportationEmissionFactorRepository;
+    static final int MAX_BULK_ITEMS = 1000;
 
-    private final EmailValidator emailValidator;
-    private final NameValidator nameValidator;
-    private final PhoneNumberValidator phoneNumberValidator;
-    private final RecyclePercentageValidator recyclePercentageValidator;
-    private final UfValidator ufValidator;
+    private final CarbonCalculationRepository carbonCalculationRepository;
+    private final EmissionFactorCatalog emissionFactorCatalog;
+    private final CalculationUfCache calculationUfCache;
+    private final CalculationResultCache calculationResultCache;
+    private final UfEmissionRollupService ufEmissionRollupService;
+    private final CalculationPhaseMetrics calculationPhaseMetrics;
+    private final CalculationWriteBehind calculationWriteBehind;
+    private final CalculationEventLog calculationEventLog;
+    private final EmailRegistry emailRegistry;
+    private final EmissionPercentileService emissionPercentileService;
+    private final MonthlyEmissionService monthlyEmissionService;
+
+    private final CalculationRequestValidator calculationRequestValidator;
 
     public CarbonCalculationService(CarbonCalculationRepository carbonCalculationRepository,
-                                    EnergyEmissionFactorRepository energyEmissionFactorRepository,
-                                    SolidWasteEmissionFactorRepository solidWasteEmissionFactorRepository,
-                                    TransportationEmissionFactorRepository transportationEmissionFactorRepository,
-                                    EmailValidator emailValidator,
-                                    NameValidator nameValidator,
-                                    PhoneNumberValidator phoneNumberValidator,
-                                    RecyclePercentageValidator recyclePercentageValidator,
-                                    UfValidator ufValidator) {
+                                    EmissionFactorCatalog emissionFactorCatalog,
+                                    CalculationUfCache calculationUfCache,
+                                    CalculationResultCache calculationResultCache,
+                                    UfEmissionRollupService ufEmissionRollupService,
+                                    CalculationPhaseMetrics calculationPhaseMetrics,
+                                    CalculationWriteBehind calculationWriteBehind,
+                                    CalculationEventLog calculationEventLog,
+                                    EmailRegistry emailRegistry,
+                                    EmissionPercentileService emissionPercentileService,
+                                    MonthlyEmissionService monthlyEmissionService,
+                                    CalculationRequestValidator calculationRequestValidator) {
         this.carbonCalculationRepository = carbonCalculationRepository;
-        this.energyEmissionFactorRepository = energyEmissionFactorRepository;
-        this.solidWasteEmissionFactorRepository = solidWasteEmissionFactorRepository;
-        this.transportationEmissionFactorRepository = transportationEmissionFactorRepository;
-        this.emailValidator = emailValidator;
-        this.nameValidator = nameValidator;
-        this.phoneNumberValidator = phoneNumberValidator;
-        this.recyclePercentageValidator = recyclePercentageValidator;
-        this.ufValidator = ufValidator;
+        this.emissionFactorCatalog = emissionFactorCatalog;
+        this.calculationUfCache = calculationUfCache;
+        this.calculationResultCache = calculationResultCache;
+        this.ufEmissionRollupService = ufEmissionRollupService;
+        this.calculationPhaseMetrics = calculationPhaseMetrics;
+        this.calculationWriteBehind = calculationWriteBehind;
+        this.calculationEventLog = calculationEventLog;
+        this.emailRegistry = emailRegistry;
+        this.emissionPercentileService = emissionPercentileService;
+        this.monthlyEmissionService = monthlyEmissionService;
+        this.calculationRequestValidator = calculationRequestValidator;
     }
 
 
     public String startCalculation(StartCalcRequestDTO request) {
-        nameValidator.validateName(request.getName());
-        phoneNumberValidator.validatePhoneNumber(request.getPhoneNumber());
-        ufValidator.validateUf(request.getUf());
-        emailValidator.validateEmail(request.getEmail());
+        calculationPhaseMetrics.time(START, VALIDATION, () -> calculationRequestValidator.validate(request))
+                .throwIfInvalid();
 
-        CarbonCalculation carbonCalculation = new CarbonCalculation();
-        carbonCalculation.setName(request.getName());
-        carbonCalculation.setEmail(request.getEmail());
-        carbonCalculation.setUf(request.getUf());
-        carbonCalculation.setPhoneNumber(request.getPhoneNumber());
+        if (calculationWriteBehind.isEnabled()) {
+            return startCalculationWriteBehind(request);
+        }
 
-        CarbonCalculation carbonCalculationSalved =  carbonCalculationRepository
-                .save(carbonCalculation);
+        CarbonCalculation carbonCalculation = newCarbonCalculation(request);
+        carbonCalculation.setId(new ObjectId().toHexString());
 
-        return carbonCalculationSalved.getId();
+        try {
+            CarbonCalculation carbonCalculationSalved = calculationPhaseMetrics.time(START, PERSISTENCE,
+                    () -> insertRegistered(carbonCalculation));
+            calculationUfCache.put(carbonCalculationSalved.getId(), carbonCalculationSalved.getUf());
+
+            return carbonCalculationSalved.getId();
+        } catch (DuplicateKeyException ex) {
+            throw new EmailAlreadyExists();
+        }
     }
 
-    public boolean updateInfo(UpdateCalcInfoRequestDTO request) {
-        CarbonCalculation carbonCalculation = carbonCalculationRepository
-                .findById(request.getId())
-                .orElseThrow(() -> new CarbonCalculationNotFoundException(request.getId()));
+    /**
+     * Inserts {@code carbonCalculation} once its email is registered, releasing the email if the insert fails.
+     */
+    private CarbonCalculation insertRegistered(CarbonCalculation carbonCalculation) {
+        emailRegistry.register(carbonCalculation);
+        try {
+            return carbonCalculationRepository.insert(carbonCalculation);
+        } catch (RuntimeException ex) {
+            emailRegistry.release(carbonCalculation);
+            throw ex;
+        }
+    }
 
-        recyclePercentageValidator.validate(request.getRecyclePercentage());
+    /**
+     * Generates the id here and leaves the insert to {@link CalculationWriteBehind}, so the caller only waits
+     * for the journal append.
+     */
+    private String startCalculationWriteBehind(StartCalcRequestDTO request) {
+        CarbonCalculation carbonCalculation = newCarbonCalculation(request);
+        carbonCalculation.setId(new ObjectId().toHexString());
 
-        carbonCalculation.setEnergyConsumption(request.getEnergyConsumption());
-        carbonCalculation.setSolidWasteProduction(request.getSolidWasteTotal());
-        carbonCalculation.setRecyclePercentage(request.getRecyclePercentage());
-        carbonCalculation.setTransportation(request.getTransportation());
+        calculationPhaseMetrics.time(START, PERSISTENCE, () -> calculationWriteBehind.submit(carbonCalculation));
+        calculationUfCache.put(carbonCalculation.getId(), carbonCalculation.getUf());
+
+        return carbonCalculation.getId();
+    }
+
+    public List<BulkItemResponseDTO<StartCalcResponseDTO>> startCalculations(List<StartCalcRequestDTO> requests) {
+        checkBulkLimit(requests.size());
+
+        List<BulkItemResponseDTO<StartCalcResponseDTO>> responses =
+                new ArrayList<>(Collections.nCopies(requests.size(), null));
+        Map<String, Integer> indexByEmail = new HashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            StartCalcRequestDTO request = requests.get(i);
+            ValidationResult validation = calculationRequestValidator.validate(request);
+
+            if (!validation.isValid()) {
+                responses.set(i, BulkItemResponseDTO.failure(i, validation.getMessage()));
+            } else if (indexByEmail.putIfAbsent(CalculationRequestValidator.normalizeEmail(request.getEmail()), i) != null) {
+                responses.set(i, BulkItemResponseDTO.failure(i, new EmailAlreadyExists().getMessage()));
+            }
+        }
+
+        List<Integer> pendingIndexes = new ArrayList<>(indexByEmail.values());
+        Collections.sort(pendingIndexes);
+
+        List<CarbonCalculation> pending = new ArrayList<>(pendingIndexes.size());
+        for (int index : pendingIndexes) {
+            CarbonCalculation carbonCalculation = newCarbonCalculation(requests.get(index));
+            carbonCalculation.setId(new ObjectId().toHexString());
+            pending.add(carbonCalculation);
+        }
+
+        Set<Integer> taken = emailRegistry.registerAll(pending);
+        List<Integer> registeredIndexes = new ArrayList<>(pending.size());
+        List<CarbonCalculation> registered = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            if (!taken.contains(i)) {
+                registeredIndexes.add(i);
+                registered.add(pending.get(i));
+            }
+        }
+
+        Map<Integer, BulkWriteError> insertFailures = carbonCalculationRepository.bulkInsert(registered);
+        Map<Integer, BulkWriteError> failures = new HashMap<>();
+        List<CarbonCalculation> notInserted = new ArrayList<>(insertFailures.size());
+        for (Map.Entry<Integer, BulkWriteError> failure : insertFailures.entrySet()) {
+            failures.put(registeredIndexes.get(failure.getKey()), failure.getValue());
+            notInserted.add(registered.get(failure.getKey()));
+        }
+        emailRegistry.releaseAll(notInserted);
+
+        for (int i = 0; i < pending.size(); i++) {
+            int index = pendingIndexes.get(i);
+            BulkWriteError failure = failures.get(i);
+
+            if (taken.contains(i)) {
+                responses.set(index, BulkItemResponseDTO.failure(index, new EmailAlreadyExists().getMessage()));
+            } else if (failure != null) {
+                String message = ErrorCategory.fromErrorCode(failure.getCode()) == ErrorCategory.DUPLICATE_KEY
+                        ? new EmailAlreadyExists().getMessage()
+                        : failure.getMessage();
+                responses.set(index, BulkItemResponseDTO.failure(index, message));
+            } else {
+                calculationUfCache.put(pending.get(i).getId(), pending.get(i).getUf());
+
+                StartCalcResponseDTO dto = new StartCalcResponseDTO();
+                dto.setId(pending.get(i).getId());
+                responses.set(index, BulkItemResponseDTO.success(index, dto));
+            }
+        }
+
+        return responses;
+    }
 
+    public UpdateCalcInfoResponseDTO updateInfo(UpdateCalcInfoRequestDTO request) {
+        return updateInfo(request, null);
+    }
+
+    /**
+     * Computes the emissions from the request and the cached UF, then writes them in a single findAndModify,
+     * or appends them to the {@link CalculationEventLog} when it is enabled.
+     * With an {@code expectedVersion} the write only applies if nobody updated the calculation since.
+     * The previous emissions it returns give the change applied to the UF rollup.
+     */
+    public UpdateCalcInfoResponseDTO updateInfo(UpdateCalcInfoRequestDTO request, Long expectedVersion) {
+        calculationPhaseMetrics.time(UPDATE, VALIDATION, () -> calculationRequestValidator.validate(request))
+                .throwIfInvalid();
+
+        CarbonCalculation carbonCalculation = new CarbonCalculation();
+        carbonCalculation.setId(request.getId());
+        carbonCalculation.setUf(calculationPhaseMetrics.time(UPDATE, UF_LOOKUP, () -> findUf(request.getId())));
+
+        applyInfo(carbonCalculation, request);
         calculateEmissionFactor(carbonCalculation);
 
-        carbonCalculationRepository.save(carbonCalculation);
+        calculationWriteBehind.awaitPersisted(request.getId());
+        CarbonCalculation previous = calculationPhaseMetrics.time(UPDATE, PERSISTENCE,
+                () -> calculationEventLog.isEnabled()
+                        ? calculationEventLog.append(carbonCalculation, expectedVersion)
+                        : carbonCalculationRepository.updateInfo(carbonCalculation, expectedVersion));
+
+        if (previous == null) {
+            if (expectedVersion != null && carbonCalculationRepository.existsById(request.getId())) {
+                throw new CalculationVersionConflictException(request.getId(), expectedVersion);
+            }
+            throw new CarbonCalculationNotFoundException(request.getId());
+        }
+
+        carbonCalculation.setVersion(previous.getVersion() + 1);
+        EmissionDelta delta = EmissionDelta.between(carbonCalculation.getUf(), previous, carbonCalculation);
+        calculationPhaseMetrics.time(UPDATE, ROLLUP, () -> ufEmissionRollupService.recordChange(delta));
+        recordUpdated(previous, carbonCalculation);
+
+        UpdateCalcInfoResponseDTO response = toUpdateResponse(carbonCalculation);
+        calculationResultCache.put(carbonCalculation.getId(), carbonCalculation.getVersion(), carbonCalculation.getUf(),
+                response.getResult());
+
+        return response;
+    }
+
+    /**
+     * Loads every calculation once and writes them in one bulk write, each conditional on the version it was read
+     * at, so the rollup and percentile deltas derived from the read hold. A calculation updated in between is
+     * reported as a version conflict and left out of the deltas.
+     */
+    public List<BulkItemResponseDTO<UpdateCalcInfoResponseDTO>> updateInfos(List<UpdateCalcInfoRequestDTO> requests) {
+        checkBulkLimit(requests.size());
+
+        List<BulkItemResponseDTO<UpdateCalcInfoResponseDTO>> responses =
+                new ArrayList<>(Collections.nCopies(requests.size(), null));
+        Map<String, Integer> indexById = new LinkedHashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            UpdateCalcInfoRequestDTO request = requests.get(i);
+            ValidationResult validation = calculationRequestValidator.validate(request);
+
+            if (!validation.isValid()) {
+                responses.set(i, BulkItemResponseDTO.failure(i, validation.getMessage()));
+            } else if (indexById.putIfAbsent(request.getId(), i) != null) {
+                responses.set(i, BulkItemResponseDTO.failure(i, new DuplicateBulkIdException(request.getId()).getMessage()));
+            }
+        }
+
+        calculationWriteBehind.awaitPersisted(indexById.keySet());
+        Map<String, CarbonCalculation> existing = findAllByIdAsMap(indexById.keySet());
+        if (calculationEventLog.isEnabled()) {
+            calculationEventLog.replay(existing.values());
+        }
+
+        List<Integer> pendingIndexes = new ArrayList<>(indexById.size());
+        List<CarbonCalculation> pending = new ArrayList<>(indexById.size());
+        List<EmissionDelta> deltas = new ArrayList<>(indexById.size());
+        List<Double> previousTotals = new ArrayList<>(indexById.size());
+
+        for (Map.Entry<String, Integer> entry : indexById.entrySet()) {
+            int index = entry.getValue();
+            try {
+                CarbonCalculation carbonCalculation = existing.get(entry.getKey());
+                if (carbonCalculation == null) {
+                    throw new CarbonCalculationNotFoundException(entry.getKey());
+                }
+
+                CarbonCalculation previous = emissionsOf(carbonCalculation);
+                applyInfo(carbonCalculation, requests.get(index));
+                calculateEmissionFactor(carbonCalculation);
+
+                pendingIndexes.add(index);
+                pending.add(carbonCalculation);
+                deltas.add(EmissionDelta.between(carbonCalculation.getUf(), previous, carbonCalculation));
+                previousTotals.add(previous.getTotalEmission());
+            } catch (BadRequestException | NotFoundException ex) {
+                responses.set(index, BulkItemResponseDTO.failure(index, ex.getMessage()));
+            }
+        }
+
+        Map<Integer, BulkWriteError> failures = calculationEventLog.isEnabled()
+                ? calculationEventLog.appendAll(pending)
+                : carbonCalculationRepository.bulkUpdateInfo(pending);
+        List<EmissionDelta> applied = new ArrayList<>(pending.size());
+        List<CarbonCalculation> updated = new ArrayList<>(pending.size());
+
+        for (int i = 0; i < pending.size(); i++) {
+            int index = pendingIndexes.get(i);
+            BulkWriteError failure = failures.get(i);
+
+            if (failure != null) {
+                String message = ErrorCategory.fromErrorCode(failure.getCode()) == ErrorCategory.DUPLICATE_KEY
+                        ? new CalculationVersionConflictException(pending.get(i).getId(), pending.get(i).getVersion())
+                        .getMessage()
+                        : failure.getMessage();
+                responses.set(index, BulkItemResponseDTO.failure(index, message));
+            } else {
+                calculationResultCache.invalidate(pending.get(i).getId());
+                applied.add(deltas.get(i));
+                updated.add(pending.get(i));
+                emissionPercentileService.recordChange(pending.get(i).getUf(), previousTotals.get(i),
+                        pending.get(i).getTotalEmission());
+
+                responses.set(index, BulkItemResponseDTO.success(index, toUpdateResponse(pending.get(i))));
+            }
+        }
+
+        ufEmissionRollupService.recordChanges(applied);
+        monthlyEmissionService.recordAll(updated);
 
-        return true;
+        return responses;
     }
 
     public CarbonCalculationResultDTO getCarbonCalculationResult(String id) {
-        CarbonCalculation carbonCalculation = carbonCalculationRepository
-                .findById(id)
+        return getVersionedResult(id).result();
+    }
+
+    /**
+     * @return the result together with the calculation version it was computed from
+     */
+    public CalculationResultCache.Entry getVersionedResult(String id) {
+        return getVersionedResult(id, null);
+    }
+
+    /**
+     * Like {@link #getVersionedResult(String)}, but never older than {@code minVersion}, the causal token of a
+     * write the caller made. Reads that may come from a lagging secondary, or a cache filled before the write,
+     * are repeated on the primary when they are behind it.
+     */
+    public CalculationResultCache.Entry getVersionedResult(String id, Long minVersion) {
+        return withPercentiles(id, findVersionedResult(id, minVersion));
+    }
+
+    /**
+     * Feeds an applied update to the percentile sketches and the monthly points. Both only buffer in memory, so the
+     * reactive mode calls it from the event loop as well.
+     */
+    void recordUpdated(CarbonCalculation previous, CarbonCalculation carbonCalculation) {
+        emissionPercentileService.recordChange(carbonCalculation.getUf(), previous.getTotalEmission(),
+                carbonCalculation.getTotalEmission());
+        monthlyEmissionService.record(carbonCalculation);
+    }
+
+    /**
+     * Serves a cached result only once a covered version lookup confirms no instance updated the calculation
+     * since; a version behind the cached one comes from a lagging secondary and confirms it too.
+     */
+    private CalculationResultCache.Entry findVersionedResult(String id, Long minVersion) {
+        CalculationResultCache.Entry cached = calculationResultCache.getIfPresent(id);
+        if (cached != null && (minVersion == null || cached.version() >= minVersion)
+                && findVersion(id).filter(version -> version <= cached.version()).isPresent()) {
+            return cached;
+        }
+
+        CarbonCalculation carbonCalculation = findEmissions(id)
+                .or(() -> calculationWriteBehind.find(id))
                 .orElseThrow(() -> new CarbonCalculationNotFoundException(id));
 
+        if (minVersion != null && carbonCalculation.getVersion() < minVersion) {
+            carbonCalculation = carbonCalculationRepository.findLatestEmissionsById(id).orElse(carbonCalculation);
+        }
+
+        CalculationResultCache.Entry entry = new CalculationResultCache.Entry(carbonCalculation.getVersion(),
+                carbonCalculation.getUf(), toResultDTO(carbonCalculation));
+        calculationResultCache.put(id, entry.version(), entry.uf(), entry.result());
+
+        return entry;
+    }
+
+    /**
+     * Ranks the result against the in-memory sketches on every read, so cached results never carry stale ranks.
+     * The UF comes with the entry, so a cached result is ranked without touching Mongo.
+     */
+    CalculationResultCache.Entry withPercentiles(String id, CalculationResultCache.Entry entry) {
+        if (!emissionPercentileService.isEnabled()) {
+            return entry;
+        }
+
+        CarbonCalculationResultDTO cached = entry.result();
+        CarbonCalculationResultDTO result = new CarbonCalculationResultDTO();
+        result.setEnergy(cached.getEnergy());
+        result.setTransportation(cached.getTransportation());
+        result.setSolidWaste(cached.getSolidWaste());
+        result.setTotal(cached.getTotal());
+        result.setPercentile(emissionPercentileService.percentile(entry.uf(), cached.getTotal()));
+        result.setNationalPercentile(emissionPercentileService.nationalPercentile(cached.getTotal()));
+
+        return new CalculationResultCache.Entry(entry.version(), entry.uf(), result);
+    }
+
+    /**
+     * Generation of the sketches behind the percentiles, or {@code null} when results carry none. Conditional
+     * requests compare it along with the version.
+     */
+    public String getRankGeneration() {
+        return emissionPercentileService.generation();
+    }
+
+    /**
+     * Current version of a calculation, for conditional requests, read by a covered index lookup that never loads
+     * the document. Never answered from the result cache, which does not see updates made on other instances.
+     */
+    public long getResultVersion(String id) {
+        return findVersion(id).orElseThrow(() -> new CarbonCalculationNotFoundException(id));
+    }
+
+    public List<BulkItemResponseDTO<CarbonCalculationResultDTO>> getCarbonCalculationResults(List<String> ids) {
+        checkBulkLimit(ids.size());
+
+        Map<String, CarbonCalculationResultDTO> results = new HashMap<>();
+        Set<String> withoutEmissions = new HashSet<>();
+
+        // one $in query costs about as much as checking the versions of cached results would
+        Set<String> missing = new HashSet<>();
+        for (String id : ids) {
+            if (id != null) {
+                missing.add(id);
+            }
+        }
+
+        List<CarbonCalculation> found = carbonCalculationRepository.findEmissionsByIdIn(missing);
+        if (calculationEventLog.isEnabled()) {
+            calculationEventLog.replay(found);
+        }
+
+        for (CarbonCalculation carbonCalculation : found) {
+            if (carbonCalculation.getTotalEmission() == null) {
+                withoutEmissions.add(carbonCalculation.getId());
+            } else {
+                CarbonCalculationResultDTO result = toResultDTO(carbonCalculation);
+                calculationResultCache.put(carbonCalculation.getId(), carbonCalculation.getVersion(),
+                        carbonCalculation.getUf(), result);
+                results.put(carbonCalculation.getId(), result);
+            }
+        }
+
+        // not inserted yet, so not given any info either
+        for (String id : missing) {
+            if (!results.containsKey(id) && calculationWriteBehind.find(id).isPresent()) {
+                withoutEmissions.add(id);
+            }
+        }
+
+        List<BulkItemResponseDTO<CarbonCalculationResultDTO>> responses = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            CarbonCalculationResultDTO result = results.get(id);
+
+            if (result != null) {
+                responses.add(BulkItemResponseDTO.success(i, result));
+            } else if (withoutEmissions.contains(id)) {
+                responses.add(BulkItemResponseDTO.failure(i, "Carbon Calculation has no emission info yet for id: " + id));
+            } else {
+                responses.add(BulkItemResponseDTO.failure(i, new CarbonCalculationNotFoundException(id).getMessage()));
+            }
+        }
+
+        return responses;
+    }
+
+    /**
+     * @return every version recorded by the {@link CalculationEventLog}, oldest first; empty for calculations
+     * only updated while the log was disabled
+     */
+    public List<CalculationHistoryEntryDTO> getHistory(String id) {
+        List<CalculationEvent> events = calculationEventLog.history(id);
+        if (events.isEmpty() && !carbonCalculationRepository.existsById(id)
+                && calculationWriteBehind.find(id).isEmpty()) {
+            throw new CarbonCalculationNotFoundException(id);
+        }
+
+        List<CalculationHistoryEntryDTO> history = new ArrayList<>(events.size());
+        for (CalculationEvent event : events) {
+            CarbonCalculation carbonCalculation = new CarbonCalculation();
+            event.applyTo(carbonCalculation);
+
+            CalculationHistoryEntryDTO entry = new CalculationHistoryEntryDTO();
+            entry.setVersion(event.getVersion());
+            entry.setRecordedAt(event.getRecordedAt());
+            entry.setResult(toResultDTO(carbonCalculation));
+            history.add(entry);
+        }
+        return history;
+    }
+
+    static CarbonCalculation newCarbonCalculation(StartCalcRequestDTO request) {
+        CarbonCalculation carbonCalculation = new CarbonCalculation();
+        carbonCalculation.setName(request.getName());
+        carbonCalculation.setEmail(request.getEmail());
+        carbonCalculation.setNormalizedEmail(CalculationRequestValidator.normalizeEmail(request.getEmail()));
+        carbonCalculation.setUf(request.getUf());
+        carbonCalculation.setPhoneNumber(request.getPhoneNumber());
+        return carbonCalculation;
+    }
+
+    static void applyInfo(CarbonCalculation carbonCalculation, UpdateCalcInfoRequestDTO request) {
+        carbonCalculation.setEnergyConsumption(request.getEnergyConsumption());
+        carbonCalculation.setSolidWasteProduction(request.getSolidWasteTotal());
+        carbonCalculation.setRecyclePercentage(request.getRecyclePercentage());
+        carbonCalculation.setTransportation(request.getTransportation());
+    }
+
+    static CarbonCalculationResultDTO toResultDTO(CarbonCalculation carbonCalculation) {
         double energy = Math.round(carbonCalculation.getEnergyEmission() * 100.0) / 100.0;
         double transportation = Math.round(carbonCalculation.getTransportationEmission() * 100.0) / 100.0;
         double solidWaste = Math.round(carbonCalculation.getSolidWasteEmission() * 100.0) / 100.0;
@@ -112,10 +522,78 @@ public class CarbonCalculationService {
         return carbonCalculationDTO;
     }
 
+    static UpdateCalcInfoResponseDTO toUpdateResponse(CarbonCalculation updated) {
+        UpdateCalcInfoResponseDTO dto = new UpdateCalcInfoResponseDTO();
+        dto.setSuccess(true);
+        dto.setVersion(updated.getVersion());
+        dto.setResult(toResultDTO(updated));
+        return dto;
+    }
+
+    private static CarbonCalculation emissionsOf(CarbonCalculation carbonCalculation) {
+        CarbonCalculation emissions = new CarbonCalculation();
+        emissions.setEnergyEmission(carbonCalculation.getEnergyEmission());
+        emissions.setTransportationEmission(carbonCalculation.getTransportationEmission());
+        emissions.setSolidWasteEmission(carbonCalculation.getSolidWasteEmission());
+        emissions.setTotalEmission(carbonCalculation.getTotalEmission());
+        return emissions;
+    }
+
+    private Optional<Long> findVersion(String id) {
+        Optional<Long> version = calculationEventLog.isEnabled()
+                ? calculationEventLog.currentVersion(id)
+                : carbonCalculationRepository.findVersionById(id);
+        return version.or(() -> calculationWriteBehind.find(id).map(CarbonCalculation::getVersion));
+    }
+
+    private Optional<CarbonCalculation> findEmissions(String id) {
+        return calculationEventLog.isEnabled()
+                ? calculationEventLog.current(id)
+                : carbonCalculationRepository.findEmissionsById(id);
+    }
+
+    private String findUf(String id) {
+        String uf = calculationUfCache.getIfPresent(id);
+
+        if (uf == null) {
+            uf = carbonCalculationRepository
+                    .findUfById(id)
+                    .or(() -> calculationWriteBehind.find(id).map(CarbonCalculation::getUf))
+                    .orElseThrow(() -> new CarbonCalculationNotFoundException(id));
+            calculationUfCache.put(id, uf);
+        }
+
+        return uf;
+    }
+
+    private Map<String, CarbonCalculation> findAllByIdAsMap(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, CarbonCalculation> calculationsById = new HashMap<>();
+        for (CarbonCalculation carbonCalculation : carbonCalculationRepository.findAllById(ids)) {
+            calculationsById.put(carbonCalculation.getId(), carbonCalculation);
+        }
+        return calculationsById;
+    }
+
+    private static void checkBulkLimit(int size) {
+        if (size > MAX_BULK_ITEMS) {
+            throw new BulkLimitExceededException(MAX_BULK_ITEMS);
+        }
+    }
+
     protected void calculateEmissionFactor(CarbonCalculation carbonCalculation) {
-        calculateEnergyEmissionFactor(carbonCalculation);
-        calculateTransportationEmissionFactor(carbonCalculation);
-        calculateSolidWasteEmissionFactor(carbonCalculation);
+        EmissionFactorSnapshot emissionFactors = calculationPhaseMetrics
+                .time(UPDATE, FACTOR_LOOKUP, () -> emissionFactorCatalog.current());
+
+        calculationPhaseMetrics.time(UPDATE, ENERGY_EMISSION,
+                () -> calculateEnergyEmissionFactor(carbonCalculation, emissionFactors));
+        calculationPhaseMetrics.time(UPDATE, TRANSPORTATION_EMISSION,
+                () -> calculateTransportationEmissionFactor(carbonCalculation, emissionFactors));
+        calculationPhaseMetrics.time(UPDATE, SOLID_WASTE_EMISSION,
+                () -> calculateSolidWasteEmissionFactor(carbonCalculation, emissionFactors));
 
         double total = carbonCalculation.getEnergyEmission() +
                 carbonCalculation.getTransportationEmission() +
@@ -124,16 +602,16 @@ public class CarbonCalculationService {
         carbonCalculation.setTotalEmission(total);
     }
 
-    protected void calculateEnergyEmissionFactor(CarbonCalculation carbonCalculation) {
-        EnergyEmissionFactor energyEmissionFactor = energyEmissionFactorRepository
-                .findById(carbonCalculation.getUf())
-                .orElseThrow(() -> new EnergyEmissionFactorNotFoundException(carbonCalculation.getUf()));
+    protected void calculateEnergyEmissionFactor(CarbonCalculation carbonCalculation,
+                                                 EmissionFactorSnapshot emissionFactors) {
+        double energyEmissionFactor = emissionFactors.energyFactor(carbonCalculation.getUf());
 
-        Double emission = carbonCalculation.getEnergyConsumption() * energyEmissionFactor.getFactor();
-        carbonCalculation.setEnergyEmission(emission);
+        carbonCalculation.setEnergyEmission(
+                EmissionKernel.energyEmission(carbonCalculation.getEnergyConsumption(), energyEmissionFactor));
     }
 
-    protected void calculateTransportationEmissionFactor(CarbonCalculation carbonCalculation) {
+    protected void calculateTransportationEmissionFactor(CarbonCalculation carbonCalculation,
+                                                         EmissionFactorSnapshot emissionFactors) {
         List<TransportationDTO> transportationList = carbonCalculation.getTransportation();
 
         if (transportationList == null || transportationList.isEmpty()) {
@@ -144,39 +622,32 @@ public class CarbonCalculationService {
         double totalTransportationEmission = 0.0;
 
         for (TransportationDTO transportationDTO : transportationList) {
-            TransportationEmissionFactor transportationEmissionFactor = transportationEmissionFactorRepository
-                    .findById(transportationDTO.getType())
-                    .orElseThrow(() -> new TransportationEmissionFactorNotFoundException(transportationDTO.getType()));
-
-            totalTransportationEmission += transportationDTO.getMonthlyDistance() *
-                    transportationEmissionFactor.getFactor();
+            totalTransportationEmission += EmissionKernel.transportationEmission(
+                    transportationDTO.getMonthlyDistance(),
+                    emissionFactors.transportationFactor(transportationDTO.getType()));
         }
 
         carbonCalculation.setTransportationEmission(totalTransportationEmission);
     }
 
-    protected void calculateSolidWasteEmissionFactor(CarbonCalculation carbonCalculation) {
-        SolidWasteEmissionFactor solidWasteEmissionFactor = solidWasteEmissionFactorRepository
-                .findById(carbonCalculation.getUf())
-                .orElseThrow(() -> new SolidWasteEmissionFactorNotFoundException(carbonCalculation.getUf()));
+    protected void calculateSolidWasteEmissionFactor(CarbonCalculation carbonCalculation,
+                                                     EmissionFactorSnapshot emissionFactors) {
+        String uf = carbonCalculation.getUf();
+        double recyclableFactor = emissionFactors.recyclableFactor(uf);
+        double nonRecyclableFactor = emissionFactors.nonRecyclableFactor(uf);
 
         double recyclePercentage = carbonCalculation.getRecyclePercentage();
-        double totalSolidWasteEmission = getTotalSolidWasteEmission(carbonCalculation, recyclePercentage, solidWasteEmissionFactor);
+        double totalSolidWasteEmission = getTotalSolidWasteEmission(carbonCalculation, recyclePercentage,
+                recyclableFactor, nonRecyclableFactor);
 
         carbonCalculation.setSolidWasteEmission(totalSolidWasteEmission);
     }
 
     protected static double getTotalSolidWasteEmission(CarbonCalculation carbonCalculation,
                                                      double recyclePercentage,
-                                                     SolidWasteEmissionFactor solidWasteEmissionFactor) {
-        double solidWasteTotal = carbonCalculation.getSolidWasteProduction();
-
-        double recyclableWaste = solidWasteTotal * recyclePercentage;
-        double recyclableEmission = recyclableWaste * solidWasteEmissionFactor.getRecyclableFactor();
-
-        double nonRecyclableWaste = solidWasteTotal * (1 - recyclePercentage);
-        double nonRecyclableEmission = nonRecyclableWaste * solidWasteEmissionFactor.getNonRecyclableFactor();
-
-        return recyclableEmission + nonRecyclableEmission;
+                                                     double recyclableFactor,
+                                                     double nonRecyclableFactor) {
+        return EmissionKernel.solidWasteEmission(carbonCalculation.getSolidWasteProduction(), recyclePercentage,
+                recyclableFactor, nonRecyclableFactor);
     }
 }
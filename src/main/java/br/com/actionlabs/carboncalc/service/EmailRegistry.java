@@ -0,0 +1,151 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.exceptions.EmailAlreadyExists;
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.model.EmailRegistration;
+import br.com.actionlabs.carboncalc.repository.CarbonCalculationRepository;
+import br.com.actionlabs.carboncalc.repository.EmailRegistrationRepository;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps emails unique through {@code emailRegistration} when {@code carbonCalculation} is sharded and the unique
+ * email index is gone ({@code carbon-calc.email-registry.enabled}). A calculation is inserted only after its
+ * email is registered, and its registration is released if the insert fails. A registration left behind by a
+ * crash between the two is taken over once it is older than {@code orphan-after} and its calculation does not
+ * exist. While disabled every method is a no-op and the unique index does the job.
+ */
+@Slf4j
+@Component
+public class EmailRegistry {
+
+    private final EmailRegistrationRepository emailRegistrationRepository;
+    private final CarbonCalculationRepository carbonCalculationRepository;
+
+    private final boolean enabled;
+    private final Duration orphanAfter;
+
+    public EmailRegistry(EmailRegistrationRepository emailRegistrationRepository,
+                         CarbonCalculationRepository carbonCalculationRepository,
+                         @Value("${carbon-calc.email-registry.enabled:false}") boolean enabled,
+                         @Value("${carbon-calc.email-registry.orphan-after:5m}") Duration orphanAfter) {
+        this.emailRegistrationRepository = emailRegistrationRepository;
+        this.carbonCalculationRepository = carbonCalculationRepository;
+        this.enabled = enabled;
+        this.orphanAfter = orphanAfter;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Registers the email of {@code calculation}, whose id must already be set.
+     *
+     * @throws EmailAlreadyExists when another calculation holds the email
+     */
+    public void register(CarbonCalculation calculation) {
+        if (!registerAll(List.of(calculation)).isEmpty()) {
+            throw new EmailAlreadyExists();
+        }
+    }
+
+    /**
+     * Registers the email of every calculation in a single bulk write.
+     *
+     * @return the indexes, in {@code calculations}, of those whose email another calculation holds
+     */
+    public Set<Integer> registerAll(List<CarbonCalculation> calculations) {
+        if (!enabled || calculations.isEmpty()) {
+            return Set.of();
+        }
+
+        Date now = new Date();
+        List<EmailRegistration> registrations = new ArrayList<>(calculations.size());
+        for (CarbonCalculation calculation : calculations) {
+            registrations.add(EmailRegistration.of(calculation, now));
+        }
+
+        Map<Integer, BulkWriteError> failures = emailRegistrationRepository.bulkInsert(registrations);
+
+        Set<Integer> taken = new HashSet<>();
+        for (Map.Entry<Integer, BulkWriteError> failure : failures.entrySet()) {
+            if (ErrorCategory.fromErrorCode(failure.getValue().getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                throw new IllegalStateException("Could not register email: " + failure.getValue().getMessage());
+            }
+            if (!claim(registrations.get(failure.getKey()))) {
+                taken.add(failure.getKey());
+            }
+        }
+        return taken;
+    }
+
+    public void release(CarbonCalculation calculation) {
+        releaseAll(List.of(calculation));
+    }
+
+    public void releaseAll(Collection<CarbonCalculation> calculations) {
+        if (!enabled) {
+            return;
+        }
+
+        for (CarbonCalculation calculation : calculations) {
+            try {
+                emailRegistrationRepository.release(calculation.getNormalizedEmail(), calculation.getId());
+            } catch (RuntimeException ex) {
+                // the next registration of this email takes it over once it is an orphan
+                log.warn("Could not release the email of calculation {}", calculation.getId(), ex);
+            }
+        }
+    }
+
+    /**
+     * Registers the emails of calculations stored before the registry was enabled.
+     */
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+
+        if (emailRegistrationRepository.count() < carbonCalculationRepository.count()) {
+            emailRegistrationRepository.backfillFromCalculations();
+            log.info("Registered the emails of existing calculations");
+        }
+    }
+
+    /**
+     * Decides a registration that failed on a duplicate email: it stands if the existing registration is its
+     * own, from an earlier attempt, or an orphan it could take over.
+     */
+    private boolean claim(EmailRegistration registration) {
+        EmailRegistration existing = emailRegistrationRepository.findById(registration.getId()).orElse(null);
+        if (existing == null) {
+            // released meanwhile; whoever registers next wins
+            return emailRegistrationRepository.bulkInsert(List.of(registration)).isEmpty();
+        }
+        if (existing.getCalculationId().equals(registration.getCalculationId())) {
+            return true;
+        }
+
+        boolean orphan = existing.getRegisteredAt() == null || existing.getRegisteredAt().getTime()
+                + orphanAfter.toMillis() <= registration.getRegisteredAt().getTime();
+        if (!orphan || carbonCalculationRepository.existsById(existing.getCalculationId())) {
+            return false;
+        }
+
+        log.info("Taking over the orphan registration of calculation {}", existing.getCalculationId());
+        return emailRegistrationRepository.reassign(registration, existing.getCalculationId());
+    }
+}
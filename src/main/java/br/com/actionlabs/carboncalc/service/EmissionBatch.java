@@ -0,0 +1,95 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+
+/**
+ * Scenarios laid out as columns, one primitive array per input and output, for {@link EmissionKernel}.
+ * Emission factors are resolved per row beforehand, so the kernel never looks anything up.
+ */
+public final class EmissionBatch {
+
+    private static final int TRANSPORTATION_TYPES = TransportationType.values().length;
+
+    final int size;
+
+    final double[] energyConsumption;
+    final double[] energyFactor;
+    final double[] solidWasteTotal;
+    final double[] recyclePercentage;
+    final double[] recyclableFactor;
+    final double[] nonRecyclableFactor;
+
+    /**
+     * Monthly distance per {@link TransportationType#ordinal()}, {@code null} for types no scenario uses.
+     */
+    final double[][] distanceByType = new double[TRANSPORTATION_TYPES][];
+    final double[] transportationFactor = new double[TRANSPORTATION_TYPES];
+
+    final double[] energyEmission;
+    final double[] transportationEmission;
+    final double[] solidWasteEmission;
+    final double[] totalEmission;
+
+    public EmissionBatch(int size) {
+        this.size = size;
+        this.energyConsumption = new double[size];
+        this.energyFactor = new double[size];
+        this.solidWasteTotal = new double[size];
+        this.recyclePercentage = new double[size];
+        this.recyclableFactor = new double[size];
+        this.nonRecyclableFactor = new double[size];
+        this.energyEmission = new double[size];
+        this.transportationEmission = new double[size];
+        this.solidWasteEmission = new double[size];
+        this.totalEmission = new double[size];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void setEnergy(int row, double consumption, double factor) {
+        energyConsumption[row] = consumption;
+        energyFactor[row] = factor;
+    }
+
+    public void setSolidWaste(int row, double total, double recycled, double recyclable, double nonRecyclable) {
+        solidWasteTotal[row] = total;
+        recyclePercentage[row] = recycled;
+        recyclableFactor[row] = recyclable;
+        nonRecyclableFactor[row] = nonRecyclable;
+    }
+
+    public void addDistance(int row, TransportationType type, double monthlyDistance) {
+        double[] column = distanceByType[type.ordinal()];
+        if (column == null) {
+            column = new double[size];
+            distanceByType[type.ordinal()] = column;
+        }
+        column[row] += monthlyDistance;
+    }
+
+    public boolean usesTransportation(TransportationType type) {
+        return distanceByType[type.ordinal()] != null;
+    }
+
+    public void setTransportationFactor(TransportationType type, double factor) {
+        transportationFactor[type.ordinal()] = factor;
+    }
+
+    public double energyEmission(int row) {
+        return energyEmission[row];
+    }
+
+    public double transportationEmission(int row) {
+        return transportationEmission[row];
+    }
+
+    public double solidWasteEmission(int row) {
+        return solidWasteEmission[row];
+    }
+
+    public double totalEmission(int row) {
+        return totalEmission[row];
+    }
+}
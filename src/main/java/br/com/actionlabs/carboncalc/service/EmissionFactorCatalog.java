@@ -0,0 +1,40 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.repository.EnergyEmissionFactorRepository;
+import br.com.actionlabs.carboncalc.repository.SolidWasteEmissionFactorRepository;
+import br.com.actionlabs.carboncalc.repository.TransportationEmissionFactorRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class EmissionFactorCatalog {
+
+    private final EnergyEmissionFactorRepository energyEmissionFactorRepository;
+    private final SolidWasteEmissionFactorRepository solidWasteEmissionFactorRepository;
+    private final TransportationEmissionFactorRepository transportationEmissionFactorRepository;
+
+    private volatile EmissionFactorSnapshot snapshot;
+
+    public EmissionFactorCatalog(EnergyEmissionFactorRepository energyEmissionFactorRepository,
+                                 SolidWasteEmissionFactorRepository solidWasteEmissionFactorRepository,
+                                 TransportationEmissionFactorRepository transportationEmissionFactorRepository) {
+        this.energyEmissionFactorRepository = energyEmissionFactorRepository;
+        this.solidWasteEmissionFactorRepository = solidWasteEmissionFactorRepository;
+        this.transportationEmissionFactorRepository = transportationEmissionFactorRepository;
+    }
+
+    @PostConstruct
+    public void reload() {
+        snapshot = EmissionFactorSnapshot.of(
+                energyEmissionFactorRepository.findAll(),
+                solidWasteEmissionFactorRepository.findAll(),
+                transportationEmissionFactorRepository.findAll());
+        log.info("Emission factor catalog loaded");
+    }
+
+    public EmissionFactorSnapshot current() {
+        return snapshot;
+    }
+}
@@ -0,0 +1,118 @@
+package br.com.actionlabs.carboncalc.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "carbon-calc.emission-factors.watch-enabled", havingValue = "true", matchIfMissing = true)
+public class EmissionFactorChangeStreamWatcher {
+
+    private static final List<String> FACTOR_COLLECTIONS = List.of(
+            "energyEmissionFactor",
+            "solidWasteEmissionFactor",
+            "transportationEmissionFactor");
+
+    private static final int CHANGE_STREAM_NOT_SUPPORTED = 40573;
+    private static final long RETRY_DELAY_MILLIS = 5_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final EmissionFactorCatalog emissionFactorCatalog;
+
+    private volatile boolean running;
+    private volatile MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+    private Thread thread;
+
+    public EmissionFactorChangeStreamWatcher(MongoTemplate mongoTemplate,
+                                             EmissionFactorCatalog emissionFactorCatalog) {
+        this.mongoTemplate = mongoTemplate;
+        this.emissionFactorCatalog = emissionFactorCatalog;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        thread = new Thread(this::watch, "emission-factor-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> current = cursor;
+        if (current != null) {
+            current.close();
+        }
+        thread.interrupt();
+    }
+
+    private void watch() {
+        while (running) {
+            try {
+                cursor = mongoTemplate.getDb()
+                        .watch(List.of(Aggregates.match(Filters.in("ns.coll", FACTOR_COLLECTIONS))))
+                        .cursor();
+
+                // Changes made before the stream opened are not replayed, whether since the catalog's startup
+                // load or while a failed stream was down, so catch up first.
+                emissionFactorCatalog.reload();
+
+                while (running) {
+                    ChangeStreamDocument<Document> change = cursor.next();
+                    log.info("Emission factors changed ({} on {}), reloading catalog",
+                            change.getOperationType(), change.getNamespace());
+                    emissionFactorCatalog.reload();
+                }
+            } catch (MongoCommandException ex) {
+                if (ex.getErrorCode() == CHANGE_STREAM_NOT_SUPPORTED) {
+                    log.warn("Change streams require a replica set; emission factor edits need a restart to be picked up");
+                    return;
+                }
+                retryLater(ex);
+            } catch (RuntimeException ex) {
+                retryLater(ex);
+            } finally {
+                closeCursor();
+            }
+        }
+    }
+
+    private void retryLater(RuntimeException ex) {
+        if (!running) {
+            return;
+        }
+
+        log.warn("Emission factor change stream failed, retrying in {} ms", RETRY_DELAY_MILLIS, ex);
+        try {
+            Thread.sleep(RETRY_DELAY_MILLIS);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private void closeCursor() {
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> current = cursor;
+        cursor = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (RuntimeException ignored) {
+                // already closed by stop()
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+import br.com.actionlabs.carboncalc.enums.Uf;
+import br.com.actionlabs.carboncalc.exceptions.EnergyEmissionFactorNotFoundException;
+import br.com.actionlabs.carboncalc.exceptions.SolidWasteEmissionFactorNotFoundException;
+import br.com.actionlabs.carboncalc.exceptions.TransportationEmissionFactorNotFoundException;
+import br.com.actionlabs.carboncalc.model.EnergyEmissionFactor;
+import br.com.actionlabs.carboncalc.model.SolidWasteEmissionFactor;
+import br.com.actionlabs.carboncalc.model.TransportationEmissionFactor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+
+/**
+ * Immutable view of every emission factor, indexed by {@link Uf#ordinal()} and
+ * {@link TransportationType#ordinal()}. Missing factors are stored as {@code NaN}.
+ */
+@Slf4j
+public final class EmissionFactorSnapshot {
+
+    private final double[] energyFactors;
+    private final double[] recyclableFactors;
+    private final double[] nonRecyclableFactors;
+    private final double[] transportationFactors;
+
+    private EmissionFactorSnapshot(double[] energyFactors,
+                                   double[] recyclableFactors,
+                                   double[] nonRecyclableFactors,
+                                   double[] transportationFactors) {
+        this.energyFactors = energyFactors;
+        this.recyclableFactors = recyclableFactors;
+        this.nonRecyclableFactors = nonRecyclableFactors;
+        this.transportationFactors = transportationFactors;
+    }
+
+    public static EmissionFactorSnapshot of(Iterable<EnergyEmissionFactor> energyEmissionFactors,
+                                            Iterable<SolidWasteEmissionFactor> solidWasteEmissionFactors,
+                                            Iterable<TransportationEmissionFactor> transportationEmissionFactors) {
+        double[] energy = emptyColumn(Uf.values().length);
+        double[] recyclable = emptyColumn(Uf.values().length);
+        double[] nonRecyclable = emptyColumn(Uf.values().length);
+        double[] transportation = emptyColumn(TransportationType.values().length);
+
+        for (EnergyEmissionFactor factor : energyEmissionFactors) {
+            int index = Uf.indexOf(factor.getUf());
+            if (index < 0) {
+                log.warn("Ignoring energy emission factor for unknown UF: {}", factor.getUf());
+                continue;
+            }
+            energy[index] = factor.getFactor();
+        }
+
+        for (SolidWasteEmissionFactor factor : solidWasteEmissionFactors) {
+            int index = Uf.indexOf(factor.getUf());
+            if (index < 0) {
+                log.warn("Ignoring solid waste emission factor for unknown UF: {}", factor.getUf());
+                continue;
+            }
+            recyclable[index] = factor.getRecyclableFactor();
+            nonRecyclable[index] = factor.getNonRecyclableFactor();
+        }
+
+        for (TransportationEmissionFactor factor : transportationEmissionFactors) {
+            if (factor.getType() == null) {
+                continue;
+            }
+            transportation[factor.getType().ordinal()] = factor.getFactor();
+        }
+
+        return new EmissionFactorSnapshot(energy, recyclable, nonRecyclable, transportation);
+    }
+
+    public double energyFactor(String uf) {
+        int index = Uf.indexOf(uf);
+        if (index < 0 || Double.isNaN(energyFactors[index])) {
+            throw new EnergyEmissionFactorNotFoundException(uf);
+        }
+        return energyFactors[index];
+    }
+
+    public double recyclableFactor(String uf) {
+        int index = Uf.indexOf(uf);
+        if (index < 0 || Double.isNaN(recyclableFactors[index])) {
+            throw new SolidWasteEmissionFactorNotFoundException(uf);
+        }
+        return recyclableFactors[index];
+    }
+
+    public double nonRecyclableFactor(String uf) {
+        int index = Uf.indexOf(uf);
+        if (index < 0 || Double.isNaN(nonRecyclableFactors[index])) {
+            throw new SolidWasteEmissionFactorNotFoundException(uf);
+        }
+        return nonRecyclableFactors[index];
+    }
+
+    public double transportationFactor(TransportationType type) {
+        if (type == null || Double.isNaN(transportationFactors[type.ordinal()])) {
+            throw new TransportationEmissionFactorNotFoundException(type);
+        }
+        return transportationFactors[type.ordinal()];
+    }
+
+    private static double[] emptyColumn(int size) {
+        double[] column = new double[size];
+        Arrays.fill(column, Double.NaN);
+        return column;
+    }
+}
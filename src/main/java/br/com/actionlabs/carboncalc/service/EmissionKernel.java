@@ -0,0 +1,110 @@
+package br.com.actionlabs.carboncalc.service;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The emission formulas, free of lookups and side effects. The scalar functions serve single calculations;
+ * {@link #compute(EmissionBatch, int)} runs them over whole columns in tight loops the JIT can vectorize.
+ */
+public final class EmissionKernel {
+
+    private EmissionKernel() {
+    }
+
+    public static double energyEmission(double energyConsumption, double energyFactor) {
+        return energyConsumption * energyFactor;
+    }
+
+    public static double transportationEmission(double monthlyDistance, double transportationFactor) {
+        return monthlyDistance * transportationFactor;
+    }
+
+    public static double solidWasteEmission(double solidWasteTotal, double recyclePercentage,
+                                            double recyclableFactor, double nonRecyclableFactor) {
+        double recyclableWaste = solidWasteTotal * recyclePercentage;
+        double recyclableEmission = recyclableWaste * recyclableFactor;
+
+        double nonRecyclableWaste = solidWasteTotal * (1 - recyclePercentage);
+        double nonRecyclableEmission = nonRecyclableWaste * nonRecyclableFactor;
+
+        return recyclableEmission + nonRecyclableEmission;
+    }
+
+    /**
+     * Fills the emission columns of {@code batch}, splitting it across the common fork/join pool in chunks of
+     * {@code parallelThreshold} rows when it is larger than that.
+     */
+    public static void compute(EmissionBatch batch, int parallelThreshold) {
+        if (batch.size <= parallelThreshold) {
+            compute(batch, 0, batch.size);
+        } else {
+            ForkJoinPool.commonPool().invoke(new ComputeTask(batch, 0, batch.size, parallelThreshold));
+        }
+    }
+
+    static void compute(EmissionBatch batch, int from, int to) {
+        double[] energy = batch.energyEmission;
+        double[] energyConsumption = batch.energyConsumption;
+        double[] energyFactor = batch.energyFactor;
+        for (int i = from; i < to; i++) {
+            energy[i] = energyEmission(energyConsumption[i], energyFactor[i]);
+        }
+
+        double[] transportation = batch.transportationEmission;
+        for (int i = from; i < to; i++) {
+            transportation[i] = 0.0;
+        }
+        for (int type = 0; type < batch.distanceByType.length; type++) {
+            double[] distance = batch.distanceByType[type];
+            if (distance == null) {
+                continue;
+            }
+            double factor = batch.transportationFactor[type];
+            for (int i = from; i < to; i++) {
+                transportation[i] += transportationEmission(distance[i], factor);
+            }
+        }
+
+        double[] solidWaste = batch.solidWasteEmission;
+        double[] solidWasteTotal = batch.solidWasteTotal;
+        double[] recyclePercentage = batch.recyclePercentage;
+        double[] recyclableFactor = batch.recyclableFactor;
+        double[] nonRecyclableFactor = batch.nonRecyclableFactor;
+        for (int i = from; i < to; i++) {
+            solidWaste[i] = solidWasteEmission(solidWasteTotal[i], recyclePercentage[i],
+                    recyclableFactor[i], nonRecyclableFactor[i]);
+        }
+
+        double[] total = batch.totalEmission;
+        for (int i = from; i < to; i++) {
+            total[i] = energy[i] + transportation[i] + solidWaste[i];
+        }
+    }
+
+    private static final class ComputeTask extends RecursiveAction {
+
+        private final EmissionBatch batch;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        ComputeTask(EmissionBatch batch, int from, int to, int threshold) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                EmissionKernel.compute(batch, from, to);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new ComputeTask(batch, from, middle, threshold), new ComputeTask(batch, middle, to, threshold));
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.model.EmissionSketchCheckpoint;
+import br.com.actionlabs.carboncalc.repository.EmissionSketchRepository;
+import br.com.actionlabs.carboncalc.utils.EmissionSketch;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+/**
+ * Ranks a total emission among those of its UF and of the country ({@code carbon-calc.percentiles}). Each instance
+ * counts the totals of its own info updates in {@link EmissionSketch}es and, every {@code merge-interval}, adds them
+ * to the {@link EmissionSketchCheckpoint}s with {@code $inc} and reads back what every instance merged. A rank
+ * combines the merged sketch with what is still pending locally, without touching Mongo. Counts of an instance
+ * that dies before its next merge are lost until the nightly rebuild from the calculations.
+ * <p>
+ * The {@link #generation()} of the sketches goes into the result ETag. It only changes with a rebuild, which one
+ * instance runs and stamps on the checkpoints, so every instance agrees on it and clients keep revalidating between
+ * rebuilds. A rank served from a revalidated result may be as old as the last rebuild.
+ */
+@Slf4j
+@Service
+public class EmissionPercentileService {
+
+    private static final String REBUILD_JOB = "emission-sketch-rebuild";
+
+    private final EmissionSketchRepository emissionSketchRepository;
+    private final CalculationEventLog calculationEventLog;
+    private final JobLockService jobLockService;
+
+    private final boolean enabled;
+    private final int rebuildBatchSize;
+
+    private volatile ConcurrentMap<String, EmissionSketch> merged = new ConcurrentHashMap<>();
+    private volatile String generation = generationOf(null);
+    private final ConcurrentMap<String, EmissionSketch> pending = new ConcurrentHashMap<>();
+
+    public EmissionPercentileService(EmissionSketchRepository emissionSketchRepository,
+                                     CalculationEventLog calculationEventLog,
+                                     JobLockService jobLockService,
+                                     @Value("${carbon-calc.percentiles.enabled:true}") boolean enabled,
+                                     @Value("${carbon-calc.percentiles.rebuild-batch-size:1000}") int rebuildBatchSize) {
+        this.emissionSketchRepository = emissionSketchRepository;
+        this.calculationEventLog = calculationEventLog;
+        this.jobLockService = jobLockService;
+        this.enabled = enabled;
+        this.rebuildBatchSize = rebuildBatchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param previousTotal the total before the update, {@code null} when the calculation had no info yet
+     */
+    public void recordChange(String uf, Double previousTotal, double currentTotal) {
+        if (!enabled) {
+            return;
+        }
+
+        for (String id : List.of(uf, EmissionSketchCheckpoint.NATIONAL)) {
+            EmissionSketch sketch = pending.computeIfAbsent(id, key -> new EmissionSketch());
+            if (previousTotal != null) {
+                sketch.remove(previousTotal);
+            }
+            sketch.add(currentTotal);
+        }
+    }
+
+    /**
+     * @return the share of calculations in {@code uf} with a lower total, from 0 to 100, or {@code null} before
+     * any was counted
+     */
+    public Double percentile(String uf, double total) {
+        return uf == null ? null : rank(uf, total);
+    }
+
+    public Double nationalPercentile(double total) {
+        return rank(EmissionSketchCheckpoint.NATIONAL, total);
+    }
+
+    /**
+     * @return a tag that changes with every rebuild of the sketches, or {@code null} when ranks are disabled
+     */
+    public String generation() {
+        return enabled ? generation : null;
+    }
+
+    /**
+     * Adds the local counts to the checkpoints and reloads the counts of every instance.
+     */
+    @Scheduled(fixedDelayString = "${carbon-calc.percentiles.merge-interval:10s}",
+            initialDelayString = "${carbon-calc.percentiles.merge-interval:10s}")
+    public void merge() {
+        if (!enabled) {
+            return;
+        }
+
+        for (Map.Entry<String, EmissionSketch> entry : pending.entrySet()) {
+            Map<Integer, Long> counts = entry.getValue().nonEmptyBuckets();
+            if (counts.isEmpty()) {
+                continue;
+            }
+
+            try {
+                emissionSketchRepository.addCounts(entry.getKey(), counts);
+            } catch (RuntimeException ex) {
+                log.warn("Could not checkpoint the emission sketch of {}, retrying on the next merge",
+                        entry.getKey(), ex);
+                continue;
+            }
+
+            // moved rather than dropped, so ranks keep seeing the counts until the reload below
+            EmissionSketch mergedSketch = merged.computeIfAbsent(entry.getKey(), key -> new EmissionSketch());
+            counts.forEach(mergedSketch::addToBucket);
+            entry.getValue().subtract(counts);
+        }
+
+        try {
+            load();
+        } catch (RuntimeException ex) {
+            log.warn("Could not reload the emission sketches", ex);
+        }
+    }
+
+    /**
+     * Recounts every sketch from the calculations on the one instance holding the rebuild lease; the others pick
+     * the result up on their next merge. Updates made while it runs may be counted twice or not at all, and are
+     * repaired by the next run.
+     */
+    @Scheduled(cron = "${carbon-calc.percentiles.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        if (!enabled || !jobLockService.tryAcquire(REBUILD_JOB)) {
+            return;
+        }
+
+        Instant rebuiltAt = Instant.now();
+        Map<String, EmissionSketch> rebuilt = new HashMap<>();
+        try (Stream<CarbonCalculation> calculations = calculationEventLog
+                .streamCurrent(null, 0.0, null, rebuildBatchSize)) {
+            calculations.forEach(calculation -> {
+                rebuilt.computeIfAbsent(calculation.getUf(), key -> new EmissionSketch())
+                        .add(calculation.getTotalEmission());
+                rebuilt.computeIfAbsent(EmissionSketchCheckpoint.NATIONAL, key -> new EmissionSketch())
+                        .add(calculation.getTotalEmission());
+            });
+        }
+
+        List<EmissionSketchCheckpoint> checkpoints = new ArrayList<>(rebuilt.size());
+        for (Map.Entry<String, EmissionSketch> entry : rebuilt.entrySet()) {
+            checkpoints.add(toCheckpoint(entry.getKey(), entry.getValue(), rebuiltAt));
+        }
+        emissionSketchRepository.saveAll(checkpoints);
+
+        Set<String> stale = new HashSet<>();
+        for (EmissionSketchCheckpoint checkpoint : emissionSketchRepository.findAll()) {
+            if (!rebuilt.containsKey(checkpoint.getId())) {
+                stale.add(checkpoint.getId());
+            }
+        }
+        if (!stale.isEmpty()) {
+            emissionSketchRepository.deleteAllById(stale);
+        }
+
+        merged = new ConcurrentHashMap<>(rebuilt);
+        generation = generationOf(rebuiltAt);
+        log.info("Rebuilt {} emission sketches", rebuilt.size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+
+        if (emissionSketchRepository.count() == 0) {
+            rebuild();
+        } else {
+            load();
+        }
+    }
+
+    private Double rank(String id, double total) {
+        if (!enabled) {
+            return null;
+        }
+
+        return EmissionSketch.percentileRank(total, merged.get(id), pending.get(id));
+    }
+
+    private void load() {
+        ConcurrentMap<String, EmissionSketch> loaded = new ConcurrentHashMap<>();
+        Instant rebuiltAt = null;
+        for (EmissionSketchCheckpoint checkpoint : emissionSketchRepository.findAll()) {
+            EmissionSketch sketch = new EmissionSketch();
+            checkpoint.getBuckets().forEach((bucket, count) -> sketch.addToBucket(Integer.parseInt(bucket), count));
+            loaded.put(checkpoint.getId(), sketch);
+            if (checkpoint.getRebuiltAt() != null
+                    && (rebuiltAt == null || checkpoint.getRebuiltAt().isAfter(rebuiltAt))) {
+                rebuiltAt = checkpoint.getRebuiltAt();
+            }
+        }
+        merged = loaded;
+        generation = generationOf(rebuiltAt);
+    }
+
+    private static String generationOf(Instant rebuiltAt) {
+        return rebuiltAt == null ? "0" : Long.toHexString(rebuiltAt.toEpochMilli());
+    }
+
+    private static EmissionSketchCheckpoint toCheckpoint(String id, EmissionSketch sketch, Instant rebuiltAt) {
+        EmissionSketchCheckpoint checkpoint = new EmissionSketchCheckpoint();
+        checkpoint.setId(id);
+        checkpoint.setCount(sketch.count());
+        checkpoint.setRebuiltAt(rebuiltAt);
+        sketch.nonEmptyBuckets().forEach((bucket, count) -> checkpoint.getBuckets().put(String.valueOf(bucket), count));
+        return checkpoint;
+    }
+}
@@ -0,0 +1,225 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.exceptions.IdempotencyKeyReusedException;
+import br.com.actionlabs.carboncalc.exceptions.IdempotentRequestInProgressException;
+import br.com.actionlabs.carboncalc.exceptions.InvalidIdempotencyKeyException;
+import br.com.actionlabs.carboncalc.model.IdempotencyRecord;
+import br.com.actionlabs.carboncalc.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs a write at most once per {@code Idempotency-Key} and replays its response to retries.
+ * <p>
+ * Completed responses stay in a bounded in-memory cache in front of the {@code idempotencyKey} collection,
+ * whose TTL index drops them after {@code carbon-calc.idempotency.ttl}. Concurrent requests with the same key on
+ * one instance wait for the first one and share its outcome. Across instances the first request claims the key
+ * with an insert, and the others get 409 until it finishes. Failed requests release their key, so the client can
+ * retry them.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private record InFlight(String fingerprint, CompletableFuture<Object> response) {
+    }
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration pendingTimeout;
+
+    private final Cache<String, IdempotencyRecord> completed;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${carbon-calc.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${carbon-calc.idempotency.pending-timeout:1m}") Duration pendingTimeout,
+                              @Value("${carbon-calc.idempotency.cache-maximum-size:100000}") long maximumSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.pendingTimeout = pendingTimeout;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * @param operation   keeps the keys of different endpoints apart
+     * @param key         the client's {@code Idempotency-Key}, or {@code null} to simply run {@code action}
+     * @param request     everything that identifies the request; a key sent again with a different one is refused
+     */
+    public <T> T execute(String operation, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(MAX_KEY_LENGTH);
+        }
+
+        String id = operation + ':' + key;
+        String fingerprint = fingerprint(request);
+
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            checkFingerprint(key, running.fingerprint(), fingerprint);
+            return responseType.cast(await(running.response()));
+        }
+
+        try {
+            T response = executeOnce(id, key, fingerprint, responseType, action);
+            mine.response().complete(response);
+            return response;
+        } catch (RuntimeException ex) {
+            mine.response().completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    private <T> T executeOnce(String id, String key, String fingerprint, Class<T> responseType, Supplier<T> action) {
+        IdempotencyRecord cached = completed.getIfPresent(id);
+        if (cached != null) {
+            return replay(key, cached, fingerprint, responseType);
+        }
+
+        IdempotencyRecord claim = new IdempotencyRecord();
+        claim.setId(id);
+        claim.setFingerprint(fingerprint);
+        claim.setExpiresAt(expiresIn(pendingTimeout));
+
+        IdempotencyRecord existing = claim(key, claim);
+        if (existing != null) {
+            if (!existing.isCompleted()) {
+                throw new IdempotentRequestInProgressException(key);
+            }
+            completed.put(id, existing);
+            return replay(key, existing, fingerprint, responseType);
+        }
+
+        T response;
+        try {
+            response = action.get();
+        } catch (RuntimeException ex) {
+            release(id);
+            throw ex;
+        }
+
+        claim.setResponse(toJson(response));
+        claim.setExpiresAt(expiresIn(ttl));
+        completed.put(id, claim);
+        try {
+            idempotencyRecordRepository.save(claim);
+        } catch (DataAccessException ex) {
+            log.warn("Could not store the response of idempotency key {}; only this instance will replay it", id, ex);
+        }
+
+        return response;
+    }
+
+    /**
+     * Inserts the claim. A record past its TTL still holds the key until Mongo's TTL monitor removes it.
+     *
+     * @return the record already holding the key, or {@code null} when the claim was stored
+     */
+    private IdempotencyRecord claim(String key, IdempotencyRecord claim) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                idempotencyRecordRepository.insert(claim);
+                return null;
+            } catch (DuplicateKeyException ex) {
+                // the holder may have been released or expired in between; if so, claim again
+                IdempotencyRecord existing = idempotencyRecordRepository.findById(claim.getId()).orElse(null);
+                if (existing != null) {
+                    return existing;
+                }
+            }
+        }
+        throw new IdempotentRequestInProgressException(key);
+    }
+
+    private void release(String id) {
+        try {
+            idempotencyRecordRepository.deleteById(id);
+        } catch (DataAccessException ex) {
+            log.warn("Could not release idempotency key {}; it is freed after {}", id, pendingTimeout, ex);
+        }
+    }
+
+    private <T> T replay(String key, IdempotencyRecord record, String fingerprint, Class<T> responseType) {
+        checkFingerprint(key, record.getFingerprint(), fingerprint);
+        try {
+            return objectMapper.readValue(record.getResponse(), responseType);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void checkFingerprint(String key, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> response) {
+        try {
+            return response.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private String toJson(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static Date expiresIn(Duration duration) {
+        return new Date(System.currentTimeMillis() + duration.toMillis());
+    }
+}
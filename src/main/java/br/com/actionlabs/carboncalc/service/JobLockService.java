@@ -0,0 +1,51 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.model.JobLock;
+import br.com.actionlabs.carboncalc.repository.JobLockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Lets one instance run a scheduled job while the others skip it, through a {@link JobLock} lease in Mongo. The
+ * lease is not released when the job ends, so an instance whose schedule fires a little later, or whose clock is
+ * behind, still skips that run; it must outlast the longest run, or a second instance may start meanwhile.
+ */
+@Slf4j
+@Service
+public class JobLockService {
+
+    private final JobLockRepository jobLockRepository;
+    private final Duration lease;
+    private final String owner = UUID.randomUUID().toString();
+
+    public JobLockService(JobLockRepository jobLockRepository,
+                          @Value("${carbon-calc.job-lock.lease:1h}") Duration lease) {
+        this.jobLockRepository = jobLockRepository;
+        this.lease = lease;
+    }
+
+    /**
+     * @return whether this instance holds the lease on {@code job} for the configured {@code lease} from now
+     */
+    public boolean tryAcquire(String job) {
+        return tryAcquire(job, lease);
+    }
+
+    /**
+     * Takes the lease on {@code job}, or extends it when this instance already holds it, so a job renewing it on
+     * every run keeps running on the same instance until that instance stops.
+     */
+    public boolean tryAcquire(String job, Duration lease) {
+        Instant now = Instant.now();
+        boolean acquired = jobLockRepository.tryAcquire(job, owner, now, now.plus(lease));
+        if (!acquired) {
+            log.debug("Skipping {}, another instance holds its lease", job);
+        }
+        return acquired;
+    }
+}
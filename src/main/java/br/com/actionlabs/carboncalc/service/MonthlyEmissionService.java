@@ -0,0 +1,332 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.dto.CarbonCalculationResultDTO;
+import br.com.actionlabs.carboncalc.dto.MonthlyEmissionDTO;
+import br.com.actionlabs.carboncalc.dto.MonthlyUfRollupDTO;
+import br.com.actionlabs.carboncalc.exceptions.CarbonCalculationNotFoundException;
+import br.com.actionlabs.carboncalc.exceptions.InvalidMonthRangeException;
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.model.EmissionDelta;
+import br.com.actionlabs.carboncalc.model.MonthlyEmission;
+import br.com.actionlabs.carboncalc.model.MonthlyEmissionPoint;
+import br.com.actionlabs.carboncalc.model.MonthlyUfRollup;
+import br.com.actionlabs.carboncalc.repository.CarbonCalculationRepository;
+import br.com.actionlabs.carboncalc.repository.MonthlyEmissionRepository;
+import br.com.actionlabs.carboncalc.repository.MonthlyUfRollupRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Monthly footprint of each calculation ({@code carbon-calc.monthly}). Every info update queues a
+ * {@link MonthlyEmissionPoint}, and the last point of a month is that month's footprint, so a person keeps one
+ * calculation and updates it as often as they like. Queued points are inserted into a time-series collection every
+ * {@code flush-interval}, off the request path, and each flush adds the change they make to the per-UF
+ * {@link MonthlyUfRollup}s. Trends read the points of one calculation, which Mongo stores together.
+ */
+@Slf4j
+@Service
+public class MonthlyEmissionService {
+
+    private final MonthlyEmissionRepository monthlyEmissionRepository;
+    private final MonthlyUfRollupRepository monthlyUfRollupRepository;
+    private final CarbonCalculationRepository carbonCalculationRepository;
+
+    private final boolean enabled;
+    private final int maxMonths;
+    private final int maxPending;
+
+    private final Queue<MonthlyEmissionPoint> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    public MonthlyEmissionService(MonthlyEmissionRepository monthlyEmissionRepository,
+                                  MonthlyUfRollupRepository monthlyUfRollupRepository,
+                                  CarbonCalculationRepository carbonCalculationRepository,
+                                  @Value("${carbon-calc.monthly.enabled:true}") boolean enabled,
+                                  @Value("${carbon-calc.monthly.max-months:120}") int maxMonths,
+                                  @Value("${carbon-calc.monthly.max-pending:100000}") int maxPending) {
+        this.monthlyEmissionRepository = monthlyEmissionRepository;
+        this.monthlyUfRollupRepository = monthlyUfRollupRepository;
+        this.carbonCalculationRepository = carbonCalculationRepository;
+        this.enabled = enabled;
+        this.maxMonths = maxMonths;
+        this.maxPending = maxPending;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void createCollection() {
+        if (enabled) {
+            monthlyEmissionRepository.createCollectionIfMissing();
+        }
+    }
+
+    /**
+     * Queues the emissions of an info update for the next flush. A lost point only leaves that month at the
+     * previous update, so a full queue drops points rather than slowing the update down.
+     */
+    public void record(CarbonCalculation calculation) {
+        recordAll(List.of(calculation));
+    }
+
+    public void recordAll(List<CarbonCalculation> calculations) {
+        if (!enabled || calculations.isEmpty()) {
+            return;
+        }
+
+        Instant recordedAt = Instant.now();
+        int dropped = 0;
+        for (CarbonCalculation calculation : calculations) {
+            if (pendingCount.incrementAndGet() > maxPending) {
+                pendingCount.decrementAndGet();
+                dropped++;
+            } else {
+                pending.add(MonthlyEmissionPoint.of(calculation, recordedAt));
+            }
+        }
+
+        if (dropped > 0) {
+            log.warn("Dropped {} monthly emission points, {} are already waiting to be flushed", dropped, maxPending);
+        }
+    }
+
+    /**
+     * Inserts the queued points and adds them to the rollups of their month. A calculation's earlier point in
+     * the same month is replaced in its rollup, and its first point of a month counts it. Points of one calculation
+     * flushed by two instances at once may both count it. Failed flushes are logged and their points dropped.
+     */
+    @Scheduled(fixedDelayString = "${carbon-calc.monthly.flush-interval:1s}",
+            initialDelayString = "${carbon-calc.monthly.flush-interval:1s}")
+    @PreDestroy
+    public void flush() {
+        List<MonthlyEmissionPoint> points = new ArrayList<>();
+        for (MonthlyEmissionPoint point = pending.poll(); point != null; point = pending.poll()) {
+            pendingCount.decrementAndGet();
+            points.add(point);
+        }
+        if (points.isEmpty()) {
+            return;
+        }
+
+        try {
+            store(points);
+        } catch (RuntimeException ex) {
+            log.warn("Could not record {} monthly emission points", points.size(), ex);
+        }
+    }
+
+    private void store(List<MonthlyEmissionPoint> points) {
+        Set<String> calculationIds = new HashSet<>();
+        Instant from = Instant.MAX;
+        for (MonthlyEmissionPoint point : points) {
+            calculationIds.add(point.getMeta().getCalculationId());
+            from = min(from, monthStart(point));
+        }
+
+        // read before the insert, which would make the new points the last ones
+        Map<String, MonthlyEmissionPoint> lastByKey = new HashMap<>();
+        for (MonthlyEmissionPoint point : monthlyEmissionRepository.findLastPoints(calculationIds, from)) {
+            lastByKey.put(keyOf(point), point);
+        }
+
+        monthlyEmissionRepository.insert(points);
+
+        Map<Instant, Map<String, EmissionDelta>> deltasByMonth = new TreeMap<>();
+        points.sort(Comparator.comparing(MonthlyEmissionPoint::getRecordedAt));
+        for (MonthlyEmissionPoint point : points) {
+            Map<String, EmissionDelta> deltaByUf = deltasByMonth.computeIfAbsent(monthStart(point),
+                    month -> new HashMap<>());
+            MonthlyEmissionPoint replaced = lastByKey.put(keyOf(point), point);
+            if (replaced != null) {
+                deltaByUf.merge(replaced.getMeta().getUf(), deltaOf(replaced, -1), EmissionDelta::plus);
+            }
+            deltaByUf.merge(point.getMeta().getUf(), deltaOf(point, 1), EmissionDelta::plus);
+        }
+
+        for (Map.Entry<Instant, Map<String, EmissionDelta>> entry : deltasByMonth.entrySet()) {
+            entry.getValue().values().removeIf(EmissionDelta::isZero);
+            monthlyUfRollupRepository.applyDeltas(entry.getKey(), entry.getValue().values());
+        }
+
+        log.debug("Recorded {} monthly emission points", points.size());
+    }
+
+    /**
+     * @return the footprint of every month from {@code from} to {@code to} with an info update, oldest first,
+     * each with its change from the same month a year before
+     */
+    public List<MonthlyEmissionDTO> getTrend(String id, YearMonth from, YearMonth to) {
+        checkRange(from, to);
+
+        List<MonthlyEmission> emissions = monthlyEmissionRepository.findMonthlyEmissions(id,
+                start(from.minusYears(1)), start(to.plusMonths(1)));
+        if (emissions.isEmpty() && !carbonCalculationRepository.existsById(id)) {
+            throw new CarbonCalculationNotFoundException(id);
+        }
+
+        Map<YearMonth, MonthlyEmission> byMonth = new HashMap<>();
+        for (MonthlyEmission emission : emissions) {
+            byMonth.put(monthOf(emission.getMonth()), emission);
+        }
+
+        List<MonthlyEmissionDTO> trend = new ArrayList<>();
+        for (MonthlyEmission emission : emissions) {
+            YearMonth month = monthOf(emission.getMonth());
+            if (month.isBefore(from)) {
+                continue;
+            }
+
+            MonthlyEmissionDTO dto = new MonthlyEmissionDTO();
+            dto.setMonth(month);
+            dto.setResult(toResultDTO(emission));
+            MonthlyEmission yearBefore = byMonth.get(month.minusYears(1));
+            if (yearBefore != null) {
+                dto.setYearOverYearDelta(delta(emission, yearBefore));
+            }
+            trend.add(dto);
+        }
+        return trend;
+    }
+
+    /**
+     * @param uf restricts the rollups to one UF, or {@code null} for all of them
+     */
+    public List<MonthlyUfRollupDTO> getUfRollups(YearMonth from, YearMonth to, String uf) {
+        checkRange(from, to);
+
+        List<MonthlyUfRollup> rollups = uf == null
+                ? monthlyUfRollupRepository.findByMonthRange(start(from), start(to.plusMonths(1)))
+                : monthlyUfRollupRepository.findByUfAndMonthRange(uf, start(from), start(to.plusMonths(1)));
+
+        List<MonthlyUfRollupDTO> dtos = new ArrayList<>(rollups.size());
+        for (MonthlyUfRollup rollup : rollups) {
+            dtos.add(toDTO(rollup));
+        }
+        return dtos;
+    }
+
+    /**
+     * Rebuilds the rollups of every month from {@code from} to {@code to}. Points flushed while it runs may be
+     * counted twice or not at all.
+     */
+    public void refresh(YearMonth from, YearMonth to) {
+        List<MonthlyUfRollup> rollups = monthlyEmissionRepository.aggregateUfRollups(start(from),
+                start(to.plusMonths(1)));
+        for (MonthlyUfRollup rollup : rollups) {
+            rollup.setId(MonthlyUfRollup.idOf(rollup.getUf(), rollup.getMonth()));
+        }
+        monthlyUfRollupRepository.saveAll(rollups);
+
+        log.debug("Refreshed {} monthly UF rollups from {} to {}", rollups.size(), from, to);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled || monthlyUfRollupRepository.count() > 0) {
+            return;
+        }
+
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        refresh(monthOf(Instant.EPOCH), current);
+        log.info("Built the monthly UF rollups up to {}", current);
+    }
+
+    private void checkRange(YearMonth from, YearMonth to) {
+        if (from.isAfter(to) || ChronoUnit.MONTHS.between(from, to) >= maxMonths) {
+            throw new InvalidMonthRangeException(maxMonths);
+        }
+    }
+
+    private static EmissionDelta deltaOf(MonthlyEmissionPoint point, int sign) {
+        return new EmissionDelta(point.getMeta().getUf(), sign,
+                sign * point.getEnergyEmission(),
+                sign * point.getTransportationEmission(),
+                sign * point.getSolidWasteEmission(),
+                sign * point.getTotalEmission());
+    }
+
+    private static String keyOf(MonthlyEmissionPoint point) {
+        return point.getMeta().getCalculationId() + ":" + monthStart(point);
+    }
+
+    private static Instant monthStart(MonthlyEmissionPoint point) {
+        return start(monthOf(point.getRecordedAt()));
+    }
+
+    private static Instant min(Instant first, Instant second) {
+        return first.isBefore(second) ? first : second;
+    }
+
+    private static Instant start(YearMonth month) {
+        return month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+    }
+
+    private static YearMonth monthOf(Instant month) {
+        return YearMonth.from(month.atOffset(ZoneOffset.UTC));
+    }
+
+    private static CarbonCalculationResultDTO toResultDTO(MonthlyEmission emission) {
+        CarbonCalculationResultDTO result = new CarbonCalculationResultDTO();
+        result.setEnergy(round(emission.getEnergyEmission()));
+        result.setTransportation(round(emission.getTransportationEmission()));
+        result.setSolidWaste(round(emission.getSolidWasteEmission()));
+        result.setTotal(round(emission.getTotalEmission()));
+        return result;
+    }
+
+    private static CarbonCalculationResultDTO delta(MonthlyEmission current, MonthlyEmission yearBefore) {
+        CarbonCalculationResultDTO delta = new CarbonCalculationResultDTO();
+        delta.setEnergy(round(current.getEnergyEmission() - yearBefore.getEnergyEmission()));
+        delta.setTransportation(round(current.getTransportationEmission() - yearBefore.getTransportationEmission()));
+        delta.setSolidWaste(round(current.getSolidWasteEmission() - yearBefore.getSolidWasteEmission()));
+        delta.setTotal(round(current.getTotalEmission() - yearBefore.getTotalEmission()));
+        return delta;
+    }
+
+    private static MonthlyUfRollupDTO toDTO(MonthlyUfRollup rollup) {
+        MonthlyUfRollupDTO dto = new MonthlyUfRollupDTO();
+        dto.setMonth(monthOf(rollup.getMonth()));
+        dto.setUf(rollup.getUf());
+        dto.setCount(rollup.getCount());
+        dto.setTotal(emissions(rollup, 1));
+        dto.setAverage(emissions(rollup, Math.max(1, rollup.getCount())));
+        return dto;
+    }
+
+    private static CarbonCalculationResultDTO emissions(MonthlyUfRollup rollup, long divisor) {
+        CarbonCalculationResultDTO emissions = new CarbonCalculationResultDTO();
+        emissions.setEnergy(round(rollup.getEnergyEmission() / divisor));
+        emissions.setTransportation(round(rollup.getTransportationEmission() / divisor));
+        emissions.setSolidWaste(round(rollup.getSolidWasteEmission() / divisor));
+        emissions.setTotal(round(rollup.getTotalEmission() / divisor));
+        return emissions;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
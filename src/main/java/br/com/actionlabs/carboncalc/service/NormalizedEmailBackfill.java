@@ -0,0 +1,37 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.repository.CarbonCalculationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class NormalizedEmailBackfill {
+
+    private final CarbonCalculationRepository carbonCalculationRepository;
+    private final EmailRegistry emailRegistry;
+
+    public NormalizedEmailBackfill(CarbonCalculationRepository carbonCalculationRepository,
+                                   EmailRegistry emailRegistry) {
+        this.carbonCalculationRepository = carbonCalculationRepository;
+        this.emailRegistry = emailRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            long updated = carbonCalculationRepository.backfillNormalizedEmail();
+            if (updated > 0) {
+                log.info("Filled normalizedEmail on {} existing calculations", updated);
+            }
+        } catch (DuplicateKeyException ex) {
+            log.warn("Existing calculations share the same email; remove the duplicates so they are covered "
+                    + "by the unique email index", ex);
+        }
+
+        emailRegistry.backfill();
+    }
+}
@@ -0,0 +1,179 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.dto.CarbonCalculationResultDTO;
+import br.com.actionlabs.carboncalc.dto.StartCalcRequestDTO;
+import br.com.actionlabs.carboncalc.dto.UpdateCalcInfoRequestDTO;
+import br.com.actionlabs.carboncalc.dto.UpdateCalcInfoResponseDTO;
+import br.com.actionlabs.carboncalc.exceptions.CalculationVersionConflictException;
+import br.com.actionlabs.carboncalc.exceptions.CarbonCalculationNotFoundException;
+import br.com.actionlabs.carboncalc.exceptions.EmailAlreadyExists;
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.model.EmissionDelta;
+import br.com.actionlabs.carboncalc.repository.reactive.ReactiveCarbonCalculationRepository;
+import br.com.actionlabs.carboncalc.repository.reactive.ReactiveUfEmissionRollupRepository;
+import br.com.actionlabs.carboncalc.utils.CalculationRequestValidator;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Serves the same flows as {@link CarbonCalculationService} without blocking the event loop. Updates feed the
+ * percentile sketches and the monthly points through the same hooks. The event log and the write-behind journal
+ * only have blocking paths, so the reactive mode refuses to start with either enabled.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveCarbonCalculationService {
+
+    private final ReactiveCarbonCalculationRepository reactiveCarbonCalculationRepository;
+    private final ReactiveUfEmissionRollupRepository reactiveUfEmissionRollupRepository;
+    private final CarbonCalculationService carbonCalculationService;
+    private final CalculationUfCache calculationUfCache;
+    private final CalculationResultCache calculationResultCache;
+    private final EmailRegistry emailRegistry;
+    private final CalculationRequestValidator calculationRequestValidator;
+
+    public ReactiveCarbonCalculationService(ReactiveCarbonCalculationRepository reactiveCarbonCalculationRepository,
+                                            ReactiveUfEmissionRollupRepository reactiveUfEmissionRollupRepository,
+                                            CarbonCalculationService carbonCalculationService,
+                                            CalculationUfCache calculationUfCache,
+                                            CalculationResultCache calculationResultCache,
+                                            EmailRegistry emailRegistry,
+                                            CalculationEventLog calculationEventLog,
+                                            CalculationWriteBehind calculationWriteBehind,
+                                            CalculationRequestValidator calculationRequestValidator) {
+        if (calculationEventLog.isEnabled() || calculationWriteBehind.isEnabled()) {
+            throw new IllegalStateException("The reactive profile does not support carbon-calc.event-log or "
+                    + "carbon-calc.write-behind; disable both or run the default mode");
+        }
+
+        this.reactiveCarbonCalculationRepository = reactiveCarbonCalculationRepository;
+        this.reactiveUfEmissionRollupRepository = reactiveUfEmissionRollupRepository;
+        this.carbonCalculationService = carbonCalculationService;
+        this.calculationUfCache = calculationUfCache;
+        this.calculationResultCache = calculationResultCache;
+        this.emailRegistry = emailRegistry;
+        this.calculationRequestValidator = calculationRequestValidator;
+    }
+
+    public Mono<String> startCalculation(StartCalcRequestDTO request) {
+        return Mono.fromCallable(() -> {
+                    calculationRequestValidator.validate(request).throwIfInvalid();
+
+                    CarbonCalculation carbonCalculation = CarbonCalculationService.newCarbonCalculation(request);
+                    carbonCalculation.setId(new ObjectId().toHexString());
+                    return carbonCalculation;
+                })
+                .flatMap(this::insertRegistered)
+                .onErrorMap(DuplicateKeyException.class, ex -> new EmailAlreadyExists())
+                .doOnNext(saved -> calculationUfCache.put(saved.getId(), saved.getUf()))
+                .map(CarbonCalculation::getId);
+    }
+
+    /**
+     * Same flow as the blocking insert: the email is registered first, off the event loop, and released again
+     * if the insert fails.
+     */
+    private Mono<CarbonCalculation> insertRegistered(CarbonCalculation carbonCalculation) {
+        if (!emailRegistry.isEnabled()) {
+            return reactiveCarbonCalculationRepository.insert(carbonCalculation);
+        }
+
+        return Mono.fromRunnable(() -> emailRegistry.register(carbonCalculation))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(Mono.defer(() -> reactiveCarbonCalculationRepository.insert(carbonCalculation))
+                        .onErrorResume(ex -> Mono.fromRunnable(() -> emailRegistry.release(carbonCalculation))
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .then(Mono.error(ex))));
+    }
+
+    public Mono<UpdateCalcInfoResponseDTO> updateInfo(UpdateCalcInfoRequestDTO request, Long expectedVersion) {
+        return Mono.fromRunnable(() -> calculationRequestValidator.validate(request).throwIfInvalid())
+                .then(Mono.defer(() -> findUf(request.getId())))
+                .switchIfEmpty(Mono.error(() -> new CarbonCalculationNotFoundException(request.getId())))
+                .flatMap(uf -> {
+                    CarbonCalculation carbonCalculation = new CarbonCalculation();
+                    carbonCalculation.setId(request.getId());
+                    carbonCalculation.setUf(uf);
+
+                    CarbonCalculationService.applyInfo(carbonCalculation, request);
+                    carbonCalculationService.calculateEmissionFactor(carbonCalculation);
+
+                    return reactiveCarbonCalculationRepository
+                            .updateInfo(carbonCalculation, expectedVersion)
+                            .switchIfEmpty(Mono.defer(() -> updateMiss(request.getId(), expectedVersion)))
+                            .flatMap(previous -> {
+                                carbonCalculation.setVersion(previous.getVersion() + 1);
+                                carbonCalculationService.recordUpdated(previous, carbonCalculation);
+                                return recordChange(EmissionDelta
+                                        .between(carbonCalculation.getUf(), previous, carbonCalculation));
+                            })
+                            .thenReturn(carbonCalculation);
+                })
+                .map(updated -> {
+                    UpdateCalcInfoResponseDTO response = CarbonCalculationService.toUpdateResponse(updated);
+                    calculationResultCache.put(updated.getId(), updated.getVersion(), updated.getUf(),
+                            response.getResult());
+                    return response;
+                });
+    }
+
+    /**
+     * Serves a cached result once the covered version lookup confirms no instance updated the calculation since.
+     */
+    public Mono<CarbonCalculationResultDTO> getCarbonCalculationResult(String id) {
+        CalculationResultCache.Entry cached = calculationResultCache.getIfPresent(id);
+        Mono<CalculationResultCache.Entry> entry = cached == null
+                ? loadResult(id)
+                : reactiveCarbonCalculationRepository
+                        .findVersionById(id)
+                        .filter(version -> version <= cached.version())
+                        .map(version -> cached)
+                        .switchIfEmpty(Mono.defer(() -> loadResult(id)));
+
+        return entry.map(found -> carbonCalculationService.withPercentiles(id, found).result());
+    }
+
+    private Mono<CalculationResultCache.Entry> loadResult(String id) {
+        return reactiveCarbonCalculationRepository
+                .findEmissionsById(id)
+                .switchIfEmpty(Mono.error(() -> new CarbonCalculationNotFoundException(id)))
+                .map(carbonCalculation -> {
+                    CalculationResultCache.Entry loaded = new CalculationResultCache.Entry(
+                            carbonCalculation.getVersion(), carbonCalculation.getUf(),
+                            CarbonCalculationService.toResultDTO(carbonCalculation));
+                    calculationResultCache.put(id, loaded.version(), loaded.uf(), loaded.result());
+                    return loaded;
+                });
+    }
+
+    private Mono<String> findUf(String id) {
+        String uf = calculationUfCache.getIfPresent(id);
+        if (uf != null) {
+            return Mono.just(uf);
+        }
+
+        return reactiveCarbonCalculationRepository
+                .findUfById(id)
+                .doOnNext(found -> calculationUfCache.put(id, found));
+    }
+
+    private Mono<Void> recordChange(EmissionDelta delta) {
+        return delta.isZero() ? Mono.empty() : reactiveUfEmissionRollupRepository.applyDelta(delta);
+    }
+
+    private Mono<CarbonCalculation> updateMiss(String id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return Mono.error(new CarbonCalculationNotFoundException(id));
+        }
+
+        return reactiveCarbonCalculationRepository
+                .existsById(id)
+                .flatMap(exists -> Mono.<CarbonCalculation>error(exists
+                        ? new CalculationVersionConflictException(id, expectedVersion)
+                        : new CarbonCalculationNotFoundException(id)));
+    }
+}
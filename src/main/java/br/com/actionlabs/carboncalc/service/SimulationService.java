@@ -0,0 +1,91 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.dto.*;
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+import br.com.actionlabs.carboncalc.exceptions.SimulationLimitExceededException;
+import br.com.actionlabs.carboncalc.utils.CalculationRequestValidator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What-if calculations: runs any number of scenarios through {@link EmissionKernel} against the current
+ * emission factors and returns the results without storing anything.
+ */
+@Service
+public class SimulationService {
+
+    private final EmissionFactorCatalog emissionFactorCatalog;
+    private final CalculationRequestValidator calculationRequestValidator;
+    private final int maxScenarios;
+    private final int parallelThreshold;
+
+    public SimulationService(EmissionFactorCatalog emissionFactorCatalog,
+                             CalculationRequestValidator calculationRequestValidator,
+                             @Value("${carbon-calc.simulation.max-scenarios:10000}") int maxScenarios,
+                             @Value("${carbon-calc.simulation.parallel-threshold:4096}") int parallelThreshold) {
+        this.emissionFactorCatalog = emissionFactorCatalog;
+        this.calculationRequestValidator = calculationRequestValidator;
+        this.maxScenarios = maxScenarios;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public SimulationResponseDTO simulate(SimulationRequestDTO request) {
+        List<SimulationScenarioDTO> scenarios = request.getScenarios();
+        if (scenarios != null && scenarios.size() > maxScenarios) {
+            throw new SimulationLimitExceededException(maxScenarios);
+        }
+        calculationRequestValidator.validate(request).throwIfInvalid();
+
+        EmissionBatch batch = toBatch(scenarios, emissionFactorCatalog.current());
+        EmissionKernel.compute(batch, parallelThreshold);
+
+        List<CarbonCalculationResultDTO> results = new ArrayList<>(batch.size());
+        for (int row = 0; row < batch.size(); row++) {
+            CarbonCalculationResultDTO result = new CarbonCalculationResultDTO();
+            result.setEnergy(round(batch.energyEmission(row)));
+            result.setTransportation(round(batch.transportationEmission(row)));
+            result.setSolidWaste(round(batch.solidWasteEmission(row)));
+            result.setTotal(round(batch.totalEmission(row)));
+            results.add(result);
+        }
+
+        SimulationResponseDTO response = new SimulationResponseDTO();
+        response.setResults(results);
+        return response;
+    }
+
+    static EmissionBatch toBatch(List<SimulationScenarioDTO> scenarios, EmissionFactorSnapshot emissionFactors) {
+        EmissionBatch batch = new EmissionBatch(scenarios.size());
+
+        for (int row = 0; row < scenarios.size(); row++) {
+            SimulationScenarioDTO scenario = scenarios.get(row);
+            String uf = scenario.getUf();
+
+            batch.setEnergy(row, scenario.getEnergyConsumption(), emissionFactors.energyFactor(uf));
+            batch.setSolidWaste(row, scenario.getSolidWasteTotal(), scenario.getRecyclePercentage(),
+                    emissionFactors.recyclableFactor(uf), emissionFactors.nonRecyclableFactor(uf));
+
+            if (scenario.getTransportation() != null) {
+                for (TransportationDTO transportation : scenario.getTransportation()) {
+                    batch.addDistance(row, transportation.getType(), transportation.getMonthlyDistance());
+                }
+            }
+        }
+
+        // only types in use need a factor, like a calculation without that type of transportation
+        for (TransportationType type : TransportationType.values()) {
+            if (batch.usesTransportation(type)) {
+                batch.setTransportationFactor(type, emissionFactors.transportationFactor(type));
+            }
+        }
+
+        return batch;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,221 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.dto.CarbonCalculationResultDTO;
+import br.com.actionlabs.carboncalc.dto.UfEmissionRollupDTO;
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.model.EmissionDelta;
+import br.com.actionlabs.carboncalc.model.UfEmissionRollup;
+import br.com.actionlabs.carboncalc.repository.UfEmissionRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Keeps one {@link UfEmissionRollup} per UF current with the deltas of each info update, so dashboards read
+ * at most 27 small documents instead of aggregating every calculation.
+ */
+@Slf4j
+@Service
+public class UfEmissionRollupService {
+
+    private static final double DRIFT_TOLERANCE = 1e-6;
+    private static final String RECONCILE_JOB = "uf-rollup-reconcile";
+
+    private final UfEmissionRollupRepository ufEmissionRollupRepository;
+    private final CalculationEventLog calculationEventLog;
+    private final JobLockService jobLockService;
+    private final int rebuildBatchSize;
+
+    public UfEmissionRollupService(UfEmissionRollupRepository ufEmissionRollupRepository,
+                                   CalculationEventLog calculationEventLog,
+                                   JobLockService jobLockService,
+                                   @Value("${carbon-calc.rollups.rebuild-batch-size:1000}") int rebuildBatchSize) {
+        this.ufEmissionRollupRepository = ufEmissionRollupRepository;
+        this.calculationEventLog = calculationEventLog;
+        this.jobLockService = jobLockService;
+        this.rebuildBatchSize = rebuildBatchSize;
+    }
+
+    public void recordChange(EmissionDelta delta) {
+        recordChanges(List.of(delta));
+    }
+
+    public void recordChanges(Collection<EmissionDelta> deltas) {
+        Map<String, EmissionDelta> deltaByUf = new HashMap<>();
+        for (EmissionDelta delta : deltas) {
+            deltaByUf.merge(delta.uf(), delta, EmissionDelta::plus);
+        }
+        deltaByUf.values().removeIf(EmissionDelta::isZero);
+
+        ufEmissionRollupRepository.applyDeltas(deltaByUf.values());
+    }
+
+    public List<UfEmissionRollupDTO> getRollups() {
+        List<UfEmissionRollup> rollups = ufEmissionRollupRepository.findAll();
+
+        List<UfEmissionRollupDTO> dtos = new ArrayList<>(rollups.size());
+        for (UfEmissionRollup rollup : rollups) {
+            if (rollup.getCount() > 0) {
+                dtos.add(toDTO(rollup));
+            }
+        }
+        dtos.sort(Comparator.comparing(UfEmissionRollupDTO::getUf));
+
+        return dtos;
+    }
+
+    /**
+     * Rebuilds every rollup from the calculations on the one instance holding the reconcile lease, and adds the
+     * drift of each UF to its stored rollup with {@code $inc}, so updates applied meanwhile are kept. The drift is
+     * only known for UFs whose rollup did not change while the rebuild ran; the others are left for the next run.
+     * With the event log on the stored calculations are only snapshots, so the rollups are summed from their
+     * replayed state instead of aggregated in the database.
+     */
+    @Scheduled(cron = "${carbon-calc.rollups.reconcile-cron:0 0 3 * * *}")
+    public void reconcile() {
+        if (!jobLockService.tryAcquire(RECONCILE_JOB)) {
+            return;
+        }
+
+        Map<String, UfEmissionRollup> before = findAllByUf();
+        Map<String, UfEmissionRollup> rebuilt = new HashMap<>();
+        for (UfEmissionRollup rollup : calculationEventLog.isEnabled()
+                ? aggregateCurrent()
+                : ufEmissionRollupRepository.aggregateFromCalculations()) {
+            rebuilt.put(rollup.getUf(), rollup);
+        }
+        Map<String, UfEmissionRollup> stored = findAllByUf();
+
+        Set<String> ufs = new LinkedHashSet<>(rebuilt.keySet());
+        ufs.addAll(stored.keySet());
+
+        List<EmissionDelta> drifts = new ArrayList<>();
+        int updated = 0;
+        for (String uf : ufs) {
+            UfEmissionRollup current = stored.getOrDefault(uf, empty(uf));
+            UfEmissionRollup expected = rebuilt.getOrDefault(uf, empty(uf));
+            if (matches(current, expected)) {
+                continue;
+            }
+
+            if (!Objects.equals(before.get(uf), stored.get(uf))) {
+                updated++;
+                log.info("Emission rollup of {} was updated during the rebuild, reconciling it on the next run", uf);
+                continue;
+            }
+
+            log.warn("Emission rollup of {} drifted: stored {}, rebuilt {}", uf, current, expected);
+            drifts.add(new EmissionDelta(uf,
+                    expected.getCount() - current.getCount(),
+                    expected.getEnergyEmission() - current.getEnergyEmission(),
+                    expected.getTransportationEmission() - current.getTransportationEmission(),
+                    expected.getSolidWasteEmission() - current.getSolidWasteEmission(),
+                    expected.getTotalEmission() - current.getTotalEmission()));
+        }
+
+        if (!drifts.isEmpty()) {
+            ufEmissionRollupRepository.applyDeltas(drifts);
+        }
+
+        log.info("Reconciled {} emission rollups, {} had drifted and {} were updated during the rebuild",
+                ufs.size(), drifts.size(), updated);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (ufEmissionRollupRepository.count() == 0) {
+            reconcile();
+        }
+    }
+
+    private Map<String, UfEmissionRollup> findAllByUf() {
+        Map<String, UfEmissionRollup> rollupByUf = new HashMap<>();
+        for (UfEmissionRollup rollup : ufEmissionRollupRepository.findAll()) {
+            rollupByUf.put(rollup.getUf(), rollup);
+        }
+        return rollupByUf;
+    }
+
+    private static UfEmissionRollup empty(String uf) {
+        UfEmissionRollup rollup = new UfEmissionRollup();
+        rollup.setUf(uf);
+        return rollup;
+    }
+
+    private List<UfEmissionRollup> aggregateCurrent() {
+        Map<String, UfEmissionRollup> rollupByUf = new HashMap<>();
+
+        try (Stream<CarbonCalculation> calculations = calculationEventLog
+                .streamCurrent(null, null, null, rebuildBatchSize)) {
+            calculations.filter(calculation -> calculation.getTotalEmission() != null).forEach(calculation -> {
+                UfEmissionRollup rollup = rollupByUf.computeIfAbsent(calculation.getUf(), uf -> {
+                    UfEmissionRollup created = new UfEmissionRollup();
+                    created.setUf(uf);
+                    return created;
+                });
+                rollup.setCount(rollup.getCount() + 1);
+                rollup.setEnergyEmission(rollup.getEnergyEmission() + orZero(calculation.getEnergyEmission()));
+                rollup.setTransportationEmission(rollup.getTransportationEmission()
+                        + orZero(calculation.getTransportationEmission()));
+                rollup.setSolidWasteEmission(rollup.getSolidWasteEmission()
+                        + orZero(calculation.getSolidWasteEmission()));
+                rollup.setTotalEmission(rollup.getTotalEmission() + calculation.getTotalEmission());
+            });
+        }
+
+        return new ArrayList<>(rollupByUf.values());
+    }
+
+    private static double orZero(Double value) {
+        return value == null ? 0.0 : value;
+    }
+
+    private static boolean matches(UfEmissionRollup stored, UfEmissionRollup rebuilt) {
+        return stored.getCount() == rebuilt.getCount()
+                && close(stored.getEnergyEmission(), rebuilt.getEnergyEmission())
+                && close(stored.getTransportationEmission(), rebuilt.getTransportationEmission())
+                && close(stored.getSolidWasteEmission(), rebuilt.getSolidWasteEmission())
+                && close(stored.getTotalEmission(), rebuilt.getTotalEmission());
+    }
+
+    // $inc accumulates floating point error, so compare relative to the magnitude of the totals
+    private static boolean close(double stored, double rebuilt) {
+        return Math.abs(stored - rebuilt) <= DRIFT_TOLERANCE * Math.max(1.0, Math.abs(rebuilt));
+    }
+
+    private static UfEmissionRollupDTO toDTO(UfEmissionRollup rollup) {
+        UfEmissionRollupDTO dto = new UfEmissionRollupDTO();
+        dto.setUf(rollup.getUf());
+        dto.setCount(rollup.getCount());
+        dto.setTotal(emissions(rollup, 1));
+        dto.setAverage(emissions(rollup, rollup.getCount()));
+        return dto;
+    }
+
+    private static CarbonCalculationResultDTO emissions(UfEmissionRollup rollup, long divisor) {
+        CarbonCalculationResultDTO emissions = new CarbonCalculationResultDTO();
+        emissions.setEnergy(round(rollup.getEnergyEmission() / divisor));
+        emissions.setTransportation(round(rollup.getTransportationEmission() / divisor));
+        emissions.setSolidWaste(round(rollup.getSolidWasteEmission() / divisor));
+        emissions.setTotal(round(rollup.getTotalEmission() / divisor));
+        return emissions;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,233 @@
+package br.com.actionlabs.carboncalc.utils;
+
+import br.com.actionlabs.carboncalc.dto.SimulationRequestDTO;
+import br.com.actionlabs.carboncalc.dto.SimulationScenarioDTO;
+import br.com.actionlabs.carboncalc.dto.StartCalcRequestDTO;
+import br.com.actionlabs.carboncalc.dto.TransportationDTO;
+import br.com.actionlabs.carboncalc.dto.UpdateCalcInfoRequestDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+
+import static br.com.actionlabs.carboncalc.utils.ValidationResult.reject;
+
+/**
+ * Validates request DTOs in a single pass with hand-written scanners, collecting every violation
+ * instead of stopping at the first one.
+ */
+@Component
+public class CalculationRequestValidator {
+
+    static final String NULL_NAME = "This name is null";
+    static final String INVALID_NAME_LENGTH = "This name is shorter than 3 characters";
+    static final String INVALID_EMAIL = "Invalid email address";
+    static final String NULL_PHONE_NUMBER = "This phone number is null";
+    static final String INVALID_PHONE_NUMBER_LENGTH = "This phone number must be exactly 11 characters";
+    static final String INVALID_PHONE_NUMBER =
+            "Invalid phone number. The phone number contains non-numeric characters.";
+    static final String NULL_UF = "This UF is null";
+    static final String INVALID_UF_LENGTH = "The state code must be exactly 2 characters long";
+    static final String LOWER_CASE_UF = "UF must be in uppercase";
+    static final String NULL_ID = "Carbon Calculation id is null";
+    static final String INVALID_RECYCLE_PERCENTAGE =
+            "Invalid Recycle Percentage. The percentage must be between 0 and 1.";
+    static final String NULL_TRANSPORTATION_TYPE = "Transportation type is null";
+    static final String NULL_SCENARIOS = "Scenarios are null";
+    static final String NULL_SCENARIO = "This scenario is null";
+
+    private static final int MIN_NAME_LENGTH = 3;
+    private static final int PHONE_NUMBER_LENGTH = 11;
+    private static final int UF_LENGTH = 2;
+    private static final int MIN_TLD_LENGTH = 2;
+    private static final int MAX_TLD_LENGTH = 7;
+
+    public ValidationResult validate(StartCalcRequestDTO request) {
+        ValidationResult result = ValidationResult.VALID;
+
+        String name = request.getName();
+        if (name == null) {
+            result = reject(result, "name", NULL_NAME);
+        } else if (name.length() < MIN_NAME_LENGTH) {
+            result = reject(result, "name", INVALID_NAME_LENGTH);
+        }
+
+        if (!isEmail(request.getEmail())) {
+            result = reject(result, "email", INVALID_EMAIL);
+        }
+
+        String phoneNumber = request.getPhoneNumber();
+        if (phoneNumber == null) {
+            result = reject(result, "phoneNumber", NULL_PHONE_NUMBER);
+        } else if (phoneNumber.length() != PHONE_NUMBER_LENGTH) {
+            result = reject(result, "phoneNumber", INVALID_PHONE_NUMBER_LENGTH);
+        } else if (!isDigits(phoneNumber)) {
+            result = reject(result, "phoneNumber", INVALID_PHONE_NUMBER);
+        }
+
+        return validateUf(result, "uf", request.getUf());
+    }
+
+    public ValidationResult validate(UpdateCalcInfoRequestDTO request) {
+        ValidationResult result = ValidationResult.VALID;
+
+        if (request.getId() == null) {
+            result = reject(result, "id", NULL_ID);
+        }
+
+        result = validateRecyclePercentage(result, "recyclePercentage", request.getRecyclePercentage());
+        return validateTransportation(result, "transportation", request.getTransportation());
+    }
+
+    public ValidationResult validate(SimulationRequestDTO request) {
+        List<SimulationScenarioDTO> scenarios = request.getScenarios();
+        if (scenarios == null) {
+            return reject(ValidationResult.VALID, "scenarios", NULL_SCENARIOS);
+        }
+
+        ValidationResult result = ValidationResult.VALID;
+        for (int i = 0; i < scenarios.size(); i++) {
+            SimulationScenarioDTO scenario = scenarios.get(i);
+            String field = "scenarios[" + i + "]";
+            if (scenario == null) {
+                result = reject(result, field, NULL_SCENARIO);
+                continue;
+            }
+
+            result = validateUf(result, field + ".uf", scenario.getUf());
+            result = validateRecyclePercentage(result, field + ".recyclePercentage", scenario.getRecyclePercentage());
+            result = validateTransportation(result, field + ".transportation", scenario.getTransportation());
+        }
+
+        return result;
+    }
+
+    public ValidationResult validateUf(String uf) {
+        return validateUf(ValidationResult.VALID, "uf", uf);
+    }
+
+    public static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static ValidationResult validateUf(ValidationResult result, String field, String uf) {
+        if (uf == null) {
+            return reject(result, field, NULL_UF);
+        }
+
+        if (uf.length() != UF_LENGTH) {
+            return reject(result, field, INVALID_UF_LENGTH);
+        }
+
+        if (Character.isLowerCase(uf.charAt(0)) || Character.isLowerCase(uf.charAt(1))) {
+            return reject(result, field, LOWER_CASE_UF);
+        }
+
+        return result;
+    }
+
+    private static ValidationResult validateRecyclePercentage(ValidationResult result, String field,
+                                                              double recyclePercentage) {
+        if (!(recyclePercentage >= 0 && recyclePercentage <= 1)) {
+            return reject(result, field, INVALID_RECYCLE_PERCENTAGE);
+        }
+        return result;
+    }
+
+    private static ValidationResult validateTransportation(ValidationResult result, String field,
+                                                           List<TransportationDTO> transportation) {
+        if (transportation != null) {
+            for (int i = 0; i < transportation.size(); i++) {
+                TransportationDTO item = transportation.get(i);
+                if (item == null || item.getType() == null) {
+                    result = reject(result, field + "[" + i + "].type", NULL_TRANSPORTATION_TYPE);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isDigits(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same language as {@code ^[a-zA-Z0-9_+&*-]+(?:\.[a-zA-Z0-9_+&*-]+)*@(?:[a-zA-Z0-9-]+\.)+[a-zA-Z]{2,7}$}.
+     */
+    static boolean isEmail(String email) {
+        if (email == null) {
+            return false;
+        }
+
+        int at = email.indexOf('@');
+        if (at <= 0 || at != email.lastIndexOf('@')) {
+            return false;
+        }
+
+        boolean emptySegment = true;
+        for (int i = 0; i < at; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                if (emptySegment) {
+                    return false;
+                }
+                emptySegment = true;
+            } else if (isAsciiLetterOrDigit(c) || c == '_' || c == '+' || c == '&' || c == '*' || c == '-') {
+                emptySegment = false;
+            } else {
+                return false;
+            }
+        }
+        if (emptySegment) {
+            return false;
+        }
+
+        int lastDot = email.lastIndexOf('.');
+        if (lastDot < at + 2) {
+            return false;
+        }
+
+        boolean emptyLabel = true;
+        for (int i = at + 1; i < lastDot; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                if (emptyLabel) {
+                    return false;
+                }
+                emptyLabel = true;
+            } else if (isAsciiLetterOrDigit(c) || c == '-') {
+                emptyLabel = false;
+            } else {
+                return false;
+            }
+        }
+        if (emptyLabel) {
+            return false;
+        }
+
+        int tldLength = email.length() - lastDot - 1;
+        if (tldLength < MIN_TLD_LENGTH || tldLength > MAX_TLD_LENGTH) {
+            return false;
+        }
+        for (int i = lastDot + 1; i < email.length(); i++) {
+            if (!isAsciiLetter(email.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9');
+    }
+}
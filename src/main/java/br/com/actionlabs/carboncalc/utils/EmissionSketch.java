@@ -0,0 +1,118 @@
+package br.com.actionlabs.carboncalc.utils;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Quantile sketch of total emissions with logarithmic buckets, as in DDSketch: every value is counted in the bucket
+ * {@code ceil(log(value) / log(gamma))}, so ranks are exact up to {@link #RELATIVE_ACCURACY} of the value. All
+ * sketches share one fixed layout, which makes merging a sum of counts per bucket, and, unlike t-digest, a value
+ * can be removed again when a calculation is updated. Updates are lock-free; a rank sums at most
+ * {@link #BUCKETS} counters.
+ */
+public final class EmissionSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    // kg of CO2 per month; smaller totals share the first bucket and larger ones the last
+    private static final double MIN_VALUE = 1e-3;
+    private static final double MAX_VALUE = 1e7;
+
+    private static final double LOG_GAMMA = Math.log((1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY));
+    private static final int MIN_INDEX = index(MIN_VALUE);
+    public static final int BUCKETS = index(MAX_VALUE) - MIN_INDEX + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+
+    public static int bucketOf(double value) {
+        if (!(value > MIN_VALUE)) {
+            return 0;
+        }
+        return Math.min(index(value) - MIN_INDEX, BUCKETS - 1);
+    }
+
+    private static int index(double value) {
+        return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    public void add(double value) {
+        addToBucket(bucketOf(value), 1);
+    }
+
+    public void remove(double value) {
+        addToBucket(bucketOf(value), -1);
+    }
+
+    public void addToBucket(int bucket, long delta) {
+        if (delta != 0) {
+            counts.addAndGet(bucket, delta);
+            count.addAndGet(delta);
+        }
+    }
+
+    public void merge(EmissionSketch other) {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            addToBucket(bucket, other.counts.get(bucket));
+        }
+    }
+
+    /**
+     * Takes back counts taken with {@link #nonEmptyBuckets()}, once they were merged elsewhere.
+     */
+    public void subtract(Map<Integer, Long> bucketCounts) {
+        for (Map.Entry<Integer, Long> bucket : bucketCounts.entrySet()) {
+            addToBucket(bucket.getKey(), -bucket.getValue());
+        }
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public boolean isEmpty() {
+        return count() == 0;
+    }
+
+    public Map<Integer, Long> nonEmptyBuckets() {
+        Map<Integer, Long> buckets = new TreeMap<>();
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            long bucketCount = counts.get(bucket);
+            if (bucketCount != 0) {
+                buckets.put(bucket, bucketCount);
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Percentile rank of {@code value} among the sketches given, as if merged: the share of values below it, counting
+     * half of those in its own bucket, from 0 to 100. {@code null} sketches are skipped, and {@code null} is returned
+     * when there is nothing to rank against.
+     */
+    public static Double percentileRank(double value, EmissionSketch... sketches) {
+        int bucket = bucketOf(value);
+        long below = 0;
+        long same = 0;
+        long total = 0;
+
+        for (EmissionSketch sketch : sketches) {
+            if (sketch == null) {
+                continue;
+            }
+            for (int i = 0; i < bucket; i++) {
+                below += sketch.counts.get(i);
+            }
+            same += sketch.counts.get(bucket);
+            total += sketch.count();
+        }
+
+        if (total <= 0) {
+            return null;
+        }
+        double rank = 100.0 * (below + same / 2.0) / total;
+        return Math.max(0, Math.min(100, rank));
+    }
+}
@@ -0,0 +1,48 @@
+package br.com.actionlabs.carboncalc.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token bucket implemented as a generic cell rate algorithm: each client is a single
+ * theoretical arrival time advanced with compare-and-set, held in a concurrent cache. A client idle for longer than
+ * it takes to refill its whole burst has nothing worth keeping, so its entry expires.
+ */
+public class GcraRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long toleranceNanos;
+    private final Cache<String, AtomicLong> theoreticalArrivals;
+
+    public GcraRateLimiter(double permitsPerSecond, int burst, long maximumClients) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.toleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.theoreticalArrivals = Caffeine.newBuilder()
+                .maximumSize(maximumClients)
+                .expireAfterAccess(Duration.ofNanos(toleranceNanos + emissionIntervalNanos))
+                .build();
+    }
+
+    /**
+     * @return {@code 0} when the request is admitted, otherwise the nanoseconds until the client may retry
+     */
+    public long tryAcquire(String client, long nowNanos) {
+        AtomicLong theoreticalArrival = theoreticalArrivals.get(client, key -> new AtomicLong(nowNanos));
+
+        while (true) {
+            long current = theoreticalArrival.get();
+            long arrival = Math.max(current, nowNanos);
+            long waitNanos = arrival - toleranceNanos - nowNanos;
+
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, arrival + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
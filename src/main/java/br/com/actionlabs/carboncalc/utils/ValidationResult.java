@@ -0,0 +1,57 @@
+package br.com.actionlabs.carboncalc.utils;
+
+import br.com.actionlabs.carboncalc.dto.FieldErrorDTO;
+import br.com.actionlabs.carboncalc.exceptions.RequestValidationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Violations collected by {@link CalculationRequestValidator}. Valid requests share {@link #VALID},
+ * so the happy path does not allocate.
+ */
+public final class ValidationResult {
+
+    public static final ValidationResult VALID = new ValidationResult(List.of());
+
+    private final List<FieldErrorDTO> errors;
+
+    private ValidationResult(List<FieldErrorDTO> errors) {
+        this.errors = errors;
+    }
+
+    static ValidationResult reject(ValidationResult result, String field, String message) {
+        ValidationResult rejected = result == VALID ? new ValidationResult(new ArrayList<>(4)) : result;
+        rejected.errors.add(new FieldErrorDTO(field, message));
+        return rejected;
+    }
+
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    public List<FieldErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public String getMessage() {
+        if (errors.size() == 1) {
+            return errors.get(0).message();
+        }
+
+        StringBuilder message = new StringBuilder();
+        for (FieldErrorDTO error : errors) {
+            if (!message.isEmpty()) {
+                message.append("; ");
+            }
+            message.append(error.message());
+        }
+        return message.toString();
+    }
+
+    public void throwIfInvalid() {
+        if (!isValid()) {
+            throw new RequestValidationException(this);
+        }
+    }
+}
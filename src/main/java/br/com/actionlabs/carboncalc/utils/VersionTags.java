@@ -0,0 +1,74 @@
+package br.com.actionlabs.carboncalc.utils;
+
+import br.com.actionlabs.carboncalc.exceptions.InvalidVersionTagException;
+
+/**
+ * Converts calculation versions to and from entity tags, e.g. version 3 is {@code "3"}. Result tags may add the
+ * generation of the percentile sketches after a dot, e.g. {@code "3.1f0c"}, which {@link #parse} ignores.
+ */
+public final class VersionTags {
+
+    private VersionTags() {
+    }
+
+    public static String format(long version) {
+        return format(version, null);
+    }
+
+    /**
+     * @param generation the percentile sketch generation, or {@code null} when the result carries no ranks
+     */
+    public static String format(long version, String generation) {
+        return generation == null ? "\"" + version + "\"" : "\"" + version + "." + generation + "\"";
+    }
+
+    /**
+     * Weak comparison of an {@code If-None-Match} value against {@code version} and {@code generation}: {@code *}
+     * or any listed tag naming both matches, and malformed tags simply do not.
+     */
+    public static boolean matchesAny(String tags, long version, String generation) {
+        if (tags == null || tags.isBlank()) {
+            return false;
+        }
+
+        String expected = format(version, generation);
+        for (String tag : tags.split(",")) {
+            String value = tag.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the version in an {@code If-Match} value, or {@code null} when the header is absent or {@code *}.
+     * A result tag is accepted too, so clients can send back what GET /open/result gave them.
+     */
+    public static Long parse(String tag) {
+        if (tag == null || tag.isBlank() || tag.trim().equals("*")) {
+            return null;
+        }
+
+        String value = tag.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        int generation = value.indexOf('.');
+        if (generation >= 0) {
+            value = value.substring(0, generation);
+        }
+
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            throw new InvalidVersionTagException(tag);
+        }
+    }
+}
@@ -2,8 +2,10 @@ package br.com.actionlabs.carboncalc;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
-@SpringBootTest
+@SpringBootTest(properties = "carbon-calc.grpc.port=0")
+@ActiveProfiles("in-memory")
 class CarbonCalculatorApplicationTests {
 
 	@Test
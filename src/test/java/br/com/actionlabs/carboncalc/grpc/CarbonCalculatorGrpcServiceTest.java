@@ -0,0 +1,205 @@
+package br.com.actionlabs.carboncalc.grpc;
+
+import br.com.actionlabs.carboncalc.dto.*;
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+import br.com.actionlabs.carboncalc.exceptions.*;
+import br.com.actionlabs.carboncalc.grpc.proto.*;
+import br.com.actionlabs.carboncalc.service.CarbonCalculationService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CarbonCalculatorGrpcServiceTest {
+
+    @Mock
+    private CarbonCalculationService carbonCalculationService;
+
+    private CarbonCalculatorGrpcService grpcService;
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        grpcService = new CarbonCalculatorGrpcService(carbonCalculationService, 2);
+
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).directExecutor().addService(grpcService).build().start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+        grpcService.stop();
+    }
+
+    @Test
+    void getResult_ShouldReturnTheServiceResult() {
+        when(carbonCalculationService.getCarbonCalculationResult("12345")).thenReturn(result(124.59));
+
+        CalculationResult result = CarbonCalculatorGrpc.newBlockingStub(channel)
+                .getResult(GetResultRequest.newBuilder().setId("12345").build());
+
+        assertEquals(124.59, result.getTotal());
+        assertEquals(97.23, result.getEnergy());
+    }
+
+    @Test
+    void getResult_NotFound_ShouldFailWithNotFound() {
+        when(carbonCalculationService.getCarbonCalculationResult("nonexistent"))
+                .thenThrow(new CarbonCalculationNotFoundException("nonexistent"));
+
+        StatusRuntimeException exception = assertThrows(StatusRuntimeException.class,
+                () -> CarbonCalculatorGrpc.newBlockingStub(channel)
+                        .getResult(GetResultRequest.newBuilder().setId("nonexistent").build()));
+
+        assertEquals(Status.Code.NOT_FOUND, exception.getStatus().getCode());
+        assertEquals("Carbon Calculation not found for id: nonexistent", exception.getStatus().getDescription());
+    }
+
+    @Test
+    void updateInfo_WithExpectedVersion_ShouldPassItAndMapTheRequest() {
+        UpdateCalcInfoResponseDTO updated = new UpdateCalcInfoResponseDTO();
+        updated.setSuccess(true);
+        updated.setVersion(4L);
+        updated.setResult(result(124.59));
+        when(carbonCalculationService.updateInfo(any(UpdateCalcInfoRequestDTO.class), eq(3L))).thenReturn(updated);
+
+        UpdateInfoResponse response = CarbonCalculatorGrpc.newBlockingStub(channel).updateInfo(
+                UpdateInfoRequest.newBuilder()
+                        .setId("12345")
+                        .setInfo(info())
+                        .setExpectedVersion(3)
+                        .build());
+
+        assertEquals(4, response.getVersion());
+
+        ArgumentCaptor<UpdateCalcInfoRequestDTO> captor = ArgumentCaptor.forClass(UpdateCalcInfoRequestDTO.class);
+        verify(carbonCalculationService).updateInfo(captor.capture(), eq(3L));
+        assertEquals("12345", captor.getValue().getId());
+        assertEquals(300, captor.getValue().getEnergyConsumption());
+        assertEquals(TransportationType.CAR, captor.getValue().getTransportation().get(0).getType());
+        assertEquals(150, captor.getValue().getTransportation().get(0).getMonthlyDistance());
+    }
+
+    @Test
+    void startCalculation_InvalidRequest_ShouldFailWithInvalidArgument() {
+        when(carbonCalculationService.startCalculation(any())).thenThrow(new EmailAlreadyExists());
+
+        StatusRuntimeException exception = assertThrows(StatusRuntimeException.class,
+                () -> CarbonCalculatorGrpc.newBlockingStub(channel)
+                        .startCalculation(StartCalculationRequest.newBuilder().setEmail("joao@email.com").build()));
+
+        assertEquals(Status.Code.INVALID_ARGUMENT, exception.getStatus().getCode());
+    }
+
+    @Test
+    void calculate_ShouldAnswerEveryItemAndReportFailuresWithoutEndingTheStream() throws Exception {
+        UpdateCalcInfoResponseDTO updated = new UpdateCalcInfoResponseDTO();
+        updated.setSuccess(true);
+        updated.setVersion(1L);
+        updated.setResult(result(124.59));
+
+        when(carbonCalculationService.startCalculation(any())).thenAnswer(invocation -> {
+            StartCalcRequestDTO request = invocation.getArgument(0);
+            if (request.getEmail().equals("taken@email.com")) {
+                throw new EmailAlreadyExists();
+            }
+            return "id-" + request.getName();
+        });
+        when(carbonCalculationService.updateInfo(any(UpdateCalcInfoRequestDTO.class))).thenReturn(updated);
+
+        Map<String, CalculateResponse> responses = new ConcurrentHashMap<>();
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+        StreamObserver<CalculateRequest> requests = CarbonCalculatorGrpc.newStub(channel)
+                .calculate(new StreamObserver<>() {
+                    @Override
+                    public void onNext(CalculateResponse response) {
+                        responses.put(response.getReference(), response);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        completed.completeExceptionally(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        completed.complete(null);
+                    }
+                });
+
+        // more items than the stream window, so later ones are only read as results drain
+        for (String name : List.of("a", "b", "c", "d", "e")) {
+            requests.onNext(calculateRequest(name, name + "@email.com"));
+        }
+        requests.onNext(calculateRequest("taken", "taken@email.com"));
+        requests.onCompleted();
+
+        completed.get(10, TimeUnit.SECONDS);
+
+        assertEquals(6, responses.size());
+        assertEquals("id-a", responses.get("a").getId());
+        assertEquals(124.59, responses.get("a").getUpdate().getResult().getTotal());
+        assertEquals(CalculateResponse.OutcomeCase.ERROR, responses.get("taken").getOutcomeCase());
+        assertEquals("INVALID_ARGUMENT", responses.get("taken").getError().getCode());
+        assertEquals("Email already exists", responses.get("taken").getError().getMessage());
+        verify(carbonCalculationService, times(5)).updateInfo(any(UpdateCalcInfoRequestDTO.class));
+    }
+
+    private static CalculateRequest calculateRequest(String name, String email) {
+        return CalculateRequest.newBuilder()
+                .setReference(name)
+                .setStart(StartCalculationRequest.newBuilder()
+                        .setName(name)
+                        .setEmail(email)
+                        .setUf("SP")
+                        .setPhoneNumber("11999999999"))
+                .setInfo(info())
+                .build();
+    }
+
+    private static CalculationInfo info() {
+        return CalculationInfo.newBuilder()
+                .setEnergyConsumption(300)
+                .addTransportation(Transportation.newBuilder()
+                        .setType(br.com.actionlabs.carboncalc.grpc.proto.TransportationType.CAR)
+                        .setMonthlyDistance(150))
+                .setSolidWasteTotal(50)
+                .setRecyclePercentage(0.3)
+                .build();
+    }
+
+    private static CarbonCalculationResultDTO result(double total) {
+        CarbonCalculationResultDTO result = new CarbonCalculationResultDTO();
+        result.setEnergy(97.23);
+        result.setTransportation(6.01);
+        result.setSolidWaste(21.35);
+        result.setTotal(total);
+        return result;
+    }
+}
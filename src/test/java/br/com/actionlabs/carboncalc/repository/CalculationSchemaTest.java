@@ -0,0 +1,156 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.dto.TransportationDTO;
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalculationSchemaTest {
+
+    private static final ObjectId ID = new ObjectId("6710f2a51c9d440000a1b2c3");
+
+    @Test
+    void read_Version1Document_ShouldMapTheLongKeys() {
+        Document document = new Document("_id", ID)
+                .append("name", "João Silva")
+                .append("email", "joao@email.com")
+                .append("uf", "SP")
+                .append("energyConsumption", 300)
+                .append("transportation", List.of(
+                        new Document("type", "CAR").append("monthlyDistance", 150),
+                        new Document("type", "BICYCLE").append("monthlyDistance", 40)))
+                .append("transportationDistance", 0.0)
+                .append("totalEmission", 250.5)
+                .append("_class", CarbonCalculation.class.getName());
+
+        CarbonCalculation calculation = CalculationSchema.read(document);
+
+        assertEquals(ID.toHexString(), calculation.getId());
+        assertEquals("João Silva", calculation.getName());
+        assertEquals(300.0, calculation.getEnergyConsumption());
+        assertEquals(List.of(transportation(TransportationType.CAR, 150),
+                transportation(TransportationType.BICYCLE, 40)), calculation.getTransportation());
+        assertEquals(250.5, calculation.getTotalEmission());
+        assertNull(calculation.getEnergyEmission());
+        assertEquals(0, calculation.getVersion());
+    }
+
+    @Test
+    void writeThenRead_ShouldKeepEveryField() {
+        CarbonCalculation calculation = calculation();
+
+        Document document = CalculationSchema.write(calculation);
+
+        assertEquals(CalculationSchema.CURRENT_VERSION, document.get(CalculationSchema.SCHEMA_VERSION));
+        assertEquals(ID, document.get("_id"));
+        assertEquals(List.of(150, 0, 200, 0), document.get(CalculationSchema.TRANSPORTATION));
+        assertFalse(document.containsKey(CalculationSchema.ENERGY_EMISSION));
+        assertTrue(document.keySet().stream().noneMatch(CalculationSchema.V1_ONLY_KEYS::contains));
+        assertEquals(calculation, CalculationSchema.read(document));
+    }
+
+    @Test
+    void writeVersion1ThenRead_ShouldKeepEveryFieldUnderTheLongKeys() {
+        CarbonCalculation calculation = calculation();
+        calculation.setTotalEmission(250.5);
+
+        Document document = CalculationSchema.write(calculation, CalculationSchema.V1);
+
+        assertEquals(CalculationSchema.V1, document.get(CalculationSchema.SCHEMA_VERSION));
+        assertEquals("João Silva", document.get("name"));
+        assertEquals(250.5, document.get("totalEmission"));
+        assertEquals(List.of(new Document("type", "CAR").append("monthlyDistance", 150),
+                        new Document("type", "PUBLIC_TRANSPORT").append("monthlyDistance", 200)),
+                document.get("transportation"));
+        assertFalse(document.containsKey(CalculationSchema.NAME));
+        assertFalse(document.containsKey(CalculationSchema.TOTAL_EMISSION));
+        assertEquals(calculation, CalculationSchema.read(document));
+    }
+
+    @Test
+    void infoUpdate_Version1_ShouldUnsetTheVersion2InfoKeys() {
+        CarbonCalculation calculation = calculation();
+        calculation.setTotalEmission(250.5);
+
+        Document update = CalculationQueries.infoUpdate(calculation, CalculationSchema.V1).getUpdateObject();
+
+        Document set = update.get("$set", Document.class);
+        assertEquals(CalculationSchema.V1, set.get(CalculationSchema.SCHEMA_VERSION));
+        assertEquals(250.5, set.get("totalEmission"));
+        assertTrue(update.get("$unset", Document.class).containsKey(CalculationSchema.TOTAL_EMISSION));
+        assertFalse(set.containsKey(CalculationSchema.TOTAL_EMISSION));
+    }
+
+    @Test
+    void infoUpdate_Version2_ShouldUnsetTheVersion1InfoKeys() {
+        Document update = CalculationQueries.infoUpdate(calculation(), CalculationSchema.CURRENT_VERSION)
+                .getUpdateObject();
+
+        assertTrue(update.get("$set", Document.class).containsKey(CalculationSchema.TOTAL_EMISSION));
+        assertTrue(update.get("$unset", Document.class).containsKey("totalEmission"));
+    }
+
+    @Test
+    void checkWriteVersion_Unsupported_ShouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> CalculationSchema.checkWriteVersion(3));
+    }
+
+    @Test
+    void read_PartlyRewrittenDocument_ShouldPreferTheVersion2Keys() {
+        Document document = new Document("_id", ID)
+                .append("name", "João Silva")
+                .append(CalculationSchema.ENERGY_CONSUMPTION, 100)
+                .append(CalculationSchema.TOTAL_EMISSION, 80.0)
+                .append("totalEmission", 250.5)
+                .append("version", 3L);
+
+        CarbonCalculation calculation = CalculationSchema.read(document);
+
+        assertEquals("João Silva", calculation.getName());
+        assertEquals(100.0, calculation.getEnergyConsumption());
+        assertEquals(80.0, calculation.getTotalEmission());
+        assertEquals(3, calculation.getVersion());
+    }
+
+    @Test
+    void distances_RepeatedType_ShouldBeSummed() {
+        List<Integer> distances = CalculationSchema.distances(List.of(
+                transportation(TransportationType.CAR, 100),
+                transportation(TransportationType.CAR, 50),
+                transportation(TransportationType.PUBLIC_TRANSPORT, 20)));
+
+        assertEquals(List.of(150, 0, 20, 0), distances);
+        assertNull(CalculationSchema.distances(null));
+    }
+
+    private static CarbonCalculation calculation() {
+        CarbonCalculation calculation = new CarbonCalculation();
+        calculation.setId(ID.toHexString());
+        calculation.setName("João Silva");
+        calculation.setEmail("Joao@Email.com");
+        calculation.setNormalizedEmail("joao@email.com");
+        calculation.setPhoneNumber("11999999999");
+        calculation.setUf("SP");
+        calculation.setEnergyConsumption(300);
+        calculation.setTransportation(List.of(
+                transportation(TransportationType.CAR, 150),
+                transportation(TransportationType.PUBLIC_TRANSPORT, 200)));
+        calculation.setSolidWasteProduction(50);
+        calculation.setRecyclePercentage(0.3);
+        calculation.setVersion(2);
+        return calculation;
+    }
+
+    private static TransportationDTO transportation(TransportationType type, int monthlyDistance) {
+        TransportationDTO transportation = new TransportationDTO();
+        transportation.setType(type);
+        transportation.setMonthlyDistance(monthlyDistance);
+        return transportation;
+    }
+}
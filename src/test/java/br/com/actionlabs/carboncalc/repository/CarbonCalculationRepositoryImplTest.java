@@ -0,0 +1,74 @@
+package br.com.actionlabs.carboncalc.repository;
+
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CarbonCalculationRepositoryImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ReadWriteConcerns readWriteConcerns;
+
+    private CarbonCalculationRepositoryImpl carbonCalculationRepository;
+
+    @BeforeEach
+    void setUp() {
+        carbonCalculationRepository = new CarbonCalculationRepositoryImpl(mongoTemplate, readWriteConcerns, 1);
+    }
+
+    @Test
+    void streamForExport_ShouldProjectAwayPersonalData() {
+        Query query = streamForExport(null, null, null);
+
+        Document fields = query.getFieldsObject();
+        for (String key : List.of(CalculationSchema.NAME, CalculationSchema.EMAIL, CalculationSchema.PHONE_NUMBER,
+                CalculationSchema.V1_NAME, CalculationSchema.V1_EMAIL, CalculationSchema.V1_PHONE_NUMBER,
+                "normalizedEmail", CalculationSchema.TRANSPORTATION, CalculationSchema.V1_TRANSPORTATION)) {
+            assertFalse(fields.containsKey(key), key);
+        }
+        assertTrue(fields.keySet().containsAll(List.of("uf", "version", CalculationSchema.TOTAL_EMISSION,
+                CalculationSchema.V1_TOTAL_EMISSION)));
+        assertTrue(query.getQueryObject().isEmpty());
+        assertEquals(500, query.getMeta().getCursorBatchSize());
+    }
+
+    @Test
+    void streamForExport_UfAndRange_ShouldMatchEitherTotalEmissionKey() {
+        Query query = streamForExport("SP", 100.0, 200.0);
+
+        Document range = new Document("$gte", 100.0).append("$lte", 200.0);
+        assertEquals(new Document("uf", "SP").append("$or", List.of(
+                        new Document(CalculationSchema.TOTAL_EMISSION, range),
+                        new Document(CalculationSchema.V1_TOTAL_EMISSION, range))),
+                query.getQueryObject());
+    }
+
+    private Query streamForExport(String uf, Double minTotalEmission, Double maxTotalEmission) {
+        when(mongoTemplate.stream(any(Query.class), eq(CarbonCalculation.class))).thenReturn(Stream.empty());
+
+        carbonCalculationRepository.streamForExport(uf, minTotalEmission, maxTotalEmission, 500).close();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(CarbonCalculation.class));
+        return query.getValue();
+    }
+}
@@ -0,0 +1,124 @@
+package br.com.actionlabs.carboncalc.repository.memory;
+
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import com.mongodb.bulk.BulkWriteError;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryCarbonCalculationRepositoryTest {
+
+    private final InMemoryCarbonCalculationRepository repository = new InMemoryCarbonCalculationRepository();
+
+    @Test
+    void insert_SameNormalizedEmail_ShouldThrowDuplicateKeyException() {
+        repository.insert(calculation("joao@email.com", "SP"));
+
+        assertThrows(DuplicateKeyException.class, () -> repository.insert(calculation("joao@email.com", "RJ")));
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    void bulkInsert_DuplicateEmail_ShouldReportOnlyTheDuplicate() {
+        repository.insert(calculation("joao@email.com", "SP"));
+
+        Map<Integer, BulkWriteError> failures = repository.bulkInsert(List.of(
+                calculation("maria@email.com", "SP"),
+                calculation("joao@email.com", "SP")));
+
+        assertEquals(1, failures.size());
+        assertEquals(11000, failures.get(1).getCode());
+        assertEquals(2, repository.count());
+    }
+
+    @Test
+    void deleteById_ShouldReleaseTheEmail() {
+        CarbonCalculation saved = repository.insert(calculation("joao@email.com", "SP"));
+
+        repository.deleteById(saved.getId());
+
+        assertDoesNotThrow(() -> repository.insert(calculation("joao@email.com", "SP")));
+    }
+
+    @Test
+    void updateInfo_ShouldReturnThePreviousEmissionsAndCheckTheVersion() {
+        CarbonCalculation saved = repository.insert(calculation("joao@email.com", "SP"));
+
+        CarbonCalculation info = new CarbonCalculation();
+        info.setId(saved.getId());
+        info.setEnergyEmission(10.0);
+        info.setTransportationEmission(0.0);
+        info.setSolidWasteEmission(0.0);
+        info.setTotalEmission(10.0);
+
+        CarbonCalculation first = repository.updateInfo(info, 0L);
+        CarbonCalculation stale = repository.updateInfo(info, 0L);
+        CarbonCalculation second = repository.updateInfo(info, null);
+
+        assertNull(first.getTotalEmission());
+        assertEquals(0, first.getVersion());
+        assertNull(stale);
+        assertEquals(10.0, second.getTotalEmission());
+        assertEquals(1, second.getVersion());
+        assertEquals(2, repository.findById(saved.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void bulkUpdateInfo_StaleVersion_ShouldFailOnlyThatItemAndVersionTheOthers() {
+        CarbonCalculation first = repository.insert(calculation("joao@email.com", "SP"));
+        CarbonCalculation second = repository.insert(calculation("maria@email.com", "SP"));
+
+        CarbonCalculation current = repository.findById(first.getId()).orElseThrow();
+        CarbonCalculation stale = repository.findById(second.getId()).orElseThrow();
+        stale.setVersion(1);
+
+        Map<Integer, BulkWriteError> failures = repository.bulkUpdateInfo(List.of(current, stale));
+
+        assertEquals(Set.of(1), failures.keySet());
+        assertEquals(11000, failures.get(1).getCode());
+        assertEquals(1, current.getVersion());
+        assertEquals(1, repository.findById(first.getId()).orElseThrow().getVersion());
+        assertEquals(0, repository.findById(second.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void streamForExport_ShouldFilterByUfAndEmissionRange() {
+        CarbonCalculation inRange = repository.insert(calculation("a@email.com", "SP"));
+        inRange.setTotalEmission(50.0);
+        repository.save(inRange);
+
+        CarbonCalculation tooHigh = calculation("b@email.com", "SP");
+        tooHigh.setTotalEmission(500.0);
+        repository.insert(tooHigh);
+
+        repository.insert(calculation("c@email.com", "SP"));
+        repository.insert(calculation("d@email.com", "RJ"));
+
+        try (Stream<CarbonCalculation> exported = repository.streamForExport("SP", 10.0, 100.0, 100)) {
+            assertEquals(List.of(inRange.getId()), exported.map(CarbonCalculation::getId).toList());
+        }
+    }
+
+    @Test
+    void findById_ShouldNotExposeTheStoredDocument() {
+        CarbonCalculation saved = repository.insert(calculation("joao@email.com", "SP"));
+
+        repository.findById(saved.getId()).orElseThrow().setUf("RJ");
+
+        assertEquals("SP", repository.findUfById(saved.getId()).orElseThrow());
+    }
+
+    private CarbonCalculation calculation(String email, String uf) {
+        CarbonCalculation calculation = new CarbonCalculation();
+        calculation.setEmail(email);
+        calculation.setNormalizedEmail(email);
+        calculation.setUf(uf);
+        return calculation;
+    }
+}
@@ -0,0 +1,242 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.dto.*;
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+import br.com.actionlabs.carboncalc.exceptions.CalculationVersionConflictException;
+import br.com.actionlabs.carboncalc.exceptions.CarbonCalculationNotFoundException;
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.repository.memory.*;
+import br.com.actionlabs.carboncalc.utils.CalculationRequestValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the service with the event log enabled and a snapshot every second version, against the in-memory
+ * repositories.
+ */
+class CalculationEventLogTest {
+
+    private InMemoryCarbonCalculationRepository carbonCalculationRepository;
+    private InMemoryCalculationEventRepository calculationEventRepository;
+    private CalculationEventLog calculationEventLog;
+    private UfEmissionRollupService ufEmissionRollupService;
+    private CarbonCalculationService carbonCalculationService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        InitMongoScript initMongoScript = new InitMongoScript(new FileSystemResource("init-mongo.js"), new ObjectMapper());
+        carbonCalculationRepository = new InMemoryCarbonCalculationRepository();
+        calculationEventRepository = new InMemoryCalculationEventRepository();
+        calculationEventLog = new CalculationEventLog(calculationEventRepository, carbonCalculationRepository, true, 2);
+
+        EmissionFactorCatalog emissionFactorCatalog = new EmissionFactorCatalog(
+                new InMemoryEnergyEmissionFactorRepository(initMongoScript),
+                new InMemorySolidWasteEmissionFactorRepository(initMongoScript),
+                new InMemoryTransportationEmissionFactorRepository(initMongoScript));
+        emissionFactorCatalog.reload();
+
+        EmailRegistry emailRegistry = new EmailRegistry(
+                new InMemoryEmailRegistrationRepository(carbonCalculationRepository), carbonCalculationRepository,
+                false, Duration.ofMinutes(5));
+
+        ufEmissionRollupService = new UfEmissionRollupService(
+                new InMemoryUfEmissionRollupRepository(carbonCalculationRepository), calculationEventLog,
+                new JobLockService(new InMemoryJobLockRepository(), Duration.ofHours(1)), 1000);
+
+        carbonCalculationService = new CarbonCalculationService(
+                carbonCalculationRepository,
+                emissionFactorCatalog,
+                new CalculationUfCache(1000),
+                new CalculationResultCache(1000, Duration.ofMinutes(10)),
+                ufEmissionRollupService,
+                new CalculationPhaseMetrics(new SimpleMeterRegistry()),
+                new CalculationWriteBehind(carbonCalculationRepository, emailRegistry, new ObjectMapper(), false,
+                        "write-behind", DataSize.ofMegabytes(64), 500, 1000, Duration.ofMillis(100),
+                        Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofHours(1)),
+                calculationEventLog,
+                emailRegistry,
+                new EmissionPercentileService(new InMemoryEmissionSketchRepository(), calculationEventLog,
+                        new JobLockService(new InMemoryJobLockRepository(), Duration.ofHours(1)), false, 1000),
+                new MonthlyEmissionService(new InMemoryMonthlyEmissionRepository(),
+                        new InMemoryMonthlyUfRollupRepository(), carbonCalculationRepository, false, 120, 100000),
+                new CalculationRequestValidator());
+    }
+
+    @Test
+    void updateInfo_BetweenSnapshots_ShouldOnlyAppendAnEvent() {
+        String id = carbonCalculationService.startCalculation(startRequest("joao@email.com"));
+
+        UpdateCalcInfoResponseDTO updated = carbonCalculationService.updateInfo(infoRequest(id, 300));
+
+        assertEquals(1L, updated.getVersion());
+        assertEquals(1, calculationEventRepository.count());
+
+        CarbonCalculation snapshot = carbonCalculationRepository.findById(id).orElseThrow();
+        assertEquals(0L, snapshot.getVersion());
+        assertNull(snapshot.getTotalEmission());
+
+        CarbonCalculation current = calculationEventLog.current(id).orElseThrow();
+        assertEquals(1L, current.getVersion());
+        assertEquals(141.0, current.getEnergyEmission());
+        assertEquals(1L, calculationEventLog.currentVersion(id).orElseThrow());
+    }
+
+    @Test
+    void updateInfo_SnapshotInterval_ShouldRewriteTheCalculation() {
+        String id = carbonCalculationService.startCalculation(startRequest("joao@email.com"));
+
+        carbonCalculationService.updateInfo(infoRequest(id, 300));
+        carbonCalculationService.updateInfo(infoRequest(id, 100));
+
+        CarbonCalculation snapshot = carbonCalculationRepository.findById(id).orElseThrow();
+        assertEquals(2L, snapshot.getVersion());
+        assertEquals(100.0, snapshot.getEnergyConsumption());
+        assertEquals(47.0, snapshot.getEnergyEmission());
+        assertEquals(2, calculationEventRepository.count());
+    }
+
+    @Test
+    void updateInfo_StaleVersion_ShouldThrowCalculationVersionConflictException() {
+        String id = carbonCalculationService.startCalculation(startRequest("joao@email.com"));
+        carbonCalculationService.updateInfo(infoRequest(id, 300), 0L);
+
+        assertThrows(CalculationVersionConflictException.class,
+                () -> carbonCalculationService.updateInfo(infoRequest(id, 100), 0L));
+        assertEquals(1, calculationEventRepository.count());
+    }
+
+    @Test
+    void updateInfo_UnknownId_ShouldThrowCarbonCalculationNotFoundException() {
+        assertThrows(CarbonCalculationNotFoundException.class,
+                () -> carbonCalculationService.updateInfo(infoRequest("nonexistent", 300)));
+        assertEquals(0, calculationEventRepository.count());
+    }
+
+    @Test
+    void getHistory_ShouldListEveryVersionOldestFirst() {
+        String id = carbonCalculationService.startCalculation(startRequest("joao@email.com"));
+        carbonCalculationService.updateInfo(infoRequest(id, 300));
+        carbonCalculationService.updateInfo(infoRequest(id, 100));
+        carbonCalculationService.updateInfo(infoRequest(id, 200));
+
+        List<CalculationHistoryEntryDTO> history = carbonCalculationService.getHistory(id);
+
+        assertEquals(List.of(1L, 2L, 3L), history.stream().map(CalculationHistoryEntryDTO::getVersion).toList());
+        assertEquals(List.of(141.0, 47.0, 94.0),
+                history.stream().map(entry -> entry.getResult().getEnergy()).toList());
+        assertNotNull(history.get(0).getRecordedAt());
+    }
+
+    @Test
+    void getHistory_NoUpdatesYet_ShouldBeEmpty() {
+        String id = carbonCalculationService.startCalculation(startRequest("joao@email.com"));
+
+        assertTrue(carbonCalculationService.getHistory(id).isEmpty());
+    }
+
+    @Test
+    void getHistory_UnknownId_ShouldThrowCarbonCalculationNotFoundException() {
+        assertThrows(CarbonCalculationNotFoundException.class, () -> carbonCalculationService.getHistory("nonexistent"));
+    }
+
+    @Test
+    void updateInfos_ShouldBuildOnTheLatestEvents() {
+        String first = carbonCalculationService.startCalculation(startRequest("joao@email.com"));
+        String second = carbonCalculationService.startCalculation(startRequest("maria@email.com"));
+        carbonCalculationService.updateInfo(infoRequest(first, 300));
+
+        List<BulkItemResponseDTO<UpdateCalcInfoResponseDTO>> responses = carbonCalculationService
+                .updateInfos(List.of(infoRequest(first, 100), infoRequest(second, 200)));
+
+        assertTrue(responses.stream().allMatch(BulkItemResponseDTO::isSuccess));
+        assertEquals(2L, calculationEventLog.currentVersion(first).orElseThrow());
+        assertEquals(1L, calculationEventLog.currentVersion(second).orElseThrow());
+
+        List<BulkItemResponseDTO<CarbonCalculationResultDTO>> results = carbonCalculationService
+                .getCarbonCalculationResults(List.of(first, second));
+        assertEquals(47.0, results.get(0).getData().getEnergy());
+        assertEquals(94.0, results.get(1).getData().getEnergy());
+    }
+
+    @Test
+    void streamCurrent_BetweenSnapshots_ShouldReplayBeforeFilteringTheRange() {
+        String updated = carbonCalculationService.startCalculation(startRequest("joao@email.com"));
+        carbonCalculationService.startCalculation(startRequest("maria@email.com"));
+        carbonCalculationService.updateInfo(infoRequest(updated, 300));
+
+        try (Stream<CarbonCalculation> calculations = calculationEventLog.streamCurrent(null, 0.0, null, 1)) {
+            List<CarbonCalculation> current = calculations.toList();
+
+            assertEquals(1, current.size());
+            assertEquals(updated, current.get(0).getId());
+            assertEquals(1L, current.get(0).getVersion());
+            assertEquals(141.0, current.get(0).getEnergyEmission());
+        }
+    }
+
+    @Test
+    void reconcile_BetweenSnapshots_ShouldRebuildFromTheCurrentState() {
+        String first = carbonCalculationService.startCalculation(startRequest("joao@email.com"));
+        String second = carbonCalculationService.startCalculation(startRequest("maria@email.com"));
+        carbonCalculationService.updateInfo(infoRequest(first, 300));
+        carbonCalculationService.updateInfo(infoRequest(second, 300));
+
+        ufEmissionRollupService.reconcile();
+
+        List<UfEmissionRollupDTO> rollups = ufEmissionRollupService.getRollups();
+        assertEquals(1, rollups.size());
+        assertEquals(2, rollups.get(0).getCount());
+        assertEquals(282.0, rollups.get(0).getTotal().getEnergy());
+    }
+
+    @Test
+    void saveSnapshot_OlderVersion_ShouldNotMoveTheCalculationBack() {
+        String id = carbonCalculationService.startCalculation(startRequest("joao@email.com"));
+        carbonCalculationService.updateInfo(infoRequest(id, 300));
+        carbonCalculationService.updateInfo(infoRequest(id, 100));
+
+        CarbonCalculation stale = new CarbonCalculation();
+        stale.setId(id);
+        stale.setEnergyConsumption(999);
+        stale.setVersion(1);
+        carbonCalculationRepository.saveSnapshot(stale);
+
+        CarbonCalculation snapshot = carbonCalculationRepository.findById(id).orElseThrow();
+        assertEquals(2L, snapshot.getVersion());
+        assertEquals(100.0, snapshot.getEnergyConsumption());
+    }
+
+    private static StartCalcRequestDTO startRequest(String email) {
+        StartCalcRequestDTO request = new StartCalcRequestDTO();
+        request.setName("João Silva");
+        request.setEmail(email);
+        request.setUf("SP");
+        request.setPhoneNumber("11999999999");
+        return request;
+    }
+
+    private static UpdateCalcInfoRequestDTO infoRequest(String id, int energyConsumption) {
+        TransportationDTO car = new TransportationDTO();
+        car.setType(TransportationType.CAR);
+        car.setMonthlyDistance(150);
+
+        UpdateCalcInfoRequestDTO request = new UpdateCalcInfoRequestDTO();
+        request.setId(id);
+        request.setEnergyConsumption(energyConsumption);
+        request.setSolidWasteTotal(50);
+        request.setRecyclePercentage(0.3);
+        request.setTransportation(List.of(car));
+        return request;
+    }
+}
@@ -0,0 +1,158 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.enums.ExportFormat;
+import br.com.actionlabs.carboncalc.exceptions.InvalidEmissionRangeException;
+import br.com.actionlabs.carboncalc.exceptions.RequestValidationException;
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.repository.memory.InMemoryCalculationEventRepository;
+import br.com.actionlabs.carboncalc.repository.memory.InMemoryCarbonCalculationRepository;
+import br.com.actionlabs.carboncalc.utils.CalculationRequestValidator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalculationExportServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private InMemoryCarbonCalculationRepository carbonCalculationRepository;
+    private CalculationExportService calculationExportService;
+
+    @BeforeEach
+    void setUp() {
+        carbonCalculationRepository = new InMemoryCarbonCalculationRepository();
+        CalculationEventLog calculationEventLog = new CalculationEventLog(new InMemoryCalculationEventRepository(),
+                carbonCalculationRepository, false, 20);
+        calculationExportService = new CalculationExportService(calculationEventLog,
+                new CalculationRequestValidator(), objectMapper, 2);
+    }
+
+    @Test
+    void export_Ndjson_ShouldWriteOneObjectPerLineWithoutPersonalData() throws IOException {
+        insert("a", "SP", 300, 208.7);
+        insert("b", "RJ", 100, null);
+
+        List<JsonNode> lines = ndjson(null, null, null);
+
+        assertEquals(2, lines.size());
+        JsonNode first = lines.stream().filter(line -> line.get("id").asText().equals("a")).findFirst().orElseThrow();
+        assertEquals("SP", first.get("uf").asText());
+        assertEquals(300.0, first.get("energyConsumption").asDouble());
+        assertEquals(208.7, first.get("totalEmission").asDouble());
+        assertFalse(first.has("name"));
+        assertFalse(first.has("email"));
+        assertFalse(first.has("phoneNumber"));
+
+        JsonNode second = lines.stream().filter(line -> line.get("id").asText().equals("b")).findFirst().orElseThrow();
+        assertTrue(second.get("totalEmission").isNull());
+    }
+
+    @Test
+    void export_Csv_ShouldWriteTheHeaderAndOneRowPerCalculation() throws IOException {
+        insert("a", "SP", 300, 208.7);
+
+        List<String> lines = csv(null, null, null);
+
+        assertEquals(List.of(
+                "id,uf,energyConsumption,solidWasteProduction,recyclePercentage,"
+                        + "energyEmission,transportationEmission,solidWasteEmission,totalEmission",
+                "a,SP,300.0,50.0,0.3,208.7,,,208.7"), lines);
+    }
+
+    @Test
+    void export_CsvFieldsWithSeparatorsOrQuotes_ShouldQuoteThem() throws IOException {
+        insert("a,1", "S\"P", 300, null);
+        insert("b\nc", "RJ", 100, null);
+
+        List<String> lines = csv(null, null, null);
+
+        assertTrue(lines.contains("\"a,1\",\"S\"\"P\",300.0,50.0,0.3,,,,"));
+        assertTrue(lines.contains("\"b"));
+        assertTrue(lines.contains("c\",RJ,100.0,50.0,0.3,,,,"));
+    }
+
+    @Test
+    void export_UfFilter_ShouldOnlyWriteThatUf() throws IOException {
+        insert("a", "SP", 300, 208.7);
+        insert("b", "RJ", 100, 50.0);
+
+        List<JsonNode> lines = ndjson("RJ", null, null);
+
+        assertEquals(List.of("b"), lines.stream().map(line -> line.get("id").asText()).toList());
+    }
+
+    @Test
+    void export_EmissionRange_ShouldIncludeTheBoundsAndSkipCalculationsWithoutEmissions() throws IOException {
+        insert("a", "SP", 300, 100.0);
+        insert("b", "SP", 300, 200.0);
+        insert("c", "SP", 300, 300.0);
+        insert("d", "SP", 300, null);
+
+        List<String> ids = new ArrayList<>();
+        for (JsonNode line : ndjson(null, 100.0, 200.0)) {
+            ids.add(line.get("id").asText());
+        }
+        ids.sort(String::compareTo);
+
+        assertEquals(List.of("a", "b"), ids);
+        assertEquals(List.of("c"), ndjson(null, 250.0, null).stream().map(line -> line.get("id").asText()).toList());
+    }
+
+    @Test
+    void validateFilter_MinAboveMax_ShouldThrowInvalidEmissionRangeException() {
+        assertThrows(InvalidEmissionRangeException.class,
+                () -> calculationExportService.validateFilter(null, 200.0, 100.0));
+    }
+
+    @Test
+    void validateFilter_InvalidUf_ShouldThrowRequestValidationException() {
+        assertThrows(RequestValidationException.class,
+                () -> calculationExportService.validateFilter("S", null, null));
+    }
+
+    private List<JsonNode> ndjson(String uf, Double minTotalEmission, Double maxTotalEmission) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : export(ExportFormat.NDJSON, uf, minTotalEmission, maxTotalEmission).split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+
+    private List<String> csv(String uf, Double minTotalEmission, Double maxTotalEmission) throws IOException {
+        return List.of(export(ExportFormat.CSV, uf, minTotalEmission, maxTotalEmission).split("\n"));
+    }
+
+    private String export(ExportFormat format, String uf, Double minTotalEmission, Double maxTotalEmission)
+            throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        calculationExportService.export(format, uf, minTotalEmission, maxTotalEmission, outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    private void insert(String id, String uf, double energyConsumption, Double totalEmission) {
+        CarbonCalculation calculation = new CarbonCalculation();
+        calculation.setId(id);
+        calculation.setName("João Silva");
+        calculation.setEmail(id + "@email.com");
+        calculation.setNormalizedEmail(id + "@email.com");
+        calculation.setPhoneNumber("11999999999");
+        calculation.setUf(uf);
+        calculation.setEnergyConsumption(energyConsumption);
+        calculation.setSolidWasteProduction(50);
+        calculation.setRecyclePercentage(0.3);
+        calculation.setEnergyEmission(totalEmission);
+        calculation.setTotalEmission(totalEmission);
+        carbonCalculationRepository.insert(calculation);
+    }
+}
@@ -0,0 +1,143 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.model.SchemaMigrationCheckpoint;
+import br.com.actionlabs.carboncalc.repository.CarbonCalculationRepository;
+import br.com.actionlabs.carboncalc.repository.SchemaMigrationCheckpointRepository;
+import br.com.actionlabs.carboncalc.repository.memory.InMemoryJobLockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CalculationSchemaMigratorTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(1);
+
+    @Mock
+    private CarbonCalculationRepository carbonCalculationRepository;
+
+    @Mock
+    private SchemaMigrationCheckpointRepository schemaMigrationCheckpointRepository;
+
+    private final InMemoryJobLockRepository jobLockRepository = new InMemoryJobLockRepository();
+
+    private final JobLockService jobLockService = new JobLockService(jobLockRepository, Duration.ofHours(1));
+
+    private CalculationSchemaMigrator calculationSchemaMigrator;
+
+    @BeforeEach
+    void setUp() {
+        calculationSchemaMigrator = new CalculationSchemaMigrator(carbonCalculationRepository,
+                schemaMigrationCheckpointRepository, jobLockService, true, 2, Duration.ofHours(1), LEASE, 2);
+    }
+
+    @Test
+    void migrateBatch_ShouldRewriteTheBatchAndCheckpointItsLastId() {
+        List<CarbonCalculation> batch = List.of(calculation("a"), calculation("b"));
+        when(schemaMigrationCheckpointRepository.findById(CalculationSchemaMigrator.CHECKPOINT_ID))
+                .thenReturn(Optional.of(checkpoint(null, 0)));
+        when(carbonCalculationRepository.findInOlderSchema(null, 2)).thenReturn(batch);
+        when(carbonCalculationRepository.rewriteInCurrentSchema(batch)).thenReturn(1L);
+
+        calculationSchemaMigrator.migrateBatch();
+
+        verify(schemaMigrationCheckpointRepository).save(argThat(checkpoint ->
+                "b".equals(checkpoint.getLastId()) && checkpoint.getMigrated() == 1
+                        && checkpoint.getCompletedAt() == null));
+    }
+
+    @Test
+    void migrateBatch_EndOfASweep_ShouldStartAnother() {
+        when(schemaMigrationCheckpointRepository.findById(CalculationSchemaMigrator.CHECKPOINT_ID))
+                .thenReturn(Optional.of(checkpoint("b", 2)));
+        when(carbonCalculationRepository.findInOlderSchema("b", 2)).thenReturn(List.of());
+
+        calculationSchemaMigrator.migrateBatch();
+
+        verify(schemaMigrationCheckpointRepository).save(argThat(checkpoint ->
+                checkpoint.getLastId() == null && checkpoint.getCompletedAt() == null));
+        assertFalse(calculationSchemaMigrator.isCompleted());
+    }
+
+    @Test
+    void migrateBatch_SweepFindingNothing_ShouldCompleteAndStop() {
+        when(schemaMigrationCheckpointRepository.findById(CalculationSchemaMigrator.CHECKPOINT_ID))
+                .thenReturn(Optional.empty());
+        when(carbonCalculationRepository.findInOlderSchema(null, 2)).thenReturn(List.of());
+
+        calculationSchemaMigrator.migrateBatch();
+        calculationSchemaMigrator.migrateBatch();
+
+        verify(schemaMigrationCheckpointRepository).save(argThat(checkpoint -> checkpoint.getCompletedAt() != null));
+        verify(carbonCalculationRepository, times(1)).findInOlderSchema(any(), anyInt());
+        assertTrue(calculationSchemaMigrator.isCompleted());
+    }
+
+    @Test
+    void migrateBatch_OldLayoutWrittenAfterCompletion_ShouldSweepAgainOnTheRecheck() {
+        calculationSchemaMigrator = new CalculationSchemaMigrator(carbonCalculationRepository,
+                schemaMigrationCheckpointRepository, jobLockService, true, 2, Duration.ZERO, LEASE, 2);
+        SchemaMigrationCheckpoint completed = checkpoint("b", 2);
+        completed.setCompletedAt(Instant.now());
+        when(schemaMigrationCheckpointRepository.findById(CalculationSchemaMigrator.CHECKPOINT_ID))
+                .thenReturn(Optional.of(completed));
+        when(carbonCalculationRepository.findInOlderSchema(null, 1))
+                .thenReturn(List.of())
+                .thenReturn(List.of(calculation("c")));
+
+        calculationSchemaMigrator.migrateBatch();
+        assertTrue(calculationSchemaMigrator.isCompleted());
+
+        calculationSchemaMigrator.migrateBatch();
+
+        verify(schemaMigrationCheckpointRepository).save(argThat(checkpoint ->
+                checkpoint.getCompletedAt() == null && checkpoint.getLastId() == null));
+        assertFalse(calculationSchemaMigrator.isCompleted());
+    }
+
+    @Test
+    void migrateBatch_LeaseHeldByAnotherInstance_ShouldDoNothing() {
+        new JobLockService(jobLockRepository, Duration.ofHours(1))
+                .tryAcquire(CalculationSchemaMigrator.MIGRATION_JOB, LEASE);
+
+        calculationSchemaMigrator.migrateBatch();
+
+        verifyNoInteractions(carbonCalculationRepository, schemaMigrationCheckpointRepository);
+    }
+
+    @Test
+    void migrateBatch_WritesStillInVersion1_ShouldDoNothing() {
+        calculationSchemaMigrator = new CalculationSchemaMigrator(carbonCalculationRepository,
+                schemaMigrationCheckpointRepository, jobLockService, true, 2, Duration.ofHours(1), LEASE, 1);
+
+        calculationSchemaMigrator.migrateBatch();
+
+        verifyNoInteractions(carbonCalculationRepository, schemaMigrationCheckpointRepository);
+    }
+
+    private static CarbonCalculation calculation(String id) {
+        CarbonCalculation calculation = new CarbonCalculation();
+        calculation.setId(id);
+        return calculation;
+    }
+
+    private static SchemaMigrationCheckpoint checkpoint(String lastId, long migrated) {
+        SchemaMigrationCheckpoint checkpoint = new SchemaMigrationCheckpoint();
+        checkpoint.setId(CalculationSchemaMigrator.CHECKPOINT_ID);
+        checkpoint.setLastId(lastId);
+        checkpoint.setMigrated(migrated);
+        return checkpoint;
+    }
+}
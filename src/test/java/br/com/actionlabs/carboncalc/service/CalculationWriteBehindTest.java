@@ -0,0 +1,254 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.dto.*;
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+import br.com.actionlabs.carboncalc.exceptions.CalculationNotPersistedException;
+import br.com.actionlabs.carboncalc.exceptions.EmailAlreadyExists;
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.repository.memory.*;
+import br.com.actionlabs.carboncalc.utils.CalculationRequestValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalculationWriteBehindTest {
+
+    @TempDir
+    private Path journalDirectory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GatedRepository carbonCalculationRepository = new GatedRepository();
+    private final EmailRegistry emailRegistry = new EmailRegistry(
+            new InMemoryEmailRegistrationRepository(carbonCalculationRepository), carbonCalculationRepository,
+            false, Duration.ofMinutes(5));
+
+    private CalculationWriteBehind calculationWriteBehind;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        carbonCalculationRepository.open();
+        if (calculationWriteBehind != null) {
+            calculationWriteBehind.stop();
+        }
+    }
+
+    @Test
+    void submit_ShouldServeReadsFromThePendingBufferUntilInserted() throws IOException {
+        calculationWriteBehind = start();
+        CarbonCalculation calculation = calculation("joao@email.com");
+
+        calculationWriteBehind.submit(calculation);
+
+        assertEquals("SP", calculationWriteBehind.find(calculation.getId()).orElseThrow().getUf());
+        assertFalse(carbonCalculationRepository.existsById(calculation.getId()));
+
+        carbonCalculationRepository.open();
+        calculationWriteBehind.awaitPersisted(calculation.getId());
+
+        assertTrue(carbonCalculationRepository.existsById(calculation.getId()));
+        assertTrue(calculationWriteBehind.find(calculation.getId()).isEmpty());
+        assertEquals(0, calculationWriteBehind.pendingCount());
+    }
+
+    @Test
+    void submit_EmailStillPending_ShouldThrowEmailAlreadyExists() throws IOException {
+        calculationWriteBehind = start();
+        calculationWriteBehind.submit(calculation("joao@email.com"));
+
+        assertThrows(EmailAlreadyExists.class, () -> calculationWriteBehind.submit(calculation("joao@email.com")));
+    }
+
+    @Test
+    void submit_EmailOfAStoredCalculation_ShouldRejectItAtInsertTime() throws IOException {
+        calculationWriteBehind = start();
+        carbonCalculationRepository.insert(calculation("joao@email.com"));
+        CarbonCalculation duplicate = calculation("JOAO@email.com");
+
+        calculationWriteBehind.submit(duplicate);
+        carbonCalculationRepository.open();
+
+        assertThrows(EmailAlreadyExists.class, () -> calculationWriteBehind.awaitPersisted(duplicate.getId()));
+        assertFalse(carbonCalculationRepository.existsById(duplicate.getId()));
+        assertTrue(calculationWriteBehind.find(duplicate.getId()).isEmpty());
+    }
+
+    @Test
+    void awaitPersisted_StillPendingAfterTheTimeout_ShouldThrowCalculationNotPersistedException() throws IOException {
+        calculationWriteBehind = start(Duration.ofMillis(50));
+        CarbonCalculation calculation = calculation("joao@email.com");
+        calculationWriteBehind.submit(calculation);
+
+        CalculationNotPersistedException ex = assertThrows(CalculationNotPersistedException.class,
+                () -> calculationWriteBehind.awaitPersisted(calculation.getId()));
+        assertEquals(Duration.ofSeconds(1), ex.getRetryAfter());
+    }
+
+    @Test
+    void stop_AfterEverythingIsInserted_ShouldLeaveNothingToReplay() throws Exception {
+        calculationWriteBehind = start();
+        carbonCalculationRepository.open();
+        CarbonCalculation calculation = calculation("joao@email.com");
+        calculationWriteBehind.submit(calculation);
+        calculationWriteBehind.awaitPersisted(calculation.getId());
+
+        calculationWriteBehind.stop();
+        calculationWriteBehind = null;
+
+        assertEquals(0, journalFiles());
+    }
+
+    @Test
+    void start_WithJournaledCalculations_ShouldInsertThemAndSkipThoseAlreadyStored() throws IOException {
+        CarbonCalculation stored = calculation("joao@email.com");
+        CarbonCalculation lost = calculation("maria@email.com");
+        carbonCalculationRepository.insert(stored);
+
+        // a previous run acknowledged both, then crashed before inserting the second
+        CalculationJournal journal = CalculationJournal.open(journalDirectory, 1024 * 1024, objectMapper);
+        journal.append(stored);
+        journal.append(lost);
+        journal.close();
+
+        carbonCalculationRepository.open();
+        calculationWriteBehind = start();
+
+        assertTrue(carbonCalculationRepository.existsById(lost.getId()));
+        assertEquals(2, carbonCalculationRepository.count());
+    }
+
+    @Test
+    void startCalculation_WithWriteBehind_ShouldAcceptInfoAndServeTheResult() throws IOException {
+        calculationWriteBehind = start();
+        CarbonCalculationService carbonCalculationService = carbonCalculationService(calculationWriteBehind);
+
+        String id = carbonCalculationService.startCalculation(startRequest("joao@email.com"));
+        assertTrue(ObjectId.isValid(id));
+        assertEquals(0, carbonCalculationService.getResultVersion(id));
+
+        carbonCalculationRepository.open();
+        UpdateCalcInfoResponseDTO updated = carbonCalculationService.updateInfo(infoRequest(id));
+
+        assertEquals(1L, updated.getVersion());
+        assertEquals(208.7, carbonCalculationService.getCarbonCalculationResult(id).getTotal());
+    }
+
+    private CalculationWriteBehind start() throws IOException {
+        return start(Duration.ofSeconds(5));
+    }
+
+    private CalculationWriteBehind start(Duration awaitTimeout) throws IOException {
+        CalculationWriteBehind writeBehind = new CalculationWriteBehind(carbonCalculationRepository, emailRegistry,
+                objectMapper, true, journalDirectory.toString(), DataSize.ofKilobytes(1), 100, 1000,
+                Duration.ofMillis(10), Duration.ofMillis(10), awaitTimeout, Duration.ofHours(1));
+        writeBehind.start();
+        return writeBehind;
+    }
+
+    private CarbonCalculationService carbonCalculationService(CalculationWriteBehind writeBehind) throws IOException {
+        InitMongoScript initMongoScript = new InitMongoScript(new FileSystemResource("init-mongo.js"), objectMapper);
+        EmissionFactorCatalog emissionFactorCatalog = new EmissionFactorCatalog(
+                new InMemoryEnergyEmissionFactorRepository(initMongoScript),
+                new InMemorySolidWasteEmissionFactorRepository(initMongoScript),
+                new InMemoryTransportationEmissionFactorRepository(initMongoScript));
+        emissionFactorCatalog.reload();
+
+        CalculationEventLog calculationEventLog = new CalculationEventLog(new InMemoryCalculationEventRepository(),
+                carbonCalculationRepository, false, 20);
+
+        return new CarbonCalculationService(
+                carbonCalculationRepository,
+                emissionFactorCatalog,
+                new CalculationUfCache(1000),
+                new CalculationResultCache(1000, Duration.ofMinutes(10)),
+                new UfEmissionRollupService(new InMemoryUfEmissionRollupRepository(carbonCalculationRepository),
+                        calculationEventLog,
+                        new JobLockService(new InMemoryJobLockRepository(), Duration.ofHours(1)), 1000),
+                new CalculationPhaseMetrics(new SimpleMeterRegistry()),
+                writeBehind,
+                calculationEventLog,
+                emailRegistry,
+                new EmissionPercentileService(new InMemoryEmissionSketchRepository(), calculationEventLog,
+                        new JobLockService(new InMemoryJobLockRepository(), Duration.ofHours(1)), false, 1000),
+                new MonthlyEmissionService(new InMemoryMonthlyEmissionRepository(),
+                        new InMemoryMonthlyUfRollupRepository(), carbonCalculationRepository, false, 120, 100000),
+                new CalculationRequestValidator());
+    }
+
+    private long journalFiles() throws IOException {
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            return files.count();
+        }
+    }
+
+    private static CarbonCalculation calculation(String email) {
+        CarbonCalculation calculation = CarbonCalculationService.newCarbonCalculation(startRequest(email));
+        calculation.setId(new ObjectId().toHexString());
+        return calculation;
+    }
+
+    private static StartCalcRequestDTO startRequest(String email) {
+        StartCalcRequestDTO request = new StartCalcRequestDTO();
+        request.setName("João Silva");
+        request.setEmail(email);
+        request.setUf("SP");
+        request.setPhoneNumber("11999999999");
+        return request;
+    }
+
+    private static UpdateCalcInfoRequestDTO infoRequest(String id) {
+        TransportationDTO car = new TransportationDTO();
+        car.setType(TransportationType.CAR);
+        car.setMonthlyDistance(150);
+
+        UpdateCalcInfoRequestDTO request = new UpdateCalcInfoRequestDTO();
+        request.setId(id);
+        request.setEnergyConsumption(300);
+        request.setSolidWasteTotal(50);
+        request.setRecyclePercentage(0.3);
+        request.setTransportation(List.of(car));
+        return request;
+    }
+
+    /**
+     * Holds bulk inserts until {@link #open()}, so tests can look at calculations while they are pending.
+     */
+    private static final class GatedRepository extends InMemoryCarbonCalculationRepository {
+
+        private final CountDownLatch gate = new CountDownLatch(1);
+
+        void open() {
+            gate.countDown();
+        }
+
+        @Override
+        public Map<Integer, BulkWriteError> bulkInsert(List<CarbonCalculation> calculations) {
+            try {
+                if (!gate.await(10, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("gate never opened");
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            }
+            return super.bulkInsert(calculations);
+        }
+    }
+}
@@ -6,19 +6,29 @@ import br.com.actionlabs.carboncalc.repository.*;
 import br.com.actionlabs.carboncalc.utils.*;
 import br.com.actionlabs.carboncalc.exceptions.*;
 import br.com.actionlabs.carboncalc.enums.TransportationType;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 
+import java.time.Duration;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,28 +38,37 @@ class CarbonCalculationServiceTest {
     private CarbonCalculationRepository carbonCalculationRepository;
 
     @Mock
-    private EnergyEmissionFactorRepository energyEmissionFactorRepository;
+    private EmissionFactorCatalog emissionFactorCatalog;
 
-    @Mock
-    private TransportationEmissionFactorRepository transportationEmissionFactorRepository;
+    @Spy
+    private CalculationUfCache calculationUfCache = new CalculationUfCache(1000);
+
+    @Spy
+    private CalculationResultCache calculationResultCache = new CalculationResultCache(1000, Duration.ofMinutes(10));
 
     @Mock
-    private SolidWasteEmissionFactorRepository solidWasteEmissionFactorRepository;
+    private UfEmissionRollupService ufEmissionRollupService;
+
+    @Spy
+    private CalculationPhaseMetrics calculationPhaseMetrics = new CalculationPhaseMetrics(new SimpleMeterRegistry());
 
     @Mock
-    private NameValidator nameValidator;
+    private CalculationWriteBehind calculationWriteBehind;
 
     @Mock
-    private PhoneNumberValidator phoneNumberValidator;
+    private CalculationEventLog calculationEventLog;
 
     @Mock
-    private UfValidator ufValidator;
+    private EmailRegistry emailRegistry;
 
     @Mock
-    private EmailValidator emailValidator;
+    private EmissionPercentileService emissionPercentileService;
 
     @Mock
-    private RecyclePercentageValidator recyclePercentageValidator;
+    private MonthlyEmissionService monthlyEmissionService;
+
+    @Spy
+    private CalculationRequestValidator calculationRequestValidator;
 
     @InjectMocks
     private CarbonCalculationService carbonCalculationService;
@@ -64,58 +83,48 @@ class CarbonCalculationServiceTest {
 
         CarbonCalculation savedCalculation = new CarbonCalculation();
         savedCalculation.setId("12345");
+        savedCalculation.setUf("SP");
 
-        doNothing().when(nameValidator).validateName(any());
-        doNothing().when(emailValidator).validateEmail(any());
-        doNothing().when(ufValidator).validateUf(any());
-        doNothing().when(phoneNumberValidator).validatePhoneNumber(any());
 
-        when(carbonCalculationRepository.save(any(CarbonCalculation.class)))
+        when(carbonCalculationRepository.insert(any(CarbonCalculation.class)))
                 .thenReturn(savedCalculation);
 
         String result = carbonCalculationService.startCalculation(request);
 
         assertEquals("12345", result);
-        verify(nameValidator).validateName("João Silva");
-        verify(emailValidator).validateEmail("joao@email.com");
-        verify(ufValidator).validateUf("SP");
-        verify(phoneNumberValidator).validatePhoneNumber("11999999999");
-        verify(carbonCalculationRepository).save(any(CarbonCalculation.class));
+        assertEquals("SP", calculationUfCache.getIfPresent("12345"));
+        verify(calculationRequestValidator).validate(request);
+        verify(carbonCalculationRepository).insert(argThat((CarbonCalculation saved) ->
+                "joao@email.com".equals(saved.getNormalizedEmail())));
     }
 
     @Test
-    void startCalculation_InvalidName_ShouldThrowNullNameException() {
+    void startCalculation_InvalidName_ShouldReportNullName() {
         StartCalcRequestDTO request = new StartCalcRequestDTO();
         request.setName(null);
         request.setEmail("joao@email.com");
         request.setUf("SP");
         request.setPhoneNumber("11999999999");
 
-        doThrow(new NullNameException())
-                .when(nameValidator).validateName(null);
-
-        NullNameException exception = assertThrows(
-                NullNameException.class,
+        RequestValidationException exception = assertThrows(
+                RequestValidationException.class,
                 () -> carbonCalculationService.startCalculation(request)
         );
 
         assertEquals("This name is null", exception.getMessage());
-        verify(carbonCalculationRepository, never()).save(any());
+        verify(carbonCalculationRepository, never()).insert(any(CarbonCalculation.class));
     }
 
     @Test
-    void startCalculation_NameTooShort_ShouldThrowInvalidNameLengthException() {
+    void startCalculation_NameTooShort_ShouldReportInvalidNameLength() {
         StartCalcRequestDTO request = new StartCalcRequestDTO();
         request.setName("Jo");
         request.setEmail("joao@email.com");
         request.setUf("SP");
         request.setPhoneNumber("11999999999");
 
-        doThrow(new InvalidNameLengthException())
-                .when(nameValidator).validateName(request.getName());
-
-        InvalidNameLengthException exception = assertThrows(
-                InvalidNameLengthException.class,
+        RequestValidationException exception = assertThrows(
+                RequestValidationException.class,
                 () -> carbonCalculationService.startCalculation(request)
         );
 
@@ -123,18 +132,15 @@ class CarbonCalculationServiceTest {
     }
 
     @Test
-    void startCalculation_InvalidEmail_ShouldThrowInvalidEmailException() {
+    void startCalculation_InvalidEmail_ShouldReportInvalidEmail() {
         StartCalcRequestDTO request = new StartCalcRequestDTO();
         request.setName("João Silva");
         request.setEmail("email-invalido");
         request.setUf("SP");
         request.setPhoneNumber("11999999999");
 
-        doThrow(new InvalidEmailException())
-                .when(emailValidator).validateEmail(request.getEmail());
-
-        InvalidEmailException exception = assertThrows(
-                InvalidEmailException.class,
+        RequestValidationException exception = assertThrows(
+                RequestValidationException.class,
                 () -> carbonCalculationService.startCalculation(request)
         );
 
@@ -142,37 +148,35 @@ class CarbonCalculationServiceTest {
     }
 
     @Test
-    void validateEmail_EmailAlreadyExists_ShouldThrowEmailAlreadyExists() {
+    void startCalculation_EmailAlreadyExists_ShouldThrowEmailAlreadyExists() {
         StartCalcRequestDTO request = new StartCalcRequestDTO();
         request.setName("João");
-        request.setEmail("existente@email.com");
+        request.setEmail("Existente@Email.com");
         request.setUf("SP");
         request.setPhoneNumber("11999999999");
 
-        doThrow(new EmailAlreadyExists())
-                .when(emailValidator).validateEmail(request.getEmail());
+        when(carbonCalculationRepository.insert(any(CarbonCalculation.class)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
 
         assertThrows(
                 EmailAlreadyExists.class,
                 () -> carbonCalculationService.startCalculation(request)
         );
 
-        verify(carbonCalculationRepository, never()).save(any());
+        verify(carbonCalculationRepository).insert(argThat((CarbonCalculation saved) ->
+                "existente@email.com".equals(saved.getNormalizedEmail())));
     }
 
     @Test
-    void startCalculation_InvalidUf_ShouldThrowUpperCaseUfValidationException() {
+    void startCalculation_InvalidUf_ShouldReportUpperCaseUfValidation() {
         StartCalcRequestDTO request = new StartCalcRequestDTO();
         request.setName("João Silva");
         request.setEmail("joao@email.com");
         request.setUf("sp");
         request.setPhoneNumber("11999999999");
 
-        doThrow(new UpperCaseUfValidationException())
-                .when(ufValidator).validateUf(request.getUf());
-
-        UpperCaseUfValidationException exception = assertThrows(
-                UpperCaseUfValidationException.class,
+        RequestValidationException exception = assertThrows(
+                RequestValidationException.class,
                 () -> carbonCalculationService.startCalculation(request)
         );
 
@@ -180,18 +184,15 @@ class CarbonCalculationServiceTest {
     }
 
     @Test
-    void startCalculation_NullUf_ShouldThrowNullUfException() {
+    void startCalculation_NullUf_ShouldReportNullUf() {
         StartCalcRequestDTO request = new StartCalcRequestDTO();
         request.setName("João Silva");
         request.setEmail("joao@email.com");
         request.setUf(null);
         request.setPhoneNumber("11999999999");
 
-        doThrow(new NullUfException())
-                .when(ufValidator).validateUf(null);
-
-        NullUfException exception = assertThrows(
-                NullUfException.class,
+        RequestValidationException exception = assertThrows(
+                RequestValidationException.class,
                 () -> carbonCalculationService.startCalculation(request)
         );
 
@@ -199,18 +200,15 @@ class CarbonCalculationServiceTest {
     }
 
     @Test
-    void startCalculation_InvalidPhoneNumber_ShouldThrowInvalidPhoneNumberException() {
+    void startCalculation_InvalidPhoneNumber_ShouldReportInvalidPhoneNumber() {
         StartCalcRequestDTO request = new StartCalcRequestDTO();
         request.setName("João Silva");
         request.setEmail("joao@email.com");
         request.setUf("SP");
         request.setPhoneNumber("abc123");
 
-        doThrow(new InvalidPhoneNumberException())
-                .when(phoneNumberValidator).validatePhoneNumber(request.getPhoneNumber());
-
-        InvalidPhoneNumberException exception = assertThrows(
-                InvalidPhoneNumberException.class,
+        RequestValidationException exception = assertThrows(
+                RequestValidationException.class,
                 () -> carbonCalculationService.startCalculation(request)
         );
 
@@ -219,18 +217,15 @@ class CarbonCalculationServiceTest {
     }
 
     @Test
-    void startCalculation_PhoneNumberTooShort_ShouldThrowInvalidPhoneNumberLengthException() {
+    void startCalculation_PhoneNumberTooShort_ShouldReportInvalidPhoneNumberLength() {
         StartCalcRequestDTO request = new StartCalcRequestDTO();
         request.setName("João Silva");
         request.setEmail("joao@email.com");
         request.setUf("SP");
         request.setPhoneNumber("123");
 
-        doThrow(new InvalidPhoneNumberLengthException())
-                .when(phoneNumberValidator).validatePhoneNumber(request.getPhoneNumber());
-
-        InvalidPhoneNumberLengthException exception = assertThrows(
-                InvalidPhoneNumberLengthException.class,
+        RequestValidationException exception = assertThrows(
+                RequestValidationException.class,
                 () -> carbonCalculationService.startCalculation(request)
         );
 
@@ -238,18 +233,15 @@ class CarbonCalculationServiceTest {
     }
 
     @Test
-    void startCalculation_UfTooShort_ShouldThrowInvalidUfLengthException() {
+    void startCalculation_UfTooShort_ShouldReportInvalidUfLength() {
         StartCalcRequestDTO request = new StartCalcRequestDTO();
         request.setName("João Silva");
         request.setEmail("joao@email.com");
         request.setUf("S");
         request.setPhoneNumber("11999999999");
 
-        doThrow(new InvalidUfLengthException())
-                .when(ufValidator).validateUf(request.getUf());
-
-        InvalidUfLengthException exception = assertThrows(
-                InvalidUfLengthException.class,
+        RequestValidationException exception = assertThrows(
+                RequestValidationException.class,
                 () -> carbonCalculationService.startCalculation(request)
         );
 
@@ -259,18 +251,15 @@ class CarbonCalculationServiceTest {
     }
 
     @Test
-    void startCalculation_UfTooLong_ShouldThrowInvalidUfLengthException() {
+    void startCalculation_UfTooLong_ShouldReportInvalidUfLength() {
         StartCalcRequestDTO request = new StartCalcRequestDTO();
         request.setName("João Silva");
         request.setEmail("joao@email.com");
         request.setUf("SPP");
         request.setPhoneNumber("11999999999");
 
-        doThrow(new InvalidUfLengthException())
-                .when(ufValidator).validateUf(request.getUf());
-
-        InvalidUfLengthException exception = assertThrows(
-                InvalidUfLengthException.class,
+        RequestValidationException exception = assertThrows(
+                RequestValidationException.class,
                 () -> carbonCalculationService.startCalculation(request)
         );
 
@@ -281,24 +270,42 @@ class CarbonCalculationServiceTest {
 
 
     @Test
-    void startCalculation_NullPhoneNumber_ShouldThrowNullPhoneNumberException() {
+    void startCalculation_NullPhoneNumber_ShouldReportNullPhoneNumber() {
         StartCalcRequestDTO request = new StartCalcRequestDTO();
         request.setName("João Silva");
         request.setEmail("joao@email.com");
         request.setUf("SP");
         request.setPhoneNumber(null);
 
-        doThrow(new NullPhoneNumberException())
-                .when(phoneNumberValidator).validatePhoneNumber(null);
-
-        NullPhoneNumberException exception = assertThrows(
-                NullPhoneNumberException.class,
+        RequestValidationException exception = assertThrows(
+                RequestValidationException.class,
                 () -> carbonCalculationService.startCalculation(request)
         );
 
         assertEquals("This phone number is null", exception.getMessage());
     }
 
+    @Test
+    void startCalculation_SeveralInvalidFields_ShouldReportEveryViolation() {
+        StartCalcRequestDTO request = new StartCalcRequestDTO();
+        request.setName("Jo");
+        request.setEmail("email-invalido");
+        request.setUf("sp");
+        request.setPhoneNumber(null);
+
+        RequestValidationException exception = assertThrows(
+                RequestValidationException.class,
+                () -> carbonCalculationService.startCalculation(request)
+        );
+
+        List<FieldErrorDTO> errors = exception.getResult().getErrors();
+        assertEquals(4, errors.size());
+        assertEquals(List.of("name", "email", "phoneNumber", "uf"),
+                errors.stream().map(FieldErrorDTO::field).toList());
+        assertEquals(0, exception.getStackTrace().length);
+        verify(carbonCalculationRepository, never()).insert(any(CarbonCalculation.class));
+    }
+
     @Test
     void updateInfo_ValidRequest_ShouldUpdateAndCalculate() {
         String calculationId = "12345";
@@ -312,50 +319,113 @@ class CarbonCalculationServiceTest {
                 createTransportationDTO("PUBLIC_TRANSPORT", 200)
         ));
 
-        CarbonCalculation existingCalculation = new CarbonCalculation();
-        existingCalculation.setId(calculationId);
-        existingCalculation.setUf("SP");
+        when(carbonCalculationRepository.findUfById(calculationId))
+                .thenReturn(Optional.of("SP"));
+        when(emissionFactorCatalog.current()).thenReturn(emissionFactors());
+        when(carbonCalculationRepository.updateInfo(any(CarbonCalculation.class), isNull()))
+                .thenReturn(previous(0));
+
+        UpdateCalcInfoResponseDTO result = carbonCalculationService.updateInfo(request);
+
+        assertTrue(result.isSuccess());
+        assertEquals(1L, result.getVersion());
+        assertEquals(141.0, result.getResult().getEnergy());
+        verify(calculationRequestValidator).validate(request);
+        verify(carbonCalculationRepository).findUfById(calculationId);
+        verify(emissionFactorCatalog).current();
+        verify(carbonCalculationRepository).updateInfo(argThat(calculation ->
+                calculationId.equals(calculation.getId()) && "SP".equals(calculation.getUf())), isNull());
+        verify(carbonCalculationRepository, never()).findById(any());
+        verify(carbonCalculationRepository, never()).save(any());
+    }
 
-        EnergyEmissionFactor energyFactor = new EnergyEmissionFactor();
-        energyFactor.setUf("SP");
-        energyFactor.setFactor(0.47);
+    @Test
+    void updateInfo_CachedUf_ShouldOnlyWrite() {
+        String calculationId = "12345";
+        UpdateCalcInfoRequestDTO request = new UpdateCalcInfoRequestDTO();
+        request.setId(calculationId);
+        request.setEnergyConsumption(300);
 
-        TransportationEmissionFactor carFactor = new TransportationEmissionFactor();
-        carFactor.setType(TransportationType.CAR);
-        carFactor.setFactor(0.19);
+        calculationUfCache.put(calculationId, "SP");
 
-        TransportationEmissionFactor publicTransportFactor = new TransportationEmissionFactor();
-        publicTransportFactor.setType(TransportationType.PUBLIC_TRANSPORT);
-        publicTransportFactor.setFactor(0.04);
+        when(emissionFactorCatalog.current()).thenReturn(emissionFactors());
+        when(carbonCalculationRepository.updateInfo(any(CarbonCalculation.class), isNull()))
+                .thenReturn(previous(1));
 
-        SolidWasteEmissionFactor solidWasteFactor = new SolidWasteEmissionFactor();
-        solidWasteFactor.setUf("SP");
-        solidWasteFactor.setRecyclableFactor(0.42);
-        solidWasteFactor.setNonRecyclableFactor(0.94);
+        carbonCalculationService.updateInfo(request);
+
+        verify(carbonCalculationRepository, never()).findUfById(any());
+        verify(carbonCalculationRepository).updateInfo(any(CarbonCalculation.class), isNull());
+    }
+
+    @Test
+    void updateInfo_PreviousEmissions_ShouldRecordTheDifferenceInTheRollup() {
+        String calculationId = "12345";
+        UpdateCalcInfoRequestDTO request = new UpdateCalcInfoRequestDTO();
+        request.setId(calculationId);
+        request.setEnergyConsumption(300);
+
+        CarbonCalculation previous = previous(4);
+        previous.setEnergyEmission(100.0);
+        previous.setTransportationEmission(10.0);
+        previous.setSolidWasteEmission(0.0);
+        previous.setTotalEmission(110.0);
+
+        calculationUfCache.put(calculationId, "SP");
+
+        when(emissionFactorCatalog.current()).thenReturn(emissionFactors());
+        when(carbonCalculationRepository.updateInfo(any(CarbonCalculation.class), isNull()))
+                .thenReturn(previous);
+
+        UpdateCalcInfoResponseDTO result = carbonCalculationService.updateInfo(request);
+
+        assertEquals(5L, result.getVersion());
+        verify(ufEmissionRollupService).recordChange(argThat(delta -> "SP".equals(delta.uf())
+                && delta.count() == 0
+                && Math.abs(delta.energyEmission() - 41.0) < 0.001
+                && Math.abs(delta.transportationEmission() + 10.0) < 0.001
+                && Math.abs(delta.totalEmission() - 31.0) < 0.001));
+    }
+
+    @Test
+    void updateInfo_FirstInfo_ShouldCountTheCalculationInTheRollup() {
+        String calculationId = "12345";
+        UpdateCalcInfoRequestDTO request = new UpdateCalcInfoRequestDTO();
+        request.setId(calculationId);
+        request.setEnergyConsumption(300);
+
+        calculationUfCache.put(calculationId, "SP");
+
+        when(emissionFactorCatalog.current()).thenReturn(emissionFactors());
+        when(carbonCalculationRepository.updateInfo(any(CarbonCalculation.class), isNull()))
+                .thenReturn(previous(0));
+
+        carbonCalculationService.updateInfo(request);
 
-        when(carbonCalculationRepository.findById(calculationId))
-                .thenReturn(Optional.of(existingCalculation));
-        doNothing().when(recyclePercentageValidator).validate(0.3);
-        when(energyEmissionFactorRepository.findById("SP"))
-                .thenReturn(Optional.of(energyFactor));
-        when(transportationEmissionFactorRepository.findById(TransportationType.CAR))
-                .thenReturn(Optional.of(carFactor));
-        when(transportationEmissionFactorRepository.findById(TransportationType.PUBLIC_TRANSPORT))
-                .thenReturn(Optional.of(publicTransportFactor));
-        when(solidWasteEmissionFactorRepository.findById("SP"))
-                .thenReturn(Optional.of(solidWasteFactor));
-        when(carbonCalculationRepository.save(any(CarbonCalculation.class)))
-                .thenReturn(existingCalculation);
+        verify(ufEmissionRollupService).recordChange(argThat(delta -> delta.count() == 1
+                && Math.abs(delta.totalEmission() - 141.0) < 0.001));
+    }
 
-        boolean result = carbonCalculationService.updateInfo(request);
+    @Test
+    void updateInfo_StaleVersion_ShouldThrowCalculationVersionConflictException() {
+        String calculationId = "12345";
+        UpdateCalcInfoRequestDTO request = new UpdateCalcInfoRequestDTO();
+        request.setId(calculationId);
+
+        calculationUfCache.put(calculationId, "SP");
+
+        when(emissionFactorCatalog.current()).thenReturn(emissionFactors());
+        when(carbonCalculationRepository.updateInfo(any(CarbonCalculation.class), eq(3L)))
+                .thenReturn(null);
+        when(carbonCalculationRepository.existsById(calculationId))
+                .thenReturn(true);
+
+        CalculationVersionConflictException exception = assertThrows(
+                CalculationVersionConflictException.class,
+                () -> carbonCalculationService.updateInfo(request, 3L)
+        );
 
-        assertTrue(result);
-        verify(carbonCalculationRepository).findById(calculationId);
-        verify(recyclePercentageValidator).validate(0.3);
-        verify(energyEmissionFactorRepository).findById("SP");
-        verify(transportationEmissionFactorRepository, times(2)).findById(any());
-        verify(solidWasteEmissionFactorRepository).findById("SP");
-        verify(carbonCalculationRepository).save(existingCalculation);
+        assertEquals("Carbon Calculation 12345 is no longer at version 3", exception.getMessage());
     }
 
     @Test
@@ -364,7 +434,7 @@ class CarbonCalculationServiceTest {
         UpdateCalcInfoRequestDTO request = new UpdateCalcInfoRequestDTO();
         request.setId(calculationId);
 
-        when(carbonCalculationRepository.findById(calculationId))
+        when(carbonCalculationRepository.findUfById(calculationId))
                 .thenReturn(Optional.empty());
 
         CarbonCalculationNotFoundException exception = assertThrows(
@@ -377,48 +447,30 @@ class CarbonCalculationServiceTest {
     }
 
     @Test
-    void updateInfo_InvalidRecyclePercentage_ShouldThrowInvalidRecyclePercentageException() {
+    void updateInfo_InvalidRecyclePercentage_ShouldReportInvalidRecyclePercentage() {
         String calculationId = "12345";
         UpdateCalcInfoRequestDTO request = new UpdateCalcInfoRequestDTO();
         request.setId(calculationId);
         request.setRecyclePercentage(1.5);
 
-        CarbonCalculation existingCalculation = new CarbonCalculation();
-        existingCalculation.setId(calculationId);
-
-        when(carbonCalculationRepository.findById(calculationId))
-                .thenReturn(Optional.of(existingCalculation));
-
-        doThrow(new InvalidRecyclePercentageException())
-                .when(recyclePercentageValidator).validate(1.5);
-
-        InvalidRecyclePercentageException exception = assertThrows(
-                InvalidRecyclePercentageException.class,
+        RequestValidationException exception = assertThrows(
+                RequestValidationException.class,
                 () -> carbonCalculationService.updateInfo(request)
         );
 
         assertEquals("Invalid Recycle Percentage. The percentage must be between 0 and 1.",
-                exception.getMessage());
+                exception.getMessage());        verify(carbonCalculationRepository, never()).findById(any());
     }
 
     @Test
-    void updateInfo_NegativeRecyclePercentage_ShouldThrowInvalidRecyclePercentageException() {
+    void updateInfo_NegativeRecyclePercentage_ShouldReportInvalidRecyclePercentage() {
         String calculationId = "12345";
         UpdateCalcInfoRequestDTO request = new UpdateCalcInfoRequestDTO();
         request.setId(calculationId);
         request.setRecyclePercentage(-0.5);
 
-        CarbonCalculation existingCalculation = new CarbonCalculation();
-        existingCalculation.setId(calculationId);
-
-        when(carbonCalculationRepository.findById(calculationId))
-                .thenReturn(Optional.of(existingCalculation));
-
-        doThrow(new InvalidRecyclePercentageException())
-                .when(recyclePercentageValidator).validate(-0.5);
-
-        InvalidRecyclePercentageException exception = assertThrows(
-                InvalidRecyclePercentageException.class,
+        RequestValidationException exception = assertThrows(
+                RequestValidationException.class,
                 () -> carbonCalculationService.updateInfo(request)
         );
 
@@ -436,33 +488,16 @@ class CarbonCalculationServiceTest {
         request.setRecyclePercentage(0.3);
         request.setTransportation(List.of());
 
-        CarbonCalculation existingCalculation = new CarbonCalculation();
-        existingCalculation.setId(calculationId);
-        existingCalculation.setUf("SP");
+        when(carbonCalculationRepository.findUfById(calculationId))
+                .thenReturn(Optional.of("SP"));
+        when(emissionFactorCatalog.current()).thenReturn(emissionFactors());
+        when(carbonCalculationRepository.updateInfo(any(CarbonCalculation.class), isNull()))
+                .thenReturn(previous(0));
 
-        EnergyEmissionFactor energyFactor = new EnergyEmissionFactor();
-        energyFactor.setUf("SP");
-        energyFactor.setFactor(0.47);
+        UpdateCalcInfoResponseDTO result = carbonCalculationService.updateInfo(request);
 
-        SolidWasteEmissionFactor solidWasteFactor = new SolidWasteEmissionFactor();
-        solidWasteFactor.setUf("SP");
-        solidWasteFactor.setRecyclableFactor(0.42);
-        solidWasteFactor.setNonRecyclableFactor(0.94);
-
-        when(carbonCalculationRepository.findById(calculationId))
-                .thenReturn(Optional.of(existingCalculation));
-        doNothing().when(recyclePercentageValidator).validate(0.3);
-        when(energyEmissionFactorRepository.findById("SP"))
-                .thenReturn(Optional.of(energyFactor));
-        when(solidWasteEmissionFactorRepository.findById("SP"))
-                .thenReturn(Optional.of(solidWasteFactor));
-        when(carbonCalculationRepository.save(any(CarbonCalculation.class)))
-                .thenReturn(existingCalculation);
-
-        boolean result = carbonCalculationService.updateInfo(request);
-
-        assertTrue(result);
-        verify(transportationEmissionFactorRepository, never()).findById(any());
+        assertTrue(result.isSuccess());
+        assertEquals(0.0, result.getResult().getTransportation());
     }
 
     @Test
@@ -475,7 +510,7 @@ class CarbonCalculationServiceTest {
         calculation.setSolidWasteEmission(21.345678);
         calculation.setTotalEmission(124.592590);
 
-        when(carbonCalculationRepository.findById(calculationId))
+        when(carbonCalculationRepository.findEmissionsById(calculationId))
                 .thenReturn(Optional.of(calculation));
 
         CarbonCalculationResultDTO result = carbonCalculationService.getCarbonCalculationResult(calculationId);
@@ -486,14 +521,106 @@ class CarbonCalculationServiceTest {
         assertEquals(21.35, result.getSolidWaste());
         assertEquals(124.59, result.getTotal());
 
-        verify(carbonCalculationRepository).findById(calculationId);
+        verify(carbonCalculationRepository).findEmissionsById(calculationId);
+        verify(carbonCalculationRepository, never()).findById(any());
+    }
+
+    @Test
+    void getCarbonCalculationResult_RepeatedPolls_ShouldOnlyReadTheVersionOnceCached() {
+        String calculationId = "12345";
+        CarbonCalculation calculation = new CarbonCalculation();
+        calculation.setId(calculationId);
+        calculation.setEnergyEmission(97.234567);
+        calculation.setTransportationEmission(6.012345);
+        calculation.setSolidWasteEmission(21.345678);
+        calculation.setTotalEmission(124.592590);
+
+        when(carbonCalculationRepository.findEmissionsById(calculationId))
+                .thenReturn(Optional.of(calculation));
+        when(carbonCalculationRepository.findVersionById(calculationId)).thenReturn(Optional.of(0L));
+
+        carbonCalculationService.getCarbonCalculationResult(calculationId);
+        carbonCalculationService.getCarbonCalculationResult(calculationId);
+        CarbonCalculationResultDTO result = carbonCalculationService.getCarbonCalculationResult(calculationId);
+
+        assertEquals(124.59, result.getTotal());
+        assertEquals(2, calculationResultCache.stats().hitCount());
+        verify(carbonCalculationRepository, times(1)).findEmissionsById(calculationId);
+        verify(carbonCalculationRepository, times(2)).findVersionById(calculationId);
+    }
+
+    @Test
+    void getCarbonCalculationResult_CachedButUpdatedOnAnotherInstance_ShouldReloadIt() {
+        String calculationId = "12345";
+        calculationResultCache.put(calculationId, 1, "SP", new CarbonCalculationResultDTO());
+
+        CarbonCalculation calculation = new CarbonCalculation();
+        calculation.setId(calculationId);
+        calculation.setEnergyEmission(97.234567);
+        calculation.setTransportationEmission(6.012345);
+        calculation.setSolidWasteEmission(21.345678);
+        calculation.setTotalEmission(124.592590);
+        calculation.setVersion(2);
+
+        when(carbonCalculationRepository.findVersionById(calculationId)).thenReturn(Optional.of(2L));
+        when(carbonCalculationRepository.findEmissionsById(calculationId)).thenReturn(Optional.of(calculation));
+
+        CalculationResultCache.Entry entry = carbonCalculationService.getVersionedResult(calculationId);
+
+        assertEquals(2, entry.version());
+        assertEquals(124.59, entry.result().getTotal());
+    }
+
+    @Test
+    void getCarbonCalculationResult_AfterUpdate_ShouldReturnTheNewResult() {
+        String calculationId = "12345";
+        CarbonCalculationResultDTO stale = new CarbonCalculationResultDTO();
+        calculationResultCache.put(calculationId, 1, "SP", stale);
+        calculationUfCache.put(calculationId, "SP");
+
+        UpdateCalcInfoRequestDTO request = new UpdateCalcInfoRequestDTO();
+        request.setId(calculationId);
+        request.setEnergyConsumption(300);
+
+        when(emissionFactorCatalog.current()).thenReturn(emissionFactors());
+        when(carbonCalculationRepository.updateInfo(any(CarbonCalculation.class), isNull()))
+                .thenReturn(previous(1));
+
+        carbonCalculationService.updateInfo(request);
+
+        // a read that started before the update must not bring the old result back
+        calculationResultCache.put(calculationId, 1, "SP", stale);
+        when(carbonCalculationRepository.findVersionById(calculationId)).thenReturn(Optional.of(2L));
+
+        CarbonCalculationResultDTO result = carbonCalculationService.getCarbonCalculationResult(calculationId);
+
+        assertEquals(141.0, result.getEnergy());
+        verify(carbonCalculationRepository, never()).findEmissionsById(any());
+    }
+
+    @Test
+    void getCarbonCalculationResult_CachedWithPercentiles_ShouldRankInTheCachedUfWithoutLoadingIt() {
+        String calculationId = "12345";
+        CarbonCalculationResultDTO cached = new CarbonCalculationResultDTO();
+        cached.setTotal(124.59);
+        calculationResultCache.put(calculationId, 2, "SP", cached);
+        when(carbonCalculationRepository.findVersionById(calculationId)).thenReturn(Optional.of(2L));
+
+        when(emissionPercentileService.isEnabled()).thenReturn(true);
+        when(emissionPercentileService.percentile("SP", 124.59)).thenReturn(40.0);
+
+        CarbonCalculationResultDTO result = carbonCalculationService.getCarbonCalculationResult(calculationId);
+
+        assertEquals(40.0, result.getPercentile());
+        verify(carbonCalculationRepository, never()).findUfById(any());
+        verify(carbonCalculationRepository, never()).findEmissionsById(any());
     }
 
     @Test
     void getCarbonCalculationResult_NotFound_ShouldThrowCarbonCalculationNotFoundException() {
         String calculationId = "nonexistent";
 
-        when(carbonCalculationRepository.findById(calculationId))
+        when(carbonCalculationRepository.findEmissionsById(calculationId))
                 .thenReturn(Optional.empty());
 
         CarbonCalculationNotFoundException exception = assertThrows(
@@ -505,23 +632,64 @@ class CarbonCalculationServiceTest {
                 exception.getMessage());
     }
 
+    @Test
+    void getVersionedResult_ShouldReturnTheVersionTheResultWasComputedFrom() {
+        String calculationId = "12345";
+        CarbonCalculation calculation = new CarbonCalculation();
+        calculation.setId(calculationId);
+        calculation.setEnergyEmission(97.234567);
+        calculation.setTransportationEmission(6.012345);
+        calculation.setSolidWasteEmission(21.345678);
+        calculation.setTotalEmission(124.592590);
+        calculation.setVersion(3);
+
+        when(carbonCalculationRepository.findEmissionsById(calculationId))
+                .thenReturn(Optional.of(calculation));
+
+        CalculationResultCache.Entry entry = carbonCalculationService.getVersionedResult(calculationId);
+
+        assertEquals(3, entry.version());
+        assertEquals(124.59, entry.result().getTotal());
+    }
+
+    @Test
+    void getResultVersion_CachedResult_ShouldStillReadTheStoredVersion() {
+        String calculationId = "12345";
+        calculationResultCache.put(calculationId, 4, "SP", new CarbonCalculationResultDTO());
+
+        when(carbonCalculationRepository.findVersionById(calculationId)).thenReturn(Optional.of(5L));
+
+        assertEquals(5, carbonCalculationService.getResultVersion(calculationId));
+        verify(carbonCalculationRepository, never()).findEmissionsById(any());
+    }
+
+    @Test
+    void getResultVersion_NotCached_ShouldReadOnlyTheVersion() {
+        String calculationId = "12345";
+
+        when(carbonCalculationRepository.findVersionById(calculationId)).thenReturn(Optional.of(2L));
+
+        assertEquals(2, carbonCalculationService.getResultVersion(calculationId));
+        verify(carbonCalculationRepository, never()).findEmissionsById(any());
+    }
+
+    @Test
+    void getResultVersion_NotFound_ShouldThrowCarbonCalculationNotFoundException() {
+        when(carbonCalculationRepository.findVersionById("nonexistent")).thenReturn(Optional.empty());
+
+        assertThrows(CarbonCalculationNotFoundException.class,
+                () -> carbonCalculationService.getResultVersion("nonexistent"));
+    }
+
     @Test
     void calculateEnergyEmissionFactor_ValidUF_ShouldCalculateCorrectly() {
         CarbonCalculation calculation = new CarbonCalculation();
         calculation.setUf("SP");
         calculation.setEnergyConsumption(350);
 
-        EnergyEmissionFactor factor = new EnergyEmissionFactor();
-        factor.setUf("SP");
-        factor.setFactor(0.47);
-
-        when(energyEmissionFactorRepository.findById("SP"))
-                .thenReturn(Optional.of(factor));
-
-        carbonCalculationService.calculateEnergyEmissionFactor(calculation);
+        carbonCalculationService.calculateEnergyEmissionFactor(calculation, emissionFactors());
 
         assertEquals(164.5, calculation.getEnergyEmission());
-        verify(energyEmissionFactorRepository).findById("SP");
     }
 
     @Test
@@ -529,12 +697,9 @@ class CarbonCalculationServiceTest {
         CarbonCalculation calculation = new CarbonCalculation();
         calculation.setUf("XX");
 
-        when(energyEmissionFactorRepository.findById("XX"))
-                .thenReturn(Optional.empty());
-
         EnergyEmissionFactorNotFoundException exception = assertThrows(
                 EnergyEmissionFactorNotFoundException.class,
-                () -> carbonCalculationService.calculateEnergyEmissionFactor(calculation)
+                () -> carbonCalculationService.calculateEnergyEmissionFactor(calculation, emissionFactors())
         );
 
         assertEquals("Energy Emission Factor not found for UF: " + calculation.getUf(), exception.getMessage());
@@ -545,10 +710,9 @@ class CarbonCalculationServiceTest {
         CarbonCalculation calculation = new CarbonCalculation();
         calculation.setTransportation(null);
 
-        carbonCalculationService.calculateTransportationEmissionFactor(calculation);
+        carbonCalculationService.calculateTransportationEmissionFactor(calculation, emissionFactors());
 
         assertEquals(0.0, calculation.getTransportationEmission());
-        verify(transportationEmissionFactorRepository, never()).findById(any());
     }
 
     @Test
@@ -556,10 +720,9 @@ class CarbonCalculationServiceTest {
         CarbonCalculation calculation = new CarbonCalculation();
         calculation.setTransportation(List.of());
 
-        carbonCalculationService.calculateTransportationEmissionFactor(calculation);
+        carbonCalculationService.calculateTransportationEmissionFactor(calculation, emissionFactors());
 
         assertEquals(0.0, calculation.getTransportationEmission());
-        verify(transportationEmissionFactorRepository, never()).findById(any());
     }
 
     @Test
@@ -570,23 +733,9 @@ class CarbonCalculationServiceTest {
                 createTransportationDTO("BICYCLE", 100)
         ));
 
-        TransportationEmissionFactor carFactor = new TransportationEmissionFactor();
-        carFactor.setType(TransportationType.CAR);
-        carFactor.setFactor(0.19);
-
-        TransportationEmissionFactor bikeFactor = new TransportationEmissionFactor();
-        bikeFactor.setType(TransportationType.BICYCLE);
-        bikeFactor.setFactor(0.0);
-
-        when(transportationEmissionFactorRepository.findById(TransportationType.CAR))
-                .thenReturn(Optional.of(carFactor));
-        when(transportationEmissionFactorRepository.findById(TransportationType.BICYCLE))
-                .thenReturn(Optional.of(bikeFactor));
-
-        carbonCalculationService.calculateTransportationEmissionFactor(calculation);
+        carbonCalculationService.calculateTransportationEmissionFactor(calculation, emissionFactors());
 
         assertEquals(38.0, calculation.getTransportationEmission());
-        verify(transportationEmissionFactorRepository, times(2)).findById(any());
     }
 
     @Test
@@ -596,12 +745,11 @@ class CarbonCalculationServiceTest {
                 createTransportationDTO("CAR", 200)
         ));
 
-        when(transportationEmissionFactorRepository.findById(TransportationType.CAR))
-                .thenReturn(Optional.empty());
+        EmissionFactorSnapshot withoutTransportation = EmissionFactorSnapshot.of(List.of(), List.of(), List.of());
 
         TransportationEmissionFactorNotFoundException exception = assertThrows(
                 TransportationEmissionFactorNotFoundException.class,
-                () -> carbonCalculationService.calculateTransportationEmissionFactor(calculation)
+                () -> carbonCalculationService.calculateTransportationEmissionFactor(calculation, withoutTransportation)
         );
 
         assertEquals("Transportation Emission Factor not found for transport type: CAR", exception.getMessage());
@@ -614,15 +762,7 @@ class CarbonCalculationServiceTest {
         calculation.setSolidWasteProduction(60);
         calculation.setRecyclePercentage(0.25);
 
-        SolidWasteEmissionFactor factor = new SolidWasteEmissionFactor();
-        factor.setUf("SP");
-        factor.setRecyclableFactor(0.42);
-        factor.setNonRecyclableFactor(0.94);
-
-        when(solidWasteEmissionFactorRepository.findById("SP"))
-                .thenReturn(Optional.of(factor));
-
-        carbonCalculationService.calculateSolidWasteEmissionFactor(calculation);
+        carbonCalculationService.calculateSolidWasteEmissionFactor(calculation, emissionFactors());
 
         assertEquals(48.6, calculation.getSolidWasteEmission(), 0.001);
     }
@@ -634,12 +774,9 @@ class CarbonCalculationServiceTest {
         calculation.setSolidWasteProduction(60);
         calculation.setRecyclePercentage(0.25);
 
-        when(solidWasteEmissionFactorRepository.findById("XX"))
-                .thenReturn(Optional.empty());
-
         SolidWasteEmissionFactorNotFoundException exception = assertThrows(
                 SolidWasteEmissionFactorNotFoundException.class,
-                () -> carbonCalculationService.calculateSolidWasteEmissionFactor(calculation)
+                () -> carbonCalculationService.calculateSolidWasteEmissionFactor(calculation, emissionFactors())
         );
 
         assertEquals("Solid Waste Emission Factor not found for UF: " + calculation.getUf(), exception.getMessage());
@@ -652,11 +789,7 @@ class CarbonCalculationServiceTest {
         calculation.setSolidWasteProduction(100);
         calculation.setRecyclePercentage(percentage);
 
-        SolidWasteEmissionFactor factor = new SolidWasteEmissionFactor();
-        factor.setRecyclableFactor(0.5);
-        factor.setNonRecyclableFactor(1.0);
-
-        double result = CarbonCalculationService.getTotalSolidWasteEmission(calculation, percentage, factor);
+        double result = CarbonCalculationService.getTotalSolidWasteEmission(calculation, percentage, 0.5, 1.0);
 
         double expected = (100 * percentage * 0.5) + (100 * (1 - percentage) * 1.0);
         assertEquals(expected, result, 0.001);
@@ -672,48 +805,212 @@ class CarbonCalculationServiceTest {
         request.setRecyclePercentage(0.5);
         request.setTransportation(List.of(createTransportationDTO("CAR", 100)));
 
+        when(carbonCalculationRepository.findUfById(calculationId))
+                .thenReturn(Optional.of("SP"));
+        when(emissionFactorCatalog.current()).thenReturn(emissionFactors());
+        when(carbonCalculationRepository.updateInfo(any(CarbonCalculation.class), isNull()))
+                .thenReturn(previous(0));
+
+        carbonCalculationService.updateInfo(request);
+
+        verify(carbonCalculationRepository).updateInfo(argThat(saved -> {
+            assertEquals(94.0, saved.getEnergyEmission(), 0.001);
+
+            assertEquals(19.0, saved.getTransportationEmission(), 0.001);
+
+            assertEquals(27.2, saved.getSolidWasteEmission(), 0.001);
+
+            assertEquals(140.2, saved.getTotalEmission(), 0.001);
+
+            return true;
+        }), isNull());
+    }
+
+    @Test
+    void startCalculations_MixedBatch_ShouldReportEachItem() {
+        StartCalcRequestDTO valid = createStartCalcRequest("João Silva", "joao@email.com");
+        StartCalcRequestDTO invalid = createStartCalcRequest(null, "maria@email.com");
+        StartCalcRequestDTO duplicated = createStartCalcRequest("João Souza", "Joao@Email.com");
+        StartCalcRequestDTO alreadyStored = createStartCalcRequest("Ana Lima", "ana@email.com");
+
+        when(carbonCalculationRepository.bulkInsert(any()))
+                .thenReturn(Map.of(1, new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 1)));
+
+        List<BulkItemResponseDTO<StartCalcResponseDTO>> result = carbonCalculationService
+                .startCalculations(List.of(valid, invalid, duplicated, alreadyStored));
+
+        assertEquals(4, result.size());
+        assertTrue(result.get(0).isSuccess());
+        assertNotNull(result.get(0).getData().getId());
+        assertEquals("This name is null", result.get(1).getMessage());
+        assertEquals("Email already exists", result.get(2).getMessage());
+        assertEquals("Email already exists", result.get(3).getMessage());
+
+        verify(carbonCalculationRepository).bulkInsert(argThat(calculations -> calculations.size() == 2));
+        verify(carbonCalculationRepository, never()).insert(any(CarbonCalculation.class));
+    }
+
+    @Test
+    void startCalculations_TooManyItems_ShouldThrowBulkLimitExceededException() {
+        List<StartCalcRequestDTO> requests = Collections.nCopies(
+                CarbonCalculationService.MAX_BULK_ITEMS + 1, new StartCalcRequestDTO());
+
+        assertThrows(
+                BulkLimitExceededException.class,
+                () -> carbonCalculationService.startCalculations(requests)
+        );
+
+        verify(carbonCalculationRepository, never()).bulkInsert(any());
+    }
+
+    @Test
+    void updateInfos_MixedBatch_ShouldLoadOnceAndReportMissingIds() {
+        UpdateCalcInfoRequestDTO existingRequest = new UpdateCalcInfoRequestDTO();
+        existingRequest.setId("12345");
+        existingRequest.setEnergyConsumption(200);
+        existingRequest.setSolidWasteTotal(40);
+        existingRequest.setRecyclePercentage(0.5);
+        existingRequest.setTransportation(List.of(createTransportationDTO("CAR", 100)));
+
+        UpdateCalcInfoRequestDTO missingRequest = new UpdateCalcInfoRequestDTO();
+        missingRequest.setId("nonexistent");
+
+        CarbonCalculation existingCalculation = new CarbonCalculation();
+        existingCalculation.setId("12345");
+        existingCalculation.setUf("SP");
+
+        when(carbonCalculationRepository.findAllById(any()))
+                .thenReturn(List.of(existingCalculation));
+        when(emissionFactorCatalog.current()).thenReturn(emissionFactors());
+
+        List<BulkItemResponseDTO<UpdateCalcInfoResponseDTO>> result = carbonCalculationService
+                .updateInfos(List.of(existingRequest, missingRequest));
+
+        assertTrue(result.get(0).isSuccess());
+        assertFalse(result.get(1).isSuccess());
+        assertEquals("Carbon Calculation not found for id: nonexistent", result.get(1).getMessage());
+        assertEquals(140.2, existingCalculation.getTotalEmission(), 0.001);
+
+        verify(carbonCalculationRepository).findAllById(any());
+        verify(carbonCalculationRepository).bulkUpdateInfo(List.of(existingCalculation));
+        verify(ufEmissionRollupService).recordChanges(argThat(deltas -> deltas.size() == 1
+                && deltas.iterator().next().count() == 1));
+        verify(carbonCalculationRepository, never()).findById(any());
+    }
+
+    @Test
+    void updateInfos_UpdatedSinceTheRead_ShouldReportAConflictAndLeaveItOutOfTheDeltas() {
+        UpdateCalcInfoRequestDTO request = new UpdateCalcInfoRequestDTO();
+        request.setId("12345");
+        request.setEnergyConsumption(200);
+        request.setSolidWasteTotal(40);
+        request.setRecyclePercentage(0.5);
+        request.setTransportation(List.of(createTransportationDTO("CAR", 100)));
+
+        CarbonCalculation existingCalculation = new CarbonCalculation();
+        existingCalculation.setId("12345");
+        existingCalculation.setUf("SP");
+        existingCalculation.setVersion(3);
+
+        when(carbonCalculationRepository.findAllById(any()))
+                .thenReturn(List.of(existingCalculation));
+        when(emissionFactorCatalog.current()).thenReturn(emissionFactors());
+        when(carbonCalculationRepository.bulkUpdateInfo(any()))
+                .thenReturn(Map.of(0, new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 0)));
+
+        List<BulkItemResponseDTO<UpdateCalcInfoResponseDTO>> result = carbonCalculationService
+                .updateInfos(List.of(request));
+
+        assertFalse(result.get(0).isSuccess());
+        assertEquals("Carbon Calculation 12345 is no longer at version 3", result.get(0).getMessage());
+        verify(ufEmissionRollupService).recordChanges(argThat(deltas -> deltas.isEmpty()));
+        verify(emissionPercentileService, never()).recordChange(any(), any(), anyDouble());
+        verify(monthlyEmissionService).recordAll(argThat(calculations -> calculations.isEmpty()));
+    }
+
+    @Test
+    void updateInfos_Applied_ShouldReturnTheNewVersion() {
+        UpdateCalcInfoRequestDTO request = new UpdateCalcInfoRequestDTO();
+        request.setId("12345");
+        request.setEnergyConsumption(200);
+
         CarbonCalculation existingCalculation = new CarbonCalculation();
-        existingCalculation.setId(calculationId);
+        existingCalculation.setId("12345");
         existingCalculation.setUf("SP");
+        existingCalculation.setVersion(3);
+
+        when(carbonCalculationRepository.findAllById(any()))
+                .thenReturn(List.of(existingCalculation));
+        when(emissionFactorCatalog.current()).thenReturn(emissionFactors());
+        when(carbonCalculationRepository.bulkUpdateInfo(any())).thenAnswer(invocation -> {
+            List<CarbonCalculation> calculations = invocation.getArgument(0);
+            calculations.forEach(calculation -> calculation.setVersion(calculation.getVersion() + 1));
+            return Map.of();
+        });
+
+        List<BulkItemResponseDTO<UpdateCalcInfoResponseDTO>> result = carbonCalculationService
+                .updateInfos(List.of(request));
+
+        assertTrue(result.get(0).isSuccess());
+        assertEquals(4L, result.get(0).getData().getVersion());
+        verify(carbonCalculationRepository).bulkUpdateInfo(argThat(calculations -> calculations.size() == 1));
+    }
 
+    @Test
+    void getCarbonCalculationResults_ShouldKeepRequestOrder() {
+        CarbonCalculation calculation = new CarbonCalculation();
+        calculation.setId("12345");
+        calculation.setEnergyEmission(97.234567);
+        calculation.setTransportationEmission(6.012345);
+        calculation.setSolidWasteEmission(21.345678);
+        calculation.setTotalEmission(124.592590);
+
+        when(carbonCalculationRepository.findEmissionsByIdIn(any()))
+                .thenReturn(List.of(calculation));
+
+        List<BulkItemResponseDTO<CarbonCalculationResultDTO>> result = carbonCalculationService
+                .getCarbonCalculationResults(List.of("nonexistent", "12345"));
+
+        assertFalse(result.get(0).isSuccess());
+        assertEquals(0, result.get(0).getIndex());
+        assertTrue(result.get(1).isSuccess());
+        assertEquals(124.59, result.get(1).getData().getTotal());
+    }
+
+    private EmissionFactorSnapshot emissionFactors() {
         EnergyEmissionFactor energyFactor = new EnergyEmissionFactor();
         energyFactor.setUf("SP");
         energyFactor.setFactor(0.47);
 
-        TransportationEmissionFactor carFactor = new TransportationEmissionFactor();
-        carFactor.setType(TransportationType.CAR);
-        carFactor.setFactor(0.19);
-
         SolidWasteEmissionFactor solidWasteFactor = new SolidWasteEmissionFactor();
         solidWasteFactor.setUf("SP");
         solidWasteFactor.setRecyclableFactor(0.42);
         solidWasteFactor.setNonRecyclableFactor(0.94);
 
-        when(carbonCalculationRepository.findById(calculationId))
-                .thenReturn(Optional.of(existingCalculation));
-        doNothing().when(recyclePercentageValidator).validate(0.5);
-        when(energyEmissionFactorRepository.findById("SP"))
-                .thenReturn(Optional.of(energyFactor));
-        when(transportationEmissionFactorRepository.findById(TransportationType.CAR))
-                .thenReturn(Optional.of(carFactor));
-        when(solidWasteEmissionFactorRepository.findById("SP"))
-                .thenReturn(Optional.of(solidWasteFactor));
-        when(carbonCalculationRepository.save(any(CarbonCalculation.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
-
-        carbonCalculationService.updateInfo(request);
-
-        verify(carbonCalculationRepository).save(argThat(saved -> {
-            assertEquals(94.0, saved.getEnergyEmission(), 0.001);
-
-            assertEquals(19.0, saved.getTransportationEmission(), 0.001);
-
-            assertEquals(27.2, saved.getSolidWasteEmission(), 0.001);
+        return EmissionFactorSnapshot.of(
+                List.of(energyFactor),
+                List.of(solidWasteFactor),
+                List.of(
+                        createTransportationFactor(TransportationType.CAR, 0.19),
+                        createTransportationFactor(TransportationType.PUBLIC_TRANSPORT, 0.04),
+                        createTransportationFactor(TransportationType.BICYCLE, 0.0)
+                ));
+    }
 
-            assertEquals(140.2, saved.getTotalEmission(), 0.001);
+    private TransportationEmissionFactor createTransportationFactor(TransportationType type, double factor) {
+        TransportationEmissionFactor transportationFactor = new TransportationEmissionFactor();
+        transportationFactor.setType(type);
+        transportationFactor.setFactor(factor);
+        return transportationFactor;
+    }
 
-            return true;
-        }));
+    private StartCalcRequestDTO createStartCalcRequest(String name, String email) {
+        StartCalcRequestDTO request = new StartCalcRequestDTO();
+        request.setName(name);
+        request.setEmail(email);
+        request.setUf("SP");
+        request.setPhoneNumber("11999999999");
+        return request;
     }
 
     private TransportationDTO createTransportationDTO(String type, int distance) {
@@ -722,4 +1019,10 @@ class CarbonCalculationServiceTest {
         dto.setMonthlyDistance(distance);
         return dto;
     }
-}
\ No newline at end of file
+
+    private CarbonCalculation previous(long version) {
+        CarbonCalculation previous = new CarbonCalculation();
+        previous.setVersion(version);
+        return previous;
+    }
+}
@@ -0,0 +1,115 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.dto.StartCalcRequestDTO;
+import br.com.actionlabs.carboncalc.exceptions.EmailAlreadyExists;
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.repository.memory.InMemoryCarbonCalculationRepository;
+import br.com.actionlabs.carboncalc.repository.memory.InMemoryEmailRegistrationRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailRegistryTest {
+
+    private final InMemoryCarbonCalculationRepository carbonCalculationRepository =
+            new InMemoryCarbonCalculationRepository();
+    private final InMemoryEmailRegistrationRepository emailRegistrationRepository =
+            new InMemoryEmailRegistrationRepository(carbonCalculationRepository);
+
+    @Test
+    void register_EmailHeldByAnotherCalculation_ShouldThrow() {
+        EmailRegistry emailRegistry = emailRegistry(Duration.ofMinutes(5));
+        CarbonCalculation first = calculation("joao@email.com");
+        carbonCalculationRepository.insert(first);
+        emailRegistry.register(first);
+
+        assertThrows(EmailAlreadyExists.class, () -> emailRegistry.register(calculation("JOAO@email.com")));
+        assertEquals(first.getId(),
+                emailRegistrationRepository.findById("joao@email.com").orElseThrow().getCalculationId());
+    }
+
+    @Test
+    void register_SameCalculationTwice_ShouldBeIdempotent() {
+        EmailRegistry emailRegistry = emailRegistry(Duration.ofMinutes(5));
+        CarbonCalculation calculation = calculation("joao@email.com");
+
+        emailRegistry.register(calculation);
+        emailRegistry.register(calculation);
+
+        assertEquals(1, emailRegistrationRepository.count());
+    }
+
+    @Test
+    void register_OrphanRegistration_ShouldBeTakenOver() {
+        EmailRegistry emailRegistry = emailRegistry(Duration.ZERO);
+        CarbonCalculation crashed = calculation("joao@email.com");
+        emailRegistry.register(crashed);
+
+        CarbonCalculation retried = calculation("joao@email.com");
+        emailRegistry.register(retried);
+
+        assertEquals(retried.getId(),
+                emailRegistrationRepository.findById("joao@email.com").orElseThrow().getCalculationId());
+    }
+
+    @Test
+    void registerAll_ShouldReturnTheIndexesOfTakenEmails() {
+        EmailRegistry emailRegistry = emailRegistry(Duration.ofMinutes(5));
+        CarbonCalculation existing = calculation("maria@email.com");
+        carbonCalculationRepository.insert(existing);
+        emailRegistry.register(existing);
+
+        Set<Integer> taken = emailRegistry.registerAll(List.of(
+                calculation("joao@email.com"),
+                calculation("maria@email.com"),
+                calculation("ana@email.com")));
+
+        assertEquals(Set.of(1), taken);
+        assertEquals(3, emailRegistrationRepository.count());
+    }
+
+    @Test
+    void release_ShouldOnlyFreeTheCalculationsOwnRegistration() {
+        EmailRegistry emailRegistry = emailRegistry(Duration.ofMinutes(5));
+        CarbonCalculation owner = calculation("joao@email.com");
+        emailRegistry.register(owner);
+
+        emailRegistry.release(calculation("joao@email.com"));
+        assertTrue(emailRegistrationRepository.existsById("joao@email.com"));
+
+        emailRegistry.release(owner);
+        assertFalse(emailRegistrationRepository.existsById("joao@email.com"));
+    }
+
+    @Test
+    void registerAll_WhenDisabled_ShouldNotTouchTheRegistry() {
+        EmailRegistry emailRegistry = new EmailRegistry(emailRegistrationRepository, carbonCalculationRepository,
+                false, Duration.ofMinutes(5));
+
+        assertEquals(Set.of(), emailRegistry.registerAll(List.of(calculation("joao@email.com"))));
+        emailRegistry.backfill();
+
+        assertEquals(0, emailRegistrationRepository.count());
+    }
+
+    private EmailRegistry emailRegistry(Duration orphanAfter) {
+        return new EmailRegistry(emailRegistrationRepository, carbonCalculationRepository, true, orphanAfter);
+    }
+
+    private static CarbonCalculation calculation(String email) {
+        StartCalcRequestDTO request = new StartCalcRequestDTO();
+        request.setName("João Silva");
+        request.setEmail(email);
+        request.setUf("SP");
+        request.setPhoneNumber("11999999999");
+
+        CarbonCalculation calculation = CarbonCalculationService.newCarbonCalculation(request);
+        calculation.setId(new ObjectId().toHexString());
+        return calculation;
+    }
+}
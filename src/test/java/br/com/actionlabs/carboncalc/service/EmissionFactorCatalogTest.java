@@ -0,0 +1,96 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+import br.com.actionlabs.carboncalc.exceptions.EnergyEmissionFactorNotFoundException;
+import br.com.actionlabs.carboncalc.model.EnergyEmissionFactor;
+import br.com.actionlabs.carboncalc.model.SolidWasteEmissionFactor;
+import br.com.actionlabs.carboncalc.model.TransportationEmissionFactor;
+import br.com.actionlabs.carboncalc.repository.EnergyEmissionFactorRepository;
+import br.com.actionlabs.carboncalc.repository.SolidWasteEmissionFactorRepository;
+import br.com.actionlabs.carboncalc.repository.TransportationEmissionFactorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmissionFactorCatalogTest {
+
+    @Mock
+    private EnergyEmissionFactorRepository energyEmissionFactorRepository;
+
+    @Mock
+    private SolidWasteEmissionFactorRepository solidWasteEmissionFactorRepository;
+
+    @Mock
+    private TransportationEmissionFactorRepository transportationEmissionFactorRepository;
+
+    private EmissionFactorCatalog emissionFactorCatalog;
+
+    @BeforeEach
+    void setUp() {
+        emissionFactorCatalog = new EmissionFactorCatalog(energyEmissionFactorRepository,
+                solidWasteEmissionFactorRepository, transportationEmissionFactorRepository);
+    }
+
+    @Test
+    void reload_ShouldServeTheStoredFactors() {
+        when(energyEmissionFactorRepository.findAll()).thenReturn(List.of(energyFactor("SP", 0.47)));
+        when(solidWasteEmissionFactorRepository.findAll()).thenReturn(List.of(solidWasteFactor("SP", 0.42, 0.94)));
+        when(transportationEmissionFactorRepository.findAll())
+                .thenReturn(List.of(transportationFactor(TransportationType.CAR, 0.19)));
+
+        emissionFactorCatalog.reload();
+
+        EmissionFactorSnapshot snapshot = emissionFactorCatalog.current();
+        assertEquals(0.47, snapshot.energyFactor("SP"));
+        assertEquals(0.42, snapshot.recyclableFactor("SP"));
+        assertEquals(0.94, snapshot.nonRecyclableFactor("SP"));
+        assertEquals(0.19, snapshot.transportationFactor(TransportationType.CAR));
+        assertThrows(EnergyEmissionFactorNotFoundException.class, () -> snapshot.energyFactor("RJ"));
+    }
+
+    @Test
+    void reload_ChangedFactors_ShouldReplaceTheSnapshotWithoutTouchingTheEarlierOne() {
+        when(energyEmissionFactorRepository.findAll())
+                .thenReturn(List.of(energyFactor("SP", 0.47)))
+                .thenReturn(List.of(energyFactor("SP", 0.5)));
+        when(solidWasteEmissionFactorRepository.findAll()).thenReturn(List.of());
+        when(transportationEmissionFactorRepository.findAll()).thenReturn(List.of());
+
+        emissionFactorCatalog.reload();
+        EmissionFactorSnapshot earlier = emissionFactorCatalog.current();
+        emissionFactorCatalog.reload();
+
+        assertEquals(0.47, earlier.energyFactor("SP"));
+        assertEquals(0.5, emissionFactorCatalog.current().energyFactor("SP"));
+    }
+
+    private EnergyEmissionFactor energyFactor(String uf, double factor) {
+        EnergyEmissionFactor energyFactor = new EnergyEmissionFactor();
+        energyFactor.setUf(uf);
+        energyFactor.setFactor(factor);
+        return energyFactor;
+    }
+
+    private SolidWasteEmissionFactor solidWasteFactor(String uf, double recyclable, double nonRecyclable) {
+        SolidWasteEmissionFactor solidWasteFactor = new SolidWasteEmissionFactor();
+        solidWasteFactor.setUf(uf);
+        solidWasteFactor.setRecyclableFactor(recyclable);
+        solidWasteFactor.setNonRecyclableFactor(nonRecyclable);
+        return solidWasteFactor;
+    }
+
+    private TransportationEmissionFactor transportationFactor(TransportationType type, double factor) {
+        TransportationEmissionFactor transportationFactor = new TransportationEmissionFactor();
+        transportationFactor.setType(type);
+        transportationFactor.setFactor(factor);
+        return transportationFactor;
+    }
+}
@@ -0,0 +1,97 @@
+package br.com.actionlabs.carboncalc.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmissionFactorChangeStreamWatcherTest {
+
+    private static final int CHANGE_STREAM_NOT_SUPPORTED = 40573;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoDatabase database;
+
+    @Mock
+    private ChangeStreamIterable<Document> changeStream;
+
+    @Mock
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+
+    @Mock
+    private ChangeStreamDocument<Document> change;
+
+    @Mock
+    private EmissionFactorCatalog emissionFactorCatalog;
+
+    private EmissionFactorChangeStreamWatcher watcher;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.getDb()).thenReturn(database);
+        when(database.watch(anyList())).thenReturn(changeStream);
+        when(changeStream.cursor()).thenReturn(cursor);
+
+        watcher = new EmissionFactorChangeStreamWatcher(mongoTemplate, emissionFactorCatalog);
+    }
+
+    @AfterEach
+    void tearDown() {
+        watcher.stop();
+    }
+
+    @Test
+    void start_ShouldReloadOnceTheStreamIsOpen() {
+        when(cursor.next()).thenThrow(notSupported());
+
+        watcher.start();
+
+        verify(cursor, timeout(1000)).next();
+
+        // the catalog loaded before the stream opened, so an edit made in between is only seen by this reload
+        InOrder inOrder = inOrder(changeStream, emissionFactorCatalog, cursor);
+        inOrder.verify(changeStream).cursor();
+        inOrder.verify(emissionFactorCatalog).reload();
+        inOrder.verify(cursor).next();
+    }
+
+    @Test
+    void start_FactorChanged_ShouldReloadTheCatalog() {
+        when(cursor.next())
+                .thenReturn(change)
+                .thenThrow(notSupported());
+
+        watcher.start();
+
+        verify(emissionFactorCatalog, timeout(1000).times(2)).reload();
+        verify(cursor, timeout(1000).times(2)).next();
+    }
+
+    private MongoCommandException notSupported() {
+        BsonDocument response = new BsonDocument("ok", new BsonInt32(0))
+                .append("code", new BsonInt32(CHANGE_STREAM_NOT_SUPPORTED))
+                .append("errmsg", new BsonString("The $changeStream stage is only supported on replica sets"));
+        return new MongoCommandException(response, new ServerAddress());
+    }
+}
@@ -0,0 +1,68 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmissionKernelTest {
+
+    @Test
+    void solidWasteEmission_ShouldSplitWasteByRecyclePercentage() {
+        assertEquals(50 * 0.3 * 0.42 + 50 * 0.7 * 0.94, EmissionKernel.solidWasteEmission(50, 0.3, 0.42, 0.94));
+        assertEquals(50 * 0.94, EmissionKernel.solidWasteEmission(50, 0, 0.42, 0.94));
+        assertEquals(50 * 0.42, EmissionKernel.solidWasteEmission(50, 1, 0.42, 0.94));
+    }
+
+    @Test
+    void compute_ShouldMatchTheScalarFormulas() {
+        EmissionBatch batch = new EmissionBatch(2);
+        batch.setEnergy(0, 300, 0.47);
+        batch.setSolidWaste(0, 50, 0.3, 0.42, 0.94);
+        batch.addDistance(0, TransportationType.CAR, 150);
+        batch.addDistance(0, TransportationType.PUBLIC_TRANSPORT, 200);
+        batch.setEnergy(1, 100, 0.1);
+        batch.setSolidWaste(1, 10, 1, 0.5, 2);
+        batch.setTransportationFactor(TransportationType.CAR, 0.19);
+        batch.setTransportationFactor(TransportationType.PUBLIC_TRANSPORT, 0.04);
+
+        EmissionKernel.compute(batch, Integer.MAX_VALUE);
+
+        double transportation = 150 * 0.19 + 200 * 0.04;
+        double solidWaste = EmissionKernel.solidWasteEmission(50, 0.3, 0.42, 0.94);
+        assertEquals(300 * 0.47, batch.energyEmission(0));
+        assertEquals(transportation, batch.transportationEmission(0), 1e-9);
+        assertEquals(solidWaste, batch.solidWasteEmission(0));
+        assertEquals(300 * 0.47 + transportation + solidWaste, batch.totalEmission(0), 1e-9);
+
+        assertEquals(0.0, batch.transportationEmission(1));
+        assertEquals(10 * 0.1 + 5.0, batch.totalEmission(1), 1e-9);
+    }
+
+    @Test
+    void compute_LargeBatch_ShouldMatchSequentialResults() {
+        int size = 10_000;
+        EmissionBatch parallel = randomBatch(size, new Random(42));
+        EmissionBatch sequential = randomBatch(size, new Random(42));
+
+        EmissionKernel.compute(parallel, 512);
+        EmissionKernel.compute(sequential, Integer.MAX_VALUE);
+
+        for (int row = 0; row < size; row++) {
+            assertEquals(sequential.totalEmission(row), parallel.totalEmission(row), "row " + row);
+        }
+    }
+
+    private static EmissionBatch randomBatch(int size, Random random) {
+        EmissionBatch batch = new EmissionBatch(size);
+        for (int row = 0; row < size; row++) {
+            batch.setEnergy(row, random.nextInt(1000), 0.47);
+            batch.setSolidWaste(row, random.nextInt(100), random.nextDouble(), 0.42, 0.94);
+            batch.addDistance(row, TransportationType.CAR, random.nextInt(500));
+        }
+        batch.setTransportationFactor(TransportationType.CAR, 0.19);
+        return batch;
+    }
+}
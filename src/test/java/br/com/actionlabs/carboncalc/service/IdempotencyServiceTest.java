@@ -0,0 +1,132 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.dto.StartCalcResponseDTO;
+import br.com.actionlabs.carboncalc.exceptions.EmailAlreadyExists;
+import br.com.actionlabs.carboncalc.exceptions.IdempotencyKeyReusedException;
+import br.com.actionlabs.carboncalc.exceptions.InvalidIdempotencyKeyException;
+import br.com.actionlabs.carboncalc.repository.memory.InMemoryIdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyServiceTest {
+
+    private final InMemoryIdempotencyRecordRepository idempotencyRecordRepository =
+            new InMemoryIdempotencyRecordRepository();
+
+    private final IdempotencyService idempotencyService = newService();
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void execute_SameKey_ShouldReplayWithoutRunningAgain() {
+        StartCalcResponseDTO first = startCalc("key-1", "joao@email.com");
+        StartCalcResponseDTO replayed = startCalc("key-1", "joao@email.com");
+
+        assertEquals(first, replayed);
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_AfterRestart_ShouldReplayFromTheRepository() {
+        StartCalcResponseDTO first = startCalc("key-1", "joao@email.com");
+
+        StartCalcResponseDTO replayed = newService().execute("start-calc", "key-1", "joao@email.com",
+                StartCalcResponseDTO.class, () -> fail("must not run again"));
+
+        assertEquals(first, replayed);
+    }
+
+    @Test
+    void execute_SameKeyWithOtherRequest_ShouldThrowIdempotencyKeyReusedException() {
+        startCalc("key-1", "joao@email.com");
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> startCalc("key-1", "maria@email.com"));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_FailedRequest_ShouldReleaseTheKey() {
+        assertThrows(EmailAlreadyExists.class, () -> idempotencyService.execute("start-calc", "key-1",
+                "joao@email.com", StartCalcResponseDTO.class, () -> {
+                    throw new EmailAlreadyExists();
+                }));
+
+        startCalc("key-1", "joao@email.com");
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_WithoutKey_ShouldAlwaysRun() {
+        idempotencyService.execute("start-calc", null, "joao@email.com", StartCalcResponseDTO.class, this::created);
+        idempotencyService.execute("start-calc", null, "joao@email.com", StartCalcResponseDTO.class, this::created);
+
+        assertEquals(2, executions.get());
+        assertEquals(0, idempotencyRecordRepository.count());
+    }
+
+    @Test
+    void execute_TooLongKey_ShouldThrowInvalidIdempotencyKeyException() {
+        String key = "k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1);
+
+        assertThrows(InvalidIdempotencyKeyException.class, () -> startCalc(key, "joao@email.com"));
+    }
+
+    @Test
+    void execute_ConcurrentRequests_ShouldRunOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<StartCalcResponseDTO> first = executor.submit(() -> idempotencyService.execute("start-calc",
+                    "key-1", "joao@email.com", StartCalcResponseDTO.class, () -> {
+                        started.countDown();
+                        awaitUninterruptibly(release);
+                        return created();
+                    }));
+            started.await();
+
+            Future<StartCalcResponseDTO> second = executor.submit(() -> startCalc("key-1", "joao@email.com"));
+            release.countDown();
+
+            assertEquals(first.get(), second.get());
+        }
+
+        assertEquals(1, executions.get());
+        assertEquals(List.of(), idempotencyRecordRepository.findAll().stream()
+                .filter(record -> !record.isCompleted()).toList());
+    }
+
+    private StartCalcResponseDTO startCalc(String key, String email) {
+        return idempotencyService.execute("start-calc", key, email, StartCalcResponseDTO.class, this::created);
+    }
+
+    private StartCalcResponseDTO created() {
+        StartCalcResponseDTO dto = new StartCalcResponseDTO();
+        dto.setId("id-" + executions.incrementAndGet());
+        return dto;
+    }
+
+    private IdempotencyService newService() {
+        return new IdempotencyService(idempotencyRecordRepository, new ObjectMapper(),
+                Duration.ofHours(24), Duration.ofMinutes(1), 1000);
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
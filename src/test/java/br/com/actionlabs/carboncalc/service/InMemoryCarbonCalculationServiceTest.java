@@ -0,0 +1,220 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.dto.*;
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+import br.com.actionlabs.carboncalc.exceptions.EmailAlreadyExists;
+import br.com.actionlabs.carboncalc.repository.memory.*;
+import br.com.actionlabs.carboncalc.utils.CalculationRequestValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the real service against the in-memory repositories, seeded with the emission factors of
+ * {@code init-mongo.js}.
+ */
+class InMemoryCarbonCalculationServiceTest {
+
+    private CarbonCalculationService carbonCalculationService;
+    private UfEmissionRollupService ufEmissionRollupService;
+    private EmissionPercentileService emissionPercentileService;
+    private MonthlyEmissionService monthlyEmissionService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        InitMongoScript initMongoScript = new InitMongoScript(new FileSystemResource("init-mongo.js"), new ObjectMapper());
+        InMemoryCarbonCalculationRepository carbonCalculationRepository = new InMemoryCarbonCalculationRepository();
+
+        EmissionFactorCatalog emissionFactorCatalog = new EmissionFactorCatalog(
+                new InMemoryEnergyEmissionFactorRepository(initMongoScript),
+                new InMemorySolidWasteEmissionFactorRepository(initMongoScript),
+                new InMemoryTransportationEmissionFactorRepository(initMongoScript));
+        emissionFactorCatalog.reload();
+
+        CalculationEventLog calculationEventLog = new CalculationEventLog(new InMemoryCalculationEventRepository(),
+                carbonCalculationRepository, false, 20);
+
+        ufEmissionRollupService = new UfEmissionRollupService(
+                new InMemoryUfEmissionRollupRepository(carbonCalculationRepository), calculationEventLog,
+                new JobLockService(new InMemoryJobLockRepository(), Duration.ofHours(1)), 1000);
+
+        emissionPercentileService = new EmissionPercentileService(new InMemoryEmissionSketchRepository(),
+                calculationEventLog, new JobLockService(new InMemoryJobLockRepository(), Duration.ofHours(1)), true,
+                1000);
+
+        monthlyEmissionService = new MonthlyEmissionService(new InMemoryMonthlyEmissionRepository(),
+                new InMemoryMonthlyUfRollupRepository(), carbonCalculationRepository, true, 120, 100000);
+
+        EmailRegistry emailRegistry = new EmailRegistry(
+                new InMemoryEmailRegistrationRepository(carbonCalculationRepository), carbonCalculationRepository,
+                false, Duration.ofMinutes(5));
+
+        carbonCalculationService = new CarbonCalculationService(
+                carbonCalculationRepository,
+                emissionFactorCatalog,
+                new CalculationUfCache(1000),
+                new CalculationResultCache(1000, Duration.ofMinutes(10)),
+                ufEmissionRollupService,
+                new CalculationPhaseMetrics(new SimpleMeterRegistry()),
+                new CalculationWriteBehind(carbonCalculationRepository, emailRegistry, new ObjectMapper(), false,
+                        "write-behind", DataSize.ofMegabytes(64), 500, 1000, Duration.ofMillis(100),
+                        Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofHours(1)),
+                calculationEventLog,
+                emailRegistry,
+                emissionPercentileService,
+                monthlyEmissionService,
+                new CalculationRequestValidator());
+    }
+
+    @Test
+    void startUpdateAndResult_ShouldUseTheSeededFactors() {
+        String id = carbonCalculationService.startCalculation(startRequest("joao@email.com"));
+
+        UpdateCalcInfoResponseDTO updated = carbonCalculationService.updateInfo(infoRequest(id, 300));
+        CarbonCalculationResultDTO result = carbonCalculationService.getCarbonCalculationResult(id);
+
+        assertEquals(1L, updated.getVersion());
+        assertEquals(141.0, result.getEnergy());
+        assertEquals(28.5, result.getTransportation());
+        assertEquals(39.2, result.getSolidWaste());
+        assertEquals(208.7, result.getTotal());
+    }
+
+    @Test
+    void startCalculation_SameEmailWithOtherCase_ShouldThrowEmailAlreadyExists() {
+        carbonCalculationService.startCalculation(startRequest("joao@email.com"));
+
+        assertThrows(EmailAlreadyExists.class,
+                () -> carbonCalculationService.startCalculation(startRequest("JOAO@email.com")));
+    }
+
+    @Test
+    void updateInfo_Twice_ShouldKeepTheRollupEqualToARebuild() {
+        String first = carbonCalculationService.startCalculation(startRequest("joao@email.com"));
+        String second = carbonCalculationService.startCalculation(startRequest("maria@email.com"));
+
+        carbonCalculationService.updateInfo(infoRequest(first, 300));
+        carbonCalculationService.updateInfo(infoRequest(first, 100));
+        carbonCalculationService.updateInfo(infoRequest(second, 200));
+
+        List<UfEmissionRollupDTO> incremental = ufEmissionRollupService.getRollups();
+        ufEmissionRollupService.reconcile();
+
+        assertEquals(1, incremental.size());
+        assertEquals(2, incremental.get(0).getCount());
+        assertEquals(141.0, incremental.get(0).getTotal().getEnergy());
+        assertEquals(incremental, ufEmissionRollupService.getRollups());
+    }
+
+    @Test
+    void getCarbonCalculationResult_ShouldRankTheTotalAgainstTheOtherCalculations() {
+        String low = carbonCalculationService.startCalculation(startRequest("joao@email.com"));
+        String middle = carbonCalculationService.startCalculation(startRequest("maria@email.com"));
+        String high = carbonCalculationService.startCalculation(startRequest("ana@email.com"));
+
+        carbonCalculationService.updateInfo(infoRequest(low, 100));
+        carbonCalculationService.updateInfo(infoRequest(middle, 200));
+        carbonCalculationService.updateInfo(infoRequest(high, 300));
+
+        assertEquals(50.0, carbonCalculationService.getCarbonCalculationResult(middle).getPercentile());
+        assertEquals(50.0, carbonCalculationService.getCarbonCalculationResult(middle).getNationalPercentile());
+
+        // the previous total of an updated calculation no longer counts
+        carbonCalculationService.updateInfo(infoRequest(low, 400));
+        emissionPercentileService.merge();
+
+        assertEquals(1 / 6.0 * 100, carbonCalculationService.getCarbonCalculationResult(middle).getPercentile(),
+                1e-9);
+        assertEquals(5 / 6.0 * 100, carbonCalculationService.getCarbonCalculationResult(low).getPercentile(),
+                1e-9);
+    }
+
+    @Test
+    void rebuild_ShouldMatchTheMergedSketches() {
+        String first = carbonCalculationService.startCalculation(startRequest("joao@email.com"));
+        String second = carbonCalculationService.startCalculation(startRequest("maria@email.com"));
+        carbonCalculationService.updateInfo(infoRequest(first, 300));
+        carbonCalculationService.updateInfo(infoRequest(first, 100));
+        carbonCalculationService.updateInfo(infoRequest(second, 200));
+
+        emissionPercentileService.merge();
+        CarbonCalculationResultDTO merged = carbonCalculationService.getCarbonCalculationResult(first);
+        emissionPercentileService.rebuild();
+
+        assertEquals(25.0, merged.getPercentile());
+        assertEquals(merged, carbonCalculationService.getCarbonCalculationResult(first));
+    }
+
+    @Test
+    void getRankGeneration_ShouldOnlyChangeWithARebuild() {
+        String first = carbonCalculationService.startCalculation(startRequest("joao@email.com"));
+        String second = carbonCalculationService.startCalculation(startRequest("maria@email.com"));
+        carbonCalculationService.updateInfo(infoRequest(first, 300));
+        emissionPercentileService.merge();
+        String before = carbonCalculationService.getRankGeneration();
+
+        carbonCalculationService.updateInfo(infoRequest(second, 200));
+        emissionPercentileService.merge();
+        String merged = carbonCalculationService.getRankGeneration();
+        emissionPercentileService.rebuild();
+
+        assertNotNull(before);
+        assertEquals(before, merged);
+        assertNotEquals(merged, carbonCalculationService.getRankGeneration());
+    }
+
+    @Test
+    void updateInfo_TwiceInAMonth_ShouldTrendTheLastUpdate() {
+        String first = carbonCalculationService.startCalculation(startRequest("joao@email.com"));
+        String second = carbonCalculationService.startCalculation(startRequest("maria@email.com"));
+        carbonCalculationService.updateInfo(infoRequest(first, 300));
+        CarbonCalculationResultDTO last = carbonCalculationService.updateInfo(infoRequest(first, 100)).getResult();
+        carbonCalculationService.updateInfos(List.of(infoRequest(second, 200)));
+
+        monthlyEmissionService.flush();
+
+        YearMonth month = YearMonth.now(ZoneOffset.UTC);
+        List<MonthlyEmissionDTO> trend = monthlyEmissionService.getTrend(first, month, month);
+        List<MonthlyUfRollupDTO> rollups = monthlyEmissionService.getUfRollups(month, month, null);
+
+        assertEquals(1, trend.size());
+        assertEquals(last.getTotal(), trend.get(0).getResult().getTotal());
+        assertEquals(1, rollups.size());
+        assertEquals(2, rollups.get(0).getCount());
+        assertEquals(141.0, rollups.get(0).getTotal().getEnergy());
+    }
+
+    private StartCalcRequestDTO startRequest(String email) {
+        StartCalcRequestDTO request = new StartCalcRequestDTO();
+        request.setName("João Silva");
+        request.setEmail(email);
+        request.setUf("SP");
+        request.setPhoneNumber("11999999999");
+        return request;
+    }
+
+    private UpdateCalcInfoRequestDTO infoRequest(String id, int energyConsumption) {
+        TransportationDTO car = new TransportationDTO();
+        car.setType(TransportationType.CAR);
+        car.setMonthlyDistance(150);
+
+        UpdateCalcInfoRequestDTO request = new UpdateCalcInfoRequestDTO();
+        request.setId(id);
+        request.setEnergyConsumption(energyConsumption);
+        request.setSolidWasteTotal(50);
+        request.setRecyclePercentage(0.3);
+        request.setTransportation(List.of(car));
+        return request;
+    }
+}
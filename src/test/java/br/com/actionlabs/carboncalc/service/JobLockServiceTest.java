@@ -0,0 +1,37 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.repository.memory.InMemoryJobLockRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobLockServiceTest {
+
+    private final InMemoryJobLockRepository jobLockRepository = new InMemoryJobLockRepository();
+    private final JobLockService first = new JobLockService(jobLockRepository, Duration.ofHours(1));
+    private final JobLockService second = new JobLockService(jobLockRepository, Duration.ofHours(1));
+
+    @Test
+    void tryAcquire_HeldByAnotherInstance_ShouldSkip() {
+        assertTrue(first.tryAcquire("rebuild"));
+        assertFalse(second.tryAcquire("rebuild"));
+        assertTrue(second.tryAcquire("reconcile"));
+    }
+
+    @Test
+    void tryAcquire_HeldByTheSameInstance_ShouldExtendTheLease() {
+        assertTrue(first.tryAcquire("rebuild"));
+        assertTrue(first.tryAcquire("rebuild"));
+        assertFalse(second.tryAcquire("rebuild"));
+    }
+
+    @Test
+    void tryAcquire_ExpiredLease_ShouldMoveToAnotherInstance() {
+        assertTrue(first.tryAcquire("rebuild", Duration.ofMillis(-1)));
+
+        assertTrue(second.tryAcquire("rebuild"));
+        assertFalse(first.tryAcquire("rebuild"));
+    }
+}
@@ -0,0 +1,133 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.dto.MonthlyEmissionDTO;
+import br.com.actionlabs.carboncalc.dto.MonthlyUfRollupDTO;
+import br.com.actionlabs.carboncalc.exceptions.CarbonCalculationNotFoundException;
+import br.com.actionlabs.carboncalc.exceptions.InvalidMonthRangeException;
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.model.MonthlyEmissionPoint;
+import br.com.actionlabs.carboncalc.repository.memory.InMemoryCarbonCalculationRepository;
+import br.com.actionlabs.carboncalc.repository.memory.InMemoryMonthlyEmissionRepository;
+import br.com.actionlabs.carboncalc.repository.memory.InMemoryMonthlyUfRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonthlyEmissionServiceTest {
+
+    private InMemoryMonthlyEmissionRepository monthlyEmissionRepository;
+    private InMemoryCarbonCalculationRepository carbonCalculationRepository;
+    private MonthlyEmissionService monthlyEmissionService;
+
+    @BeforeEach
+    void setUp() {
+        monthlyEmissionRepository = new InMemoryMonthlyEmissionRepository();
+        carbonCalculationRepository = new InMemoryCarbonCalculationRepository();
+        monthlyEmissionService = new MonthlyEmissionService(monthlyEmissionRepository,
+                new InMemoryMonthlyUfRollupRepository(), carbonCalculationRepository, true, 120, 100000);
+    }
+
+    @Test
+    void getTrend_ShouldTakeTheLastPointOfEachMonthWithItsYearOverYearDelta() {
+        record("a", "SP", "2024-03-10T12:00:00Z", 100.0);
+        record("a", "SP", "2025-03-01T00:00:00Z", 90.0);
+        record("a", "SP", "2025-03-31T23:59:59Z", 80.0);
+        record("a", "SP", "2025-04-15T08:00:00Z", 70.0);
+        record("b", "SP", "2025-03-15T08:00:00Z", 500.0);
+
+        List<MonthlyEmissionDTO> trend = monthlyEmissionService.getTrend("a", YearMonth.of(2025, 1),
+                YearMonth.of(2025, 12));
+
+        assertEquals(List.of(YearMonth.of(2025, 3), YearMonth.of(2025, 4)),
+                trend.stream().map(MonthlyEmissionDTO::getMonth).toList());
+        assertEquals(80.0, trend.get(0).getResult().getTotal());
+        assertEquals(-20.0, trend.get(0).getYearOverYearDelta().getTotal());
+        assertNull(trend.get(1).getYearOverYearDelta());
+    }
+
+    @Test
+    void getUfRollups_ShouldCountEachCalculationOncePerMonth() {
+        record("a", "SP", "2025-03-01T00:00:00Z", 90.0);
+        record("a", "SP", "2025-03-20T00:00:00Z", 80.0);
+        record("b", "SP", "2025-03-15T08:00:00Z", 40.0);
+        record("c", "RJ", "2025-03-15T08:00:00Z", 10.0);
+        record("c", "RJ", "2025-05-02T08:00:00Z", 30.0);
+
+        monthlyEmissionService.refresh(YearMonth.of(2025, 1), YearMonth.of(2025, 12));
+        List<MonthlyUfRollupDTO> rollups = monthlyEmissionService.getUfRollups(YearMonth.of(2025, 3),
+                YearMonth.of(2025, 4), null);
+
+        assertEquals(List.of("RJ", "SP"), rollups.stream().map(MonthlyUfRollupDTO::getUf).toList());
+        assertEquals(2, rollups.get(1).getCount());
+        assertEquals(120.0, rollups.get(1).getTotal().getTotal());
+        assertEquals(60.0, rollups.get(1).getAverage().getTotal());
+        assertEquals(1, monthlyEmissionService.getUfRollups(YearMonth.of(2025, 1), YearMonth.of(2025, 12), "RJ")
+                .stream().filter(rollup -> rollup.getMonth().equals(YearMonth.of(2025, 5))).count());
+    }
+
+    @Test
+    void flush_ShouldReplaceTheEarlierPointOfTheMonthInTheRollup() {
+        monthlyEmissionService.record(calculation("a", "SP", 90.0));
+        monthlyEmissionService.record(calculation("b", "SP", 40.0));
+        monthlyEmissionService.flush();
+        monthlyEmissionService.record(calculation("a", "SP", 80.0));
+        monthlyEmissionService.record(calculation("a", "SP", 70.0));
+        monthlyEmissionService.flush();
+
+        YearMonth month = YearMonth.now(ZoneOffset.UTC);
+        List<MonthlyUfRollupDTO> rollups = monthlyEmissionService.getUfRollups(month, month, null);
+
+        assertEquals(1, rollups.size());
+        assertEquals(2, rollups.get(0).getCount());
+        assertEquals(110.0, rollups.get(0).getTotal().getTotal());
+        assertEquals(70.0, monthlyEmissionService.getTrend("a", month, month).get(0).getResult().getTotal());
+    }
+
+    @Test
+    void record_BeyondMaxPending_ShouldDropThePoint() {
+        monthlyEmissionService = new MonthlyEmissionService(monthlyEmissionRepository,
+                new InMemoryMonthlyUfRollupRepository(), carbonCalculationRepository, true, 120, 1);
+
+        monthlyEmissionService.record(calculation("a", "SP", 90.0));
+        monthlyEmissionService.record(calculation("b", "SP", 40.0));
+        monthlyEmissionService.flush();
+
+        assertEquals(1, monthlyEmissionRepository.count());
+    }
+
+    @Test
+    void getTrend_UnknownCalculation_ShouldThrowNotFound() {
+        assertThrows(CarbonCalculationNotFoundException.class,
+                () -> monthlyEmissionService.getTrend("missing", YearMonth.of(2025, 1), YearMonth.of(2025, 12)));
+    }
+
+    @Test
+    void getTrend_InvalidRange_ShouldThrowInvalidMonthRange() {
+        assertThrows(InvalidMonthRangeException.class,
+                () -> monthlyEmissionService.getTrend("a", YearMonth.of(2025, 2), YearMonth.of(2025, 1)));
+        assertThrows(InvalidMonthRangeException.class,
+                () -> monthlyEmissionService.getTrend("a", YearMonth.of(2000, 1), YearMonth.of(2025, 1)));
+    }
+
+    private void record(String id, String uf, String recordedAt, double total) {
+        monthlyEmissionRepository.insert(MonthlyEmissionPoint.of(calculation(id, uf, total),
+                Instant.parse(recordedAt)));
+    }
+
+    private static CarbonCalculation calculation(String id, String uf, double total) {
+        CarbonCalculation calculation = new CarbonCalculation();
+        calculation.setId(id);
+        calculation.setUf(uf);
+        calculation.setEnergyEmission(total);
+        calculation.setTransportationEmission(0.0);
+        calculation.setSolidWasteEmission(0.0);
+        calculation.setTotalEmission(total);
+        return calculation;
+    }
+}
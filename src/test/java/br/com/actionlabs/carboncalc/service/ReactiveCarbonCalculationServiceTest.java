@@ -0,0 +1,315 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.dto.*;
+import br.com.actionlabs.carboncalc.model.*;
+import br.com.actionlabs.carboncalc.repository.CarbonCalculationRepository;
+import br.com.actionlabs.carboncalc.repository.reactive.ReactiveCarbonCalculationRepository;
+import br.com.actionlabs.carboncalc.repository.reactive.ReactiveUfEmissionRollupRepository;
+import br.com.actionlabs.carboncalc.utils.*;
+import br.com.actionlabs.carboncalc.exceptions.*;
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveCarbonCalculationServiceTest {
+
+    @Mock
+    private ReactiveCarbonCalculationRepository reactiveCarbonCalculationRepository;
+
+    @Mock
+    private ReactiveUfEmissionRollupRepository reactiveUfEmissionRollupRepository;
+
+    @Mock
+    private CarbonCalculationRepository carbonCalculationRepository;
+
+    @Mock
+    private EmissionFactorCatalog emissionFactorCatalog;
+
+    @Mock
+    private EmailRegistry emailRegistry;
+
+    @Mock
+    private CalculationEventLog calculationEventLog;
+
+    @Mock
+    private CalculationWriteBehind calculationWriteBehind;
+
+    @Mock
+    private EmissionPercentileService emissionPercentileService;
+
+    @Mock
+    private MonthlyEmissionService monthlyEmissionService;
+
+    private final CalculationUfCache calculationUfCache = new CalculationUfCache(1000);
+
+    private final CalculationResultCache calculationResultCache =
+            new CalculationResultCache(1000, Duration.ofMinutes(10));
+
+    private final CalculationRequestValidator calculationRequestValidator = new CalculationRequestValidator();
+
+    private CarbonCalculationService carbonCalculationService;
+
+    private ReactiveCarbonCalculationService reactiveCarbonCalculationService;
+
+    @BeforeEach
+    void setUp() {
+        carbonCalculationService = new CarbonCalculationService(
+                carbonCalculationRepository,
+                emissionFactorCatalog,
+                calculationUfCache,
+                calculationResultCache,
+                null,
+                new CalculationPhaseMetrics(new SimpleMeterRegistry()),
+                calculationWriteBehind,
+                calculationEventLog,
+                null,
+                emissionPercentileService,
+                monthlyEmissionService,
+                calculationRequestValidator);
+
+        reactiveCarbonCalculationService = newReactiveService();
+    }
+
+    private ReactiveCarbonCalculationService newReactiveService() {
+        return new ReactiveCarbonCalculationService(
+                reactiveCarbonCalculationRepository,
+                reactiveUfEmissionRollupRepository,
+                carbonCalculationService,
+                calculationUfCache,
+                calculationResultCache,
+                emailRegistry,
+                calculationEventLog,
+                calculationWriteBehind,
+                calculationRequestValidator);
+    }
+
+    @Test
+    void constructor_EventLogEnabled_ShouldRefuseToStart() {
+        when(calculationEventLog.isEnabled()).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, this::newReactiveService);
+    }
+
+    @Test
+    void constructor_WriteBehindEnabled_ShouldRefuseToStart() {
+        when(calculationWriteBehind.isEnabled()).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, this::newReactiveService);
+    }
+
+    @Test
+    void startCalculation_ValidRequest_ShouldReturnId() {
+        StartCalcRequestDTO request = createStartCalcRequest();
+
+        CarbonCalculation savedCalculation = new CarbonCalculation();
+        savedCalculation.setId("12345");
+        savedCalculation.setUf("SP");
+
+        when(reactiveCarbonCalculationRepository.insert(any(CarbonCalculation.class)))
+                .thenReturn(Mono.just(savedCalculation));
+
+        StepVerifier.create(reactiveCarbonCalculationService.startCalculation(request))
+                .expectNext("12345")
+                .verifyComplete();
+    }
+
+    @Test
+    void startCalculation_EmailAlreadyExists_ShouldMapDuplicateKey() {
+        StartCalcRequestDTO request = createStartCalcRequest();
+
+        when(reactiveCarbonCalculationRepository.insert(any(CarbonCalculation.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key error")));
+
+        StepVerifier.create(reactiveCarbonCalculationService.startCalculation(request))
+                .expectError(EmailAlreadyExists.class)
+                .verify();
+    }
+
+    @Test
+    void startCalculation_RegistryEnabled_ShouldRegisterBeforeInsertingAndReleaseOnFailure() {
+        StartCalcRequestDTO request = createStartCalcRequest();
+        RuntimeException failure = new RuntimeException("insert failed");
+
+        when(emailRegistry.isEnabled()).thenReturn(true);
+        when(reactiveCarbonCalculationRepository.insert(any(CarbonCalculation.class)))
+                .thenReturn(Mono.error(failure));
+
+        StepVerifier.create(reactiveCarbonCalculationService.startCalculation(request))
+                .expectErrorMatches(error -> error == failure)
+                .verify();
+
+        InOrder inOrder = inOrder(emailRegistry, reactiveCarbonCalculationRepository);
+        inOrder.verify(emailRegistry).register(argThat(calculation -> calculation.getId() != null));
+        inOrder.verify(reactiveCarbonCalculationRepository).insert(any(CarbonCalculation.class));
+        inOrder.verify(emailRegistry).release(any(CarbonCalculation.class));
+    }
+
+    @Test
+    void startCalculation_EmailRegisteredElsewhere_ShouldFailWithoutInserting() {
+        StartCalcRequestDTO request = createStartCalcRequest();
+
+        when(emailRegistry.isEnabled()).thenReturn(true);
+        doThrow(new EmailAlreadyExists()).when(emailRegistry).register(any(CarbonCalculation.class));
+
+        StepVerifier.create(reactiveCarbonCalculationService.startCalculation(request))
+                .expectError(EmailAlreadyExists.class)
+                .verify();
+
+        verify(reactiveCarbonCalculationRepository, never()).insert(any(CarbonCalculation.class));
+        verify(emailRegistry, never()).release(any(CarbonCalculation.class));
+    }
+
+    @Test
+    void startCalculation_InvalidRequest_ShouldFailWithoutInserting() {
+        StartCalcRequestDTO request = createStartCalcRequest();
+        request.setEmail("email-invalido");
+        request.setUf("sp");
+
+        StepVerifier.create(reactiveCarbonCalculationService.startCalculation(request))
+                .expectErrorSatisfies(error -> {
+                    RequestValidationException exception = assertInstanceOf(RequestValidationException.class, error);
+                    assertEquals(2, exception.getResult().getErrors().size());
+                })
+                .verify();
+
+        verify(reactiveCarbonCalculationRepository, never()).insert(any(CarbonCalculation.class));
+    }
+
+    @Test
+    void updateInfo_ValidRequest_ShouldCalculateAndWriteOnce() {
+        UpdateCalcInfoRequestDTO request = new UpdateCalcInfoRequestDTO();
+        request.setId("12345");
+        request.setEnergyConsumption(200);
+        request.setSolidWasteTotal(40);
+        request.setRecyclePercentage(0.5);
+        request.setTransportation(List.of(createTransportationDTO(TransportationType.CAR, 100)));
+
+        when(reactiveCarbonCalculationRepository.findUfById("12345"))
+                .thenReturn(Mono.just("SP"));
+        when(emissionFactorCatalog.current()).thenReturn(emissionFactors());
+        when(reactiveCarbonCalculationRepository.updateInfo(any(CarbonCalculation.class), isNull()))
+                .thenReturn(Mono.just(new CarbonCalculation()));
+        when(reactiveUfEmissionRollupRepository.applyDelta(any(EmissionDelta.class)))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(reactiveCarbonCalculationService.updateInfo(request, null))
+                .assertNext(response -> {
+                    assertEquals(1L, response.getVersion());
+                    assertEquals(140.2, response.getResult().getTotal(), 0.001);
+                })
+                .verifyComplete();
+
+        verify(reactiveCarbonCalculationRepository, never()).save(any());
+        verify(reactiveUfEmissionRollupRepository).applyDelta(argThat(delta -> "SP".equals(delta.uf())
+                && delta.count() == 1
+                && Math.abs(delta.totalEmission() - 140.2) < 0.001));
+        verify(emissionPercentileService).recordChange(eq("SP"), isNull(),
+                doubleThat(total -> Math.abs(total - 140.2) < 0.001));
+        verify(monthlyEmissionService).record(argThat(calculation -> "12345".equals(calculation.getId())
+                && calculation.getVersion() == 1L));
+    }
+
+    @Test
+    void updateInfo_StaleVersion_ShouldFailWithConflict() {
+        UpdateCalcInfoRequestDTO request = new UpdateCalcInfoRequestDTO();
+        request.setId("12345");
+
+        calculationUfCache.put("12345", "SP");
+
+        when(emissionFactorCatalog.current()).thenReturn(emissionFactors());
+        when(reactiveCarbonCalculationRepository.updateInfo(any(CarbonCalculation.class), eq(3L)))
+                .thenReturn(Mono.empty());
+        when(reactiveCarbonCalculationRepository.existsById("12345"))
+                .thenReturn(Mono.just(true));
+
+        StepVerifier.create(reactiveCarbonCalculationService.updateInfo(request, 3L))
+                .expectError(CalculationVersionConflictException.class)
+                .verify();
+
+        verifyNoInteractions(reactiveUfEmissionRollupRepository, emissionPercentileService, monthlyEmissionService);
+    }
+
+    @Test
+    void getCarbonCalculationResult_PercentilesEnabled_ShouldRankTheResult() {
+        CarbonCalculation stored = new CarbonCalculation();
+        stored.setId("12345");
+        stored.setUf("SP");
+        stored.setVersion(2L);
+        stored.setEnergyEmission(94.0);
+        stored.setTransportationEmission(20.0);
+        stored.setSolidWasteEmission(26.2);
+        stored.setTotalEmission(140.2);
+
+        when(reactiveCarbonCalculationRepository.findEmissionsById("12345")).thenReturn(Mono.just(stored));
+        when(emissionPercentileService.isEnabled()).thenReturn(true);
+        when(emissionPercentileService.percentile("SP", 140.2)).thenReturn(40.0);
+        when(emissionPercentileService.nationalPercentile(140.2)).thenReturn(55.0);
+
+        StepVerifier.create(reactiveCarbonCalculationService.getCarbonCalculationResult("12345"))
+                .assertNext(result -> {
+                    assertEquals(140.2, result.getTotal(), 0.001);
+                    assertEquals(40.0, result.getPercentile());
+                    assertEquals(55.0, result.getNationalPercentile());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getCarbonCalculationResult_NotFound_ShouldFailWithCarbonCalculationNotFoundException() {
+        when(reactiveCarbonCalculationRepository.findEmissionsById("nonexistent"))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(reactiveCarbonCalculationService.getCarbonCalculationResult("nonexistent"))
+                .expectError(CarbonCalculationNotFoundException.class)
+                .verify();
+    }
+
+    private StartCalcRequestDTO createStartCalcRequest() {
+        StartCalcRequestDTO request = new StartCalcRequestDTO();
+        request.setName("João Silva");
+        request.setEmail("joao@email.com");
+        request.setUf("SP");
+        request.setPhoneNumber("11999999999");
+        return request;
+    }
+
+    private EmissionFactorSnapshot emissionFactors() {
+        EnergyEmissionFactor energyFactor = new EnergyEmissionFactor();
+        energyFactor.setUf("SP");
+        energyFactor.setFactor(0.47);
+
+        SolidWasteEmissionFactor solidWasteFactor = new SolidWasteEmissionFactor();
+        solidWasteFactor.setUf("SP");
+        solidWasteFactor.setRecyclableFactor(0.42);
+        solidWasteFactor.setNonRecyclableFactor(0.94);
+
+        TransportationEmissionFactor carFactor = new TransportationEmissionFactor();
+        carFactor.setType(TransportationType.CAR);
+        carFactor.setFactor(0.19);
+
+        return EmissionFactorSnapshot.of(List.of(energyFactor), List.of(solidWasteFactor), List.of(carFactor));
+    }
+
+    private TransportationDTO createTransportationDTO(TransportationType type, int distance) {
+        TransportationDTO dto = new TransportationDTO();
+        dto.setType(type);
+        dto.setMonthlyDistance(distance);
+        return dto;
+    }
+}
@@ -0,0 +1,145 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.dto.*;
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+import br.com.actionlabs.carboncalc.exceptions.*;
+import br.com.actionlabs.carboncalc.model.EnergyEmissionFactor;
+import br.com.actionlabs.carboncalc.model.SolidWasteEmissionFactor;
+import br.com.actionlabs.carboncalc.model.TransportationEmissionFactor;
+import br.com.actionlabs.carboncalc.utils.CalculationRequestValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SimulationServiceTest {
+
+    @Mock
+    private EmissionFactorCatalog emissionFactorCatalog;
+
+    private SimulationService simulationService;
+
+    @BeforeEach
+    void setUp() {
+        simulationService = new SimulationService(emissionFactorCatalog, new CalculationRequestValidator(), 5000, 100);
+    }
+
+    @Test
+    void simulate_ShouldMatchTheStoredCalculationResults() {
+        when(emissionFactorCatalog.current()).thenReturn(emissionFactors());
+
+        SimulationRequestDTO request = new SimulationRequestDTO();
+        request.setScenarios(List.of(
+                scenario(300, 150, 50, 0.3),
+                // what if I halve car distance and recycle 60%
+                scenario(300, 75, 50, 0.6)));
+
+        SimulationResponseDTO response = simulationService.simulate(request);
+
+        assertEquals(2, response.getResults().size());
+        CarbonCalculationResultDTO current = response.getResults().get(0);
+        assertEquals(141.0, current.getEnergy());
+        assertEquals(28.5, current.getTransportation());
+        assertEquals(39.2, current.getSolidWaste());
+        assertEquals(208.7, current.getTotal());
+
+        CarbonCalculationResultDTO whatIf = response.getResults().get(1);
+        assertEquals(14.25, whatIf.getTransportation());
+        assertEquals(31.4, whatIf.getSolidWaste());
+        assertEquals(186.65, whatIf.getTotal());
+    }
+
+    @Test
+    void simulate_LargeBatch_ShouldComputeEveryScenario() {
+        when(emissionFactorCatalog.current()).thenReturn(emissionFactors());
+
+        SimulationRequestDTO request = new SimulationRequestDTO();
+        request.setScenarios(new ArrayList<>(Collections.nCopies(1000, scenario(300, 150, 50, 0.3))));
+
+        SimulationResponseDTO response = simulationService.simulate(request);
+
+        assertEquals(1000, response.getResults().size());
+        assertTrue(response.getResults().stream().allMatch(result -> result.getTotal() == 208.7));
+    }
+
+    @Test
+    void simulate_TooManyScenarios_ShouldThrowSimulationLimitExceededException() {
+        SimulationRequestDTO request = new SimulationRequestDTO();
+        request.setScenarios(new ArrayList<>(Collections.nCopies(5001, scenario(300, 150, 50, 0.3))));
+
+        assertThrows(SimulationLimitExceededException.class, () -> simulationService.simulate(request));
+        verifyNoInteractions(emissionFactorCatalog);
+    }
+
+    @Test
+    void simulate_InvalidScenario_ShouldReportItsIndex() {
+        SimulationScenarioDTO invalid = scenario(300, 150, 50, 1.5);
+        invalid.setUf("sp");
+
+        SimulationRequestDTO request = new SimulationRequestDTO();
+        request.setScenarios(List.of(scenario(300, 150, 50, 0.3), invalid));
+
+        RequestValidationException exception = assertThrows(RequestValidationException.class,
+                () -> simulationService.simulate(request));
+
+        assertEquals(List.of("scenarios[1].uf", "scenarios[1].recyclePercentage"),
+                exception.getResult().getErrors().stream().map(FieldErrorDTO::field).toList());
+    }
+
+    @Test
+    void simulate_UnknownTransportationFactor_ShouldThrowTransportationEmissionFactorNotFoundException() {
+        when(emissionFactorCatalog.current()).thenReturn(emissionFactors());
+
+        SimulationScenarioDTO scenario = scenario(300, 150, 50, 0.3);
+        TransportationDTO motorcycle = new TransportationDTO();
+        motorcycle.setType(TransportationType.MOTORCYCLE);
+        motorcycle.setMonthlyDistance(10);
+        scenario.setTransportation(List.of(motorcycle));
+
+        SimulationRequestDTO request = new SimulationRequestDTO();
+        request.setScenarios(List.of(scenario));
+
+        assertThrows(TransportationEmissionFactorNotFoundException.class, () -> simulationService.simulate(request));
+    }
+
+    private static SimulationScenarioDTO scenario(double energyConsumption, int carDistance, double solidWasteTotal,
+                                                  double recyclePercentage) {
+        TransportationDTO car = new TransportationDTO();
+        car.setType(TransportationType.CAR);
+        car.setMonthlyDistance(carDistance);
+
+        SimulationScenarioDTO scenario = new SimulationScenarioDTO();
+        scenario.setUf("SP");
+        scenario.setEnergyConsumption(energyConsumption);
+        scenario.setTransportation(List.of(car));
+        scenario.setSolidWasteTotal(solidWasteTotal);
+        scenario.setRecyclePercentage(recyclePercentage);
+        return scenario;
+    }
+
+    private static EmissionFactorSnapshot emissionFactors() {
+        EnergyEmissionFactor energyFactor = new EnergyEmissionFactor();
+        energyFactor.setUf("SP");
+        energyFactor.setFactor(0.47);
+
+        SolidWasteEmissionFactor solidWasteFactor = new SolidWasteEmissionFactor();
+        solidWasteFactor.setUf("SP");
+        solidWasteFactor.setRecyclableFactor(0.42);
+        solidWasteFactor.setNonRecyclableFactor(0.94);
+
+        TransportationEmissionFactor carFactor = new TransportationEmissionFactor();
+        carFactor.setType(TransportationType.CAR);
+        carFactor.setFactor(0.19);
+
+        return EmissionFactorSnapshot.of(List.of(energyFactor), List.of(solidWasteFactor), List.of(carFactor));
+    }
+}
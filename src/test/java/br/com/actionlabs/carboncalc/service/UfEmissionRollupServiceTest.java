@@ -0,0 +1,141 @@
+package br.com.actionlabs.carboncalc.service;
+
+import br.com.actionlabs.carboncalc.dto.UfEmissionRollupDTO;
+import br.com.actionlabs.carboncalc.model.CarbonCalculation;
+import br.com.actionlabs.carboncalc.model.EmissionDelta;
+import br.com.actionlabs.carboncalc.model.UfEmissionRollup;
+import br.com.actionlabs.carboncalc.repository.UfEmissionRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UfEmissionRollupServiceTest {
+
+    @Mock
+    private UfEmissionRollupRepository ufEmissionRollupRepository;
+
+    @Mock
+    private CalculationEventLog calculationEventLog;
+
+    @Mock
+    private JobLockService jobLockService;
+
+    private UfEmissionRollupService ufEmissionRollupService;
+
+    @BeforeEach
+    void setUp() {
+        ufEmissionRollupService = new UfEmissionRollupService(ufEmissionRollupRepository, calculationEventLog,
+                jobLockService, 1000);
+    }
+
+    @Test
+    void recordChanges_SameUf_ShouldMergeAndSkipZeroDeltas() {
+        ufEmissionRollupService.recordChanges(List.of(
+                new EmissionDelta("SP", 1, 10.0, 0.0, 0.0, 10.0),
+                new EmissionDelta("SP", 0, 5.0, 0.0, 0.0, 5.0),
+                new EmissionDelta("RJ", 0, 0.0, 0.0, 0.0, 0.0)));
+
+        verify(ufEmissionRollupRepository).applyDeltas(argThat(deltas -> deltas.size() == 1
+                && deltas.contains(new EmissionDelta("SP", 1, 15.0, 0.0, 0.0, 15.0))));
+    }
+
+    @Test
+    void getRollups_ShouldReturnTotalsAndAveragesSortedByUf() {
+        when(ufEmissionRollupRepository.findAll())
+                .thenReturn(List.of(rollup("SP", 4, 100.0), rollup("RJ", 2, 50.0), rollup("MG", 0, 0.0)));
+
+        List<UfEmissionRollupDTO> rollups = ufEmissionRollupService.getRollups();
+
+        assertEquals(List.of("RJ", "SP"), rollups.stream().map(UfEmissionRollupDTO::getUf).toList());
+        assertEquals(100.0, rollups.get(1).getTotal().getTotal());
+        assertEquals(25.0, rollups.get(1).getAverage().getTotal());
+    }
+
+    @Test
+    void reconcile_ShouldAddTheDriftOfDriftedAndStaleRollups() {
+        when(jobLockService.tryAcquire("uf-rollup-reconcile")).thenReturn(true);
+        when(ufEmissionRollupRepository.aggregateFromCalculations()).thenReturn(List.of(rollup("SP", 4, 100.0)));
+        when(ufEmissionRollupRepository.findAll())
+                .thenReturn(List.of(rollup("SP", 4, 99.0), rollup("RJ", 1, 10.0)));
+
+        ufEmissionRollupService.reconcile();
+
+        verify(ufEmissionRollupRepository).applyDeltas(argThat(deltas -> deltas.size() == 2
+                && deltas.contains(new EmissionDelta("SP", 0, 1.0, 0.0, 0.0, 1.0))
+                && deltas.contains(new EmissionDelta("RJ", -1, -10.0, 0.0, 0.0, -10.0))));
+        verify(ufEmissionRollupRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void reconcile_RollupUpdatedDuringTheRebuild_ShouldLeaveItForTheNextRun() {
+        when(jobLockService.tryAcquire("uf-rollup-reconcile")).thenReturn(true);
+        when(ufEmissionRollupRepository.aggregateFromCalculations()).thenReturn(List.of(rollup("SP", 4, 100.0)));
+        when(ufEmissionRollupRepository.findAll())
+                .thenReturn(List.of(rollup("SP", 4, 99.0)))
+                .thenReturn(List.of(rollup("SP", 5, 120.0)));
+
+        ufEmissionRollupService.reconcile();
+
+        verify(ufEmissionRollupRepository, never()).applyDeltas(any());
+    }
+
+    @Test
+    void reconcile_LeaseHeldByAnotherInstance_ShouldSkip() {
+        when(jobLockService.tryAcquire("uf-rollup-reconcile")).thenReturn(false);
+
+        ufEmissionRollupService.reconcile();
+
+        verifyNoInteractions(ufEmissionRollupRepository, calculationEventLog);
+    }
+
+    @Test
+    void reconcile_EventLogEnabled_ShouldSumTheCurrentCalculations() {
+        when(jobLockService.tryAcquire("uf-rollup-reconcile")).thenReturn(true);
+        when(calculationEventLog.isEnabled()).thenReturn(true);
+        when(calculationEventLog.streamCurrent(null, null, null, 1000))
+                .thenReturn(Stream.of(calculation("SP", 60.0), calculation("SP", 40.0), calculation("RJ", null)));
+        when(ufEmissionRollupRepository.findAll()).thenReturn(List.of());
+
+        ufEmissionRollupService.reconcile();
+
+        verify(ufEmissionRollupRepository, never()).aggregateFromCalculations();
+        verify(ufEmissionRollupRepository).applyDeltas(List.of(new EmissionDelta("SP", 2, 100.0, 0.0, 0.0, 100.0)));
+    }
+
+    @Test
+    void initialize_ExistingRollups_ShouldNotRebuild() {
+        when(ufEmissionRollupRepository.count()).thenReturn(27L);
+
+        ufEmissionRollupService.initialize();
+
+        verify(ufEmissionRollupRepository, never()).aggregateFromCalculations();
+        verify(ufEmissionRollupRepository, never()).applyDeltas(any());
+    }
+
+    private CarbonCalculation calculation(String uf, Double total) {
+        CarbonCalculation calculation = new CarbonCalculation();
+        calculation.setUf(uf);
+        calculation.setEnergyEmission(total);
+        calculation.setTotalEmission(total);
+        return calculation;
+    }
+
+    private UfEmissionRollup rollup(String uf, long count, double total) {
+        UfEmissionRollup rollup = new UfEmissionRollup();
+        rollup.setUf(uf);
+        rollup.setCount(count);
+        rollup.setEnergyEmission(total);
+        rollup.setTotalEmission(total);
+        return rollup;
+    }
+}
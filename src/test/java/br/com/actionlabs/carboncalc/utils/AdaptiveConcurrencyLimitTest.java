@@ -0,0 +1,73 @@
+package br.com.actionlabs.carboncalc.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long LATENCY_TARGET = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void tryAcquire_AtLimit_ShouldRejectUntilReleased() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, LATENCY_TARGET, 0.5);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(2, limit.getInFlight());
+
+        limit.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    void release_FastRequestWhileLimitIsInUse_ShouldGrowLimitUpToMax() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 3, LATENCY_TARGET, 0.5);
+
+        for (int i = 0; i < 3; i++) {
+            limit.tryAcquire();
+            limit.tryAcquire();
+            limit.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+            limit.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+        }
+
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    void release_FastRequestWhileMostlyIdle_ShouldKeepLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, LATENCY_TARGET, 0.5);
+
+        limit.tryAcquire();
+        limit.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    void release_SlowRequests_ShouldBackOffOncePerLatencyTarget() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, LATENCY_TARGET, 0.5);
+
+        limit.tryAcquire();
+        limit.tryAcquire();
+        limit.release(TimeUnit.MILLISECONDS.toNanos(500), false);
+        limit.release(TimeUnit.MILLISECONDS.toNanos(500), false);
+
+        assertEquals(5, limit.getLimit());
+    }
+
+    @Test
+    void release_FailedRequest_ShouldNotGoBelowMin() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(3, 2, 100, LATENCY_TARGET, 0.1);
+
+        limit.tryAcquire();
+        limit.release(TimeUnit.MILLISECONDS.toNanos(10), true);
+
+        assertEquals(2, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+}
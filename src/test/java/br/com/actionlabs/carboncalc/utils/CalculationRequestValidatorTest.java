@@ -0,0 +1,108 @@
+package br.com.actionlabs.carboncalc.utils;
+
+import br.com.actionlabs.carboncalc.dto.*;
+import br.com.actionlabs.carboncalc.enums.TransportationType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalculationRequestValidatorTest {
+
+    private static final Pattern EMAIL_REGEX = Pattern.compile(
+            "^[a-zA-Z0-9_+&*-]+(?:\\.[a-zA-Z0-9_+&*-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$");
+
+    private final CalculationRequestValidator validator = new CalculationRequestValidator();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "joao@email.com", "joao.silva@email.com.br", "a+b&c*d-e_f@sub-domain.example.org",
+            "JOAO@EMAIL.COM", "a@b.co", "a@b.abcdefg", "a@b.abcdefgh", "a@b.c", "a@b.c0m",
+            "", "@email.com", "joao@", "joao@email", "joao@.com", "joao@email..com", "joao@email.com.",
+            ".joao@email.com", "joao.@email.com", "jo..ao@email.com", "jo ao@email.com", "joao@@email.com",
+            "joao@em@ail.com", "joão@email.com", "joao@email.côm", "joao@em_ail.com", "joao@-.com"
+    })
+    void isEmail_ShouldMatchTheOriginalRegex(String email) {
+        assertEquals(EMAIL_REGEX.matcher(email).matches(), CalculationRequestValidator.isEmail(email), email);
+    }
+
+    @Test
+    void validate_ValidStartCalcRequest_ShouldReturnSharedValidResult() {
+        StartCalcRequestDTO request = new StartCalcRequestDTO();
+        request.setName("João Silva");
+        request.setEmail("joao@email.com");
+        request.setUf("SP");
+        request.setPhoneNumber("11999999999");
+
+        assertSame(ValidationResult.VALID, validator.validate(request));
+    }
+
+    @Test
+    void validate_InvalidStartCalcRequest_ShouldCollectEveryViolation() {
+        StartCalcRequestDTO request = new StartCalcRequestDTO();
+        request.setName(null);
+        request.setEmail(null);
+        request.setUf("S");
+        request.setPhoneNumber("1199999999a");
+
+        ValidationResult result = validator.validate(request);
+
+        assertFalse(result.isValid());
+        assertEquals(List.of(
+                new FieldErrorDTO("name", "This name is null"),
+                new FieldErrorDTO("email", "Invalid email address"),
+                new FieldErrorDTO("phoneNumber",
+                        "Invalid phone number. The phone number contains non-numeric characters."),
+                new FieldErrorDTO("uf", "The state code must be exactly 2 characters long")
+        ), result.getErrors());
+        assertEquals("This name is null; Invalid email address; "
+                + "Invalid phone number. The phone number contains non-numeric characters.; "
+                + "The state code must be exactly 2 characters long", result.getMessage());
+    }
+
+    @Test
+    void validate_InvalidUpdateCalcInfoRequest_ShouldCollectEveryViolation() {
+        TransportationDTO car = new TransportationDTO();
+        car.setType(TransportationType.CAR);
+
+        UpdateCalcInfoRequestDTO request = new UpdateCalcInfoRequestDTO();
+        request.setRecyclePercentage(Double.NaN);
+        request.setTransportation(Arrays.asList(car, new TransportationDTO(), null));
+
+        ValidationResult result = validator.validate(request);
+
+        assertEquals(List.of("id", "recyclePercentage", "transportation[1].type", "transportation[2].type"),
+                result.getErrors().stream().map(FieldErrorDTO::field).toList());
+    }
+
+    @Test
+    void validate_InvalidSimulationRequest_ShouldPrefixViolationsWithTheScenarioIndex() {
+        SimulationScenarioDTO valid = new SimulationScenarioDTO();
+        valid.setUf("SP");
+
+        SimulationScenarioDTO invalid = new SimulationScenarioDTO();
+        invalid.setRecyclePercentage(-0.1);
+        invalid.setTransportation(Arrays.asList(new TransportationDTO()));
+
+        SimulationRequestDTO request = new SimulationRequestDTO();
+        request.setScenarios(Arrays.asList(valid, invalid, null));
+
+        ValidationResult result = validator.validate(request);
+
+        assertEquals(List.of("scenarios[1].uf", "scenarios[1].recyclePercentage",
+                        "scenarios[1].transportation[0].type", "scenarios[2]"),
+                result.getErrors().stream().map(FieldErrorDTO::field).toList());
+        assertEquals("Scenarios are null", validator.validate(new SimulationRequestDTO()).getMessage());
+    }
+
+    @Test
+    void validateUf_LowerCase_ShouldReportUpperCaseViolation() {
+        assertEquals("UF must be in uppercase", validator.validateUf("Sp").getMessage());
+        assertTrue(validator.validateUf("SP").isValid());
+    }
+}
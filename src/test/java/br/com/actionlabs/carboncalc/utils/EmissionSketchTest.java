@@ -0,0 +1,87 @@
+package br.com.actionlabs.carboncalc.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmissionSketchTest {
+
+    @Test
+    void percentileRank_ShouldBeCloseToTheExactRank() {
+        EmissionSketch sketch = new EmissionSketch();
+        Random random = new Random(42);
+        double[] values = new double[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian() + 5);
+            sketch.add(values[i]);
+        }
+
+        for (double value : new double[]{50, 150, 400, 1000}) {
+            long below = 0;
+            for (double candidate : values) {
+                if (candidate < value) {
+                    below++;
+                }
+            }
+            assertEquals(100.0 * below / values.length, EmissionSketch.percentileRank(value, sketch), 1.0);
+        }
+    }
+
+    @Test
+    void percentileRank_ValuesSplitAcrossSketches_ShouldEqualTheMergedSketch() {
+        EmissionSketch first = new EmissionSketch();
+        EmissionSketch second = new EmissionSketch();
+        first.add(10);
+        first.add(300);
+        second.add(20);
+        second.add(0);
+
+        EmissionSketch merged = new EmissionSketch();
+        merged.merge(first);
+        merged.merge(second);
+
+        assertEquals(4, merged.count());
+        assertEquals(EmissionSketch.percentileRank(15, merged), EmissionSketch.percentileRank(15, first, second));
+        assertEquals(50.0, EmissionSketch.percentileRank(15, merged));
+    }
+
+    @Test
+    void remove_ShouldUndoAdd() {
+        EmissionSketch sketch = new EmissionSketch();
+        sketch.add(100);
+        sketch.add(200);
+        sketch.remove(100);
+
+        assertEquals(Map.of(EmissionSketch.bucketOf(200), 1L), sketch.nonEmptyBuckets());
+        assertEquals(50.0, EmissionSketch.percentileRank(200, sketch));
+    }
+
+    @Test
+    void subtract_ShouldTakeBackTheCopiedCounts() {
+        EmissionSketch sketch = new EmissionSketch();
+        sketch.add(100);
+        Map<Integer, Long> copied = sketch.nonEmptyBuckets();
+        sketch.add(200);
+
+        sketch.subtract(copied);
+
+        assertEquals(1, sketch.count());
+        assertEquals(Map.of(EmissionSketch.bucketOf(200), 1L), sketch.nonEmptyBuckets());
+    }
+
+    @Test
+    void bucketOf_OutOfRangeValues_ShouldUseTheEdgeBuckets() {
+        assertEquals(0, EmissionSketch.bucketOf(0));
+        assertEquals(0, EmissionSketch.bucketOf(-5));
+        assertEquals(EmissionSketch.BUCKETS - 1, EmissionSketch.bucketOf(1e12));
+        assertTrue(EmissionSketch.bucketOf(101) > EmissionSketch.bucketOf(99));
+    }
+
+    @Test
+    void percentileRank_NothingCounted_ShouldBeNull() {
+        assertNull(EmissionSketch.percentileRank(100, new EmissionSketch(), null));
+    }
+}
@@ -0,0 +1,44 @@
+package br.com.actionlabs.carboncalc.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GcraRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryAcquire_WithinBurst_ShouldAdmitThenAskToWaitOneInterval() {
+        GcraRateLimiter rateLimiter = new GcraRateLimiter(10, 5, 100);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("10.0.0.1", now), "request " + i);
+        }
+
+        assertEquals(SECOND / 10, rateLimiter.tryAcquire("10.0.0.1", now));
+    }
+
+    @Test
+    void tryAcquire_AfterEmissionInterval_ShouldAdmitAgain() {
+        GcraRateLimiter rateLimiter = new GcraRateLimiter(10, 1, 100);
+        long now = System.nanoTime();
+
+        assertEquals(0, rateLimiter.tryAcquire("10.0.0.1", now));
+        assertTrue(rateLimiter.tryAcquire("10.0.0.1", now + SECOND / 20) > 0);
+        assertEquals(0, rateLimiter.tryAcquire("10.0.0.1", now + SECOND / 10));
+    }
+
+    @Test
+    void tryAcquire_DifferentClients_ShouldHaveSeparateBuckets() {
+        GcraRateLimiter rateLimiter = new GcraRateLimiter(1, 1, 100);
+        long now = System.nanoTime();
+
+        assertEquals(0, rateLimiter.tryAcquire("10.0.0.1", now));
+        assertTrue(rateLimiter.tryAcquire("10.0.0.1", now) > 0);
+        assertEquals(0, rateLimiter.tryAcquire("10.0.0.2", now));
+    }
+}